@@ -15,12 +15,16 @@
  */
 package com.proofpoint.concurrent;
 
+import com.proofpoint.tracetoken.Deadline;
+import com.proofpoint.tracetoken.DeadlineScope;
 import com.proofpoint.tracetoken.TraceToken;
 import com.proofpoint.tracetoken.TraceTokenScope;
 
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 
+import static com.proofpoint.tracetoken.DeadlineManager.getCurrentDeadline;
+import static com.proofpoint.tracetoken.DeadlineManager.registerDeadline;
 import static com.proofpoint.tracetoken.TraceTokenManager.getCurrentTraceToken;
 import static com.proofpoint.tracetoken.TraceTokenManager.registerTraceToken;
 
@@ -33,9 +37,9 @@ public class TraceTokenCopyingExecutor
     }
 
     /**
-     * Wraps an {@link ExecutorService} so that the trace token is copied from
-     * the submitter of a task to the thread performing the task while the
-     * task is run.
+     * Wraps an {@link ExecutorService} so that the trace token and deadline
+     * are copied from the submitter of a task to the thread performing the
+     * task while the task is run.
      *
      * @param executor The underlying {@link ExecutorService} to wrap.
      * @return The {@link ExecutorService} which copies trace tokens.
@@ -48,8 +52,10 @@ public class TraceTokenCopyingExecutor
     protected <T> Callable<T> wrapTask(Callable<T> callable)
     {
         TraceToken token = getCurrentTraceToken();
+        Deadline deadline = getCurrentDeadline();
         return () -> {
-            try (TraceTokenScope ignored = registerTraceToken(token)) {
+            try (TraceTokenScope ignored = registerTraceToken(token);
+                    DeadlineScope ignored2 = registerDeadline(deadline)) {
                 return callable.call();
             }
         };
@@ -59,8 +65,10 @@ public class TraceTokenCopyingExecutor
     protected Runnable wrapTask(Runnable command)
     {
         TraceToken token = getCurrentTraceToken();
+        Deadline deadline = getCurrentDeadline();
         return () -> {
-            try (TraceTokenScope ignored = registerTraceToken(token)) {
+            try (TraceTokenScope ignored = registerTraceToken(token);
+                    DeadlineScope ignored2 = registerDeadline(deadline)) {
                 command.run();
             }
         };
@@ -15,6 +15,8 @@
  */
 package com.proofpoint.concurrent;
 
+import com.proofpoint.tracetoken.Deadline;
+import com.proofpoint.tracetoken.DeadlineScope;
 import com.proofpoint.tracetoken.TraceToken;
 import org.testng.annotations.Test;
 
@@ -25,6 +27,9 @@ import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static com.proofpoint.concurrent.TraceTokenCopyingExecutor.traceTokenCopyingExecutor;
+import static com.proofpoint.tracetoken.Deadline.deadlineAfter;
+import static com.proofpoint.tracetoken.DeadlineManager.getCurrentDeadline;
+import static com.proofpoint.tracetoken.DeadlineManager.registerDeadline;
 import static com.proofpoint.tracetoken.TraceTokenManager.createAndRegisterNewRequestToken;
 import static com.proofpoint.tracetoken.TraceTokenManager.getCurrentTraceToken;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
@@ -82,4 +87,26 @@ public class TestTraceTokenCopyingExecutor
             innerExecutor.shutdown();
         }
     }
+
+    @Test
+    public void testDeadlineCopied()
+            throws InterruptedException
+    {
+        AtomicReference<Deadline> actualDeadline = new AtomicReference<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        ExecutorService innerExecutor = newSingleThreadExecutor();
+        Deadline deadline = deadlineAfter(10, SECONDS);
+
+        try (DeadlineScope ignored = registerDeadline(deadline)) {
+            traceTokenCopyingExecutor(innerExecutor).execute(() -> {
+                actualDeadline.set(getCurrentDeadline());
+                latch.countDown();
+            });
+            assertTrue(latch.await(10, SECONDS));
+            assertEquals(actualDeadline.get(), deadline);
+        }
+        finally {
+            innerExecutor.shutdown();
+        }
+    }
 }
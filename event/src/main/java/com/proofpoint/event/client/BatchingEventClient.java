@@ -0,0 +1,472 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.event.client;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.proofpoint.concurrent.AsyncSemaphore;
+import com.proofpoint.event.client.BatchingEventClientConfig.OverflowPolicy;
+import com.proofpoint.http.client.RequestStats;
+import com.proofpoint.http.client.UnexpectedResponseException;
+import com.proofpoint.log.Logger;
+import com.proofpoint.reporting.Gauge;
+import com.proofpoint.stats.CounterStat;
+import com.proofpoint.stats.DistributionStat;
+import com.proofpoint.tracetoken.TraceToken;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import org.weakref.jmx.Flatten;
+import org.weakref.jmx.Nested;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.util.concurrent.Futures.addCallback;
+import static com.google.common.util.concurrent.Futures.allAsList;
+import static com.google.common.util.concurrent.Futures.immediateFailedFuture;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.Futures.transform;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static com.proofpoint.concurrent.Threads.daemonThreadsNamed;
+import static com.proofpoint.tracetoken.TraceTokenManager.getCurrentTraceToken;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * An {@link EventClient} that queues events and posts them in batches.
+ * <p>
+ * Events are serialized when posted and a batch is posted when the queued events
+ * reach the maximum batch count or size, or at least every maximum delay. The
+ * returned future completes when the batch containing the events has been
+ * accepted or has finally failed. On close, the queued events are posted and
+ * the close waits up to the close timeout for them to complete.
+ */
+public class BatchingEventClient
+        implements EventClient
+{
+    private static final Logger log = Logger.get(BatchingEventClient.class);
+
+    private final HttpEventClient delegate;
+    private final JsonEventWriter eventWriter;
+    private final int maxBatchEvents;
+    private final long maxBatchBytes;
+    private final long maxDelayNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final int maxRetries;
+    private final long minBackoffNanos;
+    private final long maxBackoffNanos;
+    private final int queueSize;
+    private final long closeTimeoutNanos;
+
+    private final Queue<QueuedEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedEvents = new AtomicInteger();
+    private final AtomicLong queuedBytes = new AtomicLong();
+    // One permit for each event that has been posted but not yet completed
+    private final Semaphore capacity;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService executor = newSingleThreadScheduledExecutor(daemonThreadsNamed("event-client-batch"));
+    private final AsyncSemaphore<Batch> inFlight;
+    private volatile boolean closed;
+
+    private final CounterStat eventsDropped = new CounterStat();
+    private final CounterStat eventsPosted = new CounterStat();
+    private final CounterStat eventsFailed = new CounterStat();
+    private final CounterStat batchRetries = new CounterStat();
+    private final DistributionStat batchEvents = new DistributionStat();
+    private final DistributionStat batchBytes = new DistributionStat();
+
+    @Inject
+    public BatchingEventClient(HttpEventClient delegate, JsonEventWriter eventWriter, BatchingEventClientConfig config)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.eventWriter = requireNonNull(eventWriter, "eventWriter is null");
+        requireNonNull(config, "config is null");
+        maxBatchEvents = config.getMaxBatchEvents();
+        maxBatchBytes = config.getMaxBatchSize().toBytes();
+        maxDelayNanos = config.getMaxDelay().roundTo(NANOSECONDS);
+        overflowPolicy = config.getOverflowPolicy();
+        maxRetries = config.getMaxRetries();
+        minBackoffNanos = config.getMinBackoff().roundTo(NANOSECONDS);
+        maxBackoffNanos = config.getMaxBackoff().roundTo(NANOSECONDS);
+        queueSize = config.getQueueSize();
+        closeTimeoutNanos = config.getCloseTimeout().roundTo(NANOSECONDS);
+        capacity = new Semaphore(queueSize);
+        inFlight = new AsyncSemaphore<>(config.getMaxInFlight(), directExecutor(), this::postBatch);
+    }
+
+    @PostConstruct
+    public void start()
+    {
+        executor.scheduleWithFixedDelay(() -> flush(true), maxDelayNanos, maxDelayNanos, NANOSECONDS);
+    }
+
+    @PreDestroy
+    public void close()
+    {
+        closed = true;
+        try {
+            executor.execute(() -> flush(true));
+        }
+        catch (RejectedExecutionException ignored) {
+            // already closed
+            return;
+        }
+
+        // Every permit is released once all posted events have completed.
+        // The executor keeps running until then so failed batches can be retried.
+        try {
+            if (capacity.tryAcquire(queueSize, closeTimeoutNanos, NANOSECONDS)) {
+                capacity.release(queueSize);
+            }
+            else {
+                log.warn("Timed out waiting for %d events to be posted", queueSize - capacity.availablePermits());
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Flatten
+    public RequestStats getStats()
+    {
+        return delegate.getStats();
+    }
+
+    @Gauge
+    public int getQueuedEvents()
+    {
+        return queuedEvents.get();
+    }
+
+    @Gauge
+    public long getQueuedBytes()
+    {
+        return queuedBytes.get();
+    }
+
+    @Nested
+    public CounterStat getEventsDropped()
+    {
+        return eventsDropped;
+    }
+
+    @Nested
+    public CounterStat getEventsPosted()
+    {
+        return eventsPosted;
+    }
+
+    @Nested
+    public CounterStat getEventsFailed()
+    {
+        return eventsFailed;
+    }
+
+    @Nested
+    public CounterStat getBatchRetries()
+    {
+        return batchRetries;
+    }
+
+    @Nested
+    public DistributionStat getBatchEvents()
+    {
+        return batchEvents;
+    }
+
+    @Nested
+    public DistributionStat getBatchBytes()
+    {
+        return batchBytes;
+    }
+
+    @SafeVarargs
+    @Override
+    public final <T> ListenableFuture<Void> post(T... event)
+            throws IllegalArgumentException
+    {
+        requireNonNull(event, "event is null");
+        return post(Arrays.asList(event));
+    }
+
+    @Override
+    public <T> ListenableFuture<Void> post(Iterable<T> events)
+            throws IllegalArgumentException
+    {
+        requireNonNull(events, "events is null");
+        if (closed) {
+            return immediateFailedFuture(new IllegalStateException("Event client is closed"));
+        }
+        TraceToken token = getCurrentTraceToken();
+
+        List<ListenableFuture<Void>> futures = new ArrayList<>();
+        for (T event : events) {
+            requireNonNull(event, "event is null");
+            byte[] json;
+            try {
+                json = eventWriter.serializeEvent(event, token);
+            }
+            catch (IOException e) {
+                futures.add(immediateFailedFuture(e));
+                continue;
+            }
+            futures.add(enqueue(new QueuedEvent(json)));
+        }
+
+        if (futures.isEmpty()) {
+            return immediateFuture(null);
+        }
+        if (futures.size() == 1) {
+            return futures.get(0);
+        }
+        return transform(allAsList(futures), ignored -> null, directExecutor());
+    }
+
+    private ListenableFuture<Void> enqueue(QueuedEvent event)
+    {
+        if (!capacity.tryAcquire()) {
+            if (overflowPolicy == OverflowPolicy.BLOCK) {
+                try {
+                    capacity.acquire();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return immediateFailedFuture(e);
+                }
+            }
+            else if (!dropOldest()) {
+                // Every permitted event is being posted
+                eventsDropped.add(1);
+                return immediateFailedFuture(new RejectedExecutionException("Event queue is full"));
+            }
+        }
+
+        queue.add(event);
+        int events = queuedEvents.incrementAndGet();
+        long bytes = queuedBytes.addAndGet(event.size());
+        if (events >= maxBatchEvents || bytes >= maxBatchBytes) {
+            scheduleFlush();
+        }
+        return event.future;
+    }
+
+    private boolean dropOldest()
+    {
+        QueuedEvent oldest = poll();
+        if (oldest == null) {
+            return false;
+        }
+        // The dropped event's permit is taken over by the new event
+        eventsDropped.add(1);
+        oldest.future.setException(new RejectedExecutionException("Event dropped because the event queue is full"));
+        return true;
+    }
+
+    private QueuedEvent poll()
+    {
+        QueuedEvent event = queue.poll();
+        if (event != null) {
+            queuedEvents.decrementAndGet();
+            queuedBytes.addAndGet(-event.size());
+        }
+        return event;
+    }
+
+    private void scheduleFlush()
+    {
+        if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    flushScheduled.set(false);
+                    flush(false);
+                });
+            }
+            catch (RejectedExecutionException ignored) {
+                // closed; the final flush posts the queued events
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    @VisibleForTesting
+    void flush()
+            throws ExecutionException, InterruptedException
+    {
+        executor.submit(() -> flush(true)).get();
+    }
+
+    // Only called on the executor, so flushes never run concurrently
+    private void flush(boolean partial)
+    {
+        QueuedEvent carry = null;
+        while (carry != null || (partial ? queuedEvents.get() > 0 : queuedEvents.get() >= maxBatchEvents || queuedBytes.get() >= maxBatchBytes)) {
+            List<QueuedEvent> events = new ArrayList<>();
+            long bytes = 0;
+            if (carry != null) {
+                events.add(carry);
+                bytes = carry.size();
+                carry = null;
+            }
+            while (events.size() < maxBatchEvents) {
+                QueuedEvent event = poll();
+                if (event == null) {
+                    break;
+                }
+                if (!events.isEmpty() && bytes + event.size() > maxBatchBytes) {
+                    carry = event;
+                    break;
+                }
+                events.add(event);
+                bytes += event.size();
+            }
+            if (events.isEmpty()) {
+                break;
+            }
+            batchEvents.add(events.size());
+            batchBytes.add(bytes);
+            inFlight.submit(new Batch(events));
+        }
+    }
+
+    private ListenableFuture<?> postBatch(Batch batch)
+    {
+        SettableFuture<Void> result = SettableFuture.create();
+        postBatch(batch, 0, 0, result);
+        addCallback(result, new FutureCallback<>()
+        {
+            @Override
+            public void onSuccess(Void value)
+            {
+                eventsPosted.add(batch.events.size());
+                for (QueuedEvent event : batch.events) {
+                    event.future.set(null);
+                }
+                capacity.release(batch.events.size());
+            }
+
+            @Override
+            public void onFailure(Throwable t)
+            {
+                log.warn(t, "Failed to post %d events", batch.events.size());
+                eventsFailed.add(batch.events.size());
+                for (QueuedEvent event : batch.events) {
+                    event.future.setException(t);
+                }
+                capacity.release(batch.events.size());
+            }
+        }, directExecutor());
+        return result;
+    }
+
+    private void postBatch(Batch batch, int attempt, long previousBackoffNanos, SettableFuture<Void> result)
+    {
+        ListenableFuture<Void> future;
+        try {
+            future = delegate.postBody(batch.bodySource);
+        }
+        catch (RuntimeException e) {
+            future = immediateFailedFuture(e);
+        }
+        addCallback(future, new FutureCallback<>()
+        {
+            @Override
+            public void onSuccess(Void value)
+            {
+                result.set(null);
+            }
+
+            @Override
+            public void onFailure(Throwable t)
+            {
+                if (attempt >= maxRetries || !isRetryable(t)) {
+                    result.setException(t);
+                    return;
+                }
+                long backoffNanos = backoff(previousBackoffNanos);
+                try {
+                    executor.schedule(() -> postBatch(batch, attempt + 1, backoffNanos, result), backoffNanos, NANOSECONDS);
+                    batchRetries.add(1);
+                }
+                catch (RejectedExecutionException e) {
+                    result.setException(t);
+                }
+            }
+        }, directExecutor());
+    }
+
+    private static boolean isRetryable(Throwable t)
+    {
+        // A client error will fail again
+        return !(t instanceof UnexpectedResponseException exception) || exception.getStatusCode() >= 500;
+    }
+
+    private long backoff(long previousBackoffNanos)
+    {
+        // Decorrelated jitter
+        long upper = max(minBackoffNanos, previousBackoffNanos * 3);
+        return min(maxBackoffNanos, ThreadLocalRandom.current().nextLong(minBackoffNanos, upper + 1));
+    }
+
+    private static class QueuedEvent
+    {
+        private final byte[] json;
+        private final SettableFuture<Void> future = SettableFuture.create();
+
+        private QueuedEvent(byte[] json)
+        {
+            this.json = json;
+        }
+
+        private int size()
+        {
+            return json.length;
+        }
+    }
+
+    private static class Batch
+    {
+        private final List<QueuedEvent> events;
+        private final SerializedEventsBodySource bodySource;
+
+        private Batch(List<QueuedEvent> events)
+        {
+            this.events = events;
+            this.bodySource = new SerializedEventsBodySource(events.stream()
+                    .map(event -> event.json)
+                    .toList());
+        }
+    }
+}
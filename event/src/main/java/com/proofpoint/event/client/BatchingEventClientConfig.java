@@ -0,0 +1,196 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.event.client;
+
+import com.proofpoint.configuration.Config;
+import com.proofpoint.configuration.ConfigDescription;
+import com.proofpoint.units.DataSize;
+import com.proofpoint.units.Duration;
+import com.proofpoint.units.MinDataSize;
+import com.proofpoint.units.MinDuration;
+import jakarta.validation.constraints.AssertFalse;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import static com.proofpoint.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+public class BatchingEventClientConfig
+{
+    public enum OverflowPolicy
+    {
+        DROP_OLDEST,
+        BLOCK,
+    }
+
+    private int maxBatchEvents = 500;
+    private DataSize maxBatchSize = new DataSize(1, MEGABYTE);
+    private Duration maxDelay = new Duration(1, SECONDS);
+    private int maxInFlight = 4;
+    private int queueSize = 10_000;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+    private int maxRetries = 3;
+    private Duration minBackoff = new Duration(100, MILLISECONDS);
+    private Duration maxBackoff = new Duration(10, SECONDS);
+    private Duration closeTimeout = new Duration(10, SECONDS);
+
+    @Min(1)
+    public int getMaxBatchEvents()
+    {
+        return maxBatchEvents;
+    }
+
+    @Config("event-client.batch.max-events")
+    @ConfigDescription("Maximum number of events posted in one request")
+    public BatchingEventClientConfig setMaxBatchEvents(int maxBatchEvents)
+    {
+        this.maxBatchEvents = maxBatchEvents;
+        return this;
+    }
+
+    @NotNull
+    @MinDataSize("1B")
+    public DataSize getMaxBatchSize()
+    {
+        return maxBatchSize;
+    }
+
+    @Config("event-client.batch.max-size")
+    @ConfigDescription("Maximum size of the serialized events posted in one request")
+    public BatchingEventClientConfig setMaxBatchSize(DataSize maxBatchSize)
+    {
+        this.maxBatchSize = maxBatchSize;
+        return this;
+    }
+
+    @NotNull
+    @MinDuration("1ms")
+    public Duration getMaxDelay()
+    {
+        return maxDelay;
+    }
+
+    @Config("event-client.batch.max-delay")
+    @ConfigDescription("Interval at which queued events are posted even if they do not fill a batch")
+    public BatchingEventClientConfig setMaxDelay(Duration maxDelay)
+    {
+        this.maxDelay = maxDelay;
+        return this;
+    }
+
+    @Min(1)
+    public int getMaxInFlight()
+    {
+        return maxInFlight;
+    }
+
+    @Config("event-client.batch.max-in-flight")
+    @ConfigDescription("Maximum number of batches being posted concurrently")
+    public BatchingEventClientConfig setMaxInFlight(int maxInFlight)
+    {
+        this.maxInFlight = maxInFlight;
+        return this;
+    }
+
+    @Min(1)
+    public int getQueueSize()
+    {
+        return queueSize;
+    }
+
+    @Config("event-client.batch.queue-size")
+    @ConfigDescription("Maximum number of events that have been posted but not yet acknowledged")
+    public BatchingEventClientConfig setQueueSize(int queueSize)
+    {
+        this.queueSize = queueSize;
+        return this;
+    }
+
+    @NotNull
+    public OverflowPolicy getOverflowPolicy()
+    {
+        return overflowPolicy;
+    }
+
+    @Config("event-client.batch.overflow-policy")
+    @ConfigDescription("What to do with an event when the queue is full: DROP_OLDEST or BLOCK")
+    public BatchingEventClientConfig setOverflowPolicy(OverflowPolicy overflowPolicy)
+    {
+        this.overflowPolicy = overflowPolicy;
+        return this;
+    }
+
+    @Min(0)
+    public int getMaxRetries()
+    {
+        return maxRetries;
+    }
+
+    @Config("event-client.batch.max-retries")
+    @ConfigDescription("Maximum number of times a failed batch is retried")
+    public BatchingEventClientConfig setMaxRetries(int maxRetries)
+    {
+        this.maxRetries = maxRetries;
+        return this;
+    }
+
+    @NotNull
+    public Duration getMinBackoff()
+    {
+        return minBackoff;
+    }
+
+    @Config("event-client.batch.min-backoff")
+    @ConfigDescription("Minimum backoff delay before retrying a batch")
+    public BatchingEventClientConfig setMinBackoff(Duration minBackoff)
+    {
+        this.minBackoff = minBackoff;
+        return this;
+    }
+
+    @NotNull
+    public Duration getMaxBackoff()
+    {
+        return maxBackoff;
+    }
+
+    @Config("event-client.batch.max-backoff")
+    @ConfigDescription("Maximum backoff delay before retrying a batch")
+    public BatchingEventClientConfig setMaxBackoff(Duration maxBackoff)
+    {
+        this.maxBackoff = maxBackoff;
+        return this;
+    }
+
+    @NotNull
+    public Duration getCloseTimeout()
+    {
+        return closeTimeout;
+    }
+
+    @Config("event-client.batch.close-timeout")
+    @ConfigDescription("Maximum time to wait on shutdown for queued events to be posted")
+    public BatchingEventClientConfig setCloseTimeout(Duration closeTimeout)
+    {
+        this.closeTimeout = closeTimeout;
+        return this;
+    }
+
+    @AssertFalse
+    public boolean isMaxBackoffLessThanMinBackoff()
+    {
+        return maxBackoff.compareTo(minBackoff) < 0;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.event.client;
+
+import com.google.inject.Binder;
+import com.google.inject.Module;
+import com.google.inject.Scopes;
+import com.google.inject.TypeLiteral;
+
+import static com.google.inject.multibindings.Multibinder.newSetBinder;
+import static com.proofpoint.configuration.ConfigBinder.bindConfig;
+import static com.proofpoint.discovery.client.DiscoveryBinder.discoveryBinder;
+import static com.proofpoint.http.client.ServiceTypes.serviceType;
+import static org.weakref.jmx.guice.ExportBinder.newExporter;
+
+/**
+ * Alternative to {@link HttpEventModule} that posts events to the collector in batches.
+ */
+public class BatchingHttpEventModule implements Module
+{
+    @Override
+    public void configure(Binder binder)
+    {
+        binder.bind(JsonEventWriter.class).in(Scopes.SINGLETON);
+        binder.bind(HttpEventClient.class).in(Scopes.SINGLETON);
+        bindConfig(binder).bind(BatchingEventClientConfig.class);
+
+        binder.bind(EventClient.class).to(BatchingEventClient.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(EventClient.class).withGeneratedName();
+
+        // bind the http client
+        discoveryBinder(binder)
+                .bindDiscoveredHttpClient("event", serviceType("collector"), ForEventClient.class);
+
+        // Kick off the binding of Set<EventTypeMetadata> in case no events are bound
+        newSetBinder(binder, new TypeLiteral<EventTypeMetadata<?>>() {});
+    }
+}
@@ -16,11 +16,20 @@
 package com.proofpoint.event.client;
 
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
+import com.google.common.primitives.Primitives;
+import jakarta.annotation.Nullable;
 
 import java.io.IOException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayDeque;
 import java.util.Collection;
@@ -28,10 +37,15 @@ import java.util.Comparator;
 import java.util.Deque;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 import static com.proofpoint.event.client.EventDataType.validateFieldValueType;
+import static java.lang.invoke.MethodType.methodType;
 import static java.util.Comparator.comparing;
-import static java.util.Objects.requireNonNullElse;
 
 class EventFieldMetadata
 {
@@ -49,10 +63,15 @@ class EventFieldMetadata
     }
 
     private final String name;
+    private final SerializableString serializedName;
     private final Method method;
     private final EventDataType eventDataType;
     private final EventTypeMetadata<?> nestedType;
     private final ContainerType containerType;
+    @Nullable
+    private final Getter getter;
+    @Nullable
+    private final PrimitiveFieldWriter primitiveWriter;
 
     EventFieldMetadata(String name, Method method, EventDataType eventDataType, EventTypeMetadata<?> nestedType, ContainerType containerType)
     {
@@ -60,24 +79,43 @@ class EventFieldMetadata
         Preconditions.checkArgument((eventDataType == null) || (nestedType == null), "both eventDataType and nestedType are set");
 
         this.name = name;
+        this.serializedName = new SerializedString(name);
         this.method = method;
         this.eventDataType = eventDataType;
         this.nestedType = nestedType;
         this.containerType = containerType;
+
+        MethodHandles.Lookup lookup = lookupFor(method);
+        if (containerType == null && eventDataType != null && method.getReturnType().isPrimitive()) {
+            this.primitiveWriter = createPrimitiveWriter(lookup, method);
+        }
+        else {
+            this.primitiveWriter = null;
+        }
+        this.getter = primitiveWriter == null ? createGetter(lookup, method) : null;
     }
 
     private Object getValue(Object event)
             throws InvalidEventException
     {
         try {
-            return method.invoke(event);
+            return getter.get(event);
         }
         catch (Exception e) {
-            throw new InvalidEventException(requireNonNullElse(e.getCause(), e),
-                    "Unable to get value of event field %s: Exception occurred while invoking [%s]", name, method.toGenericString());
+            throw getterFailed(e);
         }
     }
 
+    private InvalidEventException getterFailed(Exception e)
+    {
+        Throwable cause = e;
+        if (e instanceof InvocationTargetException && e.getCause() != null) {
+            cause = e.getCause();
+        }
+        return new InvalidEventException(cause,
+                "Unable to get value of event field %s: Exception occurred while invoking [%s]", name, method.toGenericString());
+    }
+
     public void writeField(JsonGenerator jsonGenerator, Object event)
             throws IOException
     {
@@ -87,9 +125,14 @@ class EventFieldMetadata
     private void writeField(JsonGenerator jsonGenerator, Object event, Deque<Object> objectStack)
             throws IOException
     {
+        if (primitiveWriter != null) {
+            primitiveWriter.write(jsonGenerator, event);
+            return;
+        }
+
         Object value = getValue(event);
         if (value != null) {
-            jsonGenerator.writeFieldName(name);
+            jsonGenerator.writeFieldName(serializedName);
             if (containerType == ContainerType.ITERABLE) {
                 validateFieldValueType(value, Iterable.class);
                 writeArray(jsonGenerator, (Iterable<?>) value, objectStack);
@@ -175,4 +218,145 @@ class EventFieldMetadata
             }
         }
     }
+
+    /**
+     * Returns a lookup with private access to the class declaring the getter, so
+     * accessors can be spun for getters of private event classes, or null if the
+     * declaring class is not accessible.
+     */
+    @Nullable
+    private static MethodHandles.Lookup lookupFor(Method method)
+    {
+        try {
+            return MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup());
+        }
+        catch (IllegalAccessException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Getter createGetter(@Nullable MethodHandles.Lookup lookup, Method method)
+    {
+        Function<Object, Object> function = spinAccessor(lookup, method, Function.class, "apply",
+                methodType(Object.class, Object.class), Primitives.wrap(method.getReturnType()));
+        if (function == null) {
+            return method::invoke;
+        }
+        return function::apply;
+    }
+
+    // The spun accessors rethrow the getter's checked exceptions undeclared, so the writers catch Exception
+    @Nullable
+    private PrimitiveFieldWriter createPrimitiveWriter(@Nullable MethodHandles.Lookup lookup, Method method)
+    {
+        Class<?> type = method.getReturnType();
+        if (type == int.class || type == short.class || type == byte.class) {
+            ToIntFunction<Object> intGetter = spinAccessor(lookup, method, ToIntFunction.class, "applyAsInt", methodType(int.class, Object.class), int.class);
+            if (intGetter != null) {
+                return (jsonGenerator, event) -> {
+                    int value;
+                    try {
+                        value = intGetter.applyAsInt(event);
+                    }
+                    catch (Exception e) {
+                        throw getterFailed(e);
+                    }
+                    jsonGenerator.writeFieldName(serializedName);
+                    jsonGenerator.writeNumber(value);
+                };
+            }
+        }
+        else if (type == long.class) {
+            ToLongFunction<Object> longGetter = spinAccessor(lookup, method, ToLongFunction.class, "applyAsLong", methodType(long.class, Object.class), long.class);
+            if (longGetter != null) {
+                return (jsonGenerator, event) -> {
+                    long value;
+                    try {
+                        value = longGetter.applyAsLong(event);
+                    }
+                    catch (Exception e) {
+                        throw getterFailed(e);
+                    }
+                    jsonGenerator.writeFieldName(serializedName);
+                    jsonGenerator.writeNumber(value);
+                };
+            }
+        }
+        else if (type == double.class) {
+            ToDoubleFunction<Object> doubleGetter = spinAccessor(lookup, method, ToDoubleFunction.class, "applyAsDouble", methodType(double.class, Object.class), double.class);
+            if (doubleGetter != null) {
+                return (jsonGenerator, event) -> {
+                    double value;
+                    try {
+                        value = doubleGetter.applyAsDouble(event);
+                    }
+                    catch (Exception e) {
+                        throw getterFailed(e);
+                    }
+                    jsonGenerator.writeFieldName(serializedName);
+                    jsonGenerator.writeNumber(value);
+                };
+            }
+        }
+        else if (type == boolean.class) {
+            Predicate<Object> booleanGetter = spinAccessor(lookup, method, Predicate.class, "test", methodType(boolean.class, Object.class), boolean.class);
+            if (booleanGetter != null) {
+                return (jsonGenerator, event) -> {
+                    boolean value;
+                    try {
+                        value = booleanGetter.test(event);
+                    }
+                    catch (Exception e) {
+                        throw getterFailed(e);
+                    }
+                    jsonGenerator.writeFieldName(serializedName);
+                    jsonGenerator.writeBoolean(value);
+                };
+            }
+        }
+        // float and char values go through the boxed path, as widening would change their encoding
+        return null;
+    }
+
+    /**
+     * Spins an implementation of the functional interface that calls the getter
+     * directly, or returns null if that is not possible.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private static <F> F spinAccessor(@Nullable MethodHandles.Lookup lookup, Method method, Class<?> functionalInterface, String name, MethodType erasedType, Class<?> returnType)
+    {
+        if (lookup == null) {
+            return null;
+        }
+        try {
+            MethodHandle handle = lookup.unreflect(method);
+            return (F) LambdaMetafactory.metafactory(
+                    lookup,
+                    name,
+                    methodType(functionalInterface),
+                    erasedType,
+                    handle,
+                    methodType(returnType, method.getDeclaringClass()))
+                    .getTarget()
+                    .invoke();
+        }
+        catch (Throwable e) {
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Getter
+    {
+        Object get(Object event)
+                throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface PrimitiveFieldWriter
+    {
+        void write(JsonGenerator jsonGenerator, Object event)
+                throws IOException;
+    }
 }
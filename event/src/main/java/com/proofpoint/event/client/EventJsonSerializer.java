@@ -16,6 +16,8 @@
 package com.proofpoint.event.client;
 
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.google.common.io.BaseEncoding;
@@ -37,6 +39,12 @@ class EventJsonSerializer<T>
     private static final JsonCodec<TraceToken> TRACE_TOKEN_JSON_CODEC = jsonCodec(TraceToken.class).withoutPretty();
     private static final ThreadLocal<SecureRandom> SECURE_RANDOM = ThreadLocal.withInitial(SecureRandom::new);
     private static final BaseEncoding BASE_16 = BaseEncoding.base16();
+    private static final SerializableString TYPE = new SerializedString("type");
+    private static final SerializableString UUID = new SerializedString("uuid");
+    private static final SerializableString HOST = new SerializedString("host");
+    private static final SerializableString TIMESTAMP = new SerializedString("timestamp");
+    private static final SerializableString TRACE_TOKEN = new SerializedString("traceToken");
+    private static final SerializableString DATA = new SerializedString("data");
 
     private final String token;
     private final EventTypeMetadata<T> eventTypeMetadata;
@@ -82,27 +90,30 @@ class EventJsonSerializer<T>
     {
         jsonGenerator.writeStartObject();
 
-        jsonGenerator.writeStringField("type", eventTypeMetadata.getTypeName());
+        jsonGenerator.writeFieldName(TYPE);
+        jsonGenerator.writeString(eventTypeMetadata.getSerializedTypeName());
 
         if (eventTypeMetadata.getUuidField() != null) {
             eventTypeMetadata.getUuidField().writeField(jsonGenerator, event);
         }
         else {
-            jsonGenerator.writeStringField("uuid", randomUUID());
+            jsonGenerator.writeFieldName(UUID);
+            jsonGenerator.writeString(randomUUID());
         }
 
         if (eventTypeMetadata.getHostField() != null) {
             eventTypeMetadata.getHostField().writeField(jsonGenerator, event);
         }
         else {
-            jsonGenerator.writeStringField("host", hostName);
+            jsonGenerator.writeFieldName(HOST);
+            jsonGenerator.writeString(hostName);
         }
 
         if (eventTypeMetadata.getTimestampField() != null) {
             eventTypeMetadata.getTimestampField().writeField(jsonGenerator, event);
         }
         else {
-            jsonGenerator.writeFieldName("timestamp");
+            jsonGenerator.writeFieldName(TIMESTAMP);
             EventDataType.DATETIME.writeFieldValue(jsonGenerator, new DateTime());
         }
 
@@ -110,11 +121,12 @@ class EventJsonSerializer<T>
             eventTypeMetadata.getTraceTokenField().writeField(jsonGenerator, event);
         }
         else if (token != null) {
-            jsonGenerator.writeFieldName("traceToken");
+            jsonGenerator.writeFieldName(TRACE_TOKEN);
             EventDataType.STRING.writeFieldValue(jsonGenerator, token);
         }
 
-        jsonGenerator.writeObjectFieldStart("data");
+        jsonGenerator.writeFieldName(DATA);
+        jsonGenerator.writeStartObject();
         for (EventFieldMetadata field : eventTypeMetadata.getFields()) {
             field.writeField(jsonGenerator, event);
         }
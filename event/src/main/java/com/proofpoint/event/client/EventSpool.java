@@ -0,0 +1,396 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.event.client;
+
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import com.proofpoint.log.Logger;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Append-only spool of serialized events, stored as a sequence of segment files.
+ * <p>
+ * Each record is framed by its length and CRC32C. Records are read back in the
+ * order they were appended, starting at a checkpoint that is advanced with
+ * {@link #commit(Position)} once the records have been shipped. Segments that
+ * are entirely before the checkpoint are deleted. On open, a torn record at the
+ * end of the last segment is truncated.
+ */
+class EventSpool
+        implements Closeable
+{
+    private static final Logger log = Logger.get(EventSpool.class);
+    private static final String SEGMENT_SUFFIX = ".spool";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int HEADER_SIZE = 8;
+
+    private final Path directory;
+    private final long maxSegmentSize;
+    private final long maxSize;
+
+    @GuardedBy("this")
+    private final NavigableMap<Long, Long> segmentSizes = new TreeMap<>();
+    @GuardedBy("this")
+    private long size;
+    @GuardedBy("this")
+    private FileChannel writeChannel;
+    @GuardedBy("this")
+    private long writeSegment;
+    @GuardedBy("this")
+    private Position checkpoint;
+    @GuardedBy("this")
+    private FileChannel readChannel;
+    @GuardedBy("this")
+    private long readChannelSegment = -1;
+
+    EventSpool(Path directory, long maxSegmentSize, long maxSize)
+            throws IOException
+    {
+        this.directory = requireNonNull(directory, "directory is null");
+        checkArgument(maxSegmentSize > HEADER_SIZE, "maxSegmentSize must be greater than %s", HEADER_SIZE);
+        checkArgument(maxSize >= maxSegmentSize, "maxSize must not be less than maxSegmentSize");
+        this.maxSegmentSize = maxSegmentSize;
+        this.maxSize = maxSize;
+
+        Files.createDirectories(directory);
+        synchronized (this) {
+            recover();
+        }
+    }
+
+    @GuardedBy("this")
+    private void recover()
+            throws IOException
+    {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    segmentSizes.put(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())), Files.size(path));
+                }
+                catch (NumberFormatException ignored) {
+                }
+            }
+        }
+
+        checkpoint = readCheckpoint();
+        if (!segmentSizes.isEmpty() && !segmentSizes.containsKey(checkpoint.segment())) {
+            // The checkpointed segment was deleted, or the checkpoint was lost
+            Long segment = segmentSizes.ceilingKey(checkpoint.segment());
+            checkpoint = new Position(segment == null ? segmentSizes.lastKey() + 1 : segment, 0);
+        }
+        for (Long segment : List.copyOf(segmentSizes.headMap(checkpoint.segment()).keySet())) {
+            deleteSegment(segment);
+        }
+
+        if (segmentSizes.isEmpty()) {
+            writeSegment = checkpoint.segment();
+            segmentSizes.put(writeSegment, 0L);
+        }
+        else {
+            writeSegment = segmentSizes.lastKey();
+        }
+        writeChannel = FileChannel.open(segmentPath(writeSegment), CREATE, WRITE, READ);
+
+        // Truncate a record that was torn by a crash
+        long validLength = scanValidLength(writeChannel);
+        if (validLength < writeChannel.size()) {
+            log.warn("Truncating event spool segment %s from %d to %d bytes", segmentPath(writeSegment), writeChannel.size(), validLength);
+            writeChannel.truncate(validLength);
+        }
+        writeChannel.position(validLength);
+        segmentSizes.put(writeSegment, validLength);
+        size = segmentSizes.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private static long scanValidLength(FileChannel channel)
+            throws IOException
+    {
+        long length = channel.size();
+        long offset = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (offset + HEADER_SIZE <= length) {
+            header.clear();
+            readFully(channel, header, offset);
+            int recordLength = header.getInt(0);
+            if (recordLength < 0 || offset + HEADER_SIZE + recordLength > length) {
+                break;
+            }
+            ByteBuffer record = ByteBuffer.allocate(recordLength);
+            readFully(channel, record, offset + HEADER_SIZE);
+            if (crc(record.array()) != header.getInt(4)) {
+                break;
+            }
+            offset += HEADER_SIZE + recordLength;
+        }
+        return offset;
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @throws IOException if the spool is full or the record could not be written
+     */
+    synchronized void append(byte[] record)
+            throws IOException
+    {
+        long frameSize = HEADER_SIZE + record.length;
+        checkArgument(frameSize <= maxSegmentSize, "record is larger than the maximum segment size");
+        long segmentSize = segmentSizes.get(writeSegment);
+        if (segmentSize + frameSize > maxSegmentSize) {
+            roll();
+            segmentSize = 0;
+        }
+        if (size + frameSize > maxSize) {
+            throw new IOException(format("Event spool %s is full", directory));
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(record.length)
+                .putInt(crc(record))
+                .flip();
+        ByteBuffer[] buffers = {header, ByteBuffer.wrap(record)};
+        long written = 0;
+        while (written < frameSize) {
+            written += writeChannel.write(buffers);
+        }
+        segmentSizes.put(writeSegment, segmentSize + frameSize);
+        size += frameSize;
+    }
+
+    @GuardedBy("this")
+    private void roll()
+            throws IOException
+    {
+        writeChannel.force(false);
+        writeChannel.close();
+        writeSegment++;
+        writeChannel = FileChannel.open(segmentPath(writeSegment), CREATE, WRITE, READ);
+        writeChannel.truncate(0);
+        segmentSizes.put(writeSegment, 0L);
+    }
+
+    /**
+     * Reads records starting at the checkpoint, without advancing it.
+     */
+    synchronized SpooledRecords read(int maxRecords, long maxBytes)
+            throws IOException
+    {
+        List<byte[]> records = new ArrayList<>();
+        long bytes = 0;
+        long segment = checkpoint.segment();
+        long offset = checkpoint.offset();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+        while (records.size() < maxRecords) {
+            long segmentSize = segmentSizes.getOrDefault(segment, 0L);
+            if (offset + HEADER_SIZE > segmentSize) {
+                if (offset < segmentSize) {
+                    log.warn("Skipping %d bytes of truncated record at the end of event spool segment %s", segmentSize - offset, segmentPath(segment));
+                }
+                Entry<Long, Long> next = segmentSizes.higherEntry(segment);
+                if (next == null) {
+                    offset = segmentSize;
+                    break;
+                }
+                segment = next.getKey();
+                offset = 0;
+                continue;
+            }
+
+            FileChannel channel = readChannel(segment);
+            header.clear();
+            readFully(channel, header, offset);
+            int recordLength = header.getInt(0);
+            if (recordLength < 0 || offset + HEADER_SIZE + recordLength > segmentSize) {
+                log.warn("Skipping corrupt record at offset %d of event spool segment %s", offset, segmentPath(segment));
+                offset = segmentSize;
+                continue;
+            }
+            if (!records.isEmpty() && bytes + recordLength > maxBytes) {
+                break;
+            }
+            byte[] record = new byte[recordLength];
+            readFully(channel, ByteBuffer.wrap(record), offset + HEADER_SIZE);
+            if (crc(record) != header.getInt(4)) {
+                log.warn("Skipping record with bad checksum at offset %d of event spool segment %s", offset, segmentPath(segment));
+                offset = segmentSize;
+                continue;
+            }
+            records.add(record);
+            bytes += recordLength;
+            offset += HEADER_SIZE + recordLength;
+        }
+        if (offset >= segmentSizes.getOrDefault(segment, 0L) && segmentSizes.higherKey(segment) != null) {
+            // Let the commit delete the exhausted segment
+            segment = segmentSizes.higherKey(segment);
+            offset = 0;
+        }
+        return new SpooledRecords(records, new Position(segment, offset));
+    }
+
+    /**
+     * Advances the checkpoint past records that have been shipped.
+     */
+    synchronized void commit(Position position)
+            throws IOException
+    {
+        requireNonNull(position, "position is null");
+        checkpoint = position;
+        Path temporary = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.writeString(temporary, position.segment() + " " + position.offset());
+        Files.move(temporary, directory.resolve(CHECKPOINT_FILE), ATOMIC_MOVE, REPLACE_EXISTING);
+
+        for (Long segment : List.copyOf(segmentSizes.headMap(position.segment()).keySet())) {
+            deleteSegment(segment);
+        }
+    }
+
+    synchronized boolean isEmpty()
+    {
+        return checkpoint.segment() == writeSegment && checkpoint.offset() >= segmentSizes.get(writeSegment);
+    }
+
+    /**
+     * Returns the number of bytes of records that have not been shipped.
+     */
+    synchronized long getPendingBytes()
+    {
+        return size - checkpoint.offset();
+    }
+
+    synchronized int getSegmentCount()
+    {
+        return segmentSizes.size();
+    }
+
+    @Override
+    public synchronized void close()
+            throws IOException
+    {
+        try (FileChannel ignored = writeChannel) {
+            writeChannel.force(false);
+        }
+        finally {
+            closeReadChannel();
+        }
+    }
+
+    @GuardedBy("this")
+    private Position readCheckpoint()
+            throws IOException
+    {
+        Path path = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) {
+            return new Position(segmentSizes.isEmpty() ? 0 : segmentSizes.firstKey(), 0);
+        }
+        String[] parts = new String(Files.readAllBytes(path), UTF_8).trim().split(" ");
+        try {
+            return new Position(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+        }
+        catch (RuntimeException e) {
+            throw new IOException(format("Invalid event spool checkpoint %s", path), e);
+        }
+    }
+
+    @GuardedBy("this")
+    private FileChannel readChannel(long segment)
+            throws IOException
+    {
+        if (readChannelSegment != segment) {
+            closeReadChannel();
+            readChannel = FileChannel.open(segmentPath(segment), READ);
+            readChannelSegment = segment;
+        }
+        return readChannel;
+    }
+
+    @GuardedBy("this")
+    private void closeReadChannel()
+            throws IOException
+    {
+        if (readChannel != null) {
+            readChannel.close();
+            readChannel = null;
+            readChannelSegment = -1;
+        }
+    }
+
+    @GuardedBy("this")
+    private void deleteSegment(long segment)
+            throws IOException
+    {
+        if (readChannelSegment == segment) {
+            closeReadChannel();
+        }
+        Files.deleteIfExists(segmentPath(segment));
+        Long segmentSize = segmentSizes.remove(segment);
+        if (segmentSize != null) {
+            size -= segmentSize;
+        }
+    }
+
+    private Path segmentPath(long segment)
+    {
+        return directory.resolve(format("%020d%s", segment, SEGMENT_SUFFIX));
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+            throws IOException
+    {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+
+    private static int crc(byte[] bytes)
+    {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    record Position(long segment, long offset)
+    {
+    }
+
+    record SpooledRecords(List<byte[]> records, Position end)
+    {
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.event.client;
+
+import com.proofpoint.configuration.Config;
+import com.proofpoint.configuration.ConfigDescription;
+import com.proofpoint.units.DataSize;
+import com.proofpoint.units.Duration;
+import com.proofpoint.units.MinDataSize;
+import jakarta.validation.constraints.AssertFalse;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import static com.proofpoint.units.DataSize.Unit.GIGABYTE;
+import static com.proofpoint.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+public class EventSpoolConfig
+{
+    private String path = "var/event-spool";
+    private DataSize maxSegmentSize = new DataSize(16, MEGABYTE);
+    private DataSize maxSize = new DataSize(1, GIGABYTE);
+    private int maxBatchEvents = 1000;
+    private DataSize maxBatchSize = new DataSize(4, MEGABYTE);
+    private Duration minBackoff = new Duration(100, MILLISECONDS);
+    private Duration maxBackoff = new Duration(1, MINUTES);
+
+    @NotNull
+    public String getPath()
+    {
+        return path;
+    }
+
+    @Config("event-client.spool.path")
+    @ConfigDescription("Directory in which events are spooled before they are posted")
+    public EventSpoolConfig setPath(String path)
+    {
+        this.path = path;
+        return this;
+    }
+
+    @NotNull
+    @MinDataSize("1kB")
+    public DataSize getMaxSegmentSize()
+    {
+        return maxSegmentSize;
+    }
+
+    @Config("event-client.spool.max-segment-size")
+    @ConfigDescription("Size at which the spool starts a new segment file")
+    public EventSpoolConfig setMaxSegmentSize(DataSize maxSegmentSize)
+    {
+        this.maxSegmentSize = maxSegmentSize;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMaxSize()
+    {
+        return maxSize;
+    }
+
+    @Config("event-client.spool.max-size")
+    @ConfigDescription("Maximum disk space used by the spool; events are rejected when it is full")
+    public EventSpoolConfig setMaxSize(DataSize maxSize)
+    {
+        this.maxSize = maxSize;
+        return this;
+    }
+
+    @Min(1)
+    public int getMaxBatchEvents()
+    {
+        return maxBatchEvents;
+    }
+
+    @Config("event-client.spool.max-batch-events")
+    @ConfigDescription("Maximum number of spooled events posted in one request")
+    public EventSpoolConfig setMaxBatchEvents(int maxBatchEvents)
+    {
+        this.maxBatchEvents = maxBatchEvents;
+        return this;
+    }
+
+    @NotNull
+    @MinDataSize("1B")
+    public DataSize getMaxBatchSize()
+    {
+        return maxBatchSize;
+    }
+
+    @Config("event-client.spool.max-batch-size")
+    @ConfigDescription("Maximum size of the spooled events posted in one request")
+    public EventSpoolConfig setMaxBatchSize(DataSize maxBatchSize)
+    {
+        this.maxBatchSize = maxBatchSize;
+        return this;
+    }
+
+    @NotNull
+    public Duration getMinBackoff()
+    {
+        return minBackoff;
+    }
+
+    @Config("event-client.spool.min-backoff")
+    @ConfigDescription("Minimum delay before posting spooled events again after a failure")
+    public EventSpoolConfig setMinBackoff(Duration minBackoff)
+    {
+        this.minBackoff = minBackoff;
+        return this;
+    }
+
+    @NotNull
+    public Duration getMaxBackoff()
+    {
+        return maxBackoff;
+    }
+
+    @Config("event-client.spool.max-backoff")
+    @ConfigDescription("Maximum delay before posting spooled events again after a failure")
+    public EventSpoolConfig setMaxBackoff(Duration maxBackoff)
+    {
+        this.maxBackoff = maxBackoff;
+        return this;
+    }
+
+    @AssertFalse
+    public boolean isMaxBackoffLessThanMinBackoff()
+    {
+        return maxBackoff.compareTo(minBackoff) < 0;
+    }
+
+    @AssertFalse
+    public boolean isMaxSizeLessThanMaxSegmentSize()
+    {
+        return maxSize.compareTo(maxSegmentSize) < 0;
+    }
+}
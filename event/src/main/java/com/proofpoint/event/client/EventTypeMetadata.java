@@ -15,6 +15,8 @@
  */
 package com.proofpoint.event.client;
 
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ArrayListMultimap;
@@ -69,6 +71,7 @@ final class EventTypeMetadata<T>
 
     private final Class<T> eventClass;
     private final String typeName;
+    private final SerializableString serializedTypeName;
     private final EventFieldMetadata uuidField;
     private final EventFieldMetadata timestampField;
     private final EventFieldMetadata hostField;
@@ -92,6 +95,7 @@ final class EventTypeMetadata<T>
 
         // get type name from annotation
         this.typeName = extractTypeName(eventClass, nestedEvent);
+        this.serializedTypeName = typeName == null ? null : new SerializedString(typeName);
 
         // build event field metadata
         Multimap<EventFieldMapping, EventFieldMetadata> specialFields = ArrayListMultimap.create();
@@ -372,6 +376,11 @@ final class EventTypeMetadata<T>
         return typeName;
     }
 
+    SerializableString getSerializedTypeName()
+    {
+        return serializedTypeName;
+    }
+
     public EventFieldMetadata getUuidField()
     {
         return uuidField;
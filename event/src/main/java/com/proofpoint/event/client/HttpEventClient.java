@@ -87,11 +87,16 @@ public class HttpEventClient
         requireNonNull(events, "eventsSupplier is null");
         TraceToken token = getCurrentTraceToken();
 
+        return postBody(out -> eventWriter.createEventWriter(events.iterator(), token, out));
+    }
+
+    ListenableFuture<Void> postBody(DynamicBodySource bodySource)
+    {
         Request request = preparePost()
                 .setUri(URI.create("v2/event"))
                 .setHeader("User-Agent", nodeInfo.getNodeId())
                 .setHeader("Content-Type", MEDIA_TYPE_JSON.toString())
-                .setBodySource((DynamicBodySource) out -> eventWriter.createEventWriter(events.iterator(), token, out))
+                .setBodySource(bodySource)
                 .build();
         return httpClient.executeAsync(request, EVENT_RESPONSE_HANDLER);
     }
@@ -26,6 +26,7 @@ import com.proofpoint.tracetoken.TraceToken;
 import jakarta.annotation.Nullable;
 import jakarta.inject.Inject;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Iterator;
@@ -84,6 +85,23 @@ class JsonEventWriter
         };
     }
 
+    <T> byte[] serializeEvent(T event, @Nullable TraceToken token)
+            throws IOException
+    {
+        requireNonNull(event, "event is null");
+
+        JsonSerializer<T> serializer = getSerializer(event, token);
+        if (serializer == null) {
+            throw new InvalidEventException("Event class [%s] has not been registered as an event", event.getClass().getName());
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator jsonGenerator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+            serializer.serialize(event, jsonGenerator, null);
+        }
+        return out.toByteArray();
+    }
+
     @SuppressWarnings("unchecked")
     private <T> JsonSerializer<T> getSerializer(T event, @Nullable TraceToken token)
     {
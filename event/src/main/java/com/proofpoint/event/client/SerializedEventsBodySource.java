@@ -0,0 +1,70 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.event.client;
+
+import com.proofpoint.http.client.DynamicBodySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes events that have already been serialized as a JSON array.
+ */
+class SerializedEventsBodySource
+        implements DynamicBodySource
+{
+    private static final byte[] START_ARRAY = {'['};
+    private static final byte[] SEPARATOR = {','};
+    private static final byte[] END_ARRAY = {']'};
+
+    private final List<byte[]> events;
+
+    SerializedEventsBodySource(List<byte[]> events)
+    {
+        this.events = requireNonNull(events, "events is null");
+    }
+
+    @Override
+    public Writer start(OutputStream out)
+            throws IOException
+    {
+        Iterator<byte[]> iterator = events.iterator();
+        out.write(START_ARRAY);
+        return new Writer()
+        {
+            private boolean first = true;
+
+            @Override
+            public void write()
+                    throws IOException
+            {
+                if (iterator.hasNext()) {
+                    if (!first) {
+                        out.write(SEPARATOR);
+                    }
+                    first = false;
+                    out.write(iterator.next());
+                }
+                else {
+                    out.write(END_ARRAY);
+                    out.close();
+                }
+            }
+        };
+    }
+}
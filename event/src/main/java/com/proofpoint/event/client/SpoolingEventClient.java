@@ -0,0 +1,309 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.event.client;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.proofpoint.event.client.EventSpool.SpooledRecords;
+import com.proofpoint.http.client.RequestStats;
+import com.proofpoint.http.client.UnexpectedResponseException;
+import com.proofpoint.log.Logger;
+import com.proofpoint.reporting.Gauge;
+import com.proofpoint.stats.CounterStat;
+import com.proofpoint.tracetoken.TraceToken;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+import org.weakref.jmx.Flatten;
+import org.weakref.jmx.Nested;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.google.common.util.concurrent.Futures.addCallback;
+import static com.google.common.util.concurrent.Futures.immediateFailedFuture;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.proofpoint.concurrent.Threads.daemonThreadsNamed;
+import static com.proofpoint.tracetoken.TraceTokenManager.getCurrentTraceToken;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * An {@link EventClient} that writes events to a local {@link EventSpool}, from
+ * which a background shipper posts them to the collector in batches.
+ * <p>
+ * The returned future completes when the events have been written to the spool.
+ * Spooled events survive collector outages and process restarts, and are posted
+ * in the order they were spooled.
+ */
+public class SpoolingEventClient
+        implements EventClient
+{
+    private static final Logger log = Logger.get(SpoolingEventClient.class);
+
+    private final HttpEventClient delegate;
+    private final JsonEventWriter eventWriter;
+    private final EventSpool spool;
+    private final int maxBatchEvents;
+    private final long maxBatchBytes;
+    private final long minBackoffNanos;
+    private final long maxBackoffNanos;
+    private final ScheduledExecutorService executor = newSingleThreadScheduledExecutor(daemonThreadsNamed("event-client-spool-shipper"));
+    private final AtomicBoolean shipperIdle = new AtomicBoolean(true);
+    private volatile boolean closed;
+
+    // Only accessed by the shipper
+    private SpooledRecords pending;
+    private long backoffNanos;
+
+    private final CounterStat eventsSpooled = new CounterStat();
+    private final CounterStat eventsRejected = new CounterStat();
+    private final CounterStat eventsShipped = new CounterStat();
+    private final CounterStat eventsDiscarded = new CounterStat();
+    private final CounterStat shipFailures = new CounterStat();
+
+    @Inject
+    public SpoolingEventClient(HttpEventClient delegate, JsonEventWriter eventWriter, EventSpoolConfig config)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.eventWriter = requireNonNull(eventWriter, "eventWriter is null");
+        requireNonNull(config, "config is null");
+        try {
+            spool = new EventSpool(Path.of(config.getPath()), config.getMaxSegmentSize().toBytes(), config.getMaxSize().toBytes());
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        maxBatchEvents = config.getMaxBatchEvents();
+        maxBatchBytes = config.getMaxBatchSize().toBytes();
+        minBackoffNanos = config.getMinBackoff().roundTo(NANOSECONDS);
+        maxBackoffNanos = config.getMaxBackoff().roundTo(NANOSECONDS);
+    }
+
+    @PostConstruct
+    public void start()
+    {
+        // Ship events spooled before a restart
+        wakeShipper();
+    }
+
+    @PreDestroy
+    public void close()
+            throws IOException
+    {
+        closed = true;
+        executor.shutdownNow();
+        spool.close();
+    }
+
+    @Flatten
+    public RequestStats getStats()
+    {
+        return delegate.getStats();
+    }
+
+    @Gauge
+    public long getSpooledBytes()
+    {
+        return spool.getPendingBytes();
+    }
+
+    @Gauge
+    public int getSpoolSegments()
+    {
+        return spool.getSegmentCount();
+    }
+
+    @Nested
+    public CounterStat getEventsSpooled()
+    {
+        return eventsSpooled;
+    }
+
+    @Nested
+    public CounterStat getEventsRejected()
+    {
+        return eventsRejected;
+    }
+
+    @Nested
+    public CounterStat getEventsShipped()
+    {
+        return eventsShipped;
+    }
+
+    @Nested
+    public CounterStat getEventsDiscarded()
+    {
+        return eventsDiscarded;
+    }
+
+    @Nested
+    public CounterStat getShipFailures()
+    {
+        return shipFailures;
+    }
+
+    @SafeVarargs
+    @Override
+    public final <T> ListenableFuture<Void> post(T... event)
+            throws IllegalArgumentException
+    {
+        requireNonNull(event, "event is null");
+        return post(Arrays.asList(event));
+    }
+
+    @Override
+    public <T> ListenableFuture<Void> post(Iterable<T> events)
+            throws IllegalArgumentException
+    {
+        requireNonNull(events, "events is null");
+        if (closed) {
+            return immediateFailedFuture(new IllegalStateException("Event client is closed"));
+        }
+        TraceToken token = getCurrentTraceToken();
+
+        try {
+            for (T event : events) {
+                requireNonNull(event, "event is null");
+                byte[] json = eventWriter.serializeEvent(event, token);
+                try {
+                    spool.append(json);
+                }
+                catch (IOException e) {
+                    eventsRejected.add(1);
+                    throw e;
+                }
+                eventsSpooled.add(1);
+            }
+        }
+        catch (IOException e) {
+            return immediateFailedFuture(e);
+        }
+        finally {
+            wakeShipper();
+        }
+        return immediateFuture(null);
+    }
+
+    private void wakeShipper()
+    {
+        if (shipperIdle.compareAndSet(true, false)) {
+            try {
+                executor.execute(this::ship);
+            }
+            catch (RejectedExecutionException ignored) {
+                // closed; the events are shipped after a restart
+            }
+        }
+    }
+
+    private void ship()
+    {
+        if (closed) {
+            return;
+        }
+        try {
+            if (pending == null) {
+                SpooledRecords records = spool.read(maxBatchEvents, maxBatchBytes);
+                if (records.records().isEmpty()) {
+                    shipperIdle.set(true);
+                    // An event spooled before the shipper became idle would otherwise not be shipped
+                    if (!spool.isEmpty()) {
+                        wakeShipper();
+                    }
+                    return;
+                }
+                pending = records;
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            log.error(e, "Failed to read event spool");
+            retryLater();
+            return;
+        }
+
+        ListenableFuture<Void> future;
+        try {
+            future = delegate.postBody(new SerializedEventsBodySource(pending.records()));
+        }
+        catch (RuntimeException e) {
+            future = immediateFailedFuture(e);
+        }
+        addCallback(future, new FutureCallback<>()
+        {
+            @Override
+            public void onSuccess(Void result)
+            {
+                eventsShipped.add(pending.records().size());
+                shipped();
+            }
+
+            @Override
+            public void onFailure(Throwable t)
+            {
+                if (t instanceof UnexpectedResponseException exception && exception.getStatusCode() < 500) {
+                    // The collector will never accept these events
+                    log.error(t, "Discarding %d spooled events rejected by the collector", pending.records().size());
+                    eventsDiscarded.add(pending.records().size());
+                    shipped();
+                    return;
+                }
+                log.debug(t, "Failed to post %d spooled events", pending.records().size());
+                shipFailures.add(1);
+                retryLater();
+            }
+        }, this::execute);
+    }
+
+    private void shipped()
+    {
+        try {
+            spool.commit(pending.end());
+        }
+        catch (IOException e) {
+            // The events are posted again after a restart
+            log.error(e, "Failed to checkpoint event spool");
+        }
+        pending = null;
+        backoffNanos = 0;
+        execute(this::ship);
+    }
+
+    private void retryLater()
+    {
+        backoffNanos = backoffNanos == 0 ? minBackoffNanos : min(maxBackoffNanos, backoffNanos * 2);
+        try {
+            executor.schedule(this::ship, backoffNanos, NANOSECONDS);
+        }
+        catch (RejectedExecutionException ignored) {
+        }
+    }
+
+    private void execute(Runnable task)
+    {
+        try {
+            executor.execute(task);
+        }
+        catch (RejectedExecutionException ignored) {
+        }
+    }
+}
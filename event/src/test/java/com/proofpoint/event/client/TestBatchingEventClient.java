@@ -0,0 +1,393 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.event.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.CharStreams;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.proofpoint.event.client.BatchingEventClientConfig.OverflowPolicy;
+import com.proofpoint.http.client.HttpClient;
+import com.proofpoint.http.client.HttpClientConfig;
+import com.proofpoint.http.client.UnexpectedResponseException;
+import com.proofpoint.http.client.balancing.BalancingHttpClient;
+import com.proofpoint.http.client.balancing.BalancingHttpClientConfig;
+import com.proofpoint.http.client.balancing.HttpServiceBalancerConfig;
+import com.proofpoint.http.client.balancing.HttpServiceBalancerImpl;
+import com.proofpoint.http.client.balancing.HttpServiceBalancerStats;
+import com.proofpoint.http.client.jetty.JettyHttpClient;
+import com.proofpoint.node.NodeInfo;
+import com.proofpoint.reporting.testing.TestingReportCollectionFactory;
+import com.proofpoint.units.DataSize;
+import com.proofpoint.units.Duration;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.eclipse.jetty.ee10.servlet.ServletContextHandler;
+import org.eclipse.jetty.ee10.servlet.ServletHolder;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.joda.time.DateTime;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.proofpoint.concurrent.Threads.daemonThreadsNamed;
+import static com.proofpoint.event.client.EventTypeMetadata.getValidEventTypeMetaDataSet;
+import static com.proofpoint.testing.Assertions.assertInstanceOf;
+import static com.proofpoint.tracetoken.TraceTokenManager.getCurrentTraceToken;
+import static com.proofpoint.tracetoken.TraceTokenManager.registerRequestToken;
+import static com.proofpoint.units.DataSize.Unit.BYTE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestBatchingEventClient
+{
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private DummyServlet servlet;
+    private Server server;
+    private HttpClient httpClient;
+    private BatchingEventClient client;
+
+    @BeforeMethod
+    public void setup()
+            throws Exception
+    {
+        servlet = new DummyServlet();
+        server = new Server();
+        ServerConnector connector = new ServerConnector(server, new HttpConnectionFactory());
+        connector.setPort(0);
+        server.addConnector(connector);
+        ServletContextHandler context = new ServletContextHandler(ServletContextHandler.NO_SESSIONS);
+        context.addServlet(new ServletHolder(servlet), "/*");
+        server.setHandler(context);
+        server.start();
+
+        HttpServiceBalancerImpl balancer = new HttpServiceBalancerImpl(
+                "test collector balancer",
+                new TestingReportCollectionFactory().createReportCollection(HttpServiceBalancerStats.class),
+                new HttpServiceBalancerConfig()
+        );
+        balancer.updateHttpUris(Set.of(URI.create("http://127.0.0.1:" + connector.getLocalPort())));
+        httpClient = new BalancingHttpClient(balancer,
+                new JettyHttpClient(new HttpClientConfig()),
+                new BalancingHttpClientConfig()
+                        .setMaxAttempts(1),
+                newSingleThreadScheduledExecutor(daemonThreadsNamed("event-test-retry")));
+        registerRequestToken("sample-trace-token");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws Exception
+    {
+        if (client != null) {
+            client.close();
+        }
+        server.stop();
+        httpClient.close();
+    }
+
+    @Test
+    public void testPostsBatch()
+            throws Exception
+    {
+        client = newEventClient(new BatchingEventClientConfig());
+
+        ListenableFuture<Void> future = client.post(TestingUtils.getEvents());
+        assertFalse(future.isDone());
+        client.flush();
+        future.get(10, SECONDS);
+
+        assertEquals(servlet.bodies.size(), 1);
+        assertEquals(objectMapper.readValue(servlet.bodies.get(0), Object.class), TestingUtils.getExpectedJson());
+        assertEquals(client.getEventsPosted().getTotalCount(), 3);
+    }
+
+    @Test
+    public void testFlushesWhenBatchIsFull()
+            throws Exception
+    {
+        client = newEventClient(new BatchingEventClientConfig()
+                .setMaxBatchEvents(10)
+                .setMaxDelay(new Duration(1, HOURS)));
+
+        List<ListenableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            futures.add(client.post(newEvent(i)));
+        }
+        for (ListenableFuture<Void> future : futures.subList(0, 20)) {
+            future.get(10, SECONDS);
+        }
+        assertEquals(client.getQueuedEvents(), 5);
+        assertEquals(servlet.eventCounts(), List.of(10, 10));
+
+        client.flush();
+        for (ListenableFuture<Void> future : futures) {
+            future.get(10, SECONDS);
+        }
+        assertEquals(servlet.eventCounts(), List.of(10, 10, 5));
+    }
+
+    @Test
+    public void testFlushesWhenBatchSizeIsReached()
+            throws Exception
+    {
+        int eventSize = new JsonEventWriter(new NodeInfo("test"), getValidEventTypeMetaDataSet(FixedDummyEventClass.class))
+                .serializeEvent(newEvent(0), getCurrentTraceToken()).length;
+        client = newEventClient(new BatchingEventClientConfig()
+                .setMaxBatchSize(new DataSize(eventSize * 2 + eventSize / 2, BYTE))
+                .setMaxDelay(new Duration(1, HOURS)));
+
+        List<ListenableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(client.post(newEvent(i)));
+        }
+        client.flush();
+        for (ListenableFuture<Void> future : futures) {
+            future.get(10, SECONDS);
+        }
+        List<Integer> eventCounts = servlet.eventCounts();
+        assertEquals(eventCounts.stream().mapToInt(Integer::intValue).sum(), 5);
+        assertTrue(eventCounts.stream().allMatch(count -> count <= 2), "batches " + eventCounts);
+    }
+
+    @Test
+    public void testFlushesAfterMaxDelay()
+            throws Exception
+    {
+        client = newEventClient(new BatchingEventClientConfig()
+                .setMaxDelay(new Duration(10, MILLISECONDS)));
+        client.start();
+
+        client.post(newEvent(0)).get(10, SECONDS);
+
+        assertEquals(servlet.eventCounts(), List.of(1));
+    }
+
+    @Test
+    public void testDropOldest()
+            throws Exception
+    {
+        client = newEventClient(new BatchingEventClientConfig()
+                .setQueueSize(2));
+
+        ListenableFuture<Void> first = client.post(newEvent(0));
+        ListenableFuture<Void> second = client.post(newEvent(1));
+        ListenableFuture<Void> third = client.post(newEvent(2));
+
+        assertTrue(first.isDone());
+        try {
+            first.get();
+            fail("expected exception");
+        }
+        catch (ExecutionException e) {
+            assertInstanceOf(e.getCause(), RejectedExecutionException.class);
+        }
+        assertEquals(client.getEventsDropped().getTotalCount(), 1);
+
+        client.flush();
+        second.get(10, SECONDS);
+        third.get(10, SECONDS);
+        assertEquals(servlet.eventCounts(), List.of(2));
+    }
+
+    @Test
+    public void testRetriesServerError()
+            throws Exception
+    {
+        servlet.failures.set(2);
+        servlet.failureCode = 503;
+        client = newEventClient(new BatchingEventClientConfig()
+                .setMinBackoff(new Duration(1, MILLISECONDS))
+                .setMaxBackoff(new Duration(2, MILLISECONDS)));
+
+        ListenableFuture<Void> future = client.post(newEvent(0));
+        client.flush();
+        future.get(10, SECONDS);
+
+        assertEquals(servlet.requests.get(), 3);
+        assertEquals(client.getBatchRetries().getTotalCount(), 2);
+    }
+
+    @Test
+    public void testFailsAfterMaxRetries()
+            throws Exception
+    {
+        servlet.failures.set(10);
+        servlet.failureCode = 503;
+        client = newEventClient(new BatchingEventClientConfig()
+                .setMaxRetries(1)
+                .setMinBackoff(new Duration(1, MILLISECONDS))
+                .setMaxBackoff(new Duration(2, MILLISECONDS)));
+
+        ListenableFuture<Void> future = client.post(newEvent(0));
+        client.flush();
+        try {
+            future.get(10, SECONDS);
+            fail("expected exception");
+        }
+        catch (ExecutionException e) {
+            assertInstanceOf(e.getCause(), UnexpectedResponseException.class);
+        }
+
+        assertEquals(servlet.requests.get(), 2);
+        assertEquals(client.getEventsFailed().getTotalCount(), 1);
+    }
+
+    @Test
+    public void testDoesNotRetryClientError()
+            throws Exception
+    {
+        servlet.failures.set(10);
+        servlet.failureCode = 400;
+        client = newEventClient(new BatchingEventClientConfig()
+                .setMinBackoff(new Duration(1, MILLISECONDS))
+                .setMaxBackoff(new Duration(2, MILLISECONDS)));
+
+        ListenableFuture<Void> future = client.post(newEvent(0));
+        client.flush();
+        try {
+            future.get(10, SECONDS);
+            fail("expected exception");
+        }
+        catch (ExecutionException e) {
+            assertInstanceOf(e.getCause(), UnexpectedResponseException.class);
+        }
+
+        assertEquals(servlet.requests.get(), 1);
+    }
+
+    @Test
+    public void testCloseFlushes()
+            throws Exception
+    {
+        client = newEventClient(new BatchingEventClientConfig());
+
+        ListenableFuture<Void> future = client.post(newEvent(0));
+        client.close();
+        future.get(10, SECONDS);
+
+        assertEquals(servlet.eventCounts(), List.of(1));
+        assertTrue(client.post(newEvent(1)).isDone());
+    }
+
+    @Test
+    public void testCloseWaitsForInFlightBatches()
+            throws Exception
+    {
+        servlet.failures.set(1);
+        servlet.failureCode = 503;
+        servlet.responseDelayMillis = 100;
+        client = newEventClient(new BatchingEventClientConfig()
+                .setMinBackoff(new Duration(1, MILLISECONDS))
+                .setMaxBackoff(new Duration(2, MILLISECONDS)));
+
+        ListenableFuture<Void> future = client.post(newEvent(0));
+        client.close();
+
+        assertTrue(future.isDone());
+        future.get();
+        assertEquals(servlet.requests.get(), 2);
+        assertEquals(servlet.eventCounts(), List.of(1));
+    }
+
+    @Test
+    public void testCloseTimeout()
+            throws Exception
+    {
+        servlet.responseDelayMillis = 2_000;
+        client = newEventClient(new BatchingEventClientConfig()
+                .setCloseTimeout(new Duration(100, MILLISECONDS)));
+
+        ListenableFuture<Void> future = client.post(newEvent(0));
+        long start = System.nanoTime();
+        client.close();
+
+        assertTrue(NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000);
+        assertFalse(future.isDone());
+        servlet.responseDelayMillis = 0;
+    }
+
+    private BatchingEventClient newEventClient(BatchingEventClientConfig config)
+    {
+        NodeInfo nodeInfo = new NodeInfo("test");
+        JsonEventWriter eventWriter = new JsonEventWriter(nodeInfo, getValidEventTypeMetaDataSet(FixedDummyEventClass.class));
+        return new BatchingEventClient(new HttpEventClient(eventWriter, nodeInfo, httpClient), eventWriter, config);
+    }
+
+    private static FixedDummyEventClass newEvent(int i)
+    {
+        return new FixedDummyEventClass("localhost", new DateTime("2011-09-09T01:35:28.333Z"), UUID.randomUUID(), i, "event");
+    }
+
+    private class DummyServlet
+            extends HttpServlet
+    {
+        private final List<String> bodies = new CopyOnWriteArrayList<>();
+        private final AtomicInteger requests = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private volatile int failureCode;
+        private volatile long responseDelayMillis;
+
+        @Override
+        protected void doPost(HttpServletRequest request, HttpServletResponse response)
+                throws IOException
+        {
+            requests.incrementAndGet();
+            try {
+                Thread.sleep(responseDelayMillis);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String body = CharStreams.toString(new InputStreamReader(request.getInputStream(), UTF_8));
+            if (failures.getAndDecrement() > 0) {
+                response.sendError(failureCode);
+                return;
+            }
+            bodies.add(body);
+        }
+
+        private List<Integer> eventCounts()
+                throws IOException
+        {
+            List<Integer> counts = new ArrayList<>();
+            for (String body : bodies) {
+                counts.add(objectMapper.readValue(body, List.class).size());
+            }
+            return counts;
+        }
+    }
+}
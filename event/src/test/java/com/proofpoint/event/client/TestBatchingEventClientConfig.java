@@ -0,0 +1,106 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.event.client;
+
+import com.google.common.collect.ImmutableMap;
+import com.proofpoint.configuration.testing.ConfigAssertions;
+import com.proofpoint.event.client.BatchingEventClientConfig.OverflowPolicy;
+import com.proofpoint.units.DataSize;
+import com.proofpoint.units.Duration;
+import com.proofpoint.units.MinDataSize;
+import com.proofpoint.units.MinDuration;
+import jakarta.validation.constraints.AssertFalse;
+import jakarta.validation.constraints.Min;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static com.proofpoint.testing.ValidationAssertions.assertFailsValidation;
+import static com.proofpoint.testing.ValidationAssertions.assertValidates;
+import static com.proofpoint.units.DataSize.Unit.KILOBYTE;
+import static com.proofpoint.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+public class TestBatchingEventClientConfig
+{
+    @Test
+    public void testDefaults()
+    {
+        ConfigAssertions.assertRecordedDefaults(ConfigAssertions.recordDefaults(BatchingEventClientConfig.class)
+                .setMaxBatchEvents(500)
+                .setMaxBatchSize(new DataSize(1, MEGABYTE))
+                .setMaxDelay(new Duration(1, SECONDS))
+                .setMaxInFlight(4)
+                .setQueueSize(10_000)
+                .setOverflowPolicy(OverflowPolicy.DROP_OLDEST)
+                .setMaxRetries(3)
+                .setMinBackoff(new Duration(100, MILLISECONDS))
+                .setMaxBackoff(new Duration(10, SECONDS))
+                .setCloseTimeout(new Duration(10, SECONDS)));
+    }
+
+    @Test
+    public void testExplicitPropertyMappings()
+    {
+        Map<String, String> properties = new ImmutableMap.Builder<String, String>()
+                .put("event-client.batch.max-events", "100")
+                .put("event-client.batch.max-size", "64kB")
+                .put("event-client.batch.max-delay", "200ms")
+                .put("event-client.batch.max-in-flight", "2")
+                .put("event-client.batch.queue-size", "1000")
+                .put("event-client.batch.overflow-policy", "BLOCK")
+                .put("event-client.batch.max-retries", "5")
+                .put("event-client.batch.min-backoff", "20ms")
+                .put("event-client.batch.max-backoff", "2s")
+                .put("event-client.batch.close-timeout", "30s")
+                .build();
+
+        BatchingEventClientConfig expected = new BatchingEventClientConfig()
+                .setMaxBatchEvents(100)
+                .setMaxBatchSize(new DataSize(64, KILOBYTE))
+                .setMaxDelay(new Duration(200, MILLISECONDS))
+                .setMaxInFlight(2)
+                .setQueueSize(1000)
+                .setOverflowPolicy(OverflowPolicy.BLOCK)
+                .setMaxRetries(5)
+                .setMinBackoff(new Duration(20, MILLISECONDS))
+                .setMaxBackoff(new Duration(2, SECONDS))
+                .setCloseTimeout(new Duration(30, SECONDS));
+
+        ConfigAssertions.assertFullMapping(properties, expected);
+    }
+
+    @Test
+    public void testDefaultValidates()
+    {
+        assertValidates(new BatchingEventClientConfig());
+    }
+
+    @Test
+    public void testBeanValidation()
+    {
+        assertFailsValidation(new BatchingEventClientConfig().setMaxBatchEvents(0), "maxBatchEvents", "must be greater than or equal to 1", Min.class);
+        assertFailsValidation(new BatchingEventClientConfig().setMaxBatchSize(new DataSize(0, KILOBYTE)),
+                "maxBatchSize", "{com.proofpoint.units.MinDataSize.message}", MinDataSize.class);
+        assertFailsValidation(new BatchingEventClientConfig().setMaxDelay(new Duration(0, MILLISECONDS)),
+                "maxDelay", "{com.proofpoint.units.MinDuration.message}", MinDuration.class);
+        assertFailsValidation(new BatchingEventClientConfig().setMaxInFlight(0), "maxInFlight", "must be greater than or equal to 1", Min.class);
+        assertFailsValidation(new BatchingEventClientConfig().setQueueSize(0), "queueSize", "must be greater than or equal to 1", Min.class);
+        assertValidates(new BatchingEventClientConfig().setMaxRetries(0));
+        assertFailsValidation(new BatchingEventClientConfig().setMaxRetries(-1), "maxRetries", "must be greater than or equal to 0", Min.class);
+        assertFailsValidation(new BatchingEventClientConfig().setMinBackoff(new Duration(20, MILLISECONDS)).setMaxBackoff(new Duration(19, MILLISECONDS)),
+                "maxBackoffLessThanMinBackoff", "must be false", AssertFalse.class);
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.event.client;
+
+import com.proofpoint.event.client.EventSpool.SpooledRecords;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestEventSpool
+{
+    private Path directory;
+
+    @BeforeMethod
+    public void setup()
+            throws IOException
+    {
+        directory = Files.createTempDirectory("event-spool");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(directory, ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testAppendReadCommit()
+            throws IOException
+    {
+        try (EventSpool spool = new EventSpool(directory, 1024, 4096)) {
+            assertTrue(spool.isEmpty());
+            spool.append(record("a"));
+            spool.append(record("b"));
+            spool.append(record("c"));
+            assertFalse(spool.isEmpty());
+
+            SpooledRecords records = spool.read(2, 1024);
+            assertEquals(strings(records), List.of("a", "b"));
+            // Reading does not advance the checkpoint
+            assertEquals(strings(spool.read(2, 1024)), List.of("a", "b"));
+
+            spool.commit(records.end());
+            records = spool.read(10, 1024);
+            assertEquals(strings(records), List.of("c"));
+            spool.commit(records.end());
+            assertTrue(spool.isEmpty());
+            assertEquals(spool.getPendingBytes(), 0);
+            assertEquals(spool.read(10, 1024).records(), List.of());
+        }
+    }
+
+    @Test
+    public void testReadLimitedBySize()
+            throws IOException
+    {
+        try (EventSpool spool = new EventSpool(directory, 1024, 4096)) {
+            spool.append(new byte[100]);
+            spool.append(new byte[100]);
+            spool.append(new byte[100]);
+
+            assertEquals(spool.read(10, 250).records().size(), 2);
+            // A record larger than the limit is still read on its own
+            assertEquals(spool.read(10, 10).records().size(), 1);
+        }
+    }
+
+    @Test
+    public void testSegmentsRollAndAreDeleted()
+            throws IOException
+    {
+        try (EventSpool spool = new EventSpool(directory, 100, 1000)) {
+            for (int i = 0; i < 10; i++) {
+                spool.append(record("event-" + i + "-".repeat(30)));
+            }
+            assertEquals(spool.getSegmentCount(), 5);
+            assertEquals(segmentFiles(), 5);
+
+            SpooledRecords records = spool.read(5, 10_000);
+            assertEquals(records.records().size(), 5);
+            spool.commit(records.end());
+            assertEquals(spool.getSegmentCount(), 3);
+            assertEquals(segmentFiles(), 3);
+
+            records = spool.read(100, 10_000);
+            assertEquals(records.records().size(), 5);
+            assertTrue(new String(records.records().get(0), UTF_8).startsWith("event-5-"));
+            spool.commit(records.end());
+            assertEquals(spool.getSegmentCount(), 1);
+            assertTrue(spool.isEmpty());
+        }
+    }
+
+    @Test
+    public void testFull()
+            throws IOException
+    {
+        try (EventSpool spool = new EventSpool(directory, 100, 200)) {
+            for (int i = 0; i < 4; i++) {
+                spool.append(new byte[42]);
+            }
+            try {
+                spool.append(new byte[42]);
+                fail("expected IOException");
+            }
+            catch (IOException e) {
+                assertTrue(e.getMessage().contains("is full"), e.getMessage());
+            }
+
+            spool.commit(spool.read(2, 1000).end());
+            spool.append(new byte[42]);
+        }
+    }
+
+    @Test
+    public void testRecovery()
+            throws IOException
+    {
+        try (EventSpool spool = new EventSpool(directory, 100, 1000)) {
+            for (int i = 0; i < 6; i++) {
+                spool.append(record("event-" + i + "-".repeat(30)));
+            }
+            spool.commit(spool.read(3, 10_000).end());
+        }
+
+        try (EventSpool spool = new EventSpool(directory, 100, 1000)) {
+            List<String> records = strings(spool.read(100, 10_000));
+            assertEquals(records.size(), 3);
+            assertTrue(records.get(0).startsWith("event-3-"));
+            assertTrue(records.get(2).startsWith("event-5-"));
+
+            // Appends continue after the recovered records
+            spool.append(record("after"));
+            assertEquals(strings(spool.read(100, 10_000)).get(3), "after");
+        }
+    }
+
+    @Test
+    public void testRecoveryTruncatesTornRecord()
+            throws IOException
+    {
+        try (EventSpool spool = new EventSpool(directory, 1000, 10_000)) {
+            spool.append(record("a"));
+            spool.append(record("b"));
+        }
+        Path segment = lastSegment();
+        long validLength = Files.size(segment);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            // header of a record whose body was never written
+            file.seek(validLength);
+            file.writeInt(100);
+            file.writeInt(0);
+            file.write(new byte[10]);
+        }
+
+        try (EventSpool spool = new EventSpool(directory, 1000, 10_000)) {
+            assertEquals(Files.size(segment), validLength);
+            spool.append(record("c"));
+            assertEquals(strings(spool.read(100, 10_000)), List.of("a", "b", "c"));
+        }
+    }
+
+    @Test
+    public void testCorruptRecordSkipsRestOfSegment()
+            throws IOException
+    {
+        try (EventSpool spool = new EventSpool(directory, 30, 1000)) {
+            spool.append(record("aaaa"));
+            spool.append(record("bbbb"));
+            spool.append(record("cccc"));
+        }
+        Path firstSegment;
+        try (Stream<Path> files = Files.list(directory)) {
+            firstSegment = files.filter(path -> path.toString().endsWith(".spool")).sorted().findFirst().orElseThrow();
+        }
+        try (RandomAccessFile file = new RandomAccessFile(firstSegment.toFile(), "rw")) {
+            // corrupt the payload of the second record in the first segment
+            file.seek(12 + 8 + 1);
+            file.write('X');
+        }
+
+        try (EventSpool spool = new EventSpool(directory, 30, 1000)) {
+            SpooledRecords records = spool.read(100, 10_000);
+            assertEquals(strings(records), List.of("aaaa", "cccc"));
+        }
+    }
+
+    private static byte[] record(String value)
+    {
+        return value.getBytes(UTF_8);
+    }
+
+    private static List<String> strings(SpooledRecords records)
+    {
+        return records.records().stream()
+                .map(bytes -> new String(bytes, UTF_8))
+                .toList();
+    }
+
+    private long segmentFiles()
+            throws IOException
+    {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".spool")).count();
+        }
+    }
+
+    private Path lastSegment()
+            throws IOException
+    {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".spool")).sorted().reduce((first, second) -> second).orElseThrow();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.event.client;
+
+import com.google.common.collect.ImmutableMap;
+import com.proofpoint.configuration.testing.ConfigAssertions;
+import com.proofpoint.units.DataSize;
+import com.proofpoint.units.Duration;
+import com.proofpoint.units.MinDataSize;
+import jakarta.validation.constraints.AssertFalse;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static com.proofpoint.testing.ValidationAssertions.assertFailsValidation;
+import static com.proofpoint.testing.ValidationAssertions.assertValidates;
+import static com.proofpoint.units.DataSize.Unit.GIGABYTE;
+import static com.proofpoint.units.DataSize.Unit.KILOBYTE;
+import static com.proofpoint.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+public class TestEventSpoolConfig
+{
+    @Test
+    public void testDefaults()
+    {
+        ConfigAssertions.assertRecordedDefaults(ConfigAssertions.recordDefaults(EventSpoolConfig.class)
+                .setPath("var/event-spool")
+                .setMaxSegmentSize(new DataSize(16, MEGABYTE))
+                .setMaxSize(new DataSize(1, GIGABYTE))
+                .setMaxBatchEvents(1000)
+                .setMaxBatchSize(new DataSize(4, MEGABYTE))
+                .setMinBackoff(new Duration(100, MILLISECONDS))
+                .setMaxBackoff(new Duration(1, MINUTES)));
+    }
+
+    @Test
+    public void testExplicitPropertyMappings()
+    {
+        Map<String, String> properties = new ImmutableMap.Builder<String, String>()
+                .put("event-client.spool.path", "/tmp/spool")
+                .put("event-client.spool.max-segment-size", "1MB")
+                .put("event-client.spool.max-size", "100MB")
+                .put("event-client.spool.max-batch-events", "50")
+                .put("event-client.spool.max-batch-size", "64kB")
+                .put("event-client.spool.min-backoff", "20ms")
+                .put("event-client.spool.max-backoff", "5s")
+                .build();
+
+        EventSpoolConfig expected = new EventSpoolConfig()
+                .setPath("/tmp/spool")
+                .setMaxSegmentSize(new DataSize(1, MEGABYTE))
+                .setMaxSize(new DataSize(100, MEGABYTE))
+                .setMaxBatchEvents(50)
+                .setMaxBatchSize(new DataSize(64, KILOBYTE))
+                .setMinBackoff(new Duration(20, MILLISECONDS))
+                .setMaxBackoff(new Duration(5, SECONDS));
+
+        ConfigAssertions.assertFullMapping(properties, expected);
+    }
+
+    @Test
+    public void testDefaultValidates()
+    {
+        assertValidates(new EventSpoolConfig());
+    }
+
+    @Test
+    public void testBeanValidation()
+    {
+        assertFailsValidation(new EventSpoolConfig().setPath(null), "path", "must not be null", NotNull.class);
+        assertFailsValidation(new EventSpoolConfig().setMaxSegmentSize(new DataSize(512, DataSize.Unit.BYTE)),
+                "maxSegmentSize", "{com.proofpoint.units.MinDataSize.message}", MinDataSize.class);
+        assertFailsValidation(new EventSpoolConfig().setMaxSegmentSize(new DataSize(2, MEGABYTE)).setMaxSize(new DataSize(1, MEGABYTE)),
+                "maxSizeLessThanMaxSegmentSize", "must be false", AssertFalse.class);
+        assertFailsValidation(new EventSpoolConfig().setMaxBatchEvents(0), "maxBatchEvents", "must be greater than or equal to 1", Min.class);
+        assertFailsValidation(new EventSpoolConfig().setMinBackoff(new Duration(20, MILLISECONDS)).setMaxBackoff(new Duration(19, MILLISECONDS)),
+                "maxBackoffLessThanMinBackoff", "must be false", AssertFalse.class);
+    }
+}
@@ -27,6 +27,7 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -34,7 +35,12 @@ import static com.proofpoint.tracetoken.TraceTokenManager.addTraceTokenPropertie
 import static com.proofpoint.tracetoken.TraceTokenManager.clearRequestToken;
 import static com.proofpoint.tracetoken.TraceTokenManager.registerRequestToken;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static com.proofpoint.testing.Assertions.assertInstanceOf;
+import static java.io.OutputStream.nullOutputStream;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 public class TestJsonEventSerializer
 {
@@ -108,4 +114,135 @@ public class TestJsonEventSerializer
         FixedDummyEventClass event = TestingUtils.getEvents().get(0);
         eventSerializer.serialize(event, null, jsonGenerator);
     }
+
+    @Test
+    public void testPrimitiveFields()
+            throws Exception
+    {
+        JsonEventSerializer eventSerializer = new JsonEventSerializer(new NodeInfo("test"), PrimitiveEvent.class);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonGenerator jsonGenerator = new JsonFactory().createGenerator(out, JsonEncoding.UTF8);
+
+        eventSerializer.serialize(new PrimitiveEvent(), null, jsonGenerator);
+
+        String json = out.toString(UTF_8);
+        assertEquals(new ObjectMapper().readValue(json, Map.class).get("data"), ImmutableMap.builder()
+                .put("booleanValue", true)
+                .put("byteValue", -2)
+                .put("doubleValue", 1.5)
+                .put("floatValue", 1.1)
+                .put("intValue", 3)
+                .put("longValue", 5_000_000_000L)
+                .put("shortValue", 7)
+                .build(), "JSON encoding " + json);
+        assertTrue(json.contains("\"floatValue\":1.1,"), "JSON encoding " + json);
+    }
+
+    @Test
+    public void testGetterNotInvokedReflectively()
+            throws Exception
+    {
+        JsonEventSerializer eventSerializer = new JsonEventSerializer(new NodeInfo("test"), FailingEvent.class);
+        JsonGenerator jsonGenerator = new JsonFactory().createGenerator(nullOutputStream());
+
+        try {
+            eventSerializer.serialize(new FailingEvent(), null, jsonGenerator);
+            fail("expected InvalidEventException");
+        }
+        catch (InvalidEventException e) {
+            assertEquals(e.getMessage(), "Unable to get value of event field value: Exception occurred while invoking [public java.lang.String com.proofpoint.event.client.TestJsonEventSerializer$FailingEvent.getValue()]");
+            assertInstanceOf(e.getCause(), UnsupportedOperationException.class);
+            for (StackTraceElement element : e.getCause().getStackTrace()) {
+                if (element.getClassName().equals(EventFieldMetadata.class.getName())) {
+                    break;
+                }
+                assertFalse(element.getClassName().startsWith("jdk.internal.reflect."), "getter invoked through reflection");
+            }
+        }
+    }
+
+    @Test
+    public void testPrimitiveGetterThrowsCheckedException()
+            throws Exception
+    {
+        JsonEventSerializer eventSerializer = new JsonEventSerializer(new NodeInfo("test"), CheckedFailingEvent.class);
+        JsonGenerator jsonGenerator = new JsonFactory().createGenerator(nullOutputStream());
+
+        try {
+            eventSerializer.serialize(new CheckedFailingEvent(), null, jsonGenerator);
+            fail("expected InvalidEventException");
+        }
+        catch (InvalidEventException e) {
+            assertEquals(e.getMessage(), "Unable to get value of event field value: Exception occurred while invoking [public int com.proofpoint.event.client.TestJsonEventSerializer$CheckedFailingEvent.getValue() throws java.io.IOException]");
+            assertInstanceOf(e.getCause(), IOException.class);
+        }
+    }
+
+    @EventType("Primitive")
+    public static class PrimitiveEvent
+    {
+        @EventField
+        public boolean isBooleanValue()
+        {
+            return true;
+        }
+
+        @EventField
+        public byte getByteValue()
+        {
+            return -2;
+        }
+
+        @EventField
+        public double getDoubleValue()
+        {
+            return 1.5;
+        }
+
+        @EventField
+        public float getFloatValue()
+        {
+            return 1.1f;
+        }
+
+        @EventField
+        public int getIntValue()
+        {
+            return 3;
+        }
+
+        @EventField
+        public long getLongValue()
+        {
+            return 5_000_000_000L;
+        }
+
+        @EventField
+        public short getShortValue()
+        {
+            return 7;
+        }
+    }
+
+    @EventType("Failing")
+    public static class FailingEvent
+    {
+        @EventField
+        public String getValue()
+        {
+            throw new UnsupportedOperationException("failed");
+        }
+    }
+
+    @EventType("CheckedFailing")
+    public static class CheckedFailingEvent
+    {
+        @EventField
+        public int getValue()
+                throws IOException
+        {
+            throw new IOException("failed");
+        }
+    }
 }
@@ -0,0 +1,295 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.event.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.CharStreams;
+import com.proofpoint.http.client.HttpClient;
+import com.proofpoint.http.client.HttpClientConfig;
+import com.proofpoint.http.client.balancing.BalancingHttpClient;
+import com.proofpoint.http.client.balancing.BalancingHttpClientConfig;
+import com.proofpoint.http.client.balancing.HttpServiceBalancerConfig;
+import com.proofpoint.http.client.balancing.HttpServiceBalancerImpl;
+import com.proofpoint.http.client.balancing.HttpServiceBalancerStats;
+import com.proofpoint.http.client.jetty.JettyHttpClient;
+import com.proofpoint.node.NodeInfo;
+import com.proofpoint.reporting.testing.TestingReportCollectionFactory;
+import com.proofpoint.units.DataSize;
+import com.proofpoint.units.Duration;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.eclipse.jetty.ee10.servlet.ServletContextHandler;
+import org.eclipse.jetty.ee10.servlet.ServletHolder;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.joda.time.DateTime;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static com.proofpoint.concurrent.Threads.daemonThreadsNamed;
+import static com.proofpoint.event.client.EventTypeMetadata.getValidEventTypeMetaDataSet;
+import static com.proofpoint.testing.Assertions.assertInstanceOf;
+import static com.proofpoint.tracetoken.TraceTokenManager.registerRequestToken;
+import static com.proofpoint.units.DataSize.Unit.KILOBYTE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestSpoolingEventClient
+{
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private Path directory;
+    private DummyServlet servlet;
+    private Server server;
+    private HttpClient httpClient;
+    private SpoolingEventClient client;
+
+    @BeforeMethod
+    public void setup()
+            throws Exception
+    {
+        directory = Files.createTempDirectory("event-spool");
+        servlet = new DummyServlet();
+        server = new Server();
+        ServerConnector connector = new ServerConnector(server, new HttpConnectionFactory());
+        connector.setPort(0);
+        server.addConnector(connector);
+        ServletContextHandler context = new ServletContextHandler(ServletContextHandler.NO_SESSIONS);
+        context.addServlet(new ServletHolder(servlet), "/*");
+        server.setHandler(context);
+        server.start();
+
+        HttpServiceBalancerImpl balancer = new HttpServiceBalancerImpl(
+                "test collector balancer",
+                new TestingReportCollectionFactory().createReportCollection(HttpServiceBalancerStats.class),
+                new HttpServiceBalancerConfig()
+        );
+        balancer.updateHttpUris(Set.of(URI.create("http://127.0.0.1:" + connector.getLocalPort())));
+        httpClient = new BalancingHttpClient(balancer,
+                new JettyHttpClient(new HttpClientConfig()),
+                new BalancingHttpClientConfig()
+                        .setMaxAttempts(1),
+                newSingleThreadScheduledExecutor(daemonThreadsNamed("event-test-retry")));
+        registerRequestToken("sample-trace-token");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws Exception
+    {
+        if (client != null) {
+            client.close();
+        }
+        server.stop();
+        httpClient.close();
+        deleteRecursively(directory, ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testShipsSpooledEvents()
+            throws Exception
+    {
+        client = newEventClient(newConfig());
+
+        client.post(TestingUtils.getEvents()).get(10, SECONDS);
+        waitFor(() -> client.getEventsShipped().getTotalCount() == 3);
+
+        assertEquals(servlet.bodies.size(), 1);
+        assertEquals(objectMapper.readValue(servlet.bodies.get(0), Object.class), TestingUtils.getExpectedJson());
+        assertEquals(client.getEventsSpooled().getTotalCount(), 3);
+        waitFor(() -> client.getSpooledBytes() == 0);
+    }
+
+    @Test
+    public void testShipsInOrderInBatches()
+            throws Exception
+    {
+        client = newEventClient(newConfig()
+                .setMaxBatchEvents(3));
+
+        for (int i = 0; i < 10; i++) {
+            client.post(newEvent(i)).get(10, SECONDS);
+        }
+        waitFor(() -> client.getEventsShipped().getTotalCount() == 10);
+
+        assertEquals(servlet.intValues(), List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+        assertTrue(servlet.bodies.size() >= 4, "batches " + servlet.bodies.size());
+    }
+
+    @Test
+    public void testRetriesUntilCollectorRecovers()
+            throws Exception
+    {
+        servlet.failures.set(3);
+        servlet.failureCode = 503;
+        client = newEventClient(newConfig());
+
+        client.post(newEvent(0)).get(10, SECONDS);
+        waitFor(() -> client.getEventsShipped().getTotalCount() == 1);
+
+        assertEquals(servlet.requests.get(), 4);
+        assertEquals(client.getShipFailures().getTotalCount(), 3);
+        assertEquals(servlet.intValues(), List.of(0));
+    }
+
+    @Test
+    public void testDiscardsEventsRejectedByCollector()
+            throws Exception
+    {
+        servlet.failures.set(1);
+        servlet.failureCode = 400;
+        client = newEventClient(newConfig());
+
+        client.post(newEvent(0)).get(10, SECONDS);
+        waitFor(() -> client.getEventsDiscarded().getTotalCount() == 1);
+        client.post(newEvent(1)).get(10, SECONDS);
+        waitFor(() -> client.getEventsShipped().getTotalCount() == 1);
+
+        assertEquals(servlet.intValues(), List.of(1));
+    }
+
+    @Test
+    public void testShipsEventsSpooledBeforeRestart()
+            throws Exception
+    {
+        servlet.failures.set(Integer.MAX_VALUE);
+        servlet.failureCode = 503;
+        client = newEventClient(newConfig());
+        client.post(newEvent(0), newEvent(1)).get(10, SECONDS);
+        waitFor(() -> client.getShipFailures().getTotalCount() > 0);
+        client.close();
+
+        servlet.failures.set(0);
+        client = newEventClient(newConfig());
+        client.start();
+        waitFor(() -> client.getEventsShipped().getTotalCount() == 2);
+
+        // Delivery is at least once: a post in flight during close may also have been accepted
+        List<Integer> values = servlet.intValues();
+        assertEquals(values.subList(values.size() - 2, values.size()), List.of(0, 1));
+    }
+
+    @Test
+    public void testRejectsWhenSpoolIsFull()
+            throws Exception
+    {
+        servlet.failures.set(Integer.MAX_VALUE);
+        servlet.failureCode = 503;
+        client = newEventClient(newConfig()
+                .setMaxSegmentSize(new DataSize(1, KILOBYTE))
+                .setMaxSize(new DataSize(1, KILOBYTE)));
+
+        try {
+            for (int i = 0; i < 100; i++) {
+                client.post(newEvent(i)).get(10, SECONDS);
+            }
+            fail("expected exception");
+        }
+        catch (ExecutionException e) {
+            assertInstanceOf(e.getCause(), IOException.class);
+        }
+        assertEquals(client.getEventsRejected().getTotalCount(), 1);
+    }
+
+    private EventSpoolConfig newConfig()
+    {
+        return new EventSpoolConfig()
+                .setPath(directory.toString())
+                .setMinBackoff(new Duration(1, MILLISECONDS))
+                .setMaxBackoff(new Duration(10, MILLISECONDS));
+    }
+
+    private SpoolingEventClient newEventClient(EventSpoolConfig config)
+    {
+        NodeInfo nodeInfo = new NodeInfo("test");
+        JsonEventWriter eventWriter = new JsonEventWriter(nodeInfo, getValidEventTypeMetaDataSet(FixedDummyEventClass.class));
+        return new SpoolingEventClient(new HttpEventClient(eventWriter, nodeInfo, httpClient), eventWriter, config);
+    }
+
+    private static FixedDummyEventClass newEvent(int i)
+    {
+        return new FixedDummyEventClass("localhost", new DateTime("2011-09-09T01:35:28.333Z"), UUID.randomUUID(), i, "event");
+    }
+
+    private static void waitFor(BooleanSupplier condition)
+            throws InterruptedException
+    {
+        long deadline = System.nanoTime() + SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("timed out waiting for condition");
+            }
+            MILLISECONDS.sleep(10);
+        }
+    }
+
+    private class DummyServlet
+            extends HttpServlet
+    {
+        private final List<String> bodies = new CopyOnWriteArrayList<>();
+        private final AtomicInteger requests = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private volatile int failureCode;
+
+        @Override
+        protected void doPost(HttpServletRequest request, HttpServletResponse response)
+                throws IOException
+        {
+            requests.incrementAndGet();
+            String body = CharStreams.toString(new InputStreamReader(request.getInputStream(), UTF_8));
+            if (failures.getAndDecrement() > 0) {
+                response.sendError(failureCode);
+                return;
+            }
+            bodies.add(body);
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<Integer> intValues()
+                throws IOException
+        {
+            List<Integer> values = new ArrayList<>();
+            for (String body : bodies) {
+                for (Map<String, Object> event : (List<Map<String, Object>>) objectMapper.readValue(body, List.class)) {
+                    values.add((Integer) ((Map<String, Object>) event.get("data")).get("intValue"));
+                }
+            }
+            return values;
+        }
+    }
+}
@@ -16,7 +16,7 @@
 package com.proofpoint.http.client;
 
 public sealed interface BodySource
-    permits DynamicBodySource, InputStreamBodySource, StaticBodyGenerator
+    permits ByteBufferBodySource, DynamicBodySource, FileBodySource, InputStreamBodySource, StaticBodyGenerator
 {
     /**
      * @return the content length, if known, or -1 if the content length is unknown
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.client;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ListMultimap;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A response read fully into memory, from which any number of independent
+ * {@link Response} views may be created.
+ */
+final class BufferedResponse
+{
+    private static final ResponseHandler<BufferedResponse, Exception> BUFFERING_RESPONSE_HANDLER = new ResponseHandler<>()
+    {
+        @Override
+        public BufferedResponse handleException(Request request, Exception exception)
+                throws Exception
+        {
+            throw exception;
+        }
+
+        @Override
+        public BufferedResponse handle(Request request, Response response)
+                throws Exception
+        {
+            byte[] body;
+            try (InputStream inputStream = response.getInputStream()) {
+                body = inputStream.readAllBytes();
+            }
+            return new BufferedResponse(response.getStatusCode(), response.getStatusMessage(), response.getHeaders(), ByteBuffer.wrap(body));
+        }
+    };
+
+    private final int statusCode;
+    private final String statusMessage;
+    private final ListMultimap<HeaderName, String> headers;
+    private final ByteBuffer body;
+
+    BufferedResponse(int statusCode, String statusMessage, ListMultimap<HeaderName, String> headers, ByteBuffer body)
+    {
+        this.statusCode = statusCode;
+        this.statusMessage = statusMessage;
+        this.headers = ImmutableListMultimap.copyOf(requireNonNull(headers, "headers is null"));
+        this.body = requireNonNull(body, "body is null").asReadOnlyBuffer();
+    }
+
+    /**
+     * Returns a response handler that buffers the response and rethrows
+     * any exception.
+     */
+    static ResponseHandler<BufferedResponse, Exception> bufferingResponseHandler()
+    {
+        return BUFFERING_RESPONSE_HANDLER;
+    }
+
+    int getStatusCode()
+    {
+        return statusCode;
+    }
+
+    String getStatusMessage()
+    {
+        return statusMessage;
+    }
+
+    ListMultimap<HeaderName, String> getHeaders()
+    {
+        return headers;
+    }
+
+    String getHeader(String name)
+    {
+        return headers.get(HeaderName.of(name)).stream().findFirst().orElse(null);
+    }
+
+    ByteBuffer getBody()
+    {
+        return body.duplicate();
+    }
+
+    int getBodySize()
+    {
+        return body.remaining();
+    }
+
+    Response newView()
+    {
+        ByteBufferInputStream inputStream = new ByteBufferInputStream(body.duplicate());
+        return new Response()
+        {
+            @Override
+            public int getStatusCode()
+            {
+                return statusCode;
+            }
+
+            @Override
+            public String getStatusMessage()
+            {
+                return statusMessage;
+            }
+
+            @Override
+            public ListMultimap<HeaderName, String> getHeaders()
+            {
+                return headers;
+            }
+
+            @Override
+            public long getBytesRead()
+            {
+                return inputStream.getBytesRead();
+            }
+
+            @Override
+            public InputStream getInputStream()
+            {
+                return inputStream;
+            }
+        };
+    }
+
+    private static class ByteBufferInputStream
+            extends InputStream
+    {
+        private final ByteBuffer buffer;
+        private final int start;
+
+        ByteBufferInputStream(ByteBuffer buffer)
+        {
+            this.buffer = buffer;
+            start = buffer.position();
+        }
+
+        long getBytesRead()
+        {
+            return buffer.position() - start;
+        }
+
+        @Override
+        public int read()
+        {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            return buffer.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length)
+        {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            length = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, length);
+            return length;
+        }
+
+        @Override
+        public long skip(long n)
+        {
+            int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available()
+        {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.client;
+
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.proofpoint.http.client.HttpClient.HttpResponseFuture;
+import com.proofpoint.tracetoken.TraceToken;
+import com.proofpoint.tracetoken.TraceTokenScope;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static com.google.common.util.concurrent.Futures.addCallback;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static com.proofpoint.tracetoken.TraceTokenManager.getCurrentTraceToken;
+import static com.proofpoint.tracetoken.TraceTokenManager.registerTraceToken;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Applies a {@link ResponseHandler} to a view of a {@link BufferedResponse}
+ * once it is available, with the trace token of the thread that created
+ * the future.
+ */
+class BufferedResponseFuture<T, E extends Exception>
+        extends AbstractFuture<T>
+        implements HttpResponseFuture<T>
+{
+    private final Request request;
+    private final ResponseHandler<T, E> responseHandler;
+    private final Supplier<String> stateSupplier;
+    private final Runnable onCancel;
+    private final TraceToken traceToken = getCurrentTraceToken();
+
+    BufferedResponseFuture(Request request, ResponseHandler<T, E> responseHandler, Supplier<String> stateSupplier, Runnable onCancel)
+    {
+        this.request = requireNonNull(request, "request is null");
+        this.responseHandler = requireNonNull(responseHandler, "responseHandler is null");
+        this.stateSupplier = requireNonNull(stateSupplier, "stateSupplier is null");
+        this.onCancel = requireNonNull(onCancel, "onCancel is null");
+    }
+
+    /**
+     * Waits for the result of a future created by an {@link HttpClient}
+     * that uses {@link BufferedResponseFuture}, as a synchronous
+     * {@link HttpClient#execute} would return it.
+     */
+    static <T, E extends Exception> T getResponse(HttpResponseFuture<T> future, Request request, ResponseHandler<T, E> responseHandler)
+            throws E
+    {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return responseHandler.handleException(request, e);
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throwIfUnchecked(cause);
+            if (cause instanceof Exception) {
+                // the response handler only throws exceptions of type E
+                //noinspection unchecked
+                throw (E) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    void listenTo(ListenableFuture<BufferedResponse> response)
+    {
+        addCallback(response, new FutureCallback<>()
+        {
+            @Override
+            public void onSuccess(BufferedResponse result)
+            {
+                if (isDone()) {
+                    return;
+                }
+                try (TraceTokenScope ignored = registerTraceToken(traceToken)) {
+                    set(responseHandler.handle(request, result.newView()));
+                }
+                catch (Throwable e) {
+                    setException(e);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable t)
+            {
+                if (isDone()) {
+                    return;
+                }
+                if (t instanceof CancellationException) {
+                    cancel(false);
+                    return;
+                }
+                try (TraceTokenScope ignored = registerTraceToken(traceToken)) {
+                    if (t instanceof Exception exception) {
+                        set(responseHandler.handleException(request, exception));
+                    }
+                    else {
+                        setException(t);
+                    }
+                }
+                catch (Throwable e) {
+                    setException(e);
+                }
+            }
+        }, directExecutor());
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning)
+    {
+        if (super.cancel(mayInterruptIfRunning)) {
+            onCancel.run();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String getState()
+    {
+        return stateSupplier.get();
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.client;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A request body held in {@link ByteBuffer}s, which may be direct or
+ * memory-mapped. The buffers are passed to the transport without being copied.
+ * <p>
+ * The remaining bytes of each buffer at the time this is created are sent.
+ * The buffers must not be modified while requests using them are in progress.
+ */
+public non-sealed class ByteBufferBodySource
+        implements BodySource
+{
+    public static ByteBufferBodySource createByteBufferBodySource(ByteBuffer... buffers)
+    {
+        return new ByteBufferBodySource(List.of(buffers));
+    }
+
+    public static ByteBufferBodySource createByteBufferBodySource(List<ByteBuffer> buffers)
+    {
+        return new ByteBufferBodySource(buffers);
+    }
+
+    private final List<ByteBuffer> buffers;
+    private final long length;
+
+    protected ByteBufferBodySource(List<ByteBuffer> buffers)
+    {
+        requireNonNull(buffers, "buffers is null");
+        this.buffers = buffers.stream()
+                .map(ByteBuffer::duplicate)
+                .toList();
+        length = this.buffers.stream()
+                .mapToLong(ByteBuffer::remaining)
+                .sum();
+    }
+
+    @Override
+    public final long getLength()
+    {
+        return length;
+    }
+
+    /**
+     * Returns views of the body's buffers, with independent positions, so
+     * each attempt at a request can consume its own.
+     */
+    public List<ByteBuffer> getBuffers()
+    {
+        return buffers.stream()
+                .map(ByteBuffer::duplicate)
+                .toList();
+    }
+}
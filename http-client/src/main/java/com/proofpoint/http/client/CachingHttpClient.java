@@ -0,0 +1,552 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.client;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Splitter;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ListMultimap;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.proofpoint.reporting.Gauge;
+import com.proofpoint.stats.SparseCounterStat;
+import com.proofpoint.units.DataSize;
+import jakarta.annotation.Nullable;
+import org.weakref.jmx.Flatten;
+import org.weakref.jmx.Nested;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+
+import static com.google.common.cache.RemovalListeners.asynchronous;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.Futures.transform;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static com.proofpoint.http.client.BufferedResponse.bufferingResponseHandler;
+import static com.proofpoint.concurrent.Threads.daemonThreadsNamed;
+import static com.proofpoint.http.client.BufferedResponseFuture.getResponse;
+import static java.lang.Math.max;
+import static java.util.Locale.ENGLISH;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * An {@link HttpClient} that caches responses to GET requests according
+ * to their {@link CacheControl} and {@code Vary} headers.
+ * <p>
+ * Fresh responses are served from the cache. Stale responses that have an
+ * {@code ETag} or {@code Last-Modified} header are revalidated with a
+ * conditional request, and served from the cache if the server responds
+ * with 304 Not Modified. Responses are held in memory up to a maximum total
+ * size and, if a directory is configured, responses evicted from memory
+ * are written to memory-mapped files by a background thread.
+ * <p>
+ * The cache is shared by all callers of the client, so it does not store
+ * {@code private} responses, and responses to requests with an
+ * {@code Authorization} header are only stored and served if the response
+ * is marked {@code public}, {@code s-maxage} or {@code must-revalidate}.
+ * Requests with {@code Cache-Control: no-store} bypass the cache.
+ */
+public class CachingHttpClient
+        implements HttpClient
+{
+    private static final Splitter LIST_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final HttpClient delegate;
+    private final Ticker ticker;
+    private final Cache<CacheKey, CacheEntry> memoryCache;
+    @Nullable
+    private final DiskResponseCache<CacheKey, CacheMetadata> diskCache;
+    @Nullable
+    private final ExecutorService diskWriteExecutor;
+    private final Cache<URI, Variants> variants;
+    private final SparseCounterStat hits = new SparseCounterStat();
+    private final SparseCounterStat misses = new SparseCounterStat();
+    private final SparseCounterStat revalidations = new SparseCounterStat();
+
+    public CachingHttpClient(HttpClient delegate, HttpClientConfig config)
+    {
+        this(delegate, config, config.getCacheDiskPath() == null ? null : newSingleThreadExecutor(daemonThreadsNamed("http-client-cache-writer")));
+    }
+
+    private CachingHttpClient(HttpClient delegate, HttpClientConfig config, @Nullable ExecutorService diskWriteExecutor)
+    {
+        this(delegate,
+                config.getCacheMaxSize(),
+                config.getCacheDiskPath() == null ? null : Paths.get(config.getCacheDiskPath()),
+                config.getCacheDiskMaxSize(),
+                diskWriteExecutor,
+                Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    CachingHttpClient(HttpClient delegate, DataSize maxSize, @Nullable Path diskPath, DataSize diskMaxSize, @Nullable Executor diskWriteExecutor, Ticker ticker)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.ticker = requireNonNull(ticker, "ticker is null");
+        this.diskWriteExecutor = diskWriteExecutor instanceof ExecutorService executorService ? executorService : null;
+
+        CacheBuilder<CacheKey, CacheEntry> builder = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((CacheKey key, CacheEntry entry) -> entry.weight());
+        if (diskPath == null) {
+            diskCache = null;
+        }
+        else {
+            requireNonNull(diskWriteExecutor, "diskWriteExecutor is null");
+            diskCache = new DiskResponseCache<>(diskPath, diskMaxSize.toBytes());
+            RemovalListener<CacheKey, CacheEntry> spill = notification -> {
+                if (notification.getCause() == RemovalCause.SIZE) {
+                    CacheEntry entry = notification.getValue();
+                    diskCache.put(notification.getKey(), entry.metadata(), entry.response().getBody());
+                }
+            };
+            builder.removalListener(asynchronous(spill, diskWriteExecutor));
+        }
+        memoryCache = builder.build();
+
+        // Every stored entry weighs at least ENTRY_OVERHEAD, so the index can
+        // address as many entries as the memory and disk tiers can hold
+        long maxEntriesWeight = maxSize.toBytes() + (diskPath == null ? 0 : diskMaxSize.toBytes());
+        variants = CacheBuilder.newBuilder()
+                .maximumWeight(maxEntriesWeight)
+                .weigher((URI uri, Variants value) -> value.weight())
+                .removalListener((RemovalListener<URI, Variants>) notification -> {
+                    if (notification.wasEvicted()) {
+                        invalidate(notification.getValue().keys());
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public <T, E extends Exception> T execute(Request request, ResponseHandler<T, E> responseHandler)
+            throws E
+    {
+        if (!isCacheable(request)) {
+            return delegate.execute(request, responseHandler);
+        }
+
+        return getResponse(executeAsync(request, responseHandler), request, responseHandler);
+    }
+
+    @Override
+    public <T, E extends Exception> HttpResponseFuture<T> executeAsync(Request request, ResponseHandler<T, E> responseHandler)
+    {
+        requireNonNull(request, "request is null");
+        requireNonNull(responseHandler, "responseHandler is null");
+
+        if (!isCacheable(request)) {
+            return delegate.executeAsync(request, responseHandler);
+        }
+
+        CacheControl requestCacheControl = cacheControl(request.getHeader("Cache-Control"));
+        boolean mustRevalidate = requestCacheControl != null
+                && (requestCacheControl.isNoCache() || requestCacheControl.getMaxAge() == 0);
+
+        CacheEntry entry = lookup(request);
+        if (entry != null && !mustRevalidate && entry.isFresh(ticker.read())) {
+            hits.add(1);
+            BufferedResponseFuture<T, E> future = new BufferedResponseFuture<>(request, responseHandler, () -> "Cached", () -> {});
+            future.listenTo(immediateFuture(entry.response()));
+            return future;
+        }
+
+        Request subRequest = request;
+        if (entry != null && entry.hasValidator()) {
+            Request.Builder builder = Request.Builder.fromRequest(request);
+            if (entry.etag() != null) {
+                builder.setHeader("If-None-Match", entry.etag());
+            }
+            if (entry.lastModified() != null) {
+                builder.setHeader("If-Modified-Since", entry.lastModified());
+            }
+            subRequest = builder.build();
+        }
+
+        long requestTick = ticker.read();
+        HttpResponseFuture<BufferedResponse> delegateFuture = delegate.executeAsync(subRequest, bufferingResponseHandler());
+        ListenableFuture<BufferedResponse> response = transform(delegateFuture,
+                bufferedResponse -> processResponse(request, entry, bufferedResponse, requestTick),
+                directExecutor());
+
+        BufferedResponseFuture<T, E> future = new BufferedResponseFuture<>(request, responseHandler, delegateFuture::getState, () -> delegateFuture.cancel(true));
+        future.listenTo(response);
+        return future;
+    }
+
+    private BufferedResponse processResponse(Request request, @Nullable CacheEntry entry, BufferedResponse response, long requestTick)
+    {
+        if (entry != null && response.getStatusCode() == 304) {
+            revalidations.add(1);
+            CacheEntry revalidated = entry.revalidate(response, requestTick);
+            if (revalidated.mayStore(request)) {
+                store(request, revalidated);
+            }
+            return revalidated.response();
+        }
+
+        misses.add(1);
+        CacheEntry newEntry = CacheEntry.forResponse(response, requestTick);
+        if (newEntry != null && newEntry.mayStore(request)) {
+            store(request, newEntry);
+        }
+        return response;
+    }
+
+    private void store(Request request, CacheEntry entry)
+    {
+        List<HeaderName> vary = entry.vary();
+        CacheKey key = cacheKey(request, vary);
+        List<CacheKey> unreachable = new ArrayList<>();
+        variants.asMap().compute(request.getUri(), (uri, existing) -> {
+            if (existing == null || !existing.vary().equals(vary)) {
+                if (existing != null) {
+                    // Entries stored under a different set of Vary headers are unreachable
+                    unreachable.addAll(existing.keys());
+                }
+                return new Variants(vary, ImmutableSet.of(key));
+            }
+            return existing.withKey(key);
+        });
+        invalidate(unreachable);
+
+        if (diskCache != null) {
+            // Drop any older copy first, as the put may itself spill to disk
+            diskCache.remove(key);
+        }
+        memoryCache.put(key, entry);
+    }
+
+    private void invalidate(Collection<CacheKey> keys)
+    {
+        memoryCache.invalidateAll(keys);
+        if (diskCache != null) {
+            keys.forEach(diskCache::remove);
+        }
+    }
+
+    @Nullable
+    private CacheEntry lookup(Request request)
+    {
+        Variants uriVariants = variants.getIfPresent(request.getUri());
+        if (uriVariants == null) {
+            return null;
+        }
+        CacheKey key = cacheKey(request, uriVariants.vary());
+        CacheEntry entry = memoryCache.getIfPresent(key);
+        if (entry == null && diskCache != null) {
+            Map.Entry<CacheMetadata, ByteBuffer> diskEntry = diskCache.get(key);
+            if (diskEntry != null) {
+                entry = diskEntry.getKey().withBody(diskEntry.getValue());
+            }
+        }
+        if (entry == null || !entry.mayServe(request)) {
+            return null;
+        }
+        return entry;
+    }
+
+    private static boolean isCacheable(Request request)
+    {
+        if (!"GET".equals(request.getMethod()) || request.getBodySource() != null) {
+            return false;
+        }
+        // Leave conditional requests made by the caller alone
+        if (request.getHeader("If-None-Match") != null || request.getHeader("If-Modified-Since") != null) {
+            return false;
+        }
+        CacheControl cacheControl = cacheControl(request.getHeader("Cache-Control"));
+        return cacheControl == null || !cacheControl.isNoStore();
+    }
+
+    private static CacheKey cacheKey(Request request, List<HeaderName> vary)
+    {
+        if (vary.isEmpty()) {
+            return new CacheKey(request.getUri(), List.of());
+        }
+
+        ListMultimap<HeaderName, String> requestHeaders = ArrayListMultimap.create();
+        request.getHeaders().forEach((name, value) -> requestHeaders.put(HeaderName.of(name), value));
+        return new CacheKey(request.getUri(), vary.stream()
+                .map(name -> ImmutableList.copyOf(requestHeaders.get(name)))
+                .collect(toImmutableList()));
+    }
+
+    @Nullable
+    private static CacheControl cacheControl(@Nullable String header)
+    {
+        if (header == null) {
+            return null;
+        }
+        try {
+            return CacheControl.valueOf(header);
+        }
+        catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    @Flatten
+    public HttpClient getDelegate()
+    {
+        return delegate;
+    }
+
+    @Nested
+    public SparseCounterStat getCacheHits()
+    {
+        return hits;
+    }
+
+    @Nested
+    public SparseCounterStat getCacheMisses()
+    {
+        return misses;
+    }
+
+    @Nested
+    public SparseCounterStat getCacheRevalidations()
+    {
+        return revalidations;
+    }
+
+    @Gauge
+    public long getCacheEntries()
+    {
+        return memoryCache.size();
+    }
+
+    @VisibleForTesting
+    long getCachedUris()
+    {
+        return variants.size();
+    }
+
+    @Gauge
+    public long getCacheDiskSize()
+    {
+        if (diskCache == null) {
+            return 0;
+        }
+        return diskCache.getSize();
+    }
+
+    @Override
+    public RequestStats getStats()
+    {
+        return delegate.getStats();
+    }
+
+    @Override
+    public void close()
+    {
+        if (diskWriteExecutor != null) {
+            diskWriteExecutor.shutdownNow();
+        }
+        delegate.close();
+    }
+
+    @Override
+    public boolean isClosed()
+    {
+        return delegate.isClosed();
+    }
+
+    private record CacheKey(URI uri, List<List<String>> varyValues)
+    {
+    }
+
+    // The Vary headers of the responses stored for a URI and the keys they are stored under
+    private record Variants(List<HeaderName> vary, Set<CacheKey> keys)
+    {
+        Variants withKey(CacheKey key)
+        {
+            if (keys.contains(key)) {
+                return this;
+            }
+            return new Variants(vary, ImmutableSet.<CacheKey>builder()
+                    .addAll(keys)
+                    .add(key)
+                    .build());
+        }
+
+        int weight()
+        {
+            return keys.size() * ENTRY_OVERHEAD;
+        }
+    }
+
+    private record CacheEntry(BufferedResponse response, long freshUntilTick, @Nullable String etag, @Nullable String lastModified, List<HeaderName> vary, boolean shared)
+    {
+        /**
+         * Returns an entry for a response, or null if the response may not
+         * be stored.
+         */
+        @Nullable
+        static CacheEntry forResponse(BufferedResponse response, long requestTick)
+        {
+            if (response.getStatusCode() != 200) {
+                return null;
+            }
+
+            CacheControl cacheControl = cacheControl(response.getHeader("Cache-Control"));
+            if (cacheControl != null && (cacheControl.isNoStore() || cacheControl.isPrivate())) {
+                return null;
+            }
+
+            List<HeaderName> vary = response.getHeaders().get(HeaderName.of("Vary")).stream()
+                    .flatMap(LIST_SPLITTER::splitToStream)
+                    .map(HeaderName::of)
+                    .distinct()
+                    .collect(toImmutableList());
+            if (vary.contains(HeaderName.of("*"))) {
+                return null;
+            }
+
+            String etag = response.getHeader("ETag");
+            String lastModified = response.getHeader("Last-Modified");
+            long freshUntilTick = freshUntil(cacheControl, response, requestTick);
+            if (freshUntilTick <= requestTick && etag == null && lastModified == null) {
+                return null;
+            }
+            return new CacheEntry(response, freshUntilTick, etag, lastModified, vary, isShared(cacheControl, response));
+        }
+
+        CacheEntry revalidate(BufferedResponse notModified, long requestTick)
+        {
+            ListMultimap<HeaderName, String> headers = ArrayListMultimap.create(response.getHeaders());
+            for (HeaderName name : notModified.getHeaders().keySet()) {
+                headers.replaceValues(name, notModified.getHeaders().get(name));
+            }
+            BufferedResponse merged = new BufferedResponse(response.getStatusCode(), response.getStatusMessage(), headers, response.getBody());
+
+            CacheControl cacheControl = cacheControl(merged.getHeader("Cache-Control"));
+            return new CacheEntry(merged,
+                    freshUntil(cacheControl, merged, requestTick),
+                    merged.getHeader("ETag"),
+                    merged.getHeader("Last-Modified"),
+                    vary,
+                    isShared(cacheControl, merged));
+        }
+
+        /**
+         * Returns everything but the body, to be kept in the index of the
+         * disk cache.
+         */
+        CacheMetadata metadata()
+        {
+            return new CacheMetadata(response.getStatusCode(), response.getStatusMessage(), response.getHeaders(), freshUntilTick, etag, lastModified, vary, shared);
+        }
+
+        boolean mayStore(Request request)
+        {
+            CacheControl cacheControl = cacheControl(response.getHeader("Cache-Control"));
+            if (cacheControl != null && cacheControl.isPrivate()) {
+                return false;
+            }
+            return mayServe(request);
+        }
+
+        boolean mayServe(Request request)
+        {
+            return shared || request.getHeader("Authorization") == null;
+        }
+
+        boolean isFresh(long tick)
+        {
+            return tick < freshUntilTick;
+        }
+
+        boolean hasValidator()
+        {
+            return etag != null || lastModified != null;
+        }
+
+        int weight()
+        {
+            return response.getBodySize() + ENTRY_OVERHEAD;
+        }
+
+        /**
+         * Returns whether the response may be stored and served for requests
+         * with an {@code Authorization} header.
+         */
+        private static boolean isShared(@Nullable CacheControl cacheControl, BufferedResponse response)
+        {
+            if (cacheControl == null) {
+                return false;
+            }
+            if (cacheControl.getSMaxAge() >= 0 || cacheControl.isMustRevalidate()) {
+                return true;
+            }
+            return response.getHeaders().get(HeaderName.of("Cache-Control")).stream()
+                    .flatMap(LIST_SPLITTER::splitToStream)
+                    .anyMatch(directive -> directive.toLowerCase(ENGLISH).equals("public"));
+        }
+
+        private static long freshUntil(@Nullable CacheControl cacheControl, BufferedResponse response, long requestTick)
+        {
+            if (cacheControl == null || cacheControl.isNoCache() || cacheControl.getMaxAge() <= 0) {
+                return requestTick;
+            }
+            long age = 0;
+            String ageHeader = response.getHeader("Age");
+            if (ageHeader != null) {
+                try {
+                    age = max(0, Long.parseLong(ageHeader.trim()));
+                }
+                catch (NumberFormatException ignored) {
+                }
+            }
+            return requestTick + SECONDS.toNanos(max(0, cacheControl.getMaxAge() - age));
+        }
+    }
+
+    private record CacheMetadata(
+            int statusCode,
+            String statusMessage,
+            ListMultimap<HeaderName, String> headers,
+            long freshUntilTick,
+            @Nullable String etag,
+            @Nullable String lastModified,
+            List<HeaderName> vary,
+            boolean shared)
+    {
+        CacheEntry withBody(ByteBuffer body)
+        {
+            return new CacheEntry(new BufferedResponse(statusCode, statusMessage, headers, body), freshUntilTick, etag, lastModified, vary, shared);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.client;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ListMultimap;
+import com.google.common.util.concurrent.SettableFuture;
+import com.proofpoint.stats.SparseCounterStat;
+import org.weakref.jmx.Flatten;
+import org.weakref.jmx.Nested;
+
+import java.net.URI;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static com.proofpoint.http.client.BufferedResponse.bufferingResponseHandler;
+import static com.proofpoint.http.client.BufferedResponseFuture.getResponse;
+import static java.util.Locale.ENGLISH;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An {@link HttpClient} that coalesces identical GET and HEAD requests.
+ * A request with the same method and URI as one already in flight, and the
+ * same values of the headers named by
+ * {@link HttpClientConfig#getCoalescingKeyHeaders()}, is not sent. Instead,
+ * the response to the in-flight request is buffered and each waiting
+ * request's {@link ResponseHandler} is given its own view of the response.
+ * Other headers, such as request IDs, are sent as in the first request.
+ */
+public class CoalescingHttpClient
+        implements HttpClient
+{
+    private static final Set<String> COALESCED_METHODS = Set.of("GET", "HEAD");
+
+    private final HttpClient delegate;
+    private final Set<String> keyHeaders;
+    private final ConcurrentMap<CoalescingKey, InFlightRequest> inFlightRequests = new ConcurrentHashMap<>();
+    private final SparseCounterStat coalescedRequests = new SparseCounterStat();
+
+    public CoalescingHttpClient(HttpClient delegate)
+    {
+        this(delegate, new HttpClientConfig());
+    }
+
+    public CoalescingHttpClient(HttpClient delegate, HttpClientConfig config)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        keyHeaders = Splitter.on(',').trimResults().omitEmptyStrings()
+                .splitToStream(config.getCoalescingKeyHeaders())
+                .map(name -> name.toLowerCase(ENGLISH))
+                .collect(toImmutableSet());
+    }
+
+    @Override
+    public <T, E extends Exception> T execute(Request request, ResponseHandler<T, E> responseHandler)
+            throws E
+    {
+        if (!isCoalesced(request)) {
+            return delegate.execute(request, responseHandler);
+        }
+
+        return getResponse(executeAsync(request, responseHandler), request, responseHandler);
+    }
+
+    @Override
+    public <T, E extends Exception> HttpResponseFuture<T> executeAsync(Request request, ResponseHandler<T, E> responseHandler)
+    {
+        requireNonNull(request, "request is null");
+        requireNonNull(responseHandler, "responseHandler is null");
+
+        if (!isCoalesced(request)) {
+            return delegate.executeAsync(request, responseHandler);
+        }
+
+        InFlightRequest[] created = new InFlightRequest[1];
+        CoalescingKey coalescingKey = coalescingKey(request);
+        InFlightRequest inFlightRequest = inFlightRequests.compute(coalescingKey, (key, existing) -> {
+            if (existing != null) {
+                existing.waiters++;
+                return existing;
+            }
+            created[0] = new InFlightRequest(coalescingKey, request);
+            return created[0];
+        });
+
+        if (created[0] == null) {
+            coalescedRequests.add(1);
+        }
+
+        BufferedResponseFuture<T, E> future = new BufferedResponseFuture<>(request, responseHandler,
+                () -> "Coalesced: " + inFlightRequest.getState(),
+                inFlightRequest::removeWaiter);
+        if (created[0] != null) {
+            inFlightRequest.start();
+        }
+        future.listenTo(inFlightRequest.response);
+        return future;
+    }
+
+    private static boolean isCoalesced(Request request)
+    {
+        return request.getBodySource() == null && COALESCED_METHODS.contains(request.getMethod());
+    }
+
+    private CoalescingKey coalescingKey(Request request)
+    {
+        ImmutableListMultimap.Builder<String, String> headers = ImmutableListMultimap.builder();
+        for (Entry<String, String> header : request.getHeaders().entries()) {
+            String name = header.getKey().toLowerCase(ENGLISH);
+            if (keyHeaders.contains(name)) {
+                headers.put(name, header.getValue());
+            }
+        }
+        return new CoalescingKey(request.getMethod(), request.getUri(), request.isFollowRedirects(), headers.build());
+    }
+
+    @Flatten
+    public HttpClient getDelegate()
+    {
+        return delegate;
+    }
+
+    @Nested
+    public SparseCounterStat getCoalescedRequests()
+    {
+        return coalescedRequests;
+    }
+
+    @Override
+    public RequestStats getStats()
+    {
+        return delegate.getStats();
+    }
+
+    @Override
+    public void close()
+    {
+        delegate.close();
+    }
+
+    @Override
+    public boolean isClosed()
+    {
+        return delegate.isClosed();
+    }
+
+    private record CoalescingKey(String method, URI uri, boolean followRedirects, ListMultimap<String, String> headers)
+    {
+    }
+
+    private class InFlightRequest
+    {
+        private final CoalescingKey key;
+        private final Request request;
+        private final SettableFuture<BufferedResponse> response = SettableFuture.create();
+        private volatile HttpResponseFuture<BufferedResponse> delegateFuture = null;
+        // only accessed within inFlightRequests compute operations on the key
+        private int waiters = 1;
+
+        InFlightRequest(CoalescingKey key, Request request)
+        {
+            this.key = key;
+            this.request = request;
+        }
+
+        void start()
+        {
+            // remove from the in-flight map before any waiters are notified
+            response.addListener(() -> inFlightRequests.remove(key, this), directExecutor());
+            try {
+                delegateFuture = delegate.executeAsync(request, bufferingResponseHandler());
+                response.setFuture(delegateFuture);
+            }
+            catch (RuntimeException e) {
+                response.setException(e);
+            }
+        }
+
+        void removeWaiter()
+        {
+            boolean[] abandoned = new boolean[1];
+            inFlightRequests.computeIfPresent(key, (ignored, existing) -> {
+                if (existing != this || --waiters > 0) {
+                    return existing;
+                }
+                abandoned[0] = true;
+                return null;
+            });
+            if (abandoned[0]) {
+                response.cancel(true);
+            }
+        }
+
+        String getState()
+        {
+            HttpResponseFuture<BufferedResponse> delegateFuture = this.delegateFuture;
+            if (delegateFuture == null) {
+                return "starting";
+            }
+            return delegateFuture.getState();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.client;
+
+import static java.lang.String.format;
+
+/**
+ * Thrown when a request is rejected without being sent because the
+ * client's adaptive concurrency limit for the destination has been reached.
+ */
+public class ConcurrencyLimitExceededException
+        extends RuntimeException
+{
+    public ConcurrencyLimitExceededException(String destination, int limit)
+    {
+        super(format("Concurrency limit of %d exceeded for %s", limit, destination));
+    }
+}
@@ -0,0 +1,28 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.client;
+
+/**
+ * Thrown when a request is not sent, or not retried, because its
+ * {@link com.proofpoint.tracetoken.Deadline} has expired or would expire
+ * before the request could be sent.
+ */
+public class DeadlineExceededException
+        extends RuntimeException
+{
+    public DeadlineExceededException(String message)
+    {
+        super(message);
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.client;
+
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import com.proofpoint.log.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Second tier of the {@link CachingHttpClient} response cache. Response
+ * bodies evicted from memory are written to files in a directory and are
+ * memory-mapped when read back. Only the index and metadata are held on
+ * the heap. Entries are evicted in least-recently-used order once the
+ * total size of the files exceeds the limit.
+ * <p>
+ * The directory is not an index that survives restarts: files left by a
+ * previous process are deleted on startup.
+ */
+class DiskResponseCache<K, M>
+{
+    private static final Logger log = Logger.get(DiskResponseCache.class);
+    private static final String SUFFIX = ".body";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final AtomicLong fileCounter = new AtomicLong();
+    @GuardedBy("this")
+    private final LinkedHashMap<K, DiskEntry<M>> index = new LinkedHashMap<>(16, 0.75f, true);
+    @GuardedBy("this")
+    private long totalBytes = 0;
+
+    DiskResponseCache(Path directory, long maxBytes)
+    {
+        this.directory = requireNonNull(directory, "directory is null");
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Unable to initialize response cache directory " + directory, e);
+        }
+    }
+
+    void put(K key, M metadata, ByteBuffer body)
+    {
+        int size = body.remaining();
+        if (size > maxBytes) {
+            return;
+        }
+
+        Path file = directory.resolve(fileCounter.incrementAndGet() + SUFFIX);
+        Path tempFile = directory.resolve(file.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tempFile, CREATE_NEW, WRITE)) {
+                ByteBuffer buffer = body.duplicate();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            Files.move(tempFile, file, ATOMIC_MOVE);
+        }
+        catch (IOException e) {
+            log.warn(e, "Unable to write response cache file %s", file);
+            deleteQuietly(tempFile);
+            return;
+        }
+
+        synchronized (this) {
+            DiskEntry<M> previous = index.put(key, new DiskEntry<>(metadata, file, size));
+            if (previous != null) {
+                totalBytes -= previous.size();
+                deleteQuietly(previous.file());
+            }
+            totalBytes += size;
+
+            Iterator<DiskEntry<M>> iterator = index.values().iterator();
+            while (totalBytes > maxBytes && iterator.hasNext()) {
+                DiskEntry<M> eldest = iterator.next();
+                iterator.remove();
+                totalBytes -= eldest.size();
+                deleteQuietly(eldest.file());
+            }
+        }
+    }
+
+    /**
+     * Returns the metadata and the memory-mapped body for a key, or null if
+     * the key is not in the cache.
+     */
+    Map.Entry<M, ByteBuffer> get(K key)
+    {
+        DiskEntry<M> entry;
+        synchronized (this) {
+            entry = index.get(key);
+        }
+        if (entry == null) {
+            return null;
+        }
+
+        // A mapping remains valid even if the file is deleted by a
+        // concurrent eviction after this point
+        try (FileChannel channel = FileChannel.open(entry.file(), READ)) {
+            MappedByteBuffer body = channel.map(READ_ONLY, 0, entry.size());
+            return Map.entry(entry.metadata(), body);
+        }
+        catch (IOException e) {
+            remove(key);
+            return null;
+        }
+    }
+
+    synchronized void remove(K key)
+    {
+        DiskEntry<M> entry = index.remove(key);
+        if (entry != null) {
+            totalBytes -= entry.size();
+            deleteQuietly(entry.file());
+        }
+    }
+
+    synchronized long getSize()
+    {
+        return totalBytes;
+    }
+
+    private static void deleteQuietly(Path file)
+    {
+        try {
+            Files.deleteIfExists(file);
+        }
+        catch (IOException ignored) {
+        }
+    }
+
+    private record DiskEntry<M>(M metadata, Path file, int size)
+    {
+    }
+}
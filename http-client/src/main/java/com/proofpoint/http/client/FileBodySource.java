@@ -0,0 +1,102 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.client;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.min;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A request body read from a region of a file.
+ * <p>
+ * The region is memory-mapped when the request is sent, so its contents go
+ * from the page cache to the transport without being copied through heap
+ * buffers. The file is mapped again for each attempt, so requests with a
+ * file body can be retried.
+ */
+public non-sealed class FileBodySource
+        implements BodySource
+{
+    private static final long MAX_MAPPED_REGION = 1L << 30;
+
+    public static FileBodySource createFileBodySource(Path path)
+            throws IOException
+    {
+        return new FileBodySource(path, 0, Files.size(path));
+    }
+
+    public static FileBodySource createFileBodySource(Path path, long offset, long length)
+    {
+        return new FileBodySource(path, offset, length);
+    }
+
+    private final Path path;
+    private final long offset;
+    private final long length;
+
+    protected FileBodySource(Path path, long offset, long length)
+    {
+        this.path = requireNonNull(path, "path is null");
+        checkArgument(offset >= 0, "offset is negative");
+        checkArgument(length >= 0, "length is negative");
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public Path getPath()
+    {
+        return path;
+    }
+
+    public long getOffset()
+    {
+        return offset;
+    }
+
+    @Override
+    public final long getLength()
+    {
+        return length;
+    }
+
+    /**
+     * Maps the region of the file into read-only buffers.
+     *
+     * @throws IOException if the file could not be mapped or is shorter than the region
+     */
+    public List<ByteBuffer> map()
+            throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            if (channel.size() < offset + length) {
+                throw new IOException("File " + path + " is shorter than the request body region");
+            }
+            List<ByteBuffer> buffers = new ArrayList<>();
+            for (long position = offset; position < offset + length; position += MAX_MAPPED_REGION) {
+                buffers.add(channel.map(READ_ONLY, position, min(MAX_MAPPED_REGION, offset + length - position)));
+            }
+            return buffers;
+        }
+    }
+}
@@ -21,6 +21,7 @@ import javax.annotation.concurrent.ThreadSafe;
 import java.io.InputStream;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
@@ -33,15 +34,16 @@ import static java.util.Objects.requireNonNull;
 public class GatheringByteArrayInputStream
         extends InputStream
 {
-    @GuardedBy("this")
+    private final ReentrantLock lock = new ReentrantLock();
+    @GuardedBy("lock")
     private final Iterator<byte[]> buffers;
-    @GuardedBy("this")
+    @GuardedBy("lock")
     private final byte[] singleByte = new byte[1];
-    @GuardedBy("this")
+    @GuardedBy("lock")
     private byte[] currentBuffer = new byte[0];
-    @GuardedBy("this")
+    @GuardedBy("lock")
     private int currentBufferPosition;
-    @GuardedBy("this")
+    @GuardedBy("lock")
     private long remainingBytes;
 
     public GatheringByteArrayInputStream(List<byte[]> buffers, long totalBytes)
@@ -53,74 +55,93 @@ public class GatheringByteArrayInputStream
     }
 
     @Override
-    public synchronized int read(byte[] buffer)
+    public int read(byte[] buffer)
     {
         return read(buffer, 0, buffer.length);
     }
 
     @Override
-    public synchronized int read()
+    public int read()
     {
-        int bytes = read(singleByte);
-        if (bytes == -1) {
-            return -1;
+        lock.lock();
+        try {
+            int bytes = read(singleByte);
+            if (bytes == -1) {
+                return -1;
+            }
+            return singleByte[0] & 0xFF;
+        }
+        finally {
+            lock.unlock();
         }
-        return singleByte[0] & 0xFF;
     }
 
     @Override
-    public synchronized long skip(long n)
+    public long skip(long n)
     {
-        if (n < 0) {
-            return 0;
-        }
+        lock.lock();
+        try {
+            if (n < 0) {
+                return 0;
+            }
 
-        long totalSkippedBytes = min(n, remainingBytes);
+            long totalSkippedBytes = min(n, remainingBytes);
 
-        n = totalSkippedBytes;
-        while (n > 0) {
-            if (currentBufferPosition >= currentBuffer.length) {
-                advanceCurrentBuffer();
+            n = totalSkippedBytes;
+            while (n > 0) {
+                if (currentBufferPosition >= currentBuffer.length) {
+                    advanceCurrentBuffer();
+                }
+                int skippedBytes = (int) min(n, currentBuffer.length - currentBufferPosition);
+                n -= skippedBytes;
+                currentBufferPosition += skippedBytes;
             }
-            int skippedBytes = (int) min(n, currentBuffer.length - currentBufferPosition);
-            n -= skippedBytes;
-            currentBufferPosition += skippedBytes;
+            remainingBytes -= totalSkippedBytes;
+            return totalSkippedBytes;
+        }
+        finally {
+            lock.unlock();
         }
-        remainingBytes -= totalSkippedBytes;
-        return totalSkippedBytes;
     }
 
     @Override
-    public synchronized int read(byte[] buffer, int offset, int length)
+    public int read(byte[] buffer, int offset, int length)
     {
-        requireNonNull(buffer, "buffer is null");
-        checkFromToIndex(offset, offset + length, buffer.length);
+        lock.lock();
+        try {
+            requireNonNull(buffer, "buffer is null");
+            checkFromToIndex(offset, offset + length, buffer.length);
 
-        if (remainingBytes == 0) {
-            return -1;
-        }
-
-        int totalReadBytes = (int) min(length, remainingBytes);
+            if (remainingBytes == 0) {
+                return -1;
+            }
 
-        length = totalReadBytes;
-        while (length > 0) {
-            if (currentBufferPosition >= currentBuffer.length) {
-                advanceCurrentBuffer();
+            int totalReadBytes = (int) min(length, remainingBytes);
+
+            length = totalReadBytes;
+            while (length > 0) {
+                if (currentBufferPosition >= currentBuffer.length) {
+                    advanceCurrentBuffer();
+                }
+                int readBytes = min(length, currentBuffer.length - currentBufferPosition);
+                arraycopy(currentBuffer, currentBufferPosition, buffer, offset, readBytes);
+                offset += readBytes;
+                length -= readBytes;
+                currentBufferPosition += readBytes;
             }
-            int readBytes = min(length, currentBuffer.length - currentBufferPosition);
-            arraycopy(currentBuffer, currentBufferPosition, buffer, offset, readBytes);
-            offset += readBytes;
-            length -= readBytes;
-            currentBufferPosition += readBytes;
+            remainingBytes -= totalReadBytes;
+            return totalReadBytes;
+        }
+        finally {
+            lock.unlock();
         }
-        remainingBytes -= totalReadBytes;
-        return totalReadBytes;
     }
 
     @Override
     public void close() {}
 
-    private synchronized void advanceCurrentBuffer()
+    @GuardedBy("lock")
+    private void advanceCurrentBuffer()
     {
         checkState(currentBufferPosition >= currentBuffer.length, "there is still un-read space in currentBuffer");
         checkState(buffers.hasNext(), "buffers should have more data when remainingBytes is greater than 0");
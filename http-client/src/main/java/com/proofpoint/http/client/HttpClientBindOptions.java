@@ -21,6 +21,11 @@ class HttpClientBindOptions
 {
     private final AtomicBoolean withTracing = new AtomicBoolean(true);
     private final AtomicBoolean withCertificateVerification = new AtomicBoolean(true);
+    private final AtomicBoolean withConcurrencyLimit = new AtomicBoolean(false);
+    private final AtomicBoolean withRequestCoalescing = new AtomicBoolean(false);
+    private final AtomicBoolean withResponseCache = new AtomicBoolean(false);
+    private final AtomicBoolean withRequestCompression = new AtomicBoolean(false);
+    private final AtomicBoolean withVirtualThreads = new AtomicBoolean(false);
 
     public boolean isWithTracing()
     {
@@ -39,4 +44,54 @@ class HttpClientBindOptions
     public void setWithoutCertificateVerification() {
         withCertificateVerification.set(false);
     }
+
+    public boolean isWithConcurrencyLimit()
+    {
+        return withConcurrencyLimit.get();
+    }
+
+    public void setWithConcurrencyLimit()
+    {
+        withConcurrencyLimit.set(true);
+    }
+
+    public boolean isWithRequestCoalescing()
+    {
+        return withRequestCoalescing.get();
+    }
+
+    public void setWithRequestCoalescing()
+    {
+        withRequestCoalescing.set(true);
+    }
+
+    public boolean isWithResponseCache()
+    {
+        return withResponseCache.get();
+    }
+
+    public void setWithResponseCache()
+    {
+        withResponseCache.set(true);
+    }
+
+    public boolean isWithRequestCompression()
+    {
+        return withRequestCompression.get();
+    }
+
+    public void setWithRequestCompression()
+    {
+        withRequestCompression.set(true);
+    }
+
+    public boolean isWithVirtualThreads()
+    {
+        return withVirtualThreads.get();
+    }
+
+    public void setWithVirtualThreads()
+    {
+        withVirtualThreads.set(true);
+    }
 }
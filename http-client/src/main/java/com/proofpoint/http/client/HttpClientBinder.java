@@ -99,6 +99,44 @@ import static org.weakref.jmx.guice.ExportBinder.newExporter;
  * Specifies that the {@link HttpClient} should disable TLS certificate verification.
  *
  * <pre>
+ *     httpClientBinder(binder).bindHttpClient("foo", FooClient.class)
+ *         .withConcurrencyLimit();</pre>
+ *
+ * Specifies that the {@link HttpClient} should apply an adaptive
+ * per-destination concurrency limit, failing requests in excess of the limit
+ * with {@link ConcurrencyLimitExceededException}.
+ *
+ * <pre>
+ *     httpClientBinder(binder).bindHttpClient("foo", FooClient.class)
+ *         .withRequestCoalescing();</pre>
+ *
+ * Specifies that identical GET and HEAD requests made while one is already
+ * in flight should share its response instead of being sent. See
+ * {@link CoalescingHttpClient}.
+ *
+ * <pre>
+ *     httpClientBinder(binder).bindHttpClient("foo", FooClient.class)
+ *         .withResponseCache();</pre>
+ *
+ * Specifies that responses to GET requests should be cached according to
+ * their Cache-Control headers. See {@link CachingHttpClient}.
+ *
+ * <pre>
+ *     httpClientBinder(binder).bindHttpClient("foo", FooClient.class)
+ *         .withRequestCompression();</pre>
+ *
+ * Specifies that request bodies should be sent compressed with
+ * {@code Content-Encoding: gzip}. The server must accept compressed requests.
+ *
+ * <pre>
+ *     httpClientBinder(binder).bindHttpClient("foo", FooClient.class)
+ *         .withVirtualThreads();</pre>
+ *
+ * Specifies that the {@link HttpClient} should run response handlers on
+ * virtual threads. Synchronous requests made from virtual threads then wait
+ * without pinning a carrier thread. Java 17 does not support virtual threads.
+ *
+ * <pre>
  *     httpClientBinder(binder).bindBalancingHttpClient("foo");</pre>
  *
  * Binds an {@link HttpClient} annotated with the {@code @ServiceType("foo")}
@@ -537,5 +575,51 @@ public class HttpClientBinder
             options.setWithoutCertificateVerification();
             return this;
         }
+
+        /**
+         * See the EDSL examples at {@link HttpClientBinder}.
+         */
+        public HttpClientBindingBuilder withConcurrencyLimit()
+        {
+            options.setWithConcurrencyLimit();
+            return this;
+        }
+
+        /**
+         * See the EDSL examples at {@link HttpClientBinder}.
+         */
+        public HttpClientBindingBuilder withRequestCoalescing()
+        {
+            options.setWithRequestCoalescing();
+            return this;
+        }
+
+        /**
+         * See the EDSL examples at {@link HttpClientBinder}.
+         */
+        public HttpClientBindingBuilder withResponseCache()
+        {
+            options.setWithResponseCache();
+            return this;
+        }
+
+        /**
+         * See the EDSL examples at {@link HttpClientBinder}.
+         */
+        public HttpClientBindingBuilder withRequestCompression()
+        {
+            options.setWithRequestCompression();
+            return this;
+        }
+
+        /**
+         * See the EDSL examples at {@link HttpClientBinder}.
+         */
+        public HttpClientBindingBuilder withVirtualThreads()
+        {
+            module.checkVirtualThreadsSupported();
+            options.setWithVirtualThreads();
+            return this;
+        }
     }
 }
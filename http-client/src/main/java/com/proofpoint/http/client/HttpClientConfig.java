@@ -64,8 +64,31 @@ public class HttpClientConfig
     private DataSize http2InitialSessionReceiveWindowSize = new DataSize(16, MEGABYTE);
     private DataSize http2InitialStreamReceiveWindowSize = new DataSize(16, MEGABYTE);
     private DataSize http2InputBufferSize = new DataSize(8, KILOBYTE);
+    private int http2ConnectionsPerDestination = 1;
     private int selectorCount = 2;
 
+    private int warmupConnections;
+    private Duration warmupCheckInterval;
+
+    private int concurrencyLimitInitial = 20;
+    private int concurrencyLimitMin = 1;
+    private int concurrencyLimitMax = 1000;
+
+    private String coalescingKeyHeaders = "Accept,Accept-Encoding,Accept-Language,Authorization,Cookie";
+
+    private DataSize cacheMaxSize = new DataSize(32, MEGABYTE);
+    private String cacheDiskPath;
+    private DataSize cacheDiskMaxSize = new DataSize(256, MEGABYTE);
+
+    private boolean dnsCacheEnabled = true;
+    private Duration dnsCacheTtl = new Duration(30, SECONDS);
+    private Duration dnsCacheNegativeTtl = new Duration(10, SECONDS);
+    private Duration dnsCacheRefreshAhead = new Duration(5, SECONDS);
+
+    private DataSize requestCompressionMinSize = new DataSize(1, KILOBYTE);
+
+    private String unixDomainSocketPath;
+
     public boolean isHttp2Enabled()
     {
         return http2Enabled;
@@ -200,6 +223,19 @@ public class HttpClientConfig
         return this;
     }
 
+    public String getUnixDomainSocketPath()
+    {
+        return unixDomainSocketPath;
+    }
+
+    @Config("http-client.unix-domain-socket.path")
+    @ConfigDescription("Unix domain socket to connect to instead of the host and port of the request URI")
+    public HttpClientConfig setUnixDomainSocketPath(String unixDomainSocketPath)
+    {
+        this.unixDomainSocketPath = unixDomainSocketPath;
+        return this;
+    }
+
     public String getKeyStorePath()
     {
         return keyStorePath;
@@ -296,6 +332,48 @@ public class HttpClientConfig
         return this;
     }
 
+    @Min(1)
+    public int getHttp2ConnectionsPerDestination()
+    {
+        return http2ConnectionsPerDestination;
+    }
+
+    @Config("http-client.http2.connections-per-destination")
+    @ConfigDescription("Number of multiplexed connections to open to each destination when HTTP/2 is enabled")
+    public HttpClientConfig setHttp2ConnectionsPerDestination(int http2ConnectionsPerDestination)
+    {
+        this.http2ConnectionsPerDestination = http2ConnectionsPerDestination;
+        return this;
+    }
+
+    @Min(0)
+    public int getWarmupConnections()
+    {
+        return warmupConnections;
+    }
+
+    @Config("http-client.warmup.connections")
+    @ConfigDescription("Number of connections opened to each instance when it is added to a balancer. If not 0, with HTTP/2 at least http-client.http2.connections-per-destination are opened")
+    public HttpClientConfig setWarmupConnections(int warmupConnections)
+    {
+        this.warmupConnections = warmupConnections;
+        return this;
+    }
+
+    @MinDuration("1s")
+    public Duration getWarmupCheckInterval()
+    {
+        return warmupCheckInterval;
+    }
+
+    @Config("http-client.warmup.check-interval")
+    @ConfigDescription("Interval at which idle connections to warmed-up instances are checked and replenished. Disabled if not set")
+    public HttpClientConfig setWarmupCheckInterval(Duration warmupCheckInterval)
+    {
+        this.warmupCheckInterval = warmupCheckInterval;
+        return this;
+    }
+
     @Min(1)
     public int getSelectorCount()
     {
@@ -363,4 +441,173 @@ public class HttpClientConfig
         this.timeoutConcurrency = timeoutConcurrency;
         return this;
     }
+
+    @Min(1)
+    public int getConcurrencyLimitInitial()
+    {
+        return concurrencyLimitInitial;
+    }
+
+    @Config("http-client.concurrency-limit.initial")
+    @ConfigDescription("Initial per-destination concurrency limit, when the adaptive concurrency limit is enabled")
+    public HttpClientConfig setConcurrencyLimitInitial(int concurrencyLimitInitial)
+    {
+        this.concurrencyLimitInitial = concurrencyLimitInitial;
+        return this;
+    }
+
+    @Min(1)
+    public int getConcurrencyLimitMin()
+    {
+        return concurrencyLimitMin;
+    }
+
+    @Config("http-client.concurrency-limit.min")
+    @ConfigDescription("Minimum per-destination concurrency limit, when the adaptive concurrency limit is enabled")
+    public HttpClientConfig setConcurrencyLimitMin(int concurrencyLimitMin)
+    {
+        this.concurrencyLimitMin = concurrencyLimitMin;
+        return this;
+    }
+
+    @Min(1)
+    public int getConcurrencyLimitMax()
+    {
+        return concurrencyLimitMax;
+    }
+
+    @Config("http-client.concurrency-limit.max")
+    @ConfigDescription("Maximum per-destination concurrency limit, when the adaptive concurrency limit is enabled")
+    public HttpClientConfig setConcurrencyLimitMax(int concurrencyLimitMax)
+    {
+        this.concurrencyLimitMax = concurrencyLimitMax;
+        return this;
+    }
+
+    @NotNull
+    public String getCoalescingKeyHeaders()
+    {
+        return coalescingKeyHeaders;
+    }
+
+    @Config("http-client.coalescing.key-headers")
+    @ConfigDescription("Comma-separated names of the headers that must match for requests to be coalesced, when request coalescing is enabled")
+    public HttpClientConfig setCoalescingKeyHeaders(String coalescingKeyHeaders)
+    {
+        this.coalescingKeyHeaders = coalescingKeyHeaders;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getCacheMaxSize()
+    {
+        return cacheMaxSize;
+    }
+
+    @Config("http-client.cache.max-size")
+    @ConfigDescription("Maximum size of responses held in memory, when the response cache is enabled")
+    public HttpClientConfig setCacheMaxSize(DataSize cacheMaxSize)
+    {
+        this.cacheMaxSize = cacheMaxSize;
+        return this;
+    }
+
+    public String getCacheDiskPath()
+    {
+        return cacheDiskPath;
+    }
+
+    @Config("http-client.cache.disk-path")
+    @ConfigDescription("Directory for responses evicted from the in-memory response cache. If not set, evicted responses are discarded")
+    public HttpClientConfig setCacheDiskPath(String cacheDiskPath)
+    {
+        this.cacheDiskPath = cacheDiskPath;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getCacheDiskMaxSize()
+    {
+        return cacheDiskMaxSize;
+    }
+
+    @Config("http-client.cache.disk-max-size")
+    @ConfigDescription("Maximum size of responses held in the response cache directory")
+    public HttpClientConfig setCacheDiskMaxSize(DataSize cacheDiskMaxSize)
+    {
+        this.cacheDiskMaxSize = cacheDiskMaxSize;
+        return this;
+    }
+
+    public boolean isDnsCacheEnabled()
+    {
+        return dnsCacheEnabled;
+    }
+
+    @Config("http-client.dns-cache.enabled")
+    @ConfigDescription("Cache the results of hostname resolution within the client")
+    public HttpClientConfig setDnsCacheEnabled(boolean dnsCacheEnabled)
+    {
+        this.dnsCacheEnabled = dnsCacheEnabled;
+        return this;
+    }
+
+    @NotNull
+    @MinDuration("1s")
+    public Duration getDnsCacheTtl()
+    {
+        return dnsCacheTtl;
+    }
+
+    @Config("http-client.dns-cache.ttl")
+    @ConfigDescription("How long resolved addresses are cached. The JVM's own cache, networkaddress.cache.ttl, is consulted on refresh")
+    public HttpClientConfig setDnsCacheTtl(Duration dnsCacheTtl)
+    {
+        this.dnsCacheTtl = dnsCacheTtl;
+        return this;
+    }
+
+    @NotNull
+    @MinDuration("0s")
+    public Duration getDnsCacheNegativeTtl()
+    {
+        return dnsCacheNegativeTtl;
+    }
+
+    @Config("http-client.dns-cache.negative-ttl")
+    @ConfigDescription("How long failed resolutions are cached")
+    public HttpClientConfig setDnsCacheNegativeTtl(Duration dnsCacheNegativeTtl)
+    {
+        this.dnsCacheNegativeTtl = dnsCacheNegativeTtl;
+        return this;
+    }
+
+    @NotNull
+    @MinDuration("0s")
+    public Duration getDnsCacheRefreshAhead()
+    {
+        return dnsCacheRefreshAhead;
+    }
+
+    @Config("http-client.dns-cache.refresh-ahead")
+    @ConfigDescription("How long before expiry a cached resolution is refreshed in the background")
+    public HttpClientConfig setDnsCacheRefreshAhead(Duration dnsCacheRefreshAhead)
+    {
+        this.dnsCacheRefreshAhead = dnsCacheRefreshAhead;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getRequestCompressionMinSize()
+    {
+        return requestCompressionMinSize;
+    }
+
+    @Config("http-client.request-compression.min-size")
+    @ConfigDescription("Request bodies of a known length smaller than this are not compressed, when request compression is enabled")
+    public HttpClientConfig setRequestCompressionMinSize(DataSize requestCompressionMinSize)
+    {
+        this.requestCompressionMinSize = requestCompressionMinSize;
+        return this;
+    }
 }
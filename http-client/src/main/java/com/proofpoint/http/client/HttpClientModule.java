@@ -15,18 +15,26 @@
  */
 package com.proofpoint.http.client;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.inject.Binder;
 import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.google.inject.Module;
 import com.google.inject.Scopes;
 import com.google.inject.TypeLiteral;
+import com.proofpoint.http.client.jetty.AdaptiveConcurrencyLimiter;
+import com.proofpoint.http.client.jetty.ConcurrencyLimitStats;
 import com.proofpoint.http.client.jetty.JettyHttpClient;
 import com.proofpoint.http.client.jetty.JettyHttpClientOptions;
+import com.proofpoint.http.client.jetty.RequestCompressionStats;
+import com.proofpoint.http.client.jetty.RequestCompressor;
+import com.proofpoint.http.client.jetty.RequestPhaseStats;
 import com.proofpoint.log.Logger;
+import com.proofpoint.reporting.ReportCollectionFactory;
 import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 import jakarta.inject.Provider;
+import org.eclipse.jetty.util.VirtualThreads;
 
 import java.lang.annotation.Annotation;
 import java.util.HashSet;
@@ -83,6 +91,13 @@ class HttpClientModule
         binder.bind(HttpClient.class).annotatedWith(alias).to(Key.get(HttpClient.class, annotation));
     }
 
+    void checkVirtualThreadsSupported()
+    {
+        if (!VirtualThreads.areSupported()) {
+            binder.addError("Virtual threads are not supported");
+        }
+    }
+
     private static class HttpClientProvider
             implements Provider<HttpClient>
     {
@@ -121,11 +136,33 @@ class HttpClientModule
             if (!httpClientBindOptions.isWithCertificateVerification()) {
                 optionsBuilder.setEnableCertificateVerification(false);
             }
+            if (httpClientBindOptions.isWithVirtualThreads()) {
+                optionsBuilder.setEnableVirtualThreads(true);
+            }
+            optionsBuilder.setRequestPhaseStats(injector.getInstance(ReportCollectionFactory.class)
+                    .createReportCollection(RequestPhaseStats.class, false, "HttpClient.RequestPhase", ImmutableMap.of("name", name)));
+            if (httpClientBindOptions.isWithConcurrencyLimit()) {
+                ConcurrencyLimitStats stats = injector.getInstance(ReportCollectionFactory.class)
+                        .createReportCollection(ConcurrencyLimitStats.class, false, "HttpClient.ConcurrencyLimit", ImmutableMap.of("name", name));
+                optionsBuilder.setConcurrencyLimiter(new AdaptiveConcurrencyLimiter(config, stats));
+            }
+            if (httpClientBindOptions.isWithRequestCompression()) {
+                RequestCompressionStats stats = injector.getInstance(ReportCollectionFactory.class)
+                        .createReportCollection(RequestCompressionStats.class, false, "HttpClient.RequestCompression", ImmutableMap.of("name", name));
+                optionsBuilder.setRequestCompressor(new RequestCompressor(config, stats));
+            }
 
             client = new JettyHttpClient(name, config, optionsBuilder.build(), filters);
 
             injector = null;
-            return client;
+            HttpClient httpClient = client;
+            if (httpClientBindOptions.isWithRequestCoalescing()) {
+                httpClient = new CoalescingHttpClient(httpClient, config);
+            }
+            if (httpClientBindOptions.isWithResponseCache()) {
+                httpClient = new CachingHttpClient(httpClient, config);
+            }
+            return httpClient;
         }
 
         @PreDestroy
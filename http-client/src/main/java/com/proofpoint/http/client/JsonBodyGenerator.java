@@ -17,6 +17,8 @@ package com.proofpoint.http.client;
 
 import com.proofpoint.json.JsonCodec;
 
+import static java.util.Objects.requireNonNull;
+
 public class JsonBodyGenerator<T> extends StaticBodyGenerator
 {
     public static <T> JsonBodyGenerator<T> jsonBodyGenerator(JsonCodec<T> jsonCodec, T instance)
@@ -24,6 +26,24 @@ public class JsonBodyGenerator<T> extends StaticBodyGenerator
         return new JsonBodyGenerator<>(jsonCodec, instance);
     }
 
+    /**
+     * Returns a body source that serializes the instance when the request is
+     * sent, directly into the HTTP client's pooled buffers, rather than into
+     * a byte array when the request is built.
+     * <p>
+     * The length of the body is not known in advance, so it is sent with
+     * chunked transfer encoding. The instance is serialized again for each
+     * attempt, so it must not be modified until the request completes.
+     */
+    public static <T> DynamicBodySource streamingJsonBodySource(JsonCodec<T> jsonCodec, T instance)
+    {
+        requireNonNull(jsonCodec, "jsonCodec is null");
+        return out -> () -> {
+            jsonCodec.writeJson(instance, out);
+            out.close();
+        };
+    }
+
     private JsonBodyGenerator(JsonCodec<T> jsonCodec, T instance)
     {
         super(jsonCodec.toJsonBytes(instance));
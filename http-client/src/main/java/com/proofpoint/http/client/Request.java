@@ -19,6 +19,7 @@ import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Multimap;
+import com.proofpoint.tracetoken.Deadline;
 import jakarta.annotation.Nullable;
 
 import java.net.URI;
@@ -37,6 +38,7 @@ public class Request
     private final BodySource bodySource;
     private final boolean followRedirects;
     private final boolean preserveAuthorizationOnRedirect;
+    private final Deadline deadline;
 
     Request(
             URI uri,
@@ -44,7 +46,8 @@ public class Request
             ListMultimap<String, String> headers,
             @Nullable BodySource bodySource,
             boolean followRedirects,
-            boolean preserveAuthorizationOnRedirect)
+            boolean preserveAuthorizationOnRedirect,
+            @Nullable Deadline deadline)
     {
         requireNonNull(uri, "uri is null");
         requireNonNull(method, "method is null");
@@ -55,6 +58,7 @@ public class Request
         this.bodySource = bodySource;
         this.followRedirects = followRedirects;
         this.preserveAuthorizationOnRedirect = preserveAuthorizationOnRedirect;
+        this.deadline = deadline;
     }
 
     public static Request.Builder builder()
@@ -101,6 +105,15 @@ public class Request
         return preserveAuthorizationOnRedirect;
     }
 
+    /**
+     * @return The time by which the caller needs the response, or null if none.
+     */
+    @Nullable
+    public Deadline getDeadline()
+    {
+        return deadline;
+    }
+
     @Override
     public String toString()
     {
@@ -111,12 +124,14 @@ public class Request
                 .add("bodySource", bodySource)
                 .add("followRedirects", followRedirects)
                 .add("preserveAuthorizationOnRedirect", preserveAuthorizationOnRedirect)
+                .add("deadline", deadline)
                 .toString();
     }
 
     @Override
     public int hashCode()
     {
+        // The deadline is when the caller needs the response, not part of what is requested
         return Objects.hash(uri, method, headers, bodySource, followRedirects, preserveAuthorizationOnRedirect);
     }
 
@@ -169,7 +184,8 @@ public class Request
                     .addHeaders(request.getHeaders())
                     .setBodySource(request.getBodySource())
                     .setFollowRedirects(request.isFollowRedirects())
-                    .setPreserveAuthorizationOnRedirect(request.isPreserveAuthorizationOnRedirect());
+                    .setPreserveAuthorizationOnRedirect(request.isPreserveAuthorizationOnRedirect())
+                    .setDeadline(request.getDeadline());
         }
 
         private URI uri;
@@ -178,6 +194,7 @@ public class Request
         private BodySource bodySource;
         private boolean followRedirects = false;
         private boolean preserveAuthorizationOnRedirect;
+        private Deadline deadline;
 
         public Builder setUri(URI uri)
         {
@@ -238,6 +255,18 @@ public class Request
             return this;
         }
 
+        /**
+         * Set the time by which the caller needs the response. Each attempt
+         * of the request times out at the deadline, the remaining time is
+         * sent to the server, and the request fails without being sent once
+         * the deadline has expired.
+         */
+        public Builder setDeadline(@Nullable Deadline deadline)
+        {
+            this.deadline = deadline;
+            return this;
+        }
+
         public Request build()
         {
             return new Request(
@@ -246,7 +275,8 @@ public class Request
                     headers,
                     bodySource,
                     followRedirects,
-                    preserveAuthorizationOnRedirect);
+                    preserveAuthorizationOnRedirect,
+                    deadline);
         }
     }
 
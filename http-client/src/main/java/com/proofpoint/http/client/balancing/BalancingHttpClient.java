@@ -22,31 +22,42 @@ import com.google.common.util.concurrent.AbstractFuture;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.errorprone.annotations.concurrent.GuardedBy;
+import com.proofpoint.http.client.CachingHttpClient;
+import com.proofpoint.http.client.CoalescingHttpClient;
+import com.proofpoint.http.client.DeadlineExceededException;
 import com.proofpoint.http.client.HttpClient;
 import com.proofpoint.http.client.Request;
 import com.proofpoint.http.client.RequestStats;
 import com.proofpoint.http.client.ResponseHandler;
 import com.proofpoint.http.client.jetty.JettyHttpClient;
+import com.proofpoint.tracetoken.Deadline;
 import com.proofpoint.tracetoken.TraceToken;
 import com.proofpoint.tracetoken.TraceTokenScope;
 import com.proofpoint.units.Duration;
+import jakarta.annotation.Nullable;
 import jakarta.inject.Inject;
 import org.weakref.jmx.Flatten;
 import org.weakref.jmx.Managed;
 
 import java.net.URI;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Throwables.throwIfUnchecked;
 import static com.google.common.cache.CacheBuilder.newBuilder;
 import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static com.proofpoint.tracetoken.Deadline.earliest;
+import static com.proofpoint.tracetoken.DeadlineManager.getCurrentDeadline;
 import static com.proofpoint.tracetoken.TraceTokenManager.getCurrentTraceToken;
 import static com.proofpoint.tracetoken.TraceTokenManager.registerTraceToken;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 public class BalancingHttpClient
         implements HttpClient
@@ -58,7 +69,10 @@ public class BalancingHttpClient
     private final int maxAttempts;
     private final RetryBudget retryBudget;
     private final BackoffPolicy backoffPolicy;
+    private final long minBackoffNanos;
     private final ScheduledExecutorService retryExecutor;
+    private final HedgingPolicy hedgingPolicy;
+    private final Ticker ticker;
     private final Cache<Class<? extends Exception>, Boolean> exceptionCache = newBuilder()
             .expireAfterWrite(30, TimeUnit.SECONDS)
             .build();
@@ -84,7 +98,29 @@ public class BalancingHttpClient
         maxAttempts = requireNonNull(config, "config is null").getMaxAttempts();
         retryBudget = TokenRetryBudget.tokenRetryBudget(config.getRetryBudgetRatio(), config.getRetryBudgetRatioPeriod(), config.getRetryBudgetMinPerSecond(), ticker);
         backoffPolicy = new DecorrelatedJitteredBackoffPolicy(config.getMinBackoff(), config.getMaxBackoff());
+        minBackoffNanos = config.getMinBackoff().roundTo(NANOSECONDS);
         this.retryExecutor = requireNonNull(retryExecutor, "retryExecutor is null");
+        hedgingPolicy = HedgingPolicy.hedgingPolicy(config);
+        this.ticker = ticker;
+
+        if (pool instanceof HttpServiceBalancerImpl balancer && unwrap(httpClient) instanceof JettyHttpClient jettyHttpClient) {
+            balancer.addMembershipListener(jettyHttpClient::warmUpConnections, jettyHttpClient::coolDownConnections);
+        }
+    }
+
+    private static HttpClient unwrap(HttpClient httpClient)
+    {
+        while (true) {
+            if (httpClient instanceof CoalescingHttpClient coalescingHttpClient) {
+                httpClient = coalescingHttpClient.getDelegate();
+            }
+            else if (httpClient instanceof CachingHttpClient cachingHttpClient) {
+                httpClient = cachingHttpClient.getDelegate();
+            }
+            else {
+                return httpClient;
+            }
+        }
     }
 
     @Override
@@ -96,6 +132,14 @@ public class BalancingHttpClient
         String path = request.getUri().getPath();
         checkArgument(path == null || !path.startsWith("/"), request.getUri() + " path starts with '/'");
 
+        if (hedgingPolicy.isHedgeable(request)) {
+            return executeHedged(request, responseHandler);
+        }
+
+        request = withCurrentDeadline(request);
+        Deadline deadline = request.getDeadline();
+        RetryBudget attemptRetryBudget = retryBudgetFor(deadline);
+
         HttpServiceAttempt attempt;
         try {
             attempt = pool.createAttempt();
@@ -108,14 +152,10 @@ public class BalancingHttpClient
         BackoffPolicy attemptBackoffPolicy = backoffPolicy;
         Duration previousBackoff = ZERO_DURATION;
 
-        RetryingResponseHandler<T, E> retryingResponseHandler = new RetryingResponseHandler<>(responseHandler, retryBudget, exceptionCache);
+        RetryingResponseHandler<T, E> retryingResponseHandler = new RetryingResponseHandler<>(responseHandler, attemptRetryBudget, exceptionCache);
 
         for (;;) {
-            URI uri = attempt.getUri();
-            if (!uri.toString().endsWith("/")) {
-                uri = URI.create(uri.toString() + '/');
-            }
-            uri = uri.resolve(request.getUri());
+            URI uri = resolveUri(attempt, request);
 
             Request subRequest = Request.Builder.fromRequest(request)
                     .setUri(uri)
@@ -144,6 +184,9 @@ public class BalancingHttpClient
             catch (RetryException e) {
                 attempt.markBad(e.getFailureCategory());
                 Duration backoff = attemptBackoffPolicy.backoff(previousBackoff, e.getSuggestedBackoff());
+                if (!retryFinishesBefore(deadline, backoff)) {
+                    return responseHandler.handleException(request, retryDeadlineExceeded(request, e));
+                }
                 long millis = backoff.roundTo(MILLISECONDS);
                 try {
                     Thread.sleep(millis);
@@ -164,6 +207,26 @@ public class BalancingHttpClient
         }
     }
 
+    private <T, E extends Exception> T executeHedged(Request request, ResponseHandler<T, E> responseHandler)
+            throws E
+    {
+        HttpResponseFuture<T> future = executeAsync(request, responseHandler);
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return responseHandler.handleException(request, e);
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throwIfUnchecked(cause);
+            //noinspection unchecked
+            throw (E) cause;
+        }
+    }
+
     @Override
     public <T, E extends Exception> HttpResponseFuture<T> executeAsync(Request request, ResponseHandler<T, E> responseHandler)
     {
@@ -172,6 +235,8 @@ public class BalancingHttpClient
         String path = request.getUri().getPath();
         checkArgument(path == null || !path.startsWith("/"), request.getUri() + " path starts with '/'");
 
+        request = withCurrentDeadline(request);
+
         HttpServiceAttempt attempt;
         try {
             attempt = pool.createAttempt();
@@ -185,7 +250,7 @@ public class BalancingHttpClient
             }
         }
         retryBudget.initialAttempt();
-        RetryFuture<T, E> retryFuture = new RetryFuture<>(request, responseHandler);
+        RetryFuture<T, E> retryFuture = new RetryFuture<>(request, responseHandler, hedgingPolicy.isHedgeable(request));
         attemptQuery(retryFuture, request, responseHandler, attempt, maxAttempts);
         return retryFuture;
     }
@@ -194,15 +259,11 @@ public class BalancingHttpClient
     {
         RetryingResponseHandler<T, E> retryingResponseHandler = new RetryingResponseHandler<>(
                 responseHandler,
-                (attemptsLeft <= 1) ? NoRetryBudget.INSTANCE :  retryBudget,
+                (attemptsLeft <= 1) ? NoRetryBudget.INSTANCE : retryFuture.retryBudget,
                 exceptionCache
         );
 
-        URI uri = attempt.getUri();
-        if (!uri.toString().endsWith("/")) {
-            uri = URI.create(uri.toString() + '/');
-        }
-        uri = uri.resolve(request.getUri());
+        URI uri = resolveUri(attempt, request);
 
         Request subRequest = Request.Builder.fromRequest(request)
                 .setUri(uri)
@@ -213,6 +274,46 @@ public class BalancingHttpClient
         retryFuture.newAttempt(future, attempt, uri, attemptsLeft);
     }
 
+    private static Request withCurrentDeadline(Request request)
+    {
+        Deadline deadline = earliest(request.getDeadline(), getCurrentDeadline());
+        if (deadline == request.getDeadline()) {
+            return request;
+        }
+        return Request.Builder.fromRequest(request)
+                .setDeadline(deadline)
+                .build();
+    }
+
+    private RetryBudget retryBudgetFor(@Nullable Deadline deadline)
+    {
+        if (deadline == null) {
+            return retryBudget;
+        }
+        return new DeadlineRetryBudget(retryBudget, deadline, minBackoffNanos, ticker);
+    }
+
+    private boolean retryFinishesBefore(@Nullable Deadline deadline, Duration backoff)
+    {
+        return deadline == null || backoff.roundTo(NANOSECONDS) < deadline.getRemainingNanos(ticker.read());
+    }
+
+    private static DeadlineExceededException retryDeadlineExceeded(Request request, RetryException cause)
+    {
+        DeadlineExceededException exception = new DeadlineExceededException("Deadline would expire before retrying request to " + request.getUri());
+        exception.initCause(cause.getCause());
+        return exception;
+    }
+
+    private static URI resolveUri(HttpServiceAttempt attempt, Request request)
+    {
+        URI uri = attempt.getUri();
+        if (!uri.toString().endsWith("/")) {
+            uri = URI.create(uri.toString() + '/');
+        }
+        return uri.resolve(request.getUri());
+    }
+
     @Flatten
     @Override
     public RequestStats getStats()
@@ -225,6 +326,12 @@ public class BalancingHttpClient
         return retryBudget;
     }
 
+    @Flatten
+    HedgingPolicy getHedgingPolicy()
+    {
+        return hedgingPolicy;
+    }
+
     @Managed
     public String dump()
     {
@@ -263,6 +370,9 @@ public class BalancingHttpClient
 
         private final Request request;
         private final ResponseHandler<T,E> responseHandler;
+        private final boolean hedgeable;
+        private final RetryBudget retryBudget;
+        private final TraceToken traceToken = getCurrentTraceToken();
         private final Object subFutureLock = new Object();
         @GuardedBy("subFutureLock")
         private HttpServiceAttempt attempt = null;
@@ -274,11 +384,21 @@ public class BalancingHttpClient
         private URI uri = null;
         @GuardedBy("subFutureLock")
         private HttpResponseFuture<T> subFuture = null;
+        @GuardedBy("subFutureLock")
+        private HttpResponseFuture<T> hedgeFuture = null;
+        @GuardedBy("subFutureLock")
+        private ScheduledFuture<?> hedgeTimer = null;
+        @GuardedBy("subFutureLock")
+        private int attemptsLeft;
+        @GuardedBy("subFutureLock")
+        private int inFlight = 0;
 
-        RetryFuture(Request request, ResponseHandler<T, E> responseHandler)
+        RetryFuture(Request request, ResponseHandler<T, E> responseHandler, boolean hedgeable)
         {
             this.request = request;
             this.responseHandler = responseHandler;
+            this.hedgeable = hedgeable;
+            retryBudget = retryBudgetFor(request.getDeadline());
         }
 
         void newAttempt(final HttpResponseFuture<T> future, final HttpServiceAttempt attempt, URI uri, final int attemptsLeft)
@@ -286,8 +406,63 @@ public class BalancingHttpClient
             synchronized (subFutureLock) {
                 this.attempt = attempt;
                 this.subFuture = future;
+                this.hedgeFuture = null;
                 this.uri = uri;
+                this.attemptsLeft = attemptsLeft;
+                ++inFlight;
+
+                // A hedge consumes an attempt, so only hedge when one remains for a retry afterwards
+                if (hedgeable && attemptsLeft > 1) {
+                    hedgeTimer = retryExecutor.schedule(() -> hedge(attempt), hedgingPolicy.getDelayNanos(), NANOSECONDS);
+                }
+            }
+            addAttemptCallback(future, attempt, false);
+        }
+
+        private void hedge(HttpServiceAttempt primaryAttempt)
+        {
+            HttpResponseFuture<T> future;
+            HttpServiceAttempt hedgeAttempt;
+            try (TraceTokenScope scope = registerTraceToken(traceToken)) {
+                synchronized (subFutureLock) {
+                    if (isDone() || attempt != primaryAttempt || inFlight != 1 || attemptsLeft <= 1
+                            || !RetryFuture.this.retryBudget.canRetry()) {
+                        return;
+                    }
+                    try {
+                        hedgeAttempt = primaryAttempt.next();
+                    }
+                    catch (RuntimeException e) {
+                        return;
+                    }
+
+                    URI hedgeUri = resolveUri(hedgeAttempt, request);
+                    Request subRequest = Request.Builder.fromRequest(request)
+                            .setUri(hedgeUri)
+                            .build();
+
+                    --attemptsLeft;
+                    try {
+                        future = httpClient.executeAsync(subRequest, new RetryingResponseHandler<>(responseHandler, RetryFuture.this.retryBudget, exceptionCache));
+                    }
+                    catch (RuntimeException e) {
+                        ++attemptsLeft;
+                        hedgeAttempt.markCancelled();
+                        return;
+                    }
+                    attempt = hedgeAttempt;
+                    hedgeFuture = future;
+                    uri = hedgeUri;
+                    ++inFlight;
+                }
             }
+            hedgingPolicy.hedgeSent();
+            addAttemptCallback(future, hedgeAttempt, true);
+        }
+
+        private void addAttemptCallback(final HttpResponseFuture<T> future, final HttpServiceAttempt attempt, final boolean isHedge)
+        {
+            final long startTick = ticker.read();
             final RetryFuture<T, E> retryFuture = this;
             final Request request = this.request;
             final ResponseHandler<T, E> responseHandler = this.responseHandler;
@@ -296,13 +471,41 @@ public class BalancingHttpClient
                 @Override
                 public void onSuccess(T result)
                 {
+                    synchronized (subFutureLock) {
+                        --inFlight;
+                    }
                     attempt.markGood();
-                    set(result);
+                    hedgingPolicy.recordLatency(ticker.read() - startTick);
+                    if (set(result)) {
+                        if (isHedge) {
+                            hedgingPolicy.hedgeWon();
+                        }
+                        cancelOtherAttempts(future);
+                    }
                 }
 
                 @Override
                 public void onFailure(Throwable t)
                 {
+                    boolean othersInFlight;
+                    synchronized (subFutureLock) {
+                        othersInFlight = --inFlight > 0;
+                    }
+                    if (t instanceof CancellationException) {
+                        attempt.markCancelled();
+                        return;
+                    }
+                    if (othersInFlight || isDone()) {
+                        // Another hedged attempt may still succeed
+                        if (t instanceof InnerHandlerException innerHandlerException) {
+                            attempt.markBad(innerHandlerException.getFailureCategory(), innerHandlerException.getHandlerCategory());
+                        }
+                        else if (t instanceof RetryException retryException) {
+                            attempt.markBad(retryException.getFailureCategory());
+                        }
+                        return;
+                    }
+
                     if (t instanceof InnerHandlerException innerHandlerException) {
                         attempt.markBad(innerHandlerException.getFailureCategory(), innerHandlerException.getHandlerCategory());
                         setException(innerHandlerException.getCause());
@@ -316,13 +519,28 @@ public class BalancingHttpClient
                         attempt.markBad(retryException.getFailureCategory());
                         TraceToken traceToken = getCurrentTraceToken();
                         synchronized (subFutureLock) {
+                            if (hedgeTimer != null) {
+                                hedgeTimer.cancel(false);
+                                hedgeTimer = null;
+                            }
+                            HttpServiceAttempt lastAttempt = RetryFuture.this.attempt;
+                            int attemptsLeft = RetryFuture.this.attemptsLeft;
                             Duration backoff = attemptBackoffPolicy.backoff(previousBackoff, retryException.getSuggestedBackoff());
+                            if (!retryFinishesBefore(request.getDeadline(), backoff)) {
+                                try {
+                                    set(responseHandler.handleException(request, retryDeadlineExceeded(request, retryException)));
+                                }
+                                catch (Exception e1) {
+                                    setException(e1);
+                                }
+                                return;
+                            }
                             ScheduledFuture<?> scheduledFuture = retryExecutor.schedule(() -> {
                                 try (TraceTokenScope scope = registerTraceToken(traceToken)){
                                     synchronized (subFutureLock) {
                                         HttpServiceAttempt nextAttempt;
                                         try {
-                                            nextAttempt = attempt.next();
+                                            nextAttempt = lastAttempt.next();
                                             previousBackoff = backoff;
                                             attemptBackoffPolicy = attemptBackoffPolicy.nextAttempt();
                                         }
@@ -344,21 +562,42 @@ public class BalancingHttpClient
                                     }
                                 }
                             }, backoff.roundTo(MILLISECONDS), MILLISECONDS);
-                            subFuture = new RetryDelayFuture<>(scheduledFuture, attempt);
+                            subFuture = new RetryDelayFuture<>(scheduledFuture, lastAttempt);
+                            hedgeFuture = null;
                         }
                     }
                 }
             }, directExecutor());
         }
 
+        private void cancelOtherAttempts(HttpResponseFuture<T> winner)
+        {
+            HttpResponseFuture<T> loser;
+            synchronized (subFutureLock) {
+                if (hedgeTimer != null) {
+                    hedgeTimer.cancel(false);
+                    hedgeTimer = null;
+                }
+                loser = (winner == subFuture) ? hedgeFuture : subFuture;
+            }
+            if (loser != null && loser != winner) {
+                loser.cancel(true);
+            }
+        }
+
         @Override
         public boolean cancel(boolean mayInterruptIfRunning)
         {
 
             if (super.cancel(mayInterruptIfRunning)) {
-                // todo attempt.cancel() ?
                 synchronized (subFutureLock) {
                     subFuture.cancel(mayInterruptIfRunning);
+                    if (hedgeFuture != null) {
+                        hedgeFuture.cancel(mayInterruptIfRunning);
+                    }
+                    if (hedgeTimer != null) {
+                        hedgeTimer.cancel(false);
+                    }
                 }
                 return true;
             }
@@ -369,6 +608,9 @@ public class BalancingHttpClient
         public String getState()
         {
             synchronized (subFutureLock) {
+                if (hedgeFuture != null) {
+                    return format("Attempt %s to %s: %s, hedged with %s", attempt, uri, hedgeFuture.getState(), subFuture.getState());
+                }
                 return format("Attempt %s to %s: %s", attempt, uri, subFuture.getState());
             }
         }
@@ -109,4 +109,22 @@ public class BalancingHttpClientBindingBuilder
         delegateBindingBuilder.withoutCertificateVerification();
         return this;
     }
+
+    public BalancingHttpClientBindingBuilder withConcurrencyLimit()
+    {
+        delegateBindingBuilder.withConcurrencyLimit();
+        return this;
+    }
+
+    public BalancingHttpClientBindingBuilder withRequestCoalescing()
+    {
+        delegateBindingBuilder.withRequestCoalescing();
+        return this;
+    }
+
+    public BalancingHttpClientBindingBuilder withResponseCache()
+    {
+        delegateBindingBuilder.withResponseCache();
+        return this;
+    }
 }
@@ -23,6 +23,7 @@ import com.proofpoint.units.MinDuration;
 import jakarta.validation.constraints.AssertFalse;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
 
 import java.math.BigDecimal;
 
@@ -37,6 +38,9 @@ public class BalancingHttpClientConfig
     private BigDecimal retryBudgetRatio = new BigDecimal(2).movePointLeft(1);
     private Duration retryBudgetRatioPeriod = new Duration(10, SECONDS);
     private int retryBudgetMinPerSecond = 10;
+    private boolean hedgingEnabled = false;
+    private Duration hedgingDelay = new Duration(100, MILLISECONDS);
+    private BigDecimal hedgingDelayPercentile = null;
 
     @Min(1)
     public int getMaxAttempts()
@@ -121,6 +125,49 @@ public class BalancingHttpClientConfig
         return this;
     }
 
+    public boolean isHedgingEnabled()
+    {
+        return hedgingEnabled;
+    }
+
+    @Config("http-client.hedging.enabled")
+    @ConfigDescription("Send a hedged request to another instance when a hedgeable request has not completed after the hedging delay")
+    public BalancingHttpClientConfig setHedgingEnabled(boolean hedgingEnabled)
+    {
+        this.hedgingEnabled = hedgingEnabled;
+        return this;
+    }
+
+    @NotNull
+    @MinDuration("1ms")
+    public Duration getHedgingDelay()
+    {
+        return hedgingDelay;
+    }
+
+    @Config("http-client.hedging.delay")
+    @ConfigDescription("Delay before sending a hedged request, or the minimum delay when a delay percentile is configured")
+    public BalancingHttpClientConfig setHedgingDelay(Duration hedgingDelay)
+    {
+        this.hedgingDelay = hedgingDelay;
+        return this;
+    }
+
+    @Min(1)
+    @Max(100)
+    public BigDecimal getHedgingDelayPercentile()
+    {
+        return hedgingDelayPercentile;
+    }
+
+    @Config("http-client.hedging.delay-percentile")
+    @ConfigDescription("Percentile of recent request latency to use as the hedging delay")
+    public BalancingHttpClientConfig setHedgingDelayPercentile(BigDecimal hedgingDelayPercentile)
+    {
+        this.hedgingDelayPercentile = hedgingDelayPercentile;
+        return this;
+    }
+
     @AssertFalse
     public boolean isMaxBackoffLessThanMinBackoff()
     {
@@ -0,0 +1,52 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.client.balancing;
+
+import com.google.common.base.Ticker;
+import com.proofpoint.tracetoken.Deadline;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Denies retries once too little time remains before a request's
+ * deadline for the retry to be sent after the minimum backoff.
+ */
+class DeadlineRetryBudget
+        implements RetryBudget
+{
+    private final RetryBudget delegate;
+    private final Deadline deadline;
+    private final long minBackoffNanos;
+    private final Ticker ticker;
+
+    DeadlineRetryBudget(RetryBudget delegate, Deadline deadline, long minBackoffNanos, Ticker ticker)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.deadline = requireNonNull(deadline, "deadline is null");
+        this.minBackoffNanos = minBackoffNanos;
+        this.ticker = requireNonNull(ticker, "ticker is null");
+    }
+
+    @Override
+    public void initialAttempt()
+    {
+        delegate.initialAttempt();
+    }
+
+    @Override
+    public boolean canRetry()
+    {
+        return deadline.getRemainingNanos(ticker.read()) > minBackoffNanos && delegate.canRetry();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.client.balancing;
+
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import com.proofpoint.http.client.BodySource;
+import com.proofpoint.http.client.ByteBufferBodySource;
+import com.proofpoint.http.client.FileBodySource;
+import com.proofpoint.http.client.Request;
+import com.proofpoint.http.client.StaticBodyGenerator;
+import com.proofpoint.stats.ExponentialDecay;
+import com.proofpoint.stats.QuantileDigest;
+import com.proofpoint.stats.SparseCounterStat;
+import com.proofpoint.units.Duration;
+import org.weakref.jmx.Nested;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+import static java.lang.Math.max;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Decides whether and when {@link BalancingHttpClient} sends a hedged
+ * request: a second, concurrent attempt to a different instance for a
+ * request that has not completed within the hedging delay.
+ */
+class HedgingPolicy
+{
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "OPTIONS", "PUT", "DELETE");
+    private static final double MIN_SAMPLES = 100;
+    private static final double MAX_ERROR = 0.01;
+
+    private final boolean enabled;
+    private final long minDelayNanos;
+    private final double percentile;
+    @GuardedBy("latencies")
+    private final QuantileDigest latencies;
+    private final SparseCounterStat hedgesSent = new SparseCounterStat();
+    private final SparseCounterStat hedgesWon = new SparseCounterStat();
+
+    HedgingPolicy(boolean enabled, Duration delay, BigDecimal delayPercentile)
+    {
+        this.enabled = enabled;
+        minDelayNanos = requireNonNull(delay, "delay is null").roundTo(NANOSECONDS);
+        if (delayPercentile == null) {
+            percentile = 0;
+            latencies = null;
+        }
+        else {
+            percentile = delayPercentile.movePointLeft(2).doubleValue();
+            latencies = new QuantileDigest(MAX_ERROR, ExponentialDecay.oneMinute());
+        }
+    }
+
+    static HedgingPolicy hedgingPolicy(BalancingHttpClientConfig config)
+    {
+        return new HedgingPolicy(config.isHedgingEnabled(), config.getHedgingDelay(), config.getHedgingDelayPercentile());
+    }
+
+    boolean isHedgeable(Request request)
+    {
+        return enabled && IDEMPOTENT_METHODS.contains(request.getMethod()) && isReplayable(request.getBodySource());
+    }
+
+    // The hedge may be sent while the primary attempt is still sending the body,
+    // so the body has to be readable by both attempts at once
+    private static boolean isReplayable(BodySource bodySource)
+    {
+        return bodySource == null
+                || bodySource instanceof StaticBodyGenerator
+                || bodySource instanceof ByteBufferBodySource
+                || bodySource instanceof FileBodySource;
+    }
+
+    long getDelayNanos()
+    {
+        if (latencies == null) {
+            return minDelayNanos;
+        }
+        synchronized (latencies) {
+            if (latencies.getCount() < MIN_SAMPLES) {
+                return minDelayNanos;
+            }
+            return max(minDelayNanos, latencies.getQuantile(percentile));
+        }
+    }
+
+    void recordLatency(long nanos)
+    {
+        if (latencies != null) {
+            synchronized (latencies) {
+                latencies.add(nanos);
+            }
+        }
+    }
+
+    void hedgeSent()
+    {
+        hedgesSent.add(1);
+    }
+
+    void hedgeWon()
+    {
+        hedgesWon.add(1);
+    }
+
+    @Nested
+    public SparseCounterStat getHedgesSent()
+    {
+        return hedgesSent;
+    }
+
+    @Nested
+    public SparseCounterStat getHedgesWon()
+    {
+        return hedgesWon;
+    }
+}
@@ -23,5 +23,15 @@ public interface HttpServiceAttempt
     void markGood();
     void markBad(String failureCategory);
     void markBad(String failureCategory, String handlerCategory);
+
+    /**
+     * Marks an attempt that was abandoned before it completed, such as the
+     * slower of two hedged attempts. Does not count as either a success or
+     * a failure of the instance.
+     */
+    default void markCancelled()
+    {
+    }
+
     HttpServiceAttempt next();
 }
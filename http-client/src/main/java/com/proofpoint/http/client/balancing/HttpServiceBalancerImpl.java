@@ -22,6 +22,7 @@ import com.google.common.collect.ImmutableMultiset;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multiset;
 import com.google.common.collect.Multiset.Entry;
+import com.google.common.collect.Sets;
 import com.google.errorprone.annotations.concurrent.GuardedBy;
 import com.proofpoint.http.client.balancing.HttpServiceBalancerStats.Status;
 import com.proofpoint.stats.MaxGauge;
@@ -36,9 +37,11 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkState;
@@ -62,6 +65,7 @@ public class HttpServiceBalancerImpl
     private final BackoffPolicy backoffPolicy;
     private final Ticker ticker;
     private final MaxGauge concurrency = new MaxGauge();
+    private final List<MembershipListener> membershipListeners = new CopyOnWriteArrayList<>();
 
     public HttpServiceBalancerImpl(String description, HttpServiceBalancerStats httpServiceBalancerStats, HttpServiceBalancerConfig config)
     {
@@ -93,7 +97,52 @@ public class HttpServiceBalancerImpl
     @Beta
     public void updateHttpUris(Collection<URI> newHttpUris)
     {
-        httpUris.set(ImmutableMultiset.copyOf(newHttpUris));
+        ImmutableMultiset<URI> newUris = ImmutableMultiset.copyOf(newHttpUris);
+        ImmutableMultiset<URI> oldUris = httpUris.getAndSet(newUris);
+        if (!membershipListeners.isEmpty()) {
+            Set<URI> addedUris = Sets.difference(newUris.elementSet(), oldUris.elementSet()).immutableCopy();
+            Set<URI> removedUris = Sets.difference(oldUris.elementSet(), newUris.elementSet()).immutableCopy();
+            for (MembershipListener listener : membershipListeners) {
+                if (!addedUris.isEmpty()) {
+                    listener.added().accept(addedUris);
+                }
+                if (!removedUris.isEmpty()) {
+                    listener.removed().accept(removedUris);
+                }
+            }
+        }
+    }
+
+    /**
+     * Registers a listener to be called with the URIs added to the balancer
+     * each time its membership changes. The listener is first called with
+     * the current URIs, if there are any.
+     */
+    @Beta
+    public void addMembershipListener(Consumer<Set<URI>> listener)
+    {
+        addMembershipListener(listener, removed -> {});
+    }
+
+    /**
+     * Registers listeners to be called with the URIs added to and removed
+     * from the balancer each time its membership changes. The added listener
+     * is first called with the current URIs, if there are any.
+     */
+    @Beta
+    public void addMembershipListener(Consumer<Set<URI>> addedListener, Consumer<Set<URI>> removedListener)
+    {
+        requireNonNull(addedListener, "addedListener is null");
+        requireNonNull(removedListener, "removedListener is null");
+        membershipListeners.add(new MembershipListener(addedListener, removedListener));
+        Set<URI> currentUris = httpUris.get().elementSet();
+        if (!currentUris.isEmpty()) {
+            addedListener.accept(currentUris);
+        }
+    }
+
+    private record MembershipListener(Consumer<Set<URI>> added, Consumer<Set<URI>> removed)
+    {
     }
 
     private class HttpServiceAttemptImpl
@@ -199,6 +248,16 @@ public class HttpServiceBalancerImpl
             httpServiceBalancerStats.failure(uri, failureCategory, handlerCategory).add(1);
         }
 
+        @Override
+        public void markCancelled()
+        {
+            checkState(inProgress, "is in progress");
+            inProgress = false;
+            synchronized (uriStates) {
+                releaseConcurrency(uriStates.get(uri));
+            }
+        }
+
         private void decrementConcurrency(boolean isFailure)
         {
             checkState(inProgress, "is in progress");
@@ -207,33 +266,38 @@ public class HttpServiceBalancerImpl
                 InstanceState uriState = uriStates.get(uri);
 
                 uriState.liveness.mark(isFailure, uriState, this, HttpServiceBalancerImpl.this);
-                int oldConcurrency = uriState.concurrency;
-                if (oldConcurrency > 0) {
-                    --uriState.concurrency;
-                }
+                releaseConcurrency(uriState);
+            }
+        }
 
-                if (oldConcurrency == 1 && !isFailure && uriState.liveness == Liveness.ALIVE) {
-                    uriStates.remove(uri);
-                    if (uriStates.isEmpty()) {
-                        concurrency.update(0);
-                        return;
-                    }
+        @GuardedBy("uriStates")
+        private void releaseConcurrency(InstanceState uriState)
+        {
+            int oldConcurrency = uriState.concurrency;
+            if (oldConcurrency > 0) {
+                --uriState.concurrency;
+            }
+
+            if (oldConcurrency == 1 && uriState.numFailures == 0 && uriState.liveness == Liveness.ALIVE) {
+                uriStates.remove(uri);
+                if (uriStates.isEmpty()) {
+                    concurrency.update(0);
+                    return;
                 }
-                if (concurrency.get() == oldConcurrency) {
-                    for (InstanceState instanceState : uriStates.values()) {
-                        if (oldConcurrency == instanceState.concurrency) {
-                            return;
-                        }
+            }
+            if (concurrency.get() == oldConcurrency) {
+                for (InstanceState instanceState : uriStates.values()) {
+                    if (oldConcurrency == instanceState.concurrency) {
+                        return;
                     }
-                    concurrency.update(oldConcurrency - 1);
                 }
+                concurrency.update(oldConcurrency - 1);
             }
         }
 
         @Override
         public HttpServiceAttempt next()
         {
-            checkState(!inProgress, "is not still in progress");
             Set<URI> newAttempted = ImmutableSet.<URI>builder()
                     .add(uri)
                     .addAll(attempted)
@@ -0,0 +1,195 @@
+package com.proofpoint.http.client.jetty;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import com.proofpoint.http.client.ConcurrencyLimitExceededException;
+import com.proofpoint.http.client.HttpClientConfig;
+import com.proofpoint.stats.GradientLimit;
+import com.proofpoint.stats.MaxGauge;
+import com.proofpoint.stats.SparseCounterStat;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Adaptive per-destination concurrency limit using a {@link GradientLimit}.
+ * The limit grows while request latency stays close to the long-term
+ * latency for the destination and shrinks when latency rises, indicating
+ * queueing at the server, or when requests fail. Requests in excess of the
+ * limit fail fast with {@link ConcurrencyLimitExceededException}.
+ */
+public class AdaptiveConcurrencyLimiter
+{
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final ConcurrencyLimitStats stats;
+    private final Ticker ticker;
+    private final ConcurrentMap<String, DestinationLimit> destinations = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyLimiter(HttpClientConfig config, ConcurrencyLimitStats stats)
+    {
+        this(config, stats, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    AdaptiveConcurrencyLimiter(HttpClientConfig config, ConcurrencyLimitStats stats, Ticker ticker)
+    {
+        requireNonNull(config, "config is null");
+        initialLimit = config.getConcurrencyLimitInitial();
+        minLimit = config.getConcurrencyLimitMin();
+        maxLimit = config.getConcurrencyLimitMax();
+        checkArgument(minLimit <= initialLimit && initialLimit <= maxLimit,
+                "concurrency limit initial must be between min and max");
+        this.stats = requireNonNull(stats, "stats is null");
+        this.ticker = requireNonNull(ticker, "ticker is null");
+    }
+
+    /**
+     * Acquire a permit to send a request to the destination of a {@link URI}.
+     *
+     * @throws ConcurrencyLimitExceededException if the destination is at its
+     * concurrency limit
+     */
+    public Permit acquire(URI uri)
+    {
+        DestinationLimit destinationLimit = destinations.computeIfAbsent(destination(uri), DestinationLimit::new);
+        return destinationLimit.acquire();
+    }
+
+    @VisibleForTesting
+    int getLimit(URI uri)
+    {
+        DestinationLimit destinationLimit = destinations.get(destination(uri));
+        if (destinationLimit == null) {
+            return initialLimit;
+        }
+        return destinationLimit.getLimit();
+    }
+
+    static String destination(URI uri)
+    {
+        String scheme = uri.getScheme();
+        int port = uri.getPort();
+        if (port == -1) {
+            port = "https".equalsIgnoreCase(scheme) ? 443 : 80;
+        }
+        return scheme + "://" + uri.getHost() + ":" + port;
+    }
+
+    public class Permit
+    {
+        private final DestinationLimit destinationLimit;
+        private final long startTick = ticker.read();
+        private final int inFlightAtStart;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(DestinationLimit destinationLimit, int inFlightAtStart)
+        {
+            this.destinationLimit = destinationLimit;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * Release the permit, using the request's latency as a sample.
+         */
+        public void success()
+        {
+            if (released.compareAndSet(false, true)) {
+                destinationLimit.sample(ticker.read() - startTick, inFlightAtStart);
+            }
+        }
+
+        /**
+         * Release the permit for a request that failed or was rejected by
+         * the server, backing off the limit.
+         */
+        public void dropped()
+        {
+            if (released.compareAndSet(false, true)) {
+                destinationLimit.dropped();
+            }
+        }
+
+        /**
+         * Release the permit without affecting the limit.
+         */
+        public void ignore()
+        {
+            if (released.compareAndSet(false, true)) {
+                destinationLimit.ignored();
+            }
+        }
+    }
+
+    private class DestinationLimit
+    {
+        private final String destination;
+        private final MaxGauge limitGauge;
+        private final MaxGauge inFlightGauge;
+        private final SparseCounterStat rejection;
+        @GuardedBy("this")
+        private final GradientLimit limit = new GradientLimit(initialLimit, minLimit, maxLimit);
+        @GuardedBy("this")
+        private int inFlight = 0;
+
+        DestinationLimit(String destination)
+        {
+            this.destination = destination;
+            limitGauge = stats.limit(destination);
+            inFlightGauge = stats.inFlight(destination);
+            rejection = stats.rejection(destination);
+            limitGauge.update(initialLimit);
+        }
+
+        Permit acquire()
+        {
+            int limit;
+            synchronized (this) {
+                limit = this.limit.getLimit();
+                if (inFlight < limit) {
+                    inFlightGauge.update(++inFlight);
+                    return new Permit(this, inFlight);
+                }
+            }
+            rejection.add(1);
+            throw new ConcurrencyLimitExceededException(destination, limit);
+        }
+
+        synchronized int getLimit()
+        {
+            return limit.getLimit();
+        }
+
+        synchronized void sample(long rttNanos, int inFlightAtStart)
+        {
+            release();
+            limit.sample(rttNanos, inFlightAtStart);
+            limitGauge.update(limit.getLimit());
+        }
+
+        synchronized void dropped()
+        {
+            release();
+            limit.backOff();
+            limitGauge.update(limit.getLimit());
+        }
+
+        synchronized void ignored()
+        {
+            release();
+        }
+
+        @GuardedBy("this")
+        private void release()
+        {
+            inFlightGauge.update(--inFlight);
+        }
+    }
+}
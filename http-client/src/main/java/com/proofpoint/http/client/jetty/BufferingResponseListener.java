@@ -12,6 +12,7 @@ import javax.annotation.concurrent.ThreadSafe;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
@@ -29,14 +30,15 @@ class BufferingResponseListener
     private static final long BUFFER_MIN_BYTES = new DataSize(1, KILOBYTE).toBytes();
     private final JettyResponseFuture<?, ?> future;
     private final int maxLength;
+    private final ReentrantLock lock = new ReentrantLock();
 
-    @GuardedBy("this")
+    @GuardedBy("lock")
     private byte[] currentBuffer = new byte[0];
-    @GuardedBy("this")
+    @GuardedBy("lock")
     private int currentBufferPosition;
-    @GuardedBy("this")
+    @GuardedBy("lock")
     private List<byte[]> buffers = new ArrayList<>();
-    @GuardedBy("this")
+    @GuardedBy("lock")
     private long size;
 
     BufferingResponseListener(JettyResponseFuture<?, ?> future, int maxLength)
@@ -47,52 +49,71 @@ class BufferingResponseListener
     }
 
     @Override
-    public synchronized void onHeaders(Response response)
+    public void onHeaders(Response response)
     {
-        long length = response.getHeaders().getLongField(HttpHeader.CONTENT_LENGTH.asString());
-        if (length > maxLength) {
-            response.abort(new ResponseTooLargeException());
+        lock.lock();
+        try {
+            long length = response.getHeaders().getLongField(HttpHeader.CONTENT_LENGTH.asString());
+            if (length > maxLength) {
+                response.abort(new ResponseTooLargeException());
+            }
+        }
+        finally {
+            lock.unlock();
         }
     }
 
     @Override
-    public synchronized void onContent(Response response, ByteBuffer content)
+    public void onContent(Response response, ByteBuffer content)
     {
-        int length = content.remaining();
-        size += length;
-        if (size > maxLength) {
-            response.abort(new ResponseTooLargeException());
-            return;
-        }
+        lock.lock();
+        try {
+            int length = content.remaining();
+            size += length;
+            if (size > maxLength) {
+                response.abort(new ResponseTooLargeException());
+                return;
+            }
 
-        while (length > 0) {
-            if (currentBufferPosition >= currentBuffer.length) {
-                allocateCurrentBuffer();
+            while (length > 0) {
+                if (currentBufferPosition >= currentBuffer.length) {
+                    allocateCurrentBuffer();
+                }
+                int readLength = min(length, currentBuffer.length - currentBufferPosition);
+                content.get(currentBuffer, currentBufferPosition, readLength);
+                length -= readLength;
+                currentBufferPosition += readLength;
             }
-            int readLength = min(length, currentBuffer.length - currentBufferPosition);
-            content.get(currentBuffer, currentBufferPosition, readLength);
-            length -= readLength;
-            currentBufferPosition += readLength;
+        }
+        finally {
+            lock.unlock();
         }
     }
 
     @Override
-    public synchronized void onComplete(Result result)
+    public void onComplete(Result result)
     {
-        Throwable throwable = result.getFailure();
-        if (throwable != null) {
-            future.failed(throwable);
+        lock.lock();
+        try {
+            Throwable throwable = result.getFailure();
+            if (throwable != null) {
+                future.failed(throwable);
+            }
+            else {
+                currentBuffer = new byte[0];
+                currentBufferPosition = 0;
+                future.completed(result.getResponse(), new GatheringByteArrayInputStream(buffers, size));
+                buffers = new ArrayList<>();
+                size = 0;
+            }
         }
-        else {
-            currentBuffer = new byte[0];
-            currentBufferPosition = 0;
-            future.completed(result.getResponse(), new GatheringByteArrayInputStream(buffers, size));
-            buffers = new ArrayList<>();
-            size = 0;
+        finally {
+            lock.unlock();
         }
     }
 
-    private synchronized void allocateCurrentBuffer()
+    @GuardedBy("lock")
+    private void allocateCurrentBuffer()
     {
         checkState(currentBufferPosition >= currentBuffer.length, "there is still remaining space in currentBuffer");
 
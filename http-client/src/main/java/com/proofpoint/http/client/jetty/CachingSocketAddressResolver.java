@@ -0,0 +1,282 @@
+package com.proofpoint.http.client.jetty;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.net.InetAddresses;
+import com.proofpoint.http.client.HttpClientConfig;
+import com.proofpoint.stats.SparseCounterStat;
+import com.proofpoint.stats.SparseTimeStat;
+import org.eclipse.jetty.util.Promise;
+import org.eclipse.jetty.util.SocketAddressResolver;
+import org.eclipse.jetty.util.thread.Scheduler;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.Math.max;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * SocketAddressResolver that caches the results of hostname resolution.
+ * <p>
+ * Resolved addresses are cached for a fixed time to live and failed
+ * resolutions for a separate, usually shorter, time. A cached resolution
+ * that is about to expire is refreshed in the background, so that requests
+ * do not wait for the lookup. Concurrent lookups of the same hostname are
+ * combined. Each resolution of a hostname with multiple addresses starts
+ * with the next address in turn. IP address literals are not cached and
+ * are resolved without dispatching to the executor. The cache holds at most
+ * {@value #MAX_CACHE_ENTRIES} hostnames and expired entries are removed.
+ */
+class CachingSocketAddressResolver
+        implements SocketAddressResolver
+{
+    @VisibleForTesting
+    static final int MAX_CACHE_ENTRIES = 10_000;
+
+    private final Executor executor;
+    private final Scheduler scheduler;
+    private final long timeoutMillis;
+    private final HostResolver hostResolver;
+    private final Ticker ticker;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final long refreshAheadNanos;
+    private final Cache<String, CacheEntry> cache;
+    private final ConcurrentMap<String, CompletableFuture<CacheEntry>> lookups = new ConcurrentHashMap<>();
+
+    private final SparseCounterStat hits = new SparseCounterStat();
+    private final SparseCounterStat misses = new SparseCounterStat();
+    private final SparseCounterStat negativeHits = new SparseCounterStat();
+    private final SparseCounterStat refreshes = new SparseCounterStat();
+    private final SparseCounterStat failures = new SparseCounterStat();
+    private final SparseTimeStat lookupTime = new SparseTimeStat();
+
+    CachingSocketAddressResolver(Executor executor, Scheduler scheduler, HttpClientConfig config)
+    {
+        this(executor, scheduler, config, InetAddress::getAllByName, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    CachingSocketAddressResolver(Executor executor, Scheduler scheduler, HttpClientConfig config, HostResolver hostResolver, Ticker ticker)
+    {
+        this.executor = requireNonNull(executor, "executor is null");
+        this.scheduler = requireNonNull(scheduler, "scheduler is null");
+        requireNonNull(config, "config is null");
+        this.timeoutMillis = config.getConnectTimeout().toMillis();
+        this.hostResolver = requireNonNull(hostResolver, "hostResolver is null");
+        this.ticker = requireNonNull(ticker, "ticker is null");
+        ttlNanos = config.getDnsCacheTtl().roundTo(NANOSECONDS);
+        negativeTtlNanos = config.getDnsCacheNegativeTtl().roundTo(NANOSECONDS);
+        refreshAheadNanos = config.getDnsCacheRefreshAhead().roundTo(NANOSECONDS);
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(MAX_CACHE_ENTRIES)
+                .expireAfterWrite(max(ttlNanos, negativeTtlNanos), NANOSECONDS)
+                .ticker(ticker)
+                .build();
+    }
+
+    @Override
+    public void resolve(String host, int port, Promise<List<InetSocketAddress>> promise)
+    {
+        if (InetAddresses.isInetAddress(host)) {
+            promise.succeeded(List.of(new InetSocketAddress(InetAddresses.forString(host), port)));
+            return;
+        }
+
+        long now = ticker.read();
+        CacheEntry entry = cache.getIfPresent(host);
+        if (entry != null && entry.isValid(now)) {
+            if (entry.failure != null) {
+                negativeHits.add(1);
+            }
+            else {
+                hits.add(1);
+                if (entry.needsRefresh(now) && entry.refreshing.compareAndSet(false, true)) {
+                    refreshes.add(1);
+                    lookup(host);
+                }
+            }
+            complete(entry, port, promise);
+            return;
+        }
+
+        misses.add(1);
+        lookup(host).whenComplete((newEntry, throwable) -> {
+            if (throwable != null) {
+                promise.failed(throwable);
+            }
+            else {
+                complete(newEntry, port, promise);
+            }
+        });
+    }
+
+    private CompletableFuture<CacheEntry> lookup(String host)
+    {
+        CompletableFuture<CacheEntry> future = new CompletableFuture<>();
+        CompletableFuture<CacheEntry> existing = lookups.putIfAbsent(host, future);
+        if (existing != null) {
+            return existing;
+        }
+
+        future.whenComplete((entry, throwable) -> lookups.remove(host, future));
+        if (timeoutMillis > 0) {
+            Scheduler.Task task = scheduler.schedule(() -> {
+                if (future.completeExceptionally(new TimeoutException("DNS timeout " + timeoutMillis + " ms"))) {
+                    failures.add(1);
+                }
+            }, timeoutMillis, MILLISECONDS);
+            future.whenComplete((entry, throwable) -> task.cancel());
+        }
+
+        try {
+            executor.execute(() -> {
+                long start = ticker.read();
+                CacheEntry entry;
+                try {
+                    InetAddress[] addresses = hostResolver.resolve(host);
+                    if (addresses.length == 0) {
+                        throw new UnknownHostException(host);
+                    }
+                    entry = new CacheEntry(List.of(addresses), null, ticker.read() + ttlNanos);
+                }
+                catch (UnknownHostException e) {
+                    failures.add(1);
+                    entry = new CacheEntry(List.of(), e, ticker.read() + negativeTtlNanos);
+                }
+                catch (Throwable e) {
+                    failures.add(1);
+                    future.completeExceptionally(e);
+                    return;
+                }
+                lookupTime.add(ticker.read() - start, NANOSECONDS);
+
+                if (entry.failure != null) {
+                    CacheEntry existingEntry = cache.getIfPresent(host);
+                    if (existingEntry != null && existingEntry.failure == null && existingEntry.isValid(ticker.read())) {
+                        // A failed refresh does not replace an unexpired resolution
+                        // and is not retried before the resolution expires
+                        future.complete(existingEntry);
+                        return;
+                    }
+                }
+                cache.put(host, entry);
+                future.complete(entry);
+            });
+        }
+        catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private static void complete(CacheEntry entry, int port, Promise<List<InetSocketAddress>> promise)
+    {
+        if (entry.failure != null) {
+            promise.failed(entry.failure);
+            return;
+        }
+
+        List<InetAddress> addresses = entry.addresses;
+        int size = addresses.size();
+        int start = Math.floorMod(entry.nextAddress.getAndIncrement(), size);
+        List<InetSocketAddress> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(new InetSocketAddress(addresses.get((start + i) % size), port));
+        }
+        promise.succeeded(result);
+    }
+
+    @Managed
+    public long getCacheEntries()
+    {
+        cache.cleanUp();
+        return cache.size();
+    }
+
+    @Nested
+    public SparseCounterStat getHits()
+    {
+        return hits;
+    }
+
+    @Nested
+    public SparseCounterStat getMisses()
+    {
+        return misses;
+    }
+
+    @Nested
+    public SparseCounterStat getNegativeHits()
+    {
+        return negativeHits;
+    }
+
+    @Nested
+    public SparseCounterStat getRefreshes()
+    {
+        return refreshes;
+    }
+
+    @Nested
+    public SparseCounterStat getFailures()
+    {
+        return failures;
+    }
+
+    @Nested
+    public SparseTimeStat getLookupTime()
+    {
+        return lookupTime;
+    }
+
+    interface HostResolver
+    {
+        InetAddress[] resolve(String host)
+                throws UnknownHostException;
+    }
+
+    private class CacheEntry
+    {
+        private final List<InetAddress> addresses;
+        private final UnknownHostException failure;
+        private final long expiresAt;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        private final AtomicInteger nextAddress = new AtomicInteger();
+
+        CacheEntry(List<InetAddress> addresses, UnknownHostException failure, long expiresAt)
+        {
+            this.addresses = addresses;
+            this.failure = failure;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isValid(long now)
+        {
+            return now - expiresAt < 0;
+        }
+
+        boolean needsRefresh(long now)
+        {
+            return now - (expiresAt - refreshAheadNanos) >= 0;
+        }
+    }
+}
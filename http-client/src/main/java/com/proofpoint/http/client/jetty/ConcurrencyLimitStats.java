@@ -0,0 +1,14 @@
+package com.proofpoint.http.client.jetty;
+
+import com.proofpoint.reporting.Key;
+import com.proofpoint.stats.MaxGauge;
+import com.proofpoint.stats.SparseCounterStat;
+
+public interface ConcurrencyLimitStats
+{
+    MaxGauge limit(@Key("destination") String destination);
+
+    MaxGauge inFlight(@Key("destination") String destination);
+
+    SparseCounterStat rejection(@Key("destination") String destination);
+}
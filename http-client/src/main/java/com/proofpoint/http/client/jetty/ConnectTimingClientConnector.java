@@ -0,0 +1,77 @@
+package com.proofpoint.http.client.jetty;
+
+import com.proofpoint.stats.CounterStat;
+import jakarta.annotation.Nullable;
+import org.eclipse.jetty.client.Connection;
+import org.eclipse.jetty.client.Origin;
+import org.eclipse.jetty.client.transport.HttpDestination;
+import org.eclipse.jetty.io.ClientConnector;
+import org.eclipse.jetty.util.Promise;
+
+import java.net.SocketAddress;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.eclipse.jetty.client.HttpClientTransport.HTTP_CONNECTION_PROMISE_CONTEXT_KEY;
+import static org.eclipse.jetty.client.HttpClientTransport.HTTP_DESTINATION_CONTEXT_KEY;
+
+/**
+ * ClientConnector that records the time to open each connection. For
+ * HTTP/2 negotiated with ALPN, this includes the TLS handshake. For
+ * HTTP/1.1, the TLS handshake is done on the first write, so is included
+ * in the send time of the first request on the connection.
+ * <p>
+ * Each opened connection is also counted as cold, if requests to the
+ * destination were queued waiting for it, or warm, if it was opened ahead
+ * of demand.
+ */
+class ConnectTimingClientConnector
+        extends ClientConnector
+{
+    private final RequestPhaseStats stats;
+    private final CounterStat warmConnections;
+    private final CounterStat coldConnections;
+
+    ConnectTimingClientConnector(@Nullable RequestPhaseStats stats, CounterStat warmConnections, CounterStat coldConnections)
+    {
+        this.stats = stats;
+        this.warmConnections = requireNonNull(warmConnections, "warmConnections is null");
+        this.coldConnections = requireNonNull(coldConnections, "coldConnections is null");
+    }
+
+    @Override
+    public void connect(SocketAddress address, Map<String, Object> context)
+    {
+        if (context.get(HTTP_DESTINATION_CONTEXT_KEY) instanceof HttpDestination destination
+                && context.get(HTTP_CONNECTION_PROMISE_CONTEXT_KEY) instanceof Promise<?> promise) {
+            long start = System.nanoTime();
+            boolean cold = destination.getQueuedRequestCount() > 0;
+            @SuppressWarnings("unchecked")
+            Promise<Connection> connectionPromise = (Promise<Connection>) promise;
+            context.put(HTTP_CONNECTION_PROMISE_CONTEXT_KEY, new Promise.Wrapper<>(connectionPromise)
+            {
+                @Override
+                public void succeeded(Connection connection)
+                {
+                    if (stats != null) {
+                        stats.connectTime(destination(destination.getOrigin())).add(System.nanoTime() - start, NANOSECONDS);
+                    }
+                    if (cold) {
+                        coldConnections.add(1);
+                    }
+                    else {
+                        warmConnections.add(1);
+                    }
+                    super.succeeded(connection);
+                }
+            });
+        }
+        super.connect(address, context);
+    }
+
+    private static String destination(Origin origin)
+    {
+        return origin.getScheme() + "://" + origin.getAddress().getHost() + ":" + origin.getAddress().getPort();
+    }
+}
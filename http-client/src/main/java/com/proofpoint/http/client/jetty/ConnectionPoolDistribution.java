@@ -1,7 +1,7 @@
 package com.proofpoint.http.client.jetty;
 
 import com.proofpoint.stats.Distribution;
-import org.eclipse.jetty.client.DuplexConnectionPool;
+import org.eclipse.jetty.client.AbstractConnectionPool;
 import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.jetty.client.transport.HttpDestination;
 
@@ -12,7 +12,7 @@ class ConnectionPoolDistribution
 {
     interface Processor
     {
-        void process(Distribution distribution, DuplexConnectionPool pool);
+        void process(Distribution distribution, AbstractConnectionPool pool);
     }
 
     ConnectionPoolDistribution(HttpClient httpClient, Processor processor)
@@ -24,7 +24,7 @@ class ConnectionPoolDistribution
                     .map(HttpDestination.class::cast)
                     .map(HttpDestination::getConnectionPool)
                     .filter(Objects::nonNull)
-                    .map(DuplexConnectionPool.class::cast)
+                    .map(AbstractConnectionPool.class::cast)
                     .forEach(pool -> processor.process(distribution, pool));
             return distribution;
         });
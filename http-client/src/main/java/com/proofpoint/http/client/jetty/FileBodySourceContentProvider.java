@@ -0,0 +1,109 @@
+package com.proofpoint.http.client.jetty;
+
+import com.proofpoint.http.client.FileBodySource;
+import org.eclipse.jetty.client.Request;
+import org.eclipse.jetty.io.Content;
+import org.eclipse.jetty.io.content.ByteBufferContentSource;
+import org.eclipse.jetty.util.ExceptionUtil;
+import org.eclipse.jetty.util.thread.AutoLock;
+import org.eclipse.jetty.util.thread.SerializedInvoker;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends the memory-mapped region of a {@link FileBodySource}. The file is
+ * mapped on the first read, so a failure to map it fails the request.
+ */
+class FileBodySourceContentProvider
+        implements Request.Content
+{
+    private final FileBodySource fileBodySource;
+    private final AtomicLong bytesWritten;
+    private final SerializedInvoker invoker = new SerializedInvoker(FileBodySourceContentProvider.class);
+
+    private final AutoLock lock = new AutoLock();
+    private Content.Source mapped;
+    private Content.Chunk errorChunk;
+
+    FileBodySourceContentProvider(FileBodySource fileBodySource, AtomicLong bytesWritten)
+    {
+        this.fileBodySource = fileBodySource;
+        this.bytesWritten = bytesWritten;
+    }
+
+    @Override
+    public long getLength()
+    {
+        return fileBodySource.getLength();
+    }
+
+    @Override
+    public Content.Chunk read()
+    {
+        Content.Source source;
+        try (AutoLock ignored = lock.lock()) {
+            if (errorChunk != null) {
+                return errorChunk;
+            }
+            if (mapped == null) {
+                try {
+                    mapped = new ByteBufferContentSource(fileBodySource.map());
+                }
+                catch (IOException | RuntimeException e) {
+                    errorChunk = Content.Chunk.from(e);
+                    return errorChunk;
+                }
+            }
+            source = mapped;
+        }
+
+        Content.Chunk chunk = source.read();
+        if (chunk != null) {
+            bytesWritten.addAndGet(chunk.remaining());
+        }
+        return chunk;
+    }
+
+    @Override
+    public void demand(Runnable demandCallback)
+    {
+        Content.Source source;
+        try (AutoLock ignored = lock.lock()) {
+            source = mapped;
+        }
+        if (source == null) {
+            // The file has not been mapped yet, so content is available
+            invoker.run(() -> ExceptionUtil.run(demandCallback, this::fail));
+        }
+        else {
+            source.demand(demandCallback);
+        }
+    }
+
+    @Override
+    public void fail(Throwable failure)
+    {
+        Content.Source source;
+        try (AutoLock ignored = lock.lock()) {
+            if (errorChunk == null) {
+                errorChunk = Content.Chunk.from(failure);
+            }
+            source = mapped;
+        }
+        if (source != null) {
+            source.fail(failure);
+        }
+    }
+
+    @Override
+    public boolean rewind()
+    {
+        try (AutoLock ignored = lock.lock()) {
+            if (errorChunk != null) {
+                return false;
+            }
+            return mapped == null || mapped.rewind();
+        }
+    }
+}
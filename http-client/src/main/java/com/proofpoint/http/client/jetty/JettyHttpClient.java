@@ -6,7 +6,11 @@ import com.google.common.io.Closeables;
 import com.google.common.net.HostAndPort;
 import com.google.common.primitives.Ints;
 import com.proofpoint.http.client.BodySource;
+import com.proofpoint.http.client.ByteBufferBodySource;
+import com.proofpoint.http.client.ConcurrencyLimitExceededException;
+import com.proofpoint.http.client.DeadlineExceededException;
 import com.proofpoint.http.client.DynamicBodySource;
+import com.proofpoint.http.client.FileBodySource;
 import com.proofpoint.http.client.HttpClientConfig;
 import com.proofpoint.http.client.HttpRequestFilter;
 import com.proofpoint.http.client.InputStreamBodySource;
@@ -15,9 +19,14 @@ import com.proofpoint.http.client.RequestStats;
 import com.proofpoint.http.client.ResponseHandler;
 import com.proofpoint.http.client.StaticBodyGenerator;
 import com.proofpoint.log.Logger;
+import com.proofpoint.stats.CounterStat;
+import com.proofpoint.tracetoken.Deadline;
 import com.proofpoint.units.Duration;
+import jakarta.annotation.Nullable;
 import org.eclipse.jetty.client.AbstractConnectionPool;
+import org.eclipse.jetty.client.ByteBufferRequestContent;
 import org.eclipse.jetty.client.BytesRequestContent;
+import org.eclipse.jetty.client.Connection;
 import org.eclipse.jetty.client.Destination;
 import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.jetty.client.HttpClientTransport;
@@ -33,9 +42,14 @@ import org.eclipse.jetty.client.transport.internal.HttpConnectionOverHTTP;
 import org.eclipse.jetty.http.HttpCookieStore;
 import org.eclipse.jetty.http2.client.HTTP2Client;
 import org.eclipse.jetty.http2.client.transport.ClientConnectionFactoryOverHTTP2;
+import org.eclipse.jetty.http2.client.transport.internal.HttpConnectionOverHTTP2;
+import org.eclipse.jetty.http2.frames.PingFrame;
 import org.eclipse.jetty.io.ArrayByteBufferPool;
 import org.eclipse.jetty.io.ClientConnectionFactory;
 import org.eclipse.jetty.io.ClientConnector;
+import org.eclipse.jetty.io.Transport;
+import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.VirtualThreads;
 import org.eclipse.jetty.util.component.LifeCycle;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
@@ -49,9 +63,14 @@ import java.io.InputStream;
 import java.net.URI;
 import java.nio.ByteBuffer;
 import java.nio.channels.ClosedByInterruptException;
+import java.nio.file.Path;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeoutException;
@@ -64,6 +83,8 @@ import static com.google.common.base.Throwables.throwIfUnchecked;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.proofpoint.http.client.jetty.AuthorizationPreservingHttpClient.setPreserveAuthorization;
 import static com.proofpoint.http.client.jetty.Stats.stats;
+import static com.proofpoint.tracetoken.Deadline.earliest;
+import static com.proofpoint.tracetoken.DeadlineManager.getCurrentDeadline;
 import static java.lang.Math.max;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
@@ -71,6 +92,8 @@ import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.eclipse.jetty.client.ConnectionPoolAccessor.getActiveConnections;
 import static org.eclipse.jetty.client.ConnectionPoolAccessor.getIdleConnections;
+import static org.eclipse.jetty.http.HttpHeader.CONTENT_ENCODING;
+import static org.eclipse.jetty.util.VirtualThreads.getNamedVirtualThreadsExecutor;
 
 public class JettyHttpClient
         implements com.proofpoint.http.client.HttpClient
@@ -87,6 +110,8 @@ public class JettyHttpClient
     };
 
     private static final String PLATFORM_STATS_KEY = "platform_stats";
+    private static final Set<Integer> DROPPED_STATUS_CODES = Set.of(429, 503);
+    private static final String DEADLINE_HEADER = "X-Proofpoint-Deadline";
 
     private static final AtomicLong NAME_COUNTER = new AtomicLong();
     private static final JettyHttpClientOptions DEFAULT_CLIENT_OPTIONS =
@@ -99,9 +124,22 @@ public class JettyHttpClient
     private final Long requestTimeoutMillis;
     private final long idleTimeoutMillis;
     private final Stats stats;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final RequestCompressor requestCompressor;
+    private final RequestPhaseStats requestPhaseStats;
+    private final CachingSocketAddressResolver dnsCache;
+    private final Transport unixDomainTransport;
     private final CachedDistribution queuedRequestsPerDestination;
     private final CachedDistribution activeConnectionsPerDestination;
     private final CachedDistribution idleConnectionsPerDestination;
+    private final CachedDistribution activeStreamsPerDestination;
+    private final CachedDistribution streamUtilizationPerDestination;
+    private final int http2ConnectionsPerDestination;
+    private final int warmupConnections;
+    private final Long warmupCheckIntervalMillis;
+    private final Set<URI> warmDestinations = ConcurrentHashMap.newKeySet();
+    private final CounterStat warmConnections = new CounterStat();
+    private final CounterStat coldConnections = new CounterStat();
 
     private final CachedDistribution currentQueuedTime;
     private final CachedDistribution currentRequestTime;
@@ -157,9 +195,19 @@ public class JettyHttpClient
             requestTimeoutMillis = requestTimeout.toMillis();
         }
         idleTimeoutMillis = config.getIdleTimeout().toMillis();
+        concurrencyLimiter = options.getConcurrencyLimiter();
+        requestCompressor = options.getRequestCompressor();
+        requestPhaseStats = options.getRequestPhaseStats();
 
         creationLocation.fillInStackTrace();
 
+        if (config.getUnixDomainSocketPath() == null) {
+            unixDomainTransport = null;
+        }
+        else {
+            unixDomainTransport = new Transport.TCPUnix(Path.of(config.getUnixDomainSocketPath()));
+        }
+
         SslContextFactory.Client sslContextFactory = new SslContextFactory.Client();
         sslContextFactory.setEndpointIdentificationAlgorithm("HTTPS");
         sslContextFactory.setExcludeProtocols();
@@ -179,7 +227,7 @@ public class JettyHttpClient
             sslContextFactory.setTrustAll(true);
         }
 
-        ClientConnector clientConnector = new ClientConnector();
+        ClientConnector clientConnector = new ConnectTimingClientConnector(requestPhaseStats, warmConnections, coldConnections);
         clientConnector.setSelectors(config.getSelectorCount());
         clientConnector.setSslContextFactory(sslContextFactory);
 
@@ -200,6 +248,31 @@ public class JettyHttpClient
         // the protocol version to use can be explicitly specified in the request.
         HttpClientTransport transport = new HttpClientTransportDynamic(clientConnector, protocols.build().toArray(new ClientConnectionFactory.Info[0]));
 
+        if (config.isHttp2Enabled()) {
+            http2ConnectionsPerDestination = config.getHttp2ConnectionsPerDestination();
+            checkArgument(http2ConnectionsPerDestination <= config.getMaxConnectionsPerServer(),
+                    "http2 connections per destination must not be greater than max connections per server");
+            int maxConnections = config.getMaxConnectionsPerServer();
+            transport.setConnectionPoolFactory(destination -> new MultiplexedConnectionPool(destination, maxConnections, http2ConnectionsPerDestination));
+        }
+        else {
+            http2ConnectionsPerDestination = 0;
+        }
+        checkArgument(config.getWarmupConnections() <= config.getMaxConnectionsPerServer(),
+                "warmup connections must not be greater than max connections per server");
+        if (config.getWarmupConnections() == 0) {
+            warmupConnections = 0;
+        }
+        else {
+            warmupConnections = max(config.getWarmupConnections(), http2ConnectionsPerDestination);
+        }
+        if (config.getWarmupCheckInterval() == null || warmupConnections == 0) {
+            warmupCheckIntervalMillis = null;
+        }
+        else {
+            warmupCheckIntervalMillis = config.getWarmupCheckInterval().toMillis();
+        }
+
         httpClient = new AuthorizationPreservingHttpClient(transport);
 
         // request and response buffer size
@@ -232,20 +305,22 @@ public class JettyHttpClient
         }
 
         httpClient.setByteBufferPool(new ArrayByteBufferPool());
-        QueuedThreadPool executor = createExecutor(name, config.getMinThreads(), config.getMaxThreads());
+        QueuedThreadPool executor = createExecutor(name, config.getMinThreads(), config.getMaxThreads(), options.isEnableVirtualThreads());
         stats = stats(executor);
         httpClient.setExecutor(executor);
         httpClient.setScheduler(createScheduler(name, config.getTimeoutConcurrency(), config.getTimeoutThreads()));
 
-        httpClient.setSocketAddressResolver(new JettyAsyncSocketAddressResolver(
-                httpClient.getExecutor(),
-                httpClient.getScheduler(),
-                config.getConnectTimeout().toMillis()));
-
-        httpClient.setSocketAddressResolver(new JettyAsyncSocketAddressResolver(
-                httpClient.getExecutor(),
-                httpClient.getScheduler(),
-                config.getConnectTimeout().toMillis()));
+        if (config.isDnsCacheEnabled()) {
+            dnsCache = new CachingSocketAddressResolver(httpClient.getExecutor(), httpClient.getScheduler(), config);
+            httpClient.setSocketAddressResolver(dnsCache);
+        }
+        else {
+            dnsCache = null;
+            httpClient.setSocketAddressResolver(new JettyAsyncSocketAddressResolver(
+                    httpClient.getExecutor(),
+                    httpClient.getScheduler(),
+                    config.getConnectTimeout().toMillis()));
+        }
 
         try {
             this.httpClient.start();
@@ -264,12 +339,28 @@ public class JettyHttpClient
 
         this.requestFilters = ImmutableList.copyOf(requestFilters);
 
+        if (warmupCheckIntervalMillis != null) {
+            scheduleWarmupCheck();
+        }
+
         this.activeConnectionsPerDestination = new ConnectionPoolDistribution(httpClient,
                 (distribution, connectionPool) -> distribution.add(getActiveConnections(connectionPool).size()));
 
          this.idleConnectionsPerDestination = new ConnectionPoolDistribution(httpClient,
                  (distribution, connectionPool) -> distribution.add(getIdleConnections(connectionPool).size()));
 
+         this.activeStreamsPerDestination = new ConnectionPoolDistribution(httpClient, (distribution, connectionPool) -> {
+             if (connectionPool instanceof MultiplexedConnectionPool multiplexedConnectionPool) {
+                 distribution.add(multiplexedConnectionPool.getActiveStreams());
+             }
+         });
+
+         this.streamUtilizationPerDestination = new ConnectionPoolDistribution(httpClient, (distribution, connectionPool) -> {
+             if (connectionPool instanceof MultiplexedConnectionPool multiplexedConnectionPool) {
+                 distribution.add(multiplexedConnectionPool.getStreamUtilization());
+             }
+         });
+
          this.queuedRequestsPerDestination = new DestinationDistribution(httpClient,
                  (distribution, destination) -> distribution.add(destination.getHttpExchanges().size()));
 
@@ -337,12 +428,17 @@ public class JettyHttpClient
     {
     }
 
-    private static QueuedThreadPool createExecutor(String name, int minThreads, int maxThreads)
+    private static QueuedThreadPool createExecutor(String name, int minThreads, int maxThreads, boolean enableVirtualThreads)
     {
         try {
             QueuedThreadPool pool = new QueuedThreadPool(maxThreads, minThreads, 60000, null);
             pool.setName("http-client-" + name);
             pool.setDaemon(true);
+            if (enableVirtualThreads) {
+                checkArgument(VirtualThreads.areSupported(), "Virtual threads are not supported");
+                // Blocking tasks, such as invoking response handlers, run on virtual threads
+                pool.setVirtualThreadsExecutor(getNamedVirtualThreadsExecutor("http-client-" + name + "#v"));
+            }
             pool.start();
             pool.setStopTimeout(2000);
             return pool;
@@ -387,8 +483,21 @@ public class JettyHttpClient
         // apply filters
         request = applyRequestFilters(request);
 
+        Deadline deadline = earliest(request.getDeadline(), getCurrentDeadline());
+        if (deadline != null && deadline.isExpired()) {
+            return responseHandler.handleException(request, deadlineExceeded(request));
+        }
+
         // create jetty request and response listener
-        HttpRequest jettyRequest = buildJettyRequest(request, bytesWritten);
+        HttpRequest jettyRequest = buildJettyRequest(request, deadline, bytesWritten);
+        AdaptiveConcurrencyLimiter.Permit permit;
+        try {
+            permit = acquireConcurrencyPermit(request, jettyRequest);
+        }
+        catch (ConcurrencyLimitExceededException e) {
+            return responseHandler.handleException(request, e);
+        }
+
         InputStreamResponseListener listener = new InputStreamResponseListener()
         {
             @Override
@@ -403,7 +512,15 @@ public class JettyHttpClient
         };
 
         // fire the request
-        jettyRequest.send(listener);
+        try {
+            jettyRequest.send(listener);
+        }
+        catch (RuntimeException e) {
+            if (permit != null) {
+                permit.ignore();
+            }
+            throw e;
+        }
 
         // wait for response to begin
         Response response;
@@ -477,16 +594,34 @@ public class JettyHttpClient
             return new FailedHttpResponseFuture<>(e);
         }
 
-        HttpRequest jettyRequest = buildJettyRequest(request, bytesWritten);
+        Deadline deadline = earliest(request.getDeadline(), getCurrentDeadline());
+        HttpRequest jettyRequest = buildJettyRequest(request, deadline, bytesWritten);
 
         JettyResponseFuture<T, E> future = new JettyResponseFuture<>(this, request, jettyRequest, responseHandler, bytesWritten, stats);
 
+        if (deadline != null && deadline.isExpired()) {
+            future.failed(deadlineExceeded(request));
+            return future;
+        }
+
+        AdaptiveConcurrencyLimiter.Permit permit;
+        try {
+            permit = acquireConcurrencyPermit(request, jettyRequest);
+        }
+        catch (ConcurrencyLimitExceededException e) {
+            future.failed(e);
+            return future;
+        }
+
         BufferingResponseListener listener = new BufferingResponseListener(future, Ints.saturatedCast(maxContentLength));
 
         try {
             jettyRequest.send(listener);
         }
         catch (RuntimeException e) {
+            if (permit != null) {
+                permit.ignore();
+            }
             if (!(e instanceof RejectedExecutionException)) {
                 e = new RejectedExecutionException(e);
             }
@@ -504,15 +639,55 @@ public class JettyHttpClient
         return request;
     }
 
-    private HttpRequest buildJettyRequest(Request finalRequest, AtomicLong bytesWritten)
+    private AdaptiveConcurrencyLimiter.Permit acquireConcurrencyPermit(Request request, HttpRequest jettyRequest)
     {
-        HttpRequest jettyRequest = (HttpRequest) httpClient.newRequest(finalRequest.getUri());
+        if (concurrencyLimiter == null) {
+            return null;
+        }
+        AdaptiveConcurrencyLimiter.Permit permit = concurrencyLimiter.acquire(request.getUri());
+        jettyRequest.onComplete(result -> {
+            Throwable failure = result.getFailure();
+            if (failure instanceof CancellationException) {
+                permit.ignore();
+            }
+            else if (failure != null || DROPPED_STATUS_CODES.contains(result.getResponse().getStatus())) {
+                permit.dropped();
+            }
+            else {
+                permit.success();
+            }
+        });
+        return permit;
+    }
+
+    private static DeadlineExceededException deadlineExceeded(Request request)
+    {
+        return new DeadlineExceededException("Deadline expired before request to " + request.getUri().resolve("/") + " was sent");
+    }
+
+    private HttpRequest newJettyRequest(URI uri)
+    {
+        HttpRequest jettyRequest = (HttpRequest) httpClient.newRequest(uri);
+        if (unixDomainTransport != null) {
+            jettyRequest.transport(unixDomainTransport);
+        }
+        return jettyRequest;
+    }
+
+    private HttpRequest buildJettyRequest(Request finalRequest, @Nullable Deadline deadline, AtomicLong bytesWritten)
+    {
+        HttpRequest jettyRequest = newJettyRequest(finalRequest.getUri());
 
         JettyRequestListener listener = new JettyRequestListener(finalRequest.getUri());
         jettyRequest.onRequestBegin(request -> listener.onRequestBegin());
         jettyRequest.onRequestSuccess(request -> listener.onRequestEnd());
         jettyRequest.onResponseBegin(response -> listener.onResponseBegin());
-        jettyRequest.onComplete(result -> listener.onFinish());
+        jettyRequest.onComplete(result -> {
+            listener.onFinish();
+            if (requestPhaseStats != null && result.isSucceeded()) {
+                listener.recordPhases(requestPhaseStats);
+            }
+        });
         jettyRequest.attribute(PLATFORM_STATS_KEY, listener);
 
         jettyRequest.method(finalRequest.getMethod());
@@ -520,11 +695,25 @@ public class JettyHttpClient
         jettyRequest.headers(headers -> finalRequest.getHeaders().forEach(headers::add));
 
         BodySource bodySource = finalRequest.getBodySource();
+        if (bodySource != null && requestCompressor != null && finalRequest.getHeader(CONTENT_ENCODING.asString()) == null) {
+            DynamicBodySource compressedBodySource = requestCompressor.compress(finalRequest.getUri(), bodySource);
+            if (compressedBodySource != null) {
+                jettyRequest.headers(headers -> headers.put(CONTENT_ENCODING, RequestCompressor.CONTENT_ENCODING));
+                bodySource = compressedBodySource;
+            }
+        }
         if (bodySource != null) {
             if (bodySource instanceof StaticBodyGenerator staticBodyGenerator) {
                 jettyRequest.body(new BytesRequestContent(staticBodyGenerator.getBody()));
                 bytesWritten.addAndGet(staticBodyGenerator.getBody().length);
             }
+            else if (bodySource instanceof ByteBufferBodySource byteBufferBodySource) {
+                jettyRequest.body(new ByteBufferRequestContent(byteBufferBodySource.getBuffers().toArray(ByteBuffer[]::new)));
+                bytesWritten.addAndGet(byteBufferBodySource.getLength());
+            }
+            else if (bodySource instanceof FileBodySource fileBodySource) {
+                jettyRequest.body(new FileBodySourceContentProvider(fileBodySource, bytesWritten));
+            }
             else if (bodySource instanceof InputStreamBodySource inputStreamBodySource) {
                 jettyRequest.body(new InputStreamBodySourceContentProvider(inputStreamBodySource, bytesWritten));
             }
@@ -540,8 +729,17 @@ public class JettyHttpClient
         setPreserveAuthorization(jettyRequest, finalRequest.isPreserveAuthorizationOnRedirect());
 
         // timeouts
-        if (requestTimeoutMillis != null) {
-            jettyRequest.timeout(requestTimeoutMillis, MILLISECONDS);
+        Long timeoutMillis = requestTimeoutMillis;
+        if (deadline != null) {
+            // the server can reject the request if it is still queued once the caller has given up
+            long remainingMillis = max(1, deadline.getRemaining(MILLISECONDS));
+            jettyRequest.headers(headers -> headers.put(DEADLINE_HEADER, Long.toString(remainingMillis)));
+            if (timeoutMillis == null || timeoutMillis > remainingMillis) {
+                timeoutMillis = remainingMillis;
+            }
+        }
+        if (timeoutMillis != null) {
+            jettyRequest.timeout(timeoutMillis, MILLISECONDS);
         }
         jettyRequest.idleTimeout(idleTimeoutMillis, MILLISECONDS);
 
@@ -553,6 +751,16 @@ public class JettyHttpClient
         return requestFilters;
     }
 
+    public AdaptiveConcurrencyLimiter getConcurrencyLimiter()
+    {
+        return concurrencyLimiter;
+    }
+
+    public RequestCompressor getRequestCompressor()
+    {
+        return requestCompressor;
+    }
+
     @Override
     @Managed
     @Flatten
@@ -561,6 +769,13 @@ public class JettyHttpClient
         return stats;
     }
 
+    @Managed
+    @Nested
+    public CachingSocketAddressResolver getDnsCache()
+    {
+        return dnsCache;
+    }
+
     @Managed
     @Nested
     public CachedDistribution getActiveConnectionsPerDestination()
@@ -575,6 +790,20 @@ public class JettyHttpClient
         return idleConnectionsPerDestination;
     }
 
+    @Managed
+    @Nested
+    public CachedDistribution getActiveStreamsPerDestination()
+    {
+        return activeStreamsPerDestination;
+    }
+
+    @Managed
+    @Nested
+    public CachedDistribution getStreamUtilizationPerDestination()
+    {
+        return streamUtilizationPerDestination;
+    }
+
     @Managed
     @Nested
     public CachedDistribution getQueuedRequestsPerDestination()
@@ -617,6 +846,131 @@ public class JettyHttpClient
         return currentResponseProcessTime;
     }
 
+    @Managed
+    @Nested
+    public CounterStat getWarmConnections()
+    {
+        return warmConnections;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getColdConnections()
+    {
+        return coldConnections;
+    }
+
+    /**
+     * Opens connections to the given destinations ahead of their first
+     * request, so that the connection and TLS setup is not paid by live
+     * requests. Opens "http-client.warmup.connections" connections, or with
+     * HTTP/2 at least "http-client.http2.connections-per-destination". Does
+     * nothing if "http-client.warmup.connections" is 0.
+     * <p>
+     * If "http-client.warmup.check-interval" is set, idle connections to the
+     * destinations are periodically checked and replenished until
+     * {@link #coolDownConnections(Collection)} is called for them.
+     *
+     * @param uris URIs of the destinations to connect to
+     */
+    public void warmUpConnections(Collection<URI> uris)
+    {
+        if (warmupConnections == 0 || isClosed()) {
+            return;
+        }
+        for (URI uri : uris) {
+            if (warmupCheckIntervalMillis != null) {
+                warmDestinations.add(uri.resolve("/"));
+            }
+            warmUpConnections(uri);
+        }
+    }
+
+    /**
+     * Stops checking and replenishing connections to the given destinations.
+     * Their open connections are closed when they reach the idle timeout.
+     *
+     * @param uris URIs of the destinations
+     */
+    public void coolDownConnections(Collection<URI> uris)
+    {
+        for (URI uri : uris) {
+            warmDestinations.remove(uri.resolve("/"));
+        }
+    }
+
+    private void warmUpConnections(URI uri)
+    {
+        AbstractConnectionPool connectionPool = connectionPool(uri);
+        if (connectionPool == null) {
+            return;
+        }
+        int missingConnections = warmupConnections - connectionPool.getConnectionCount();
+        if (missingConnections <= 0) {
+            return;
+        }
+        connectionPool.preCreateConnections(missingConnections)
+                .whenComplete((ignored, throwable) -> {
+                    if (throwable != null) {
+                        log.debug(throwable, "Failed to warm up connections to %s", uri);
+                    }
+                });
+    }
+
+    @Nullable
+    private AbstractConnectionPool connectionPool(URI uri)
+    {
+        try {
+            return (AbstractConnectionPool) httpClient.resolveDestination(newJettyRequest(uri)).getConnectionPool();
+        }
+        catch (RuntimeException e) {
+            log.debug(e, "Unable to resolve destination for %s", uri);
+            return null;
+        }
+    }
+
+    private void scheduleWarmupCheck()
+    {
+        try {
+            httpClient.getScheduler().schedule(this::checkWarmConnections, warmupCheckIntervalMillis, MILLISECONDS);
+        }
+        catch (RejectedExecutionException ignored) {
+            // closed
+        }
+    }
+
+    private void checkWarmConnections()
+    {
+        if (isClosed()) {
+            return;
+        }
+        try {
+            for (URI uri : warmDestinations) {
+                AbstractConnectionPool connectionPool = connectionPool(uri);
+                if (connectionPool == null) {
+                    continue;
+                }
+                for (Connection connection : getIdleConnections(connectionPool)) {
+                    if (connection instanceof HttpConnectionOverHTTP2 http2Connection) {
+                        // Keeps the connection from idling out and detects a broken connection
+                        http2Connection.getSession().ping(new PingFrame(false), Callback.from(() -> {}, failure -> {
+                            log.debug(failure, "Closing connection to %s that failed a keep-alive ping", uri);
+                            http2Connection.close();
+                        }));
+                    }
+                }
+                // Replaces connections that were closed by either side
+                warmUpConnections(uri);
+            }
+        }
+        catch (RuntimeException e) {
+            log.warn(e, "Failed to check warm connections");
+        }
+        finally {
+            scheduleWarmupCheck();
+        }
+    }
+
     @Managed
     public String dump()
     {
@@ -2,32 +2,80 @@ package com.proofpoint.http.client.jetty;
 
 public class JettyHttpClientOptions {
     private final boolean enableCertificateVerification;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final RequestCompressor requestCompressor;
+    private final boolean enableVirtualThreads;
+    private final RequestPhaseStats requestPhaseStats;
 
-    JettyHttpClientOptions(boolean enableCertificateVerification) {
+    JettyHttpClientOptions(boolean enableCertificateVerification, AdaptiveConcurrencyLimiter concurrencyLimiter, RequestCompressor requestCompressor, boolean enableVirtualThreads, RequestPhaseStats requestPhaseStats) {
         this.enableCertificateVerification = enableCertificateVerification;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.requestCompressor = requestCompressor;
+        this.enableVirtualThreads = enableVirtualThreads;
+        this.requestPhaseStats = requestPhaseStats;
     }
 
     public boolean isEnableCertificateVerification() {
         return enableCertificateVerification;
     }
 
+    public AdaptiveConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    public RequestCompressor getRequestCompressor() {
+        return requestCompressor;
+    }
+
+    public boolean isEnableVirtualThreads() {
+        return enableVirtualThreads;
+    }
+
+    public RequestPhaseStats getRequestPhaseStats() {
+        return requestPhaseStats;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
 
     public static class Builder {
         private boolean enableCertificateVerification = true;
+        private AdaptiveConcurrencyLimiter concurrencyLimiter = null;
+        private RequestCompressor requestCompressor = null;
+        private boolean enableVirtualThreads = false;
+        private RequestPhaseStats requestPhaseStats = null;
 
         public Builder() {
         }
 
         public JettyHttpClientOptions build() {
-            return new JettyHttpClientOptions(enableCertificateVerification);
+            return new JettyHttpClientOptions(enableCertificateVerification, concurrencyLimiter, requestCompressor, enableVirtualThreads, requestPhaseStats);
         }
 
         public Builder setEnableCertificateVerification(boolean enableCertificateVerification) {
             this.enableCertificateVerification = enableCertificateVerification;
             return this;
         }
+
+        public Builder setConcurrencyLimiter(AdaptiveConcurrencyLimiter concurrencyLimiter) {
+            this.concurrencyLimiter = concurrencyLimiter;
+            return this;
+        }
+
+        public Builder setRequestCompressor(RequestCompressor requestCompressor) {
+            this.requestCompressor = requestCompressor;
+            return this;
+        }
+
+        public Builder setEnableVirtualThreads(boolean enableVirtualThreads) {
+            this.enableVirtualThreads = enableVirtualThreads;
+            return this;
+        }
+
+        public Builder setRequestPhaseStats(RequestPhaseStats requestPhaseStats) {
+            this.requestPhaseStats = requestPhaseStats;
+            return this;
+        }
     }
 }
@@ -4,6 +4,8 @@ import java.net.URI;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
 class JettyRequestListener
 {
     enum State
@@ -98,6 +100,15 @@ class JettyRequestListener
         responseFinished.compareAndSet(0, now);
     }
 
+    void recordPhases(RequestPhaseStats stats)
+    {
+        String destination = AdaptiveConcurrencyLimiter.destination(uri);
+        stats.queueTime(destination).add(requestStarted.get() - created, NANOSECONDS);
+        stats.sendTime(destination).add(requestFinished.get() - requestStarted.get(), NANOSECONDS);
+        stats.responseWaitTime(destination).add(responseStarted.get() - requestFinished.get(), NANOSECONDS);
+        stats.responseReadTime(destination).add(responseFinished.get() - responseStarted.get(), NANOSECONDS);
+    }
+
     private synchronized void changeState(State newState)
     {
         if (state.get().ordinal() < newState.ordinal()) {
@@ -0,0 +1,352 @@
+package com.proofpoint.http.client.jetty;
+
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import org.eclipse.jetty.util.Pool;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link Pool} whose {@link #acquire()} returns the enabled entry with the
+ * fewest concurrent users that is below its maximum multiplex. For a pool of
+ * HTTP/2 connections, this spreads streams across connections and never
+ * exceeds the max concurrent streams advertised by the server.
+ * <p>
+ * Entry state follows the semantics of {@link org.eclipse.jetty.util.ConcurrentPool}.
+ */
+class LeastLoadedPool<P>
+        implements Pool<P>
+{
+    private final int maxSize;
+    private final ToIntFunction<P> maxMultiplex;
+    private final ReentrantLock lock = new ReentrantLock();
+    @GuardedBy("lock")
+    private final List<LeastLoadedEntry> entries = new ArrayList<>();
+    @GuardedBy("lock")
+    private boolean terminated = false;
+
+    LeastLoadedPool(int maxSize, ToIntFunction<P> maxMultiplex)
+    {
+        checkArgument(maxSize > 0, "maxSize must be positive");
+        this.maxSize = maxSize;
+        this.maxMultiplex = requireNonNull(maxMultiplex, "maxMultiplex is null");
+    }
+
+    @Override
+    public Entry<P> reserve()
+    {
+        lock.lock();
+        try {
+            if (terminated || entries.size() >= maxSize) {
+                return null;
+            }
+            LeastLoadedEntry entry = new LeastLoadedEntry();
+            entries.add(entry);
+            return entry;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Entry<P> acquire()
+    {
+        lock.lock();
+        try {
+            if (terminated) {
+                return null;
+            }
+            LeastLoadedEntry best = null;
+            for (LeastLoadedEntry entry : entries) {
+                if (entry.state != 0 || entry.users < 0) {
+                    continue;
+                }
+                int max = maxMultiplex.applyAsInt(entry.pooled);
+                if (max > 0 && entry.users >= max) {
+                    continue;
+                }
+                if (best == null || entry.users < best.users) {
+                    best = entry;
+                }
+            }
+            if (best != null) {
+                ++best.users;
+            }
+            return best;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isTerminated()
+    {
+        lock.lock();
+        try {
+            return terminated;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Collection<Entry<P>> terminate()
+    {
+        lock.lock();
+        try {
+            terminated = true;
+            List<Entry<P>> copy = List.copyOf(entries);
+            for (LeastLoadedEntry entry : entries) {
+                if (entry.state == 0) {
+                    entry.state = -1;
+                }
+            }
+            entries.clear();
+            return copy;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        lock.lock();
+        try {
+            return entries.size();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    @Override
+    public Stream<Entry<P>> stream()
+    {
+        lock.lock();
+        try {
+            return List.<Entry<P>>copyOf(entries).stream();
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of users of all enabled entries. For a pool of
+     * HTTP/2 connections, this is the number of active streams.
+     */
+    int getUsage()
+    {
+        lock.lock();
+        try {
+            int usage = 0;
+            for (LeastLoadedEntry entry : entries) {
+                if (entry.state == 0 && entry.users > 0) {
+                    usage += entry.users;
+                }
+            }
+            return usage;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the sum of the maximum multiplex of all enabled entries. For a
+     * pool of HTTP/2 connections, this is the number of streams the pool
+     * can carry without opening another connection.
+     */
+    long getCapacity()
+    {
+        lock.lock();
+        try {
+            long capacity = 0;
+            for (LeastLoadedEntry entry : entries) {
+                if (entry.state == 0 && entry.users >= 0) {
+                    capacity += maxMultiplex.applyAsInt(entry.pooled);
+                }
+            }
+            return capacity;
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        lock.lock();
+        try {
+            return "%s@%x[size=%d,max=%d,terminated=%b]".formatted(getClass().getSimpleName(), hashCode(), entries.size(), maxSize, terminated);
+        }
+        finally {
+            lock.unlock();
+        }
+    }
+
+    private class LeastLoadedEntry
+            implements Entry<P>
+    {
+        // 0 while usable, -1 once removed with remaining users or terminated, -2 once removed
+        @GuardedBy("lock")
+        private int state = 0;
+        // -1 while reserved, otherwise the number of users
+        @GuardedBy("lock")
+        private int users = -1;
+        @GuardedBy("lock")
+        private P pooled;
+
+        @Override
+        public boolean enable(P pooled, boolean acquire)
+        {
+            requireNonNull(pooled, "pooled is null");
+            lock.lock();
+            try {
+                if (users >= 0 || state < 0) {
+                    if (state < 0) {
+                        return false;
+                    }
+                    throw new IllegalStateException("Entry already enabled " + this + " for " + LeastLoadedPool.this);
+                }
+                this.pooled = pooled;
+                users = acquire ? 1 : 0;
+                return true;
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public P getPooled()
+        {
+            lock.lock();
+            try {
+                return pooled;
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public boolean release()
+        {
+            lock.lock();
+            try {
+                if (state < 0 || users <= 0) {
+                    return false;
+                }
+                --users;
+                return true;
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public boolean remove()
+        {
+            lock.lock();
+            try {
+                if (state == -2) {
+                    return false;
+                }
+                if (users > 0) {
+                    --users;
+                }
+                if (users > 0) {
+                    state = -1;
+                    return false;
+                }
+                state = -2;
+                entries.remove(this);
+                return true;
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public boolean isReserved()
+        {
+            lock.lock();
+            try {
+                return users < 0;
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public boolean isIdle()
+        {
+            lock.lock();
+            try {
+                return users == 0;
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public boolean isInUse()
+        {
+            lock.lock();
+            try {
+                return users > 0;
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public boolean isTerminated()
+        {
+            lock.lock();
+            try {
+                return state < 0;
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            lock.lock();
+            try {
+                return "%s@%x{users=%d,state=%d,pooled=%s}".formatted(getClass().getSimpleName(), hashCode(), users, state, pooled);
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.proofpoint.http.client.jetty;
+
+import org.eclipse.jetty.client.Connection;
+import org.eclipse.jetty.client.Destination;
+import org.eclipse.jetty.client.MultiplexConnectionPool;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Connection pool for the multiplexed pool mode used when HTTP/2 is enabled.
+ * <p>
+ * Each request goes to the connection with the fewest active streams that
+ * is below the max concurrent streams advertised by the server. The pool
+ * opens connections until it has {@code connectionsPerDestination} of them,
+ * even if the existing connections could carry more streams.
+ */
+class MultiplexedConnectionPool
+        extends MultiplexConnectionPool
+{
+    private final int connectionsPerDestination;
+    // the pool is created when the connection pool is started
+    private final AtomicReference<LeastLoadedPool<Connection>> pool;
+
+    MultiplexedConnectionPool(Destination destination, int maxConnections, int connectionsPerDestination)
+    {
+        this(destination, maxConnections, connectionsPerDestination, new AtomicReference<>());
+    }
+
+    private MultiplexedConnectionPool(Destination destination, int maxConnections, int connectionsPerDestination, AtomicReference<LeastLoadedPool<Connection>> poolReference)
+    {
+        super(destination, () -> {
+            LeastLoadedPool<Connection> pool = new LeastLoadedPool<>(maxConnections, newMaxMultiplexer(1));
+            poolReference.set(pool);
+            return pool;
+        }, 1);
+        checkArgument(connectionsPerDestination <= maxConnections, "connectionsPerDestination is greater than maxConnections");
+        this.connectionsPerDestination = connectionsPerDestination;
+        pool = poolReference;
+    }
+
+    @Override
+    public Connection acquire(boolean create)
+    {
+        if (create && getConnectionCount() < connectionsPerDestination) {
+            // Open another connection even if an existing one has capacity,
+            // but do not let the superclass open a second one for this request
+            tryCreate(true);
+            return super.acquire(false);
+        }
+        return super.acquire(create);
+    }
+
+    int getConnectionsPerDestination()
+    {
+        return connectionsPerDestination;
+    }
+
+    /**
+     * Returns the number of active streams across all connections.
+     */
+    int getActiveStreams()
+    {
+        LeastLoadedPool<Connection> pool = this.pool.get();
+        if (pool == null) {
+            return 0;
+        }
+        return pool.getUsage();
+    }
+
+    /**
+     * Returns the percentage of the max concurrent streams of all
+     * connections that are in use.
+     */
+    long getStreamUtilization()
+    {
+        LeastLoadedPool<Connection> pool = this.pool.get();
+        if (pool == null) {
+            return 0;
+        }
+        long capacity = pool.getCapacity();
+        if (capacity <= 0) {
+            return 0;
+        }
+        return 100 * pool.getUsage() / capacity;
+    }
+}
@@ -0,0 +1,17 @@
+package com.proofpoint.http.client.jetty;
+
+import com.proofpoint.reporting.Key;
+import com.proofpoint.stats.SparseCounterStat;
+import com.proofpoint.stats.SparseDistributionStat;
+
+public interface RequestCompressionStats
+{
+    SparseCounterStat uncompressedBytes(@Key("destination") String destination);
+
+    SparseCounterStat compressedBytes(@Key("destination") String destination);
+
+    /**
+     * Compressed size of each request body as a percentage of its uncompressed size.
+     */
+    SparseDistributionStat compressionRatio(@Key("destination") String destination);
+}
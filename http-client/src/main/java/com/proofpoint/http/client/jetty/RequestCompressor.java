@@ -0,0 +1,337 @@
+package com.proofpoint.http.client.jetty;
+
+import com.google.common.io.CountingOutputStream;
+import com.proofpoint.http.client.BodySource;
+import com.proofpoint.http.client.ByteBufferBodySource;
+import com.proofpoint.http.client.DynamicBodySource;
+import com.proofpoint.http.client.DynamicBodySource.Writer;
+import com.proofpoint.http.client.FileBodySource;
+import com.proofpoint.http.client.HttpClientConfig;
+import com.proofpoint.http.client.InputStreamBodySource;
+import com.proofpoint.http.client.StaticBodyGenerator;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.zip.GZIPOutputStream;
+
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Compresses request bodies with gzip. The compressed body is streamed into
+ * the buffers of {@link DynamicBodySourceContentProvider} as the body is
+ * produced, so the uncompressed body is never held in memory.
+ */
+public class RequestCompressor
+{
+    static final String CONTENT_ENCODING = "gzip";
+    private static final int BUFFER_SIZE = 4096;
+
+    private final long minSize;
+    private final RequestCompressionStats stats;
+
+    public RequestCompressor(HttpClientConfig config, RequestCompressionStats stats)
+    {
+        requireNonNull(config, "config is null");
+        minSize = config.getRequestCompressionMinSize().toBytes();
+        this.stats = requireNonNull(stats, "stats is null");
+    }
+
+    /**
+     * Returns a body source that produces the compressed body of a request,
+     * or null if the body should be sent uncompressed.
+     */
+    DynamicBodySource compress(URI uri, BodySource bodySource)
+    {
+        long length = bodySource.getLength();
+        if (length >= 0 && length < minSize) {
+            return null;
+        }
+
+        DynamicBodySource uncompressed;
+        if (bodySource instanceof StaticBodyGenerator staticBodyGenerator) {
+            uncompressed = new StaticBodyWriterSource(staticBodyGenerator.getBody());
+        }
+        else if (bodySource instanceof ByteBufferBodySource byteBufferBodySource) {
+            uncompressed = new ByteBufferWriterSource(byteBufferBodySource::getBuffers);
+        }
+        else if (bodySource instanceof FileBodySource fileBodySource) {
+            uncompressed = new ByteBufferWriterSource(fileBodySource::map);
+        }
+        else if (bodySource instanceof InputStreamBodySource inputStreamBodySource) {
+            uncompressed = new InputStreamWriterSource(inputStreamBodySource);
+        }
+        else if (bodySource instanceof DynamicBodySource dynamicBodySource) {
+            uncompressed = dynamicBodySource;
+        }
+        else {
+            throw new IllegalArgumentException("Request has unsupported BodySource type");
+        }
+        return new CompressingBodySource(AdaptiveConcurrencyLimiter.destination(uri), uncompressed);
+    }
+
+    private class CompressingBodySource
+            implements DynamicBodySource
+    {
+        private final String destination;
+        private final DynamicBodySource uncompressed;
+
+        CompressingBodySource(String destination, DynamicBodySource uncompressed)
+        {
+            this.destination = destination;
+            this.uncompressed = uncompressed;
+        }
+
+        @Override
+        public Writer start(OutputStream out)
+                throws Exception
+        {
+            CountingOutputStream compressedOut = new CountingOutputStream(out);
+            EndableGzipOutputStream gzipOut = new EndableGzipOutputStream(compressedOut);
+            UncompressedOutputStream uncompressedOut = new UncompressedOutputStream(destination, gzipOut, compressedOut);
+            return new CompressingWriter(uncompressed.start(uncompressedOut), gzipOut);
+        }
+    }
+
+    private class UncompressedOutputStream
+            extends FilterOutputStream
+    {
+        private final String destination;
+        private final CountingOutputStream compressedOut;
+        private long count = 0;
+        private boolean closed = false;
+
+        UncompressedOutputStream(String destination, EndableGzipOutputStream gzipOut, CountingOutputStream compressedOut)
+        {
+            super(gzipOut);
+            this.destination = destination;
+            this.compressedOut = compressedOut;
+        }
+
+        @Override
+        public void write(int b)
+                throws IOException
+        {
+            out.write(b);
+            ++count;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len)
+                throws IOException
+        {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void close()
+                throws IOException
+        {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            // Finishes the gzip trailer, ends the deflater, and closes the underlying stream
+            out.close();
+
+            long compressedBytes = compressedOut.getCount();
+            stats.uncompressedBytes(destination).add(count);
+            stats.compressedBytes(destination).add(compressedBytes);
+            if (count > 0) {
+                stats.compressionRatio(destination).add(compressedBytes * 100 / count);
+            }
+        }
+    }
+
+    private static class CompressingWriter
+            implements Writer, AutoCloseable
+    {
+        private final Writer writer;
+        private final EndableGzipOutputStream gzipOut;
+
+        CompressingWriter(Writer writer, EndableGzipOutputStream gzipOut)
+        {
+            this.writer = writer;
+            this.gzipOut = gzipOut;
+        }
+
+        @Override
+        public void write()
+                throws Exception
+        {
+            writer.write();
+        }
+
+        @Override
+        public void close()
+                throws Exception
+        {
+            try {
+                if (writer instanceof AutoCloseable closeable) {
+                    closeable.close();
+                }
+            }
+            finally {
+                // Releases the native deflater if the body was abandoned
+                gzipOut.end();
+            }
+        }
+    }
+
+    private static class EndableGzipOutputStream
+            extends GZIPOutputStream
+    {
+        EndableGzipOutputStream(OutputStream out)
+                throws IOException
+        {
+            super(out, BUFFER_SIZE);
+        }
+
+        void end()
+        {
+            def.end();
+        }
+    }
+
+    private static class StaticBodyWriterSource
+            implements DynamicBodySource
+    {
+        private final byte[] body;
+
+        StaticBodyWriterSource(byte[] body)
+        {
+            this.body = body;
+        }
+
+        @Override
+        public Writer start(OutputStream out)
+        {
+            return new Writer()
+            {
+                private int position = 0;
+
+                @Override
+                public void write()
+                        throws IOException
+                {
+                    if (position < body.length) {
+                        int length = min(BUFFER_SIZE, body.length - position);
+                        out.write(body, position, length);
+                        position += length;
+                    }
+                    else {
+                        out.close();
+                    }
+                }
+            };
+        }
+    }
+
+    private static class ByteBufferWriterSource
+            implements DynamicBodySource
+    {
+        private final Callable<List<ByteBuffer>> buffersSupplier;
+
+        ByteBufferWriterSource(Callable<List<ByteBuffer>> buffersSupplier)
+        {
+            this.buffersSupplier = buffersSupplier;
+        }
+
+        @Override
+        public Writer start(OutputStream out)
+                throws Exception
+        {
+            List<ByteBuffer> buffers = buffersSupplier.call();
+            return new Writer()
+            {
+                private int index = 0;
+                private byte[] copyBuffer;
+
+                @Override
+                public void write()
+                        throws IOException
+                {
+                    while (index < buffers.size() && !buffers.get(index).hasRemaining()) {
+                        ++index;
+                    }
+                    if (index == buffers.size()) {
+                        out.close();
+                        return;
+                    }
+                    ByteBuffer buffer = buffers.get(index);
+                    int length = min(BUFFER_SIZE, buffer.remaining());
+                    if (buffer.hasArray()) {
+                        out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+                        buffer.position(buffer.position() + length);
+                    }
+                    else {
+                        if (copyBuffer == null) {
+                            copyBuffer = new byte[BUFFER_SIZE];
+                        }
+                        buffer.get(copyBuffer, 0, length);
+                        out.write(copyBuffer, 0, length);
+                    }
+                }
+            };
+        }
+    }
+
+    private static class InputStreamWriterSource
+            implements DynamicBodySource
+    {
+        private final InputStreamBodySource inputStreamBodySource;
+
+        InputStreamWriterSource(InputStreamBodySource inputStreamBodySource)
+        {
+            this.inputStreamBodySource = inputStreamBodySource;
+        }
+
+        @Override
+        public Writer start(OutputStream out)
+        {
+            return new InputStreamWriter(inputStreamBodySource.getInputStream(), inputStreamBodySource.getBufferSize(), out);
+        }
+    }
+
+    private static class InputStreamWriter
+            implements Writer, AutoCloseable
+    {
+        private final InputStream inputStream;
+        private final byte[] buffer;
+        private final OutputStream out;
+
+        InputStreamWriter(InputStream inputStream, int bufferSize, OutputStream out)
+        {
+            this.inputStream = inputStream;
+            buffer = new byte[bufferSize];
+            this.out = out;
+        }
+
+        @Override
+        public void write()
+                throws IOException
+        {
+            int read = inputStream.read(buffer);
+            if (read < 0) {
+                out.close();
+            }
+            else {
+                out.write(buffer, 0, read);
+            }
+        }
+
+        @Override
+        public void close()
+                throws IOException
+        {
+            inputStream.close();
+        }
+    }
+}
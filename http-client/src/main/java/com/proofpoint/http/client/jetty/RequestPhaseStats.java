@@ -0,0 +1,30 @@
+package com.proofpoint.http.client.jetty;
+
+import com.proofpoint.reporting.Key;
+import com.proofpoint.stats.SparseTimeStat;
+
+/**
+ * Latency of the phases of completed requests, by destination.
+ */
+public interface RequestPhaseStats
+{
+    /**
+     * Time from submission until the request is assigned a connection,
+     * including any time to open a new connection.
+     */
+    SparseTimeStat queueTime(@Key("destination") String destination);
+
+    /**
+     * Time to open each new connection.
+     */
+    SparseTimeStat connectTime(@Key("destination") String destination);
+
+    SparseTimeStat sendTime(@Key("destination") String destination);
+
+    /**
+     * Time from the request being sent until the response begins.
+     */
+    SparseTimeStat responseWaitTime(@Key("destination") String destination);
+
+    SparseTimeStat responseReadTime(@Key("destination") String destination);
+}
@@ -1,14 +1,17 @@
 package com.proofpoint.http.client.testing;
 
 import com.proofpoint.http.client.BodySource;
+import com.proofpoint.http.client.ByteBufferBodySource;
 import com.proofpoint.http.client.DynamicBodySource;
 import com.proofpoint.http.client.DynamicBodySource.Writer;
+import com.proofpoint.http.client.FileBodySource;
 import com.proofpoint.http.client.InputStreamBodySource;
 import com.proofpoint.http.client.StaticBodyGenerator;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class BodySourceTester
@@ -23,6 +26,16 @@ public class BodySourceTester
         if (bodySource instanceof StaticBodyGenerator staticBodyGenerator) {
             out.write(staticBodyGenerator.getBody());
         }
+        else if (bodySource instanceof ByteBufferBodySource byteBufferBodySource) {
+            for (ByteBuffer buffer : byteBufferBodySource.getBuffers()) {
+                writeBuffer(buffer, out);
+            }
+        }
+        else if (bodySource instanceof FileBodySource fileBodySource) {
+            for (ByteBuffer buffer : fileBodySource.map()) {
+                writeBuffer(buffer, out);
+            }
+        }
         else if (bodySource instanceof InputStreamBodySource inputStreamBodySource) {
             InputStream in = inputStreamBodySource.getInputStream();
             byte[] buf = new byte[inputStreamBodySource.getBufferSize()];
@@ -85,4 +98,12 @@ public class BodySourceTester
             throw new IllegalArgumentException("Unsupported BodySource type");
         }
     }
+
+    private static void writeBuffer(ByteBuffer buffer, OutputStream out)
+            throws IOException
+    {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        out.write(bytes);
+    }
 }
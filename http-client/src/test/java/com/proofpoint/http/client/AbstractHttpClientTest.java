@@ -9,6 +9,7 @@ import com.proofpoint.http.client.jetty.JettyHttpClient;
 import com.proofpoint.log.Logging;
 import com.proofpoint.testing.Assertions;
 import com.proofpoint.testing.Closeables;
+import com.proofpoint.tracetoken.DeadlineScope;
 import com.proofpoint.tracetoken.TraceToken;
 import com.proofpoint.units.Duration;
 import org.eclipse.jetty.alpn.server.ALPNServerConnectionFactory;
@@ -53,9 +54,13 @@ import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.UnresolvedAddressException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
@@ -75,6 +80,8 @@ import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
 import static com.google.common.net.HttpHeaders.LOCATION;
 import static com.google.common.net.HttpHeaders.USER_AGENT;
 import static com.proofpoint.concurrent.Threads.threadsNamed;
+import static com.proofpoint.http.client.ByteBufferBodySource.createByteBufferBodySource;
+import static com.proofpoint.http.client.FileBodySource.createFileBodySource;
 import static com.proofpoint.http.client.Request.Builder.prepareDelete;
 import static com.proofpoint.http.client.Request.Builder.prepareGet;
 import static com.proofpoint.http.client.Request.Builder.preparePost;
@@ -85,6 +92,8 @@ import static com.proofpoint.testing.Assertions.assertGreaterThan;
 import static com.proofpoint.testing.Assertions.assertGreaterThanOrEqual;
 import static com.proofpoint.testing.Assertions.assertLessThan;
 import static com.proofpoint.testing.Closeables.closeQuietly;
+import static com.proofpoint.tracetoken.Deadline.deadlineAfter;
+import static com.proofpoint.tracetoken.DeadlineManager.registerDeadline;
 import static com.proofpoint.tracetoken.TraceTokenManager.createAndRegisterNewRequestToken;
 import static com.proofpoint.tracetoken.TraceTokenManager.getCurrentTraceToken;
 import static com.proofpoint.units.Duration.nanosSince;
@@ -540,6 +549,75 @@ public abstract class AbstractHttpClientTest
         assertEquals(stats.getWrittenBytes().getAllTime().getTotal(), 3.0);
     }
 
+    @Test
+    public void testPutMethodWithByteBufferBodySource()
+            throws Exception
+    {
+        URI uri = baseURI.resolve("/road/to/nowhere");
+        ByteBuffer direct = ByteBuffer.allocateDirect(2).put((byte) 5).put((byte) 6).flip();
+        ByteBuffer heap = ByteBuffer.wrap(new byte[]{0, 1, 2, 3}, 1, 2);
+        Request request = preparePut()
+                .setUri(uri)
+                .setBodySource(createByteBufferBodySource(heap, direct))
+                .build();
+
+        int statusCode = executeRequest(request, createStatusResponseHandler()).getStatusCode();
+        assertEquals(statusCode, 200);
+        assertEquals(servlet.getRequestHeaders("Content-Length"), List.of("4"));
+        assertEquals(servlet.getRequestBytes(), new byte[]{1, 2, 5, 6});
+        assertEquals(stats.getWrittenBytes().getAllTime().getTotal(), 4.0);
+        // the caller's buffers are not consumed
+        assertEquals(heap.remaining(), 2);
+        assertEquals(direct.remaining(), 2);
+    }
+
+    @Test
+    public void testPutMethodWithFileBodySource()
+            throws Exception
+    {
+        URI uri = baseURI.resolve("/road/to/nowhere");
+        Path file = Files.createTempFile("body", ".bin");
+        try {
+            byte[] contents = new byte[100_000];
+            for (int i = 0; i < contents.length; i++) {
+                contents[i] = (byte) i;
+            }
+            Files.write(file, contents);
+            Request request = preparePut()
+                    .setUri(uri)
+                    .setBodySource(createFileBodySource(file, 10, 90_000))
+                    .build();
+
+            int statusCode = executeRequest(request, createStatusResponseHandler()).getStatusCode();
+            assertEquals(statusCode, 200);
+            assertEquals(servlet.getRequestHeaders("Content-Length"), List.of("90000"));
+            assertEquals(servlet.getRequestBytes(), Arrays.copyOfRange(contents, 10, 90_010));
+            assertEquals(stats.getWrittenBytes().getAllTime().getTotal(), 90_000.0);
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testPutMethodWithFileBodySourceShorterThanRegion()
+            throws Exception
+    {
+        Path file = Files.createTempFile("body", ".bin");
+        try {
+            Files.write(file, new byte[10]);
+            Request request = preparePut()
+                    .setUri(baseURI.resolve("/road/to/nowhere"))
+                    .setBodySource(createFileBodySource(file, 0, 20))
+                    .build();
+
+            executeRequest(request, new ExceptionResponseHandler());
+        }
+        finally {
+            Files.delete(file);
+        }
+    }
+
     @Test
     public void testPutMethodWithInputStreamBodySource()
             throws Exception
@@ -1015,6 +1093,61 @@ public abstract class AbstractHttpClientTest
         executeRequest(config, request, new ExceptionResponseHandler());
     }
 
+    @Test(expectedExceptions = {SocketTimeoutException.class, TimeoutException.class})
+    public void testDeadlineTimeout()
+            throws Exception
+    {
+        URI uri = URI.create(baseURI.toASCIIString() + "/?sleep=1000");
+        Request request = prepareGet()
+                .setUri(uri)
+                .setDeadline(deadlineAfter(500, MILLISECONDS))
+                .build();
+
+        executeRequest(request, new ExceptionResponseHandler());
+    }
+
+    @Test(expectedExceptions = DeadlineExceededException.class)
+    public void testExpiredDeadline()
+            throws Exception
+    {
+        Request request = prepareGet()
+                .setUri(baseURI)
+                .setDeadline(deadlineAfter(-1, MILLISECONDS))
+                .build();
+
+        executeRequest(request, new ExceptionResponseHandler());
+    }
+
+    @Test
+    public void testDeadlineHeader()
+            throws Exception
+    {
+        Request request = prepareGet()
+                .setUri(baseURI)
+                .setDeadline(deadlineAfter(10, SECONDS))
+                .build();
+
+        assertEquals(executeRequest(request, createStatusResponseHandler()).getStatusCode(), 200);
+        List<String> deadlineHeaders = servlet.getRequestHeaders("X-Proofpoint-Deadline");
+        assertEquals(deadlineHeaders.size(), 1);
+        long remainingMillis = Long.parseLong(deadlineHeaders.get(0));
+        assertTrue(remainingMillis > 0 && remainingMillis <= 10_000, "remaining " + remainingMillis);
+    }
+
+    @Test
+    public void testCurrentDeadlineHeader()
+            throws Exception
+    {
+        Request request = prepareGet()
+                .setUri(baseURI)
+                .build();
+
+        try (DeadlineScope ignored = registerDeadline(deadlineAfter(10, SECONDS))) {
+            assertEquals(executeRequest(request, createStatusResponseHandler()).getStatusCode(), 200);
+        }
+        assertEquals(servlet.getRequestHeaders("X-Proofpoint-Deadline").size(), 1);
+    }
+
     @Test
     public void testResponseBody()
             throws Exception
@@ -0,0 +1,490 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.client;
+
+import com.google.common.util.concurrent.AbstractFuture;
+import com.proofpoint.http.client.StringResponseHandler.StringResponse;
+import com.proofpoint.testing.TestingTicker;
+import com.proofpoint.units.DataSize;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.util.concurrent.Futures.getUnchecked;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static com.proofpoint.http.client.HttpStatus.NOT_MODIFIED;
+import static com.proofpoint.http.client.HttpStatus.OK;
+import static com.proofpoint.http.client.Request.Builder.prepareGet;
+import static com.proofpoint.http.client.Request.Builder.preparePut;
+import static com.proofpoint.http.client.StringResponseHandler.createStringResponseHandler;
+import static com.proofpoint.http.client.testing.TestingResponse.mockResponse;
+import static com.proofpoint.units.DataSize.Unit.KILOBYTE;
+import static com.proofpoint.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class TestCachingHttpClient
+{
+    private static final URI URI_1 = URI.create("http://example.com/v1/config");
+    private static final URI URI_2 = URI.create("http://example.com/v1/other");
+
+    private TestingHttpClient delegate;
+    private TestingTicker ticker;
+    private CachingHttpClient client;
+    private Path diskPath;
+
+    @BeforeMethod
+    public void setup()
+            throws IOException
+    {
+        delegate = new TestingHttpClient();
+        ticker = new TestingTicker();
+        client = new CachingHttpClient(delegate, new DataSize(1, MEGABYTE), null, new DataSize(1, MEGABYTE), null, ticker);
+        diskPath = Files.createTempDirectory("response-cache");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void teardown()
+            throws IOException
+    {
+        deleteRecursively(diskPath, ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testFreshResponseServedFromCache()
+    {
+        delegate.responder = request -> mockResponse()
+                .status(OK)
+                .header("Cache-Control", "max-age=60")
+                .body("cached body")
+                .build();
+
+        assertEquals(get(URI_1).getBody(), "cached body");
+        ticker.increment(59, SECONDS);
+        assertEquals(get(URI_1).getBody(), "cached body");
+        assertEquals(delegate.requests.size(), 1);
+
+        ticker.increment(1, SECONDS);
+        assertEquals(get(URI_1).getBody(), "cached body");
+        assertEquals(delegate.requests.size(), 2);
+    }
+
+    @Test
+    public void testAgeReducesFreshness()
+    {
+        delegate.responder = request -> mockResponse()
+                .status(OK)
+                .header("Cache-Control", "max-age=60")
+                .header("Age", "50")
+                .body("cached body")
+                .build();
+
+        get(URI_1);
+        ticker.increment(10, SECONDS);
+        get(URI_1);
+        assertEquals(delegate.requests.size(), 2);
+    }
+
+    @Test
+    public void testNoStore()
+    {
+        delegate.responder = request -> mockResponse()
+                .status(OK)
+                .header("Cache-Control", "no-store, max-age=60")
+                .body("body")
+                .build();
+
+        get(URI_1);
+        get(URI_1);
+        assertEquals(delegate.requests.size(), 2);
+    }
+
+    @Test
+    public void testRequestNoCacheRevalidates()
+    {
+        delegate.responder = request -> mockResponse()
+                .status(OK)
+                .header("Cache-Control", "max-age=60")
+                .body("body")
+                .build();
+
+        get(URI_1);
+        client.execute(prepareGet().setUri(URI_1).setHeader("Cache-Control", "no-cache").build(), createStringResponseHandler());
+        assertEquals(delegate.requests.size(), 2);
+    }
+
+    @Test
+    public void testETagRevalidation()
+    {
+        delegate.responder = request -> {
+            if ("\"v1\"".equals(request.getHeader("If-None-Match"))) {
+                return mockResponse()
+                        .status(NOT_MODIFIED)
+                        .header("ETag", "\"v1\"")
+                        .header("Cache-Control", "max-age=30")
+                        .build();
+            }
+            return mockResponse()
+                    .status(OK)
+                    .header("ETag", "\"v1\"")
+                    .header("Cache-Control", "no-cache")
+                    .header("X-Original", "value")
+                    .body("original body")
+                    .build();
+        };
+
+        assertEquals(get(URI_1).getBody(), "original body");
+
+        StringResponse response = get(URI_1);
+        assertEquals(response.getStatusCode(), 200);
+        assertEquals(response.getBody(), "original body");
+        assertEquals(response.getHeader("X-Original"), "value");
+        assertEquals(delegate.requests.size(), 2);
+        assertEquals(delegate.requests.get(1).getHeader("If-None-Match"), "\"v1\"");
+
+        // The 304 response updated the freshness lifetime
+        get(URI_1);
+        assertEquals(delegate.requests.size(), 2);
+    }
+
+    @Test
+    public void testLastModifiedRevalidation()
+    {
+        delegate.responder = request -> {
+            if (request.getHeader("If-Modified-Since") != null) {
+                return mockResponse(NOT_MODIFIED);
+            }
+            return mockResponse()
+                    .status(OK)
+                    .header("Last-Modified", "Mon, 19 Oct 2026 00:00:00 GMT")
+                    .body("body")
+                    .build();
+        };
+
+        get(URI_1);
+        assertEquals(get(URI_1).getBody(), "body");
+        assertEquals(delegate.requests.get(1).getHeader("If-Modified-Since"), "Mon, 19 Oct 2026 00:00:00 GMT");
+    }
+
+    @Test
+    public void testChangedResponseReplacesEntry()
+    {
+        int[] version = {1};
+        delegate.responder = request -> mockResponse()
+                .status(OK)
+                .header("ETag", "\"v" + version[0] + "\"")
+                .body("body " + version[0])
+                .build();
+
+        assertEquals(get(URI_1).getBody(), "body 1");
+        version[0] = 2;
+        assertEquals(get(URI_1).getBody(), "body 2");
+        assertEquals(delegate.requests.get(1).getHeader("If-None-Match"), "\"v1\"");
+        assertNull(delegate.requests.get(0).getHeader("If-None-Match"));
+    }
+
+    @Test
+    public void testVary()
+    {
+        delegate.responder = request -> mockResponse()
+                .status(OK)
+                .header("Cache-Control", "max-age=60")
+                .header("Vary", "Accept")
+                .body("body for " + request.getHeader("Accept"))
+                .build();
+
+        assertEquals(get(URI_1, "application/json").getBody(), "body for application/json");
+        assertEquals(get(URI_1, "text/plain").getBody(), "body for text/plain");
+        assertEquals(get(URI_1, "application/json").getBody(), "body for application/json");
+        assertEquals(get(URI_1, "text/plain").getBody(), "body for text/plain");
+        assertEquals(delegate.requests.size(), 2);
+    }
+
+    @Test
+    public void testVaryStar()
+    {
+        delegate.responder = request -> mockResponse()
+                .status(OK)
+                .header("Cache-Control", "max-age=60")
+                .header("Vary", "*")
+                .body("body")
+                .build();
+
+        get(URI_1);
+        get(URI_1);
+        assertEquals(delegate.requests.size(), 2);
+    }
+
+    @Test
+    public void testVaryChangeInvalidatesOnlyThatUri()
+    {
+        String[] vary = {"Accept"};
+        delegate.responder = request -> mockResponse()
+                .status(OK)
+                .header("Cache-Control", "max-age=60")
+                .header("Vary", vary[0])
+                .body("body")
+                .build();
+
+        get(URI_1, "application/json");
+        get(URI_2, "application/json");
+        ticker.increment(61, SECONDS);
+        vary[0] = "Accept-Language";
+        get(URI_1, "application/json");
+        assertEquals(delegate.requests.size(), 3);
+
+        get(URI_1, "text/plain");
+        assertEquals(delegate.requests.size(), 3);
+        assertEquals(client.getCacheEntries(), 2);
+    }
+
+    @Test
+    public void testCachedUrisBounded()
+    {
+        client = new CachingHttpClient(delegate, new DataSize(8, KILOBYTE), null, new DataSize(1, MEGABYTE), null, ticker);
+        delegate.responder = request -> mockResponse()
+                .status(OK)
+                .header("Cache-Control", "max-age=60")
+                .header("Vary", "Accept")
+                .body("body")
+                .build();
+
+        for (int i = 0; i < 1000; i++) {
+            get(URI.create("http://example.com/v1/config?id=" + i), "application/json");
+        }
+        assertTrue(client.getCachedUris() <= 32, "cached URIs " + client.getCachedUris());
+    }
+
+    @Test
+    public void testNonGetNotCached()
+    {
+        delegate.responder = request -> mockResponse()
+                .status(OK)
+                .header("Cache-Control", "max-age=60")
+                .build();
+
+        Request request = preparePut().setUri(URI_1).build();
+        client.executeAsync(request, createStringResponseHandler());
+        client.executeAsync(request, createStringResponseHandler());
+        assertEquals(delegate.requests.size(), 2);
+    }
+
+    @Test
+    public void testPrivateNotStored()
+    {
+        delegate.responder = request -> mockResponse()
+                .status(OK)
+                .header("Cache-Control", "private, max-age=60")
+                .body("body")
+                .build();
+
+        get(URI_1);
+        get(URI_1);
+        assertEquals(delegate.requests.size(), 2);
+    }
+
+    @Test
+    public void testRequestNoStoreBypassesCache()
+    {
+        delegate.responder = request -> mockResponse()
+                .status(OK)
+                .header("Cache-Control", "max-age=60")
+                .body("body " + delegate.requests.size())
+                .build();
+
+        get(URI_1);
+        Request noStore = prepareGet().setUri(URI_1).setHeader("Cache-Control", "no-store").build();
+        assertEquals(getUnchecked(client.executeAsync(noStore, createStringResponseHandler())).getBody(), "body 2");
+        assertEquals(delegate.requests.size(), 2);
+
+        delegate.responder = request -> mockResponse()
+                .status(OK)
+                .header("Cache-Control", "max-age=60")
+                .body("uncached")
+                .build();
+        client.executeAsync(noStore, createStringResponseHandler());
+        assertEquals(get(URI_1).getBody(), "body 1");
+    }
+
+    @Test
+    public void testAuthorizedResponseNotStored()
+    {
+        delegate.responder = request -> mockResponse()
+                .status(OK)
+                .header("Cache-Control", "max-age=60")
+                .body("body for " + request.getHeader("Authorization"))
+                .build();
+
+        assertEquals(getAuthorized(URI_1, "Bearer one").getBody(), "body for Bearer one");
+        assertEquals(getAuthorized(URI_1, "Bearer two").getBody(), "body for Bearer two");
+        assertEquals(get(URI_1).getBody(), "body for null");
+        assertEquals(delegate.requests.size(), 3);
+    }
+
+    @Test
+    public void testUnauthorizedResponseNotServedToAuthorizedRequest()
+    {
+        delegate.responder = request -> mockResponse()
+                .status(OK)
+                .header("Cache-Control", "max-age=60")
+                .body("body for " + request.getHeader("Authorization"))
+                .build();
+
+        assertEquals(get(URI_1).getBody(), "body for null");
+        assertEquals(getAuthorized(URI_1, "Bearer one").getBody(), "body for Bearer one");
+        assertEquals(get(URI_1).getBody(), "body for null");
+        assertEquals(delegate.requests.size(), 2);
+    }
+
+    @Test
+    public void testAuthorizedResponseStoredWhenShared()
+    {
+        for (String cacheControl : List.of("public, max-age=60", "s-maxage=60, max-age=60", "must-revalidate, max-age=60")) {
+            URI uri = URI_1.resolve("/v1/" + cacheControl.substring(0, 6));
+            delegate.responder = request -> mockResponse()
+                    .status(OK)
+                    .header("Cache-Control", cacheControl)
+                    .body("shared body")
+                    .build();
+
+            int requests = delegate.requests.size();
+            assertEquals(getAuthorized(uri, "Bearer one").getBody(), "shared body");
+            assertEquals(getAuthorized(uri, "Bearer two").getBody(), "shared body");
+            assertEquals(delegate.requests.size(), requests + 1, cacheControl);
+        }
+    }
+
+    @Test
+    public void testDiskTier()
+    {
+        List<Runnable> diskWrites = new ArrayList<>();
+        client = new CachingHttpClient(delegate, new DataSize(8, KILOBYTE), diskPath, new DataSize(1, MEGABYTE), diskWrites::add, ticker);
+        String largeBody = "x".repeat(10_000);
+        delegate.responder = request -> mockResponse()
+                .status(OK)
+                .header("Cache-Control", "max-age=60")
+                .header("X-Test", "value")
+                .body(request.getUri().equals(URI_1) ? largeBody : "small")
+                .build();
+
+        assertEquals(get(URI_1).getBody(), largeBody);
+        assertEquals(get(URI_2).getBody(), "small");
+
+        // Evicted entries are written by the executor, not the caller
+        assertEquals(client.getCacheDiskSize(), 0);
+        assertEquals(diskWrites.size(), 1);
+        diskWrites.forEach(Runnable::run);
+        assertEquals(client.getCacheDiskSize(), 10_000);
+
+        StringResponse response = get(URI_1);
+        assertEquals(response.getBody(), largeBody);
+        assertEquals(response.getHeader("X-Test"), "value");
+        assertEquals(delegate.requests.size(), 2);
+    }
+
+    private StringResponse get(URI uri)
+    {
+        return client.execute(prepareGet().setUri(uri).build(), createStringResponseHandler());
+    }
+
+    private StringResponse getAuthorized(URI uri, String authorization)
+    {
+        return client.execute(prepareGet().setUri(uri).setHeader("Authorization", authorization).build(), createStringResponseHandler());
+    }
+
+    private StringResponse get(URI uri, String accept)
+    {
+        return client.execute(prepareGet().setUri(uri).setHeader("Accept", accept).build(), createStringResponseHandler());
+    }
+
+    private static class TestingHttpClient
+            implements HttpClient
+    {
+        private final List<Request> requests = new ArrayList<>();
+        private Function<Request, Response> responder;
+
+        @Override
+        public <T, E extends Exception> HttpResponseFuture<T> executeAsync(Request request, ResponseHandler<T, E> responseHandler)
+        {
+            requests.add(request);
+            ImmediateHttpResponseFuture<T> future = new ImmediateHttpResponseFuture<>();
+            try {
+                future.set(responseHandler.handle(request, responder.apply(request)));
+            }
+            catch (Exception e) {
+                future.setException(e);
+            }
+            return future;
+        }
+
+        @Override
+        public <T, E extends Exception> T execute(Request request, ResponseHandler<T, E> responseHandler)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public RequestStats getStats()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close()
+        {
+        }
+
+        @Override
+        public boolean isClosed()
+        {
+            return false;
+        }
+    }
+
+    private static class ImmediateHttpResponseFuture<T>
+            extends AbstractFuture<T>
+            implements HttpClient.HttpResponseFuture<T>
+    {
+        @Override
+        public boolean set(T value)
+        {
+            return super.set(value);
+        }
+
+        @Override
+        public boolean setException(Throwable throwable)
+        {
+            return super.setException(throwable);
+        }
+
+        @Override
+        public String getState()
+        {
+            return "done";
+        }
+    }
+}
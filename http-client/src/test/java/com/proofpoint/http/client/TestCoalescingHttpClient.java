@@ -0,0 +1,358 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.client;
+
+import com.google.common.util.concurrent.AbstractFuture;
+import com.proofpoint.http.client.HttpClient.HttpResponseFuture;
+import com.proofpoint.http.client.StringResponseHandler.StringResponse;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static com.proofpoint.http.client.HttpStatus.OK;
+import static com.proofpoint.http.client.Request.Builder.prepareGet;
+import static com.proofpoint.http.client.Request.Builder.preparePost;
+import static com.proofpoint.http.client.StaticBodyGenerator.createStaticBodyGenerator;
+import static com.proofpoint.http.client.StringResponseHandler.createStringResponseHandler;
+import static com.proofpoint.http.client.testing.TestingResponse.mockResponse;
+import static com.proofpoint.tracetoken.Deadline.deadlineAtNanoTime;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestCoalescingHttpClient
+{
+    private static final Request REQUEST = prepareGet()
+            .setUri(URI.create("http://example.com/v1/config"))
+            .setHeader("Accept", "application/json")
+            .build();
+
+    private TestingHttpClient delegate;
+    private CoalescingHttpClient client;
+
+    @BeforeMethod
+    public void setup()
+    {
+        delegate = new TestingHttpClient();
+        client = new CoalescingHttpClient(delegate);
+    }
+
+    @Test
+    public void testCoalescesIdenticalRequests()
+            throws Exception
+    {
+        HttpResponseFuture<StringResponse> future1 = client.executeAsync(REQUEST, createStringResponseHandler());
+        HttpResponseFuture<StringResponse> future2 = client.executeAsync(prepareGet()
+                .setUri(URI.create("http://example.com/v1/config"))
+                .setHeader("Accept", "application/json")
+                .build(), createStringResponseHandler());
+
+        assertEquals(delegate.requests.size(), 1);
+
+        delegate.complete(0, mockResponse()
+                .status(OK)
+                .header("X-Test", "value")
+                .body("shared body")
+                .build());
+
+        for (HttpResponseFuture<StringResponse> future : List.of(future1, future2)) {
+            StringResponse response = future.get();
+            assertEquals(response.getStatusCode(), 200);
+            assertEquals(response.getHeader("X-Test"), "value");
+            assertEquals(response.getBody(), "shared body");
+        }
+    }
+
+    @Test
+    public void testIndependentResponseViews()
+            throws Exception
+    {
+        List<Long> bytesRead = new ArrayList<>();
+        ResponseHandler<String, IOException> handler = new ResponseHandler<>()
+        {
+            @Override
+            public String handleException(Request request, Exception exception)
+            {
+                throw new AssertionError(exception);
+            }
+
+            @Override
+            public String handle(Request request, Response response)
+                    throws IOException
+            {
+                String body = new String(response.getInputStream().readAllBytes(), UTF_8);
+                bytesRead.add(response.getBytesRead());
+                return body;
+            }
+        };
+
+        HttpResponseFuture<String> future1 = client.executeAsync(REQUEST, handler);
+        HttpResponseFuture<String> future2 = client.executeAsync(REQUEST, handler);
+        delegate.complete(0, mockResponse().status(OK).body("hello").build());
+
+        assertEquals(future1.get(), "hello");
+        assertEquals(future2.get(), "hello");
+        assertEquals(bytesRead, List.of(5L, 5L));
+    }
+
+    @Test
+    public void testDifferentHeadersNotCoalesced()
+    {
+        client.executeAsync(REQUEST, createStringResponseHandler());
+        client.executeAsync(prepareGet()
+                .setUri(URI.create("http://example.com/v1/config"))
+                .setHeader("Accept", "text/plain")
+                .build(), createStringResponseHandler());
+
+        assertEquals(delegate.requests.size(), 2);
+    }
+
+    @Test
+    public void testOtherHeadersCoalesced()
+    {
+        client.executeAsync(prepareGet()
+                .setUri(URI.create("http://example.com/v1/config"))
+                .setHeader("Accept", "application/json")
+                .setHeader("X-Request-Id", "1")
+                .build(), createStringResponseHandler());
+        client.executeAsync(prepareGet()
+                .setUri(URI.create("http://example.com/v1/config"))
+                .setHeader("accept", "application/json")
+                .setHeader("X-Request-Id", "2")
+                .build(), createStringResponseHandler());
+
+        assertEquals(delegate.requests.size(), 1);
+        assertEquals(delegate.requests.get(0).getHeader("X-Request-Id"), "1");
+    }
+
+    @Test
+    public void testDifferentDeadlinesCoalesced()
+    {
+        client.executeAsync(Request.Builder.fromRequest(REQUEST)
+                .setDeadline(deadlineAtNanoTime(1000))
+                .build(), createStringResponseHandler());
+        client.executeAsync(Request.Builder.fromRequest(REQUEST)
+                .setDeadline(deadlineAtNanoTime(2000))
+                .build(), createStringResponseHandler());
+
+        assertEquals(delegate.requests.size(), 1);
+    }
+
+    @Test
+    public void testDifferentAuthorizationNotCoalesced()
+    {
+        client.executeAsync(prepareGet()
+                .setUri(URI.create("http://example.com/v1/config"))
+                .setHeader("Authorization", "Bearer one")
+                .build(), createStringResponseHandler());
+        client.executeAsync(prepareGet()
+                .setUri(URI.create("http://example.com/v1/config"))
+                .setHeader("Authorization", "Bearer two")
+                .build(), createStringResponseHandler());
+
+        assertEquals(delegate.requests.size(), 2);
+    }
+
+    @Test
+    public void testConfiguredKeyHeaders()
+    {
+        client = new CoalescingHttpClient(delegate, new HttpClientConfig().setCoalescingKeyHeaders("X-Tenant"));
+        client.executeAsync(prepareGet()
+                .setUri(URI.create("http://example.com/v1/config"))
+                .setHeader("X-Tenant", "one")
+                .setHeader("Accept", "application/json")
+                .build(), createStringResponseHandler());
+        client.executeAsync(prepareGet()
+                .setUri(URI.create("http://example.com/v1/config"))
+                .setHeader("X-Tenant", "one")
+                .setHeader("Accept", "text/plain")
+                .build(), createStringResponseHandler());
+        client.executeAsync(prepareGet()
+                .setUri(URI.create("http://example.com/v1/config"))
+                .setHeader("X-Tenant", "two")
+                .build(), createStringResponseHandler());
+
+        assertEquals(delegate.requests.size(), 2);
+    }
+
+    @Test
+    public void testNotCoalescedAfterCompletion()
+            throws Exception
+    {
+        HttpResponseFuture<StringResponse> future = client.executeAsync(REQUEST, createStringResponseHandler());
+        delegate.complete(0, mockResponse(OK));
+        future.get();
+
+        client.executeAsync(REQUEST, createStringResponseHandler());
+        assertEquals(delegate.requests.size(), 2);
+    }
+
+    @Test
+    public void testNonIdempotentRequestNotCoalesced()
+    {
+        Request request = preparePost()
+                .setUri(URI.create("http://example.com/v1/config"))
+                .setBodySource(createStaticBodyGenerator("body", UTF_8))
+                .build();
+        client.executeAsync(request, createStringResponseHandler());
+        client.executeAsync(request, createStringResponseHandler());
+
+        assertEquals(delegate.requests.size(), 2);
+    }
+
+    @Test
+    public void testExceptionPassedToEachHandler()
+    {
+        HttpResponseFuture<StringResponse> future1 = client.executeAsync(REQUEST, createStringResponseHandler());
+        HttpResponseFuture<StringResponse> future2 = client.executeAsync(REQUEST, createStringResponseHandler());
+
+        ConnectException exception = new ConnectException("connection refused");
+        delegate.fail(0, exception);
+
+        for (HttpResponseFuture<StringResponse> future : List.of(future1, future2)) {
+            try {
+                future.get();
+                fail("expected exception");
+            }
+            catch (Exception e) {
+                assertTrue(e instanceof ExecutionException, "exception " + e);
+                assertSame(e.getCause().getCause(), exception);
+            }
+        }
+    }
+
+    @Test
+    public void testCancelsRequestWhenAllWaitersCancel()
+    {
+        HttpResponseFuture<StringResponse> future1 = client.executeAsync(REQUEST, createStringResponseHandler());
+        HttpResponseFuture<StringResponse> future2 = client.executeAsync(REQUEST, createStringResponseHandler());
+
+        future1.cancel(true);
+        assertFalse(delegate.futures.get(0).isCancelled(), "request cancelled while waiter remains");
+
+        future2.cancel(true);
+        assertTrue(delegate.futures.get(0).isCancelled(), "request not cancelled");
+
+        client.executeAsync(REQUEST, createStringResponseHandler());
+        assertEquals(delegate.requests.size(), 2);
+    }
+
+    @Test
+    public void testSynchronousExecute()
+            throws Exception
+    {
+        delegate.autoComplete = mockResponse().status(OK).body("sync body").build();
+        assertEquals(client.execute(REQUEST, createStringResponseHandler()).getBody(), "sync body");
+    }
+
+    private static class TestingHttpClient
+            implements HttpClient
+    {
+        private final List<Request> requests = new ArrayList<>();
+        private final List<ResponseHandler<?, ?>> handlers = new ArrayList<>();
+        private final List<PendingHttpResponseFuture<Object>> futures = new ArrayList<>();
+        private Response autoComplete = null;
+
+        @Override
+        public <T, E extends Exception> HttpResponseFuture<T> executeAsync(Request request, ResponseHandler<T, E> responseHandler)
+        {
+            PendingHttpResponseFuture<Object> future = new PendingHttpResponseFuture<>();
+            requests.add(request);
+            handlers.add(responseHandler);
+            futures.add(future);
+            if (autoComplete != null) {
+                complete(futures.size() - 1, autoComplete);
+            }
+            //noinspection unchecked
+            return (HttpResponseFuture<T>) future;
+        }
+
+        void complete(int index, Response response)
+        {
+            try {
+                futures.get(index).set(handlers.get(index).handle(requests.get(index), response));
+            }
+            catch (Exception e) {
+                futures.get(index).setException(e);
+            }
+        }
+
+        void fail(int index, Exception exception)
+        {
+            try {
+                futures.get(index).set(handlers.get(index).handleException(requests.get(index), exception));
+            }
+            catch (Exception e) {
+                futures.get(index).setException(e);
+            }
+        }
+
+        @Override
+        public <T, E extends Exception> T execute(Request request, ResponseHandler<T, E> responseHandler)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public RequestStats getStats()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close()
+        {
+        }
+
+        @Override
+        public boolean isClosed()
+        {
+            return false;
+        }
+    }
+
+    private static class PendingHttpResponseFuture<T>
+            extends AbstractFuture<T>
+            implements HttpResponseFuture<T>
+    {
+        @Override
+        public boolean set(T value)
+        {
+            return super.set(value);
+        }
+
+        @Override
+        public boolean setException(Throwable throwable)
+        {
+            return super.setException(throwable);
+        }
+
+        @Override
+        public String getState()
+        {
+            return "pending";
+        }
+    }
+}
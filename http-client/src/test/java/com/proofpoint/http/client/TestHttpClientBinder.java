@@ -15,6 +15,7 @@
  */
 package com.proofpoint.http.client;
 
+import com.google.inject.CreationException;
 import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.google.inject.PrivateBinder;
@@ -43,10 +44,12 @@ import static com.proofpoint.http.client.HttpClientBinder.httpClientBinder;
 import static com.proofpoint.http.client.ServiceTypes.serviceType;
 import static com.proofpoint.testing.Assertions.assertInstanceOf;
 import static java.lang.annotation.RetentionPolicy.RUNTIME;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 import static org.weakref.jmx.guice.ExportBinder.newExporter;
@@ -329,6 +332,117 @@ public class TestHttpClientBinder
         assertCertificateVerificationDisabled(fooClient);
     }
 
+    @Test
+    public void testWithConcurrencyLimit()
+            throws Exception
+    {
+        Injector injector = bootstrapTest()
+                .withModules(
+                        binder -> {
+                            httpClientBinder(binder).bindHttpClient("foo", FooClient.class)
+                                    .withConcurrencyLimit();
+                            httpClientBinder(binder).bindHttpClient("bar", BarClient.class);
+                        },
+                        new ReportingModule(),
+                        new TestingMBeanModule())
+                .initialize();
+
+        HttpClient fooClient = injector.getInstance(Key.get(HttpClient.class, FooClient.class));
+        assertInstanceOf(fooClient, JettyHttpClient.class);
+        assertNotNull(((JettyHttpClient) fooClient).getConcurrencyLimiter());
+
+        HttpClient barClient = injector.getInstance(Key.get(HttpClient.class, BarClient.class));
+        assertInstanceOf(barClient, JettyHttpClient.class);
+        assertNull(((JettyHttpClient) barClient).getConcurrencyLimiter());
+    }
+
+    @Test
+    public void testWithRequestCompression()
+            throws Exception
+    {
+        Injector injector = bootstrapTest()
+                .withModules(
+                        binder -> {
+                            httpClientBinder(binder).bindHttpClient("foo", FooClient.class)
+                                    .withRequestCompression();
+                            httpClientBinder(binder).bindHttpClient("bar", BarClient.class);
+                        },
+                        new ReportingModule(),
+                        new TestingMBeanModule())
+                .initialize();
+
+        HttpClient fooClient = injector.getInstance(Key.get(HttpClient.class, FooClient.class));
+        assertInstanceOf(fooClient, JettyHttpClient.class);
+        assertNotNull(((JettyHttpClient) fooClient).getRequestCompressor());
+
+        HttpClient barClient = injector.getInstance(Key.get(HttpClient.class, BarClient.class));
+        assertInstanceOf(barClient, JettyHttpClient.class);
+        assertNull(((JettyHttpClient) barClient).getRequestCompressor());
+    }
+
+    @Test
+    public void testWithVirtualThreads()
+            throws Exception
+    {
+        try {
+            Injector injector = bootstrapTest()
+                    .withModules(
+                            binder -> httpClientBinder(binder).bindHttpClient("foo", FooClient.class)
+                                    .withVirtualThreads(),
+                            new ReportingModule(),
+                            new TestingMBeanModule())
+                    .initialize();
+
+            HttpClient fooClient = injector.getInstance(Key.get(HttpClient.class, FooClient.class));
+            assertInstanceOf(fooClient, JettyHttpClient.class);
+        }
+        catch (CreationException e) {
+            if (Runtime.version().feature() >= 18) {
+                throw e;
+            }
+            assertThat(e).hasMessageContaining("Virtual threads are not supported");
+            return;
+        }
+        assertThat(Runtime.version().feature()).isGreaterThanOrEqualTo(18);
+    }
+
+    @Test
+    public void testWithRequestCoalescing()
+            throws Exception
+    {
+        Injector injector = bootstrapTest()
+                .withModules(
+                        binder -> httpClientBinder(binder).bindHttpClient("foo", FooClient.class)
+                                .withRequestCoalescing(),
+                        new ReportingModule(),
+                        new TestingMBeanModule())
+                .initialize();
+
+        HttpClient fooClient = injector.getInstance(Key.get(HttpClient.class, FooClient.class));
+        assertInstanceOf(fooClient, CoalescingHttpClient.class);
+        assertInstanceOf(((CoalescingHttpClient) fooClient).getDelegate(), JettyHttpClient.class);
+    }
+
+    @Test
+    public void testWithResponseCache()
+            throws Exception
+    {
+        Injector injector = bootstrapTest()
+                .withModules(
+                        binder -> httpClientBinder(binder).bindHttpClient("foo", FooClient.class)
+                                .withRequestCoalescing()
+                                .withResponseCache(),
+                        new ReportingModule(),
+                        new TestingMBeanModule())
+                .initialize();
+
+        HttpClient fooClient = injector.getInstance(Key.get(HttpClient.class, FooClient.class));
+        assertInstanceOf(fooClient, CachingHttpClient.class);
+        HttpClient coalescingClient = ((CachingHttpClient) fooClient).getDelegate();
+        assertInstanceOf(coalescingClient, CoalescingHttpClient.class);
+        assertInstanceOf(((CoalescingHttpClient) coalescingClient).getDelegate(), JettyHttpClient.class);
+    }
+
     @Test
     public void testClientShutdown()
             throws Exception
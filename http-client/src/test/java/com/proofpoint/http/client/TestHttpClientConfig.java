@@ -19,6 +19,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.net.HostAndPort;
 import com.proofpoint.units.DataSize;
 import com.proofpoint.units.Duration;
+import com.proofpoint.units.MinDuration;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import org.testng.annotations.Test;
@@ -35,6 +36,7 @@ import static com.proofpoint.testing.ValidationAssertions.assertFailsValidation;
 import static com.proofpoint.testing.ValidationAssertions.assertValidates;
 import static com.proofpoint.units.DataSize.Unit.KILOBYTE;
 import static com.proofpoint.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -55,6 +57,7 @@ public class TestHttpClientConfig
                 .setRequestBufferSize(new DataSize(4, KILOBYTE))
                 .setResponseBufferSize(new DataSize(16, KILOBYTE))
                 .setSocksProxy(null)
+                .setUnixDomainSocketPath(null)
                 .setKeyStorePath(System.getProperty(JAVAX_NET_SSL_KEY_STORE))
                 .setKeyStorePassword(System.getProperty(JAVAX_NET_SSL_KEY_STORE_PASSWORD))
                 .setTrustStorePath(null)
@@ -62,11 +65,26 @@ public class TestHttpClientConfig
                 .setHttp2InitialSessionReceiveWindowSize(new DataSize(16, MEGABYTE))
                 .setHttp2InitialStreamReceiveWindowSize(new DataSize(16, MEGABYTE))
                 .setHttp2InputBufferSize(new DataSize(8, KILOBYTE))
+                .setHttp2ConnectionsPerDestination(1)
                 .setSelectorCount(2)
+                .setWarmupConnections(0)
+                .setWarmupCheckInterval(null)
                 .setMaxThreads(200)
                 .setMinThreads(8)
                 .setTimeoutConcurrency(1)
-                .setTimeoutThreads(1));
+                .setTimeoutThreads(1)
+                .setConcurrencyLimitInitial(20)
+                .setConcurrencyLimitMin(1)
+                .setConcurrencyLimitMax(1000)
+                .setCoalescingKeyHeaders("Accept,Accept-Encoding,Accept-Language,Authorization,Cookie")
+                .setCacheMaxSize(new DataSize(32, MEGABYTE))
+                .setCacheDiskPath(null)
+                .setCacheDiskMaxSize(new DataSize(256, MEGABYTE))
+                .setDnsCacheEnabled(true)
+                .setDnsCacheTtl(new Duration(30, SECONDS))
+                .setDnsCacheNegativeTtl(new Duration(10, SECONDS))
+                .setDnsCacheRefreshAhead(new Duration(5, SECONDS))
+                .setRequestCompressionMinSize(new DataSize(1, KILOBYTE)));
         ;
     }
 
@@ -84,6 +102,7 @@ public class TestHttpClientConfig
                 .put("http-client.request-buffer-size", "42kB")
                 .put("http-client.response-buffer-size", "43kB")
                 .put("http-client.socks-proxy", "localhost:1080")
+                .put("http-client.unix-domain-socket.path", "/var/run/service.sock")
                 .put("http-client.key-store-path", "key-store")
                 .put("http-client.key-store-password", "key-store-password")
                 .put("http-client.trust-store-path", "trust-store")
@@ -91,11 +110,26 @@ public class TestHttpClientConfig
                 .put("http-client.http2.session-receive-window-size", "7MB")
                 .put("http-client.http2.stream-receive-window-size", "7MB")
                 .put("http-client.http2.input-buffer-size", "1MB")
+                .put("http-client.http2.connections-per-destination", "4")
                 .put("http-client.selector-count", "16")
+                .put("http-client.warmup.connections", "3")
+                .put("http-client.warmup.check-interval", "30s")
                 .put("http-client.max-threads", "33")
                 .put("http-client.min-threads", "11")
                 .put("http-client.timeout-concurrency", "33")
                 .put("http-client.timeout-threads", "44")
+                .put("http-client.concurrency-limit.initial", "5")
+                .put("http-client.concurrency-limit.min", "2")
+                .put("http-client.concurrency-limit.max", "50")
+                .put("http-client.coalescing.key-headers", "Accept,X-Tenant")
+                .put("http-client.cache.max-size", "2MB")
+                .put("http-client.cache.disk-path", "/tmp/cache")
+                .put("http-client.cache.disk-max-size", "3MB")
+                .put("http-client.dns-cache.enabled", "false")
+                .put("http-client.dns-cache.ttl", "2m")
+                .put("http-client.dns-cache.negative-ttl", "3s")
+                .put("http-client.dns-cache.refresh-ahead", "7s")
+                .put("http-client.request-compression.min-size", "3kB")
                 .build();
 
         HttpClientConfig expected = new HttpClientConfig()
@@ -109,6 +143,7 @@ public class TestHttpClientConfig
                 .setRequestBufferSize(new DataSize(42, KILOBYTE))
                 .setResponseBufferSize(new DataSize(43, KILOBYTE))
                 .setSocksProxy(HostAndPort.fromParts("localhost", 1080))
+                .setUnixDomainSocketPath("/var/run/service.sock")
                 .setKeyStorePath("key-store")
                 .setKeyStorePassword("key-store-password")
                 .setTrustStorePath("trust-store")
@@ -116,12 +151,27 @@ public class TestHttpClientConfig
                 .setHttp2InitialSessionReceiveWindowSize(new DataSize(7, MEGABYTE))
                 .setHttp2InitialStreamReceiveWindowSize(new DataSize(7, MEGABYTE))
                 .setHttp2InputBufferSize(new DataSize(1, MEGABYTE))
+                .setHttp2ConnectionsPerDestination(4)
                 .setHttp2InitialStreamReceiveWindowSize(new DataSize(7, MEGABYTE))
                 .setSelectorCount(16)
+                .setWarmupConnections(3)
+                .setWarmupCheckInterval(new Duration(30, SECONDS))
                 .setMaxThreads(33)
                 .setMinThreads(11)
                 .setTimeoutConcurrency(33)
-                .setTimeoutThreads(44);
+                .setTimeoutThreads(44)
+                .setConcurrencyLimitInitial(5)
+                .setConcurrencyLimitMin(2)
+                .setConcurrencyLimitMax(50)
+                .setCoalescingKeyHeaders("Accept,X-Tenant")
+                .setCacheMaxSize(new DataSize(2, MEGABYTE))
+                .setCacheDiskPath("/tmp/cache")
+                .setCacheDiskMaxSize(new DataSize(3, MEGABYTE))
+                .setDnsCacheEnabled(false)
+                .setDnsCacheTtl(new Duration(2, MINUTES))
+                .setDnsCacheNegativeTtl(new Duration(3, SECONDS))
+                .setDnsCacheRefreshAhead(new Duration(7, SECONDS))
+                .setRequestCompressionMinSize(new DataSize(3, KILOBYTE));
 
         assertFullMapping(properties, expected);
     }
@@ -151,5 +201,18 @@ public class TestHttpClientConfig
         assertFailsValidation(new HttpClientConfig().setMaxConnectionsPerServer(0), "maxConnectionsPerServer", "must be greater than or equal to 1", Min.class);
         assertFailsValidation(new HttpClientConfig().setMaxRequestsQueuedPerDestination(0), "maxRequestsQueuedPerDestination", "must be greater than or equal to 1", Min.class);
         assertFailsValidation(new HttpClientConfig().setMaxContentLength(null), "maxContentLength", "must not be null", NotNull.class);
+        assertFailsValidation(new HttpClientConfig().setCoalescingKeyHeaders(null), "coalescingKeyHeaders", "must not be null", NotNull.class);
+        assertFailsValidation(new HttpClientConfig().setCacheMaxSize(null), "cacheMaxSize", "must not be null", NotNull.class);
+        assertFailsValidation(new HttpClientConfig().setCacheDiskMaxSize(null), "cacheDiskMaxSize", "must not be null", NotNull.class);
+        assertFailsValidation(new HttpClientConfig().setWarmupConnections(-1), "warmupConnections", "must be greater than or equal to 0", Min.class);
+        assertFailsValidation(new HttpClientConfig().setWarmupCheckInterval(new Duration(10, MILLISECONDS)), "warmupCheckInterval", "{com.proofpoint.units.MinDuration.message}", MinDuration.class);
+        assertFailsValidation(new HttpClientConfig().setDnsCacheTtl(null), "dnsCacheTtl", "must not be null", NotNull.class);
+        assertFailsValidation(new HttpClientConfig().setDnsCacheTtl(new Duration(10, MILLISECONDS)), "dnsCacheTtl", "{com.proofpoint.units.MinDuration.message}", MinDuration.class);
+        assertFailsValidation(new HttpClientConfig().setDnsCacheNegativeTtl(null), "dnsCacheNegativeTtl", "must not be null", NotNull.class);
+        assertFailsValidation(new HttpClientConfig().setDnsCacheRefreshAhead(null), "dnsCacheRefreshAhead", "must not be null", NotNull.class);
+        assertFailsValidation(new HttpClientConfig().setRequestCompressionMinSize(null), "requestCompressionMinSize", "must not be null", NotNull.class);
+        assertFailsValidation(new HttpClientConfig().setConcurrencyLimitInitial(0), "concurrencyLimitInitial", "must be greater than or equal to 1", Min.class);
+        assertFailsValidation(new HttpClientConfig().setConcurrencyLimitMin(0), "concurrencyLimitMin", "must be greater than or equal to 1", Min.class);
+        assertFailsValidation(new HttpClientConfig().setConcurrencyLimitMax(0), "concurrencyLimitMax", "must be greater than or equal to 1", Min.class);
     }
 }
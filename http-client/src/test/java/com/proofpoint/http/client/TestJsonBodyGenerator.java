@@ -16,9 +16,17 @@
 package com.proofpoint.http.client;
 
 import com.proofpoint.json.JsonCodec;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
 
 import static com.proofpoint.http.client.JsonBodyGenerator.jsonBodyGenerator;
+import static com.proofpoint.http.client.JsonBodyGenerator.streamingJsonBodySource;
+import static com.proofpoint.http.client.testing.BodySourceTester.writeBodySourceTo;
 import static com.proofpoint.json.JsonCodec.jsonCodec;
+import static com.proofpoint.json.JsonCodec.listJsonCodec;
+import static org.testng.Assert.assertEquals;
 
 public class TestJsonBodyGenerator
     extends AbstractCodecBodyGeneratorTest
@@ -34,4 +42,19 @@ public class TestJsonBodyGenerator
     {
         return jsonCodec(Object.class).fromJson(body);
     }
+
+    @Test
+    public void testStreamingJsonBodySource()
+            throws Exception
+    {
+        JsonCodec<List<String>> jsonCodec = listJsonCodec(String.class);
+        DynamicBodySource bodySource = streamingJsonBodySource(jsonCodec, List.of("first", "second"));
+
+        // each attempt serializes the instance again
+        for (int i = 0; i < 2; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writeBodySourceTo(bodySource, out);
+            assertEquals(out.toByteArray(), jsonCodec.toJsonBytes(List.of("first", "second")));
+        }
+    }
 }
@@ -25,6 +25,7 @@ import java.net.URI;
 import static com.proofpoint.http.client.Request.Builder.prepareGet;
 import static com.proofpoint.http.client.Request.Builder.preparePut;
 import static com.proofpoint.testing.EquivalenceTester.equivalenceTester;
+import static com.proofpoint.tracetoken.Deadline.deadlineAtNanoTime;
 
 public class TestRequest
 {
@@ -37,7 +38,9 @@ public class TestRequest
                 .addEquivalentGroup(
                         prepareGet().setUri(createUriA()).addHeaders(createHeadersA()).build(),
                         prepareGet().setUri(createUriA()).addHeaders(createHeadersA()).setFollowRedirects(false).build(),
-                        prepareGet().setUri(createUriA()).addHeaders(createHeadersA()).setPreserveAuthorizationOnRedirect(false).build())
+                        prepareGet().setUri(createUriA()).addHeaders(createHeadersA()).setPreserveAuthorizationOnRedirect(false).build(),
+                        prepareGet().setUri(createUriA()).addHeaders(createHeadersA()).setDeadline(deadlineAtNanoTime(1000)).build(),
+                        prepareGet().setUri(createUriA()).addHeaders(createHeadersA()).setDeadline(deadlineAtNanoTime(2000)).build())
                 .addEquivalentGroup(
                         preparePut().setUri(createUriA()).addHeaders(createHeadersA()).setPreserveAuthorizationOnRedirect(true).build())
                 .addEquivalentGroup(
@@ -71,19 +74,19 @@ public class TestRequest
     @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "Cannot make requests to HTTP port 0")
     public void testCannotMakeRequestToIllegalPort()
     {
-        new Request(URI.create("http://example.com:0/"), "GET", createHeadersA(), createBodySource(), false, false);
+        new Request(URI.create("http://example.com:0/"), "GET", createHeadersA(), createBodySource(), false, false, null);
     }
 
     @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "uri does not have a host: http:///foo")
     public void testInvalidUriMissingHost()
     {
-        new Request(URI.create("http:///foo"), "GET", createHeadersA(), createBodySource(), false, false);
+        new Request(URI.create("http:///foo"), "GET", createHeadersA(), createBodySource(), false, false, null);
     }
 
     @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "uri scheme must be http or https: gopher://example.com")
     public void testInvalidUriScheme()
     {
-        new Request(URI.create("gopher://example.com"), "GET", createHeadersA(), createBodySource(), false, false);
+        new Request(URI.create("gopher://example.com"), "GET", createHeadersA(), createBodySource(), false, false, null);
     }
 
     private static URI createUriA()
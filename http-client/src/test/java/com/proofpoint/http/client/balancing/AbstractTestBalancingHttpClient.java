@@ -16,6 +16,7 @@
 package com.proofpoint.http.client.balancing;
 
 import com.proofpoint.http.client.BodySource;
+import com.proofpoint.http.client.DeadlineExceededException;
 import com.proofpoint.http.client.DynamicBodySource;
 import com.proofpoint.http.client.HttpClient;
 import com.proofpoint.http.client.LimitedRetryable;
@@ -24,6 +25,8 @@ import com.proofpoint.http.client.Response;
 import com.proofpoint.http.client.ResponseHandler;
 import com.proofpoint.http.client.StaticBodyGenerator;
 import com.proofpoint.testing.TestingTicker;
+import com.proofpoint.tracetoken.Deadline;
+import com.proofpoint.tracetoken.DeadlineScope;
 import com.proofpoint.units.Duration;
 import org.mockito.ArgumentCaptor;
 import org.testng.annotations.BeforeMethod;
@@ -37,7 +40,10 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.proofpoint.http.client.Request.Builder.preparePut;
+import static com.proofpoint.tracetoken.Deadline.deadlineAtNanoTime;
+import static com.proofpoint.tracetoken.DeadlineManager.registerDeadline;
 import static java.math.BigDecimal.ZERO;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.same;
@@ -771,6 +777,94 @@ public abstract class AbstractTestBalancingHttpClient<T extends HttpClient>
         verifyNoMoreInteractions(serviceAttempt1, serviceAttempt2, serviceAttempt3, responseHandler);
     }
 
+    @Test
+    public void testDeadlinePropagated()
+            throws Exception
+    {
+        Deadline deadline = deadlineAtNanoTime(testingTicker.read() + SECONDS.toNanos(10));
+        request = Request.Builder.fromRequest(request).setDeadline(deadline).build();
+        httpClient.expectCall("http://s1.example.com/v1/service", response);
+
+        ResponseHandler<String, Exception> responseHandler = mock(ResponseHandler.class);
+        when(responseHandler.handle(any(Request.class), same(response))).thenReturn("test response");
+
+        assertEquals(balancingHttpClient.execute(request, responseHandler), "test response");
+
+        httpClient.assertDone();
+        verify(responseHandler).handle(requestArgumentCaptor.capture(), same(response));
+        assertSame(requestArgumentCaptor.getValue().getDeadline(), deadline);
+    }
+
+    @Test
+    public void testCurrentDeadlineApplied()
+            throws Exception
+    {
+        Deadline deadline = deadlineAtNanoTime(testingTicker.read() + SECONDS.toNanos(10));
+        httpClient.expectCall("http://s1.example.com/v1/service", response);
+
+        ResponseHandler<String, Exception> responseHandler = mock(ResponseHandler.class);
+        when(responseHandler.handle(any(Request.class), same(response))).thenReturn("test response");
+
+        try (DeadlineScope ignored = registerDeadline(deadline)) {
+            assertEquals(balancingHttpClient.execute(request, responseHandler), "test response");
+        }
+
+        httpClient.assertDone();
+        verify(responseHandler).handle(requestArgumentCaptor.capture(), same(response));
+        assertSame(requestArgumentCaptor.getValue().getDeadline(), deadline);
+    }
+
+    @Test
+    public void testNoRetryWithinMinBackoffOfDeadline()
+            throws Exception
+    {
+        ConnectException connectException = new ConnectException();
+        httpClient.expectCall("http://s1.example.com/v1/service", connectException);
+
+        ResponseHandler<String, Exception> responseHandler = mock(ResponseHandler.class);
+        when(responseHandler.handleException(any(Request.class), same(connectException))).thenReturn("test default");
+
+        request = Request.Builder.fromRequest(request)
+                .setDeadline(deadlineAtNanoTime(testingTicker.read() + MILLISECONDS.toNanos(1)))
+                .build();
+        assertEquals(balancingHttpClient.execute(request, responseHandler), "test default");
+
+        httpClient.assertDone();
+
+        verify(serviceAttempt1, atLeastOnce()).getUri();
+        verify(serviceAttempt1).markBad("ConnectException");
+        verify(responseHandler).handleException(any(Request.class), same(connectException));
+        verifyNoMoreInteractions(serviceAttempt1, responseHandler);
+    }
+
+    @Test
+    public void testNoRetryWhenBackoffExceedsDeadline()
+            throws Exception
+    {
+        balancingHttpClientConfig.setMaxBackoff(new Duration(1, TimeUnit.MINUTES));
+        balancingHttpClient = createBalancingHttpClient();
+
+        Response response429 = mock(Response.class);
+        when(response429.getStatusCode()).thenReturn(429);
+        when(response429.getHeader("Retry-After")).thenReturn("10");
+        httpClient.expectCall("http://s1.example.com/v1/service", response429);
+
+        ResponseHandler<String, Exception> responseHandler = mock(ResponseHandler.class);
+        when(responseHandler.handleException(any(Request.class), any(DeadlineExceededException.class))).thenReturn("test default");
+
+        request = Request.Builder.fromRequest(request)
+                .setDeadline(deadlineAtNanoTime(testingTicker.read() + SECONDS.toNanos(1)))
+                .build();
+        assertEquals(balancingHttpClient.execute(request, responseHandler), "test default");
+
+        httpClient.assertDone();
+
+        verify(serviceAttempt1, atLeastOnce()).getUri();
+        verify(serviceAttempt1).markBad("429 status code");
+        verify(responseHandler).handleException(any(Request.class), any(DeadlineExceededException.class));
+        verifyNoMoreInteractions(serviceAttempt1, responseHandler);
+    }
+
     @Test
     public void testCreateAttemptException()
             throws Exception
@@ -8,6 +8,7 @@ import com.proofpoint.units.MinDuration;
 import jakarta.validation.constraints.AssertFalse;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
 import org.testng.annotations.Test;
 
 import java.math.BigDecimal;
@@ -30,7 +31,10 @@ public class TestBalancingHttpClientConfig
                 .setMaxBackoff(new Duration(10, SECONDS))
                 .setRetryBudgetRatio(new BigDecimal(2).movePointLeft(1))
                 .setRetryBudgetRatioPeriod(new Duration(10, SECONDS))
-                .setRetryBudgetMinPerSecond(10));
+                .setRetryBudgetMinPerSecond(10)
+                .setHedgingEnabled(false)
+                .setHedgingDelay(new Duration(100, MILLISECONDS))
+                .setHedgingDelayPercentile(null));
     }
 
     @Test
@@ -43,6 +47,9 @@ public class TestBalancingHttpClientConfig
                 .put("http-client.retry-budget.ratio", "0.3")
                 .put("http-client.retry-budget.ratio-period", "15s")
                 .put("http-client.retry-budget.min-per-second", "19")
+                .put("http-client.hedging.enabled", "true")
+                .put("http-client.hedging.delay", "30ms")
+                .put("http-client.hedging.delay-percentile", "95")
                 .build();
 
         BalancingHttpClientConfig expected = new BalancingHttpClientConfig()
@@ -51,7 +58,10 @@ public class TestBalancingHttpClientConfig
                 .setMaxBackoff(new Duration(50, MILLISECONDS))
                 .setRetryBudgetRatio(new BigDecimal(3).movePointLeft(1))
                 .setRetryBudgetRatioPeriod(new Duration(15, SECONDS))
-                .setRetryBudgetMinPerSecond(19);
+                .setRetryBudgetMinPerSecond(19)
+                .setHedgingEnabled(true)
+                .setHedgingDelay(new Duration(30, MILLISECONDS))
+                .setHedgingDelayPercentile(new BigDecimal(95));
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
@@ -108,4 +118,19 @@ public class TestBalancingHttpClientConfig
         assertFailsValidation(new BalancingHttpClientConfig().setRetryBudgetMinPerSecond(0),
                 "retryBudgetMinPerSecond", "must be greater than or equal to 1", Min.class);
     }
+
+    @Test
+    public void TestHedgingBeanValidation()
+    {
+        assertValidates(new BalancingHttpClientConfig().setHedgingDelay(new Duration(1, MILLISECONDS)));
+        assertFailsValidation(new BalancingHttpClientConfig().setHedgingDelay(null),
+                "hedgingDelay", "must not be null", NotNull.class);
+        assertFailsValidation(new BalancingHttpClientConfig().setHedgingDelay(new Duration(0, MILLISECONDS)),
+                "hedgingDelay", "{com.proofpoint.units.MinDuration.message}", MinDuration.class);
+        assertValidates(new BalancingHttpClientConfig().setHedgingDelayPercentile(new BigDecimal(100)));
+        assertFailsValidation(new BalancingHttpClientConfig().setHedgingDelayPercentile(new BigDecimal(101)),
+                "hedgingDelayPercentile", "must be less than or equal to 100", Max.class);
+        assertFailsValidation(new BalancingHttpClientConfig().setHedgingDelayPercentile(new BigDecimal(0)),
+                "hedgingDelayPercentile", "must be greater than or equal to 1", Min.class);
+    }
 }
@@ -0,0 +1,304 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.client.balancing;
+
+import com.google.common.util.concurrent.AbstractFuture;
+import com.proofpoint.http.client.HttpClient;
+import com.proofpoint.http.client.HttpClient.HttpResponseFuture;
+import com.proofpoint.http.client.InputStreamBodySource;
+import com.proofpoint.http.client.Request;
+import com.proofpoint.http.client.RequestStats;
+import com.proofpoint.http.client.ResponseHandler;
+import com.proofpoint.testing.TestingTicker;
+import com.proofpoint.units.Duration;
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.proofpoint.http.client.Request.Builder.prepareGet;
+import static com.proofpoint.http.client.Request.Builder.preparePost;
+import static com.proofpoint.http.client.Request.Builder.preparePut;
+import static com.proofpoint.http.client.StaticBodyGenerator.createStaticBodyGenerator;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestHedgingBalancingHttpClient
+{
+    private HttpServiceBalancer serviceBalancer;
+    private HttpServiceAttempt serviceAttempt1;
+    private HttpServiceAttempt serviceAttempt2;
+    private ScheduledExecutorService retryExecutor;
+    private ArgumentCaptor<Runnable> scheduledCaptor;
+    private TestingHttpClient httpClient;
+    private BalancingHttpClientConfig config;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        serviceBalancer = mock(HttpServiceBalancer.class);
+        serviceAttempt1 = mock(HttpServiceAttempt.class);
+        serviceAttempt2 = mock(HttpServiceAttempt.class);
+        when(serviceBalancer.createAttempt()).thenReturn(serviceAttempt1);
+        when(serviceAttempt1.getUri()).thenReturn(URI.create("http://s1.example.com"));
+        when(serviceAttempt1.next()).thenReturn(serviceAttempt2);
+        when(serviceAttempt2.getUri()).thenReturn(URI.create("http://s2.example.com"));
+        retryExecutor = mock(ScheduledExecutorService.class);
+        scheduledCaptor = ArgumentCaptor.forClass(Runnable.class);
+        when(retryExecutor.schedule(scheduledCaptor.capture(), anyLong(), any(TimeUnit.class)))
+                .thenAnswer(invocation -> mock(ScheduledFuture.class));
+        httpClient = new TestingHttpClient();
+        config = new BalancingHttpClientConfig()
+                .setHedgingEnabled(true)
+                .setHedgingDelay(new Duration(20, MILLISECONDS));
+    }
+
+    @Test
+    public void testHedgeWins()
+            throws Exception
+    {
+        HttpResponseFuture<String> future = createClient().executeAsync(prepareGet().setUri(URI.create("v1/service")).build(), mock(ResponseHandler.class));
+
+        verify(retryExecutor).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        assertEquals(httpClient.requests.size(), 1);
+        scheduledCaptor.getValue().run();
+        assertEquals(httpClient.requests.size(), 2);
+        assertEquals(httpClient.requests.get(1).getUri(), URI.create("http://s2.example.com/v1/service"));
+
+        httpClient.futures.get(1).set("hedge response");
+        assertEquals(future.get(), "hedge response");
+        assertTrue(httpClient.futures.get(0).isCancelled(), "primary attempt cancelled");
+        verify(serviceAttempt2).markGood();
+        verify(serviceAttempt1).markCancelled();
+    }
+
+    @Test
+    public void testPrimaryWins()
+            throws Exception
+    {
+        HttpResponseFuture<String> future = createClient().executeAsync(prepareGet().setUri(URI.create("v1/service")).build(), mock(ResponseHandler.class));
+        scheduledCaptor.getValue().run();
+
+        httpClient.futures.get(0).set("primary response");
+        assertEquals(future.get(), "primary response");
+        assertTrue(httpClient.futures.get(1).isCancelled(), "hedged attempt cancelled");
+        verify(serviceAttempt1).markGood();
+        verify(serviceAttempt2).markCancelled();
+    }
+
+    @Test
+    public void testFailedAttemptYieldsToHedge()
+            throws Exception
+    {
+        HttpResponseFuture<String> future = createClient().executeAsync(prepareGet().setUri(URI.create("v1/service")).build(), mock(ResponseHandler.class));
+        scheduledCaptor.getValue().run();
+
+        httpClient.futures.get(0).setException(new RetryException("503 status code"));
+        assertFalse(future.isDone(), "future completed while hedge in flight");
+        verify(serviceAttempt1).markBad("503 status code");
+
+        httpClient.futures.get(1).set("hedge response");
+        assertEquals(future.get(), "hedge response");
+        verify(serviceAttempt2).markGood();
+    }
+
+    @Test
+    public void testNoHedgeWhenAttemptCompletes()
+            throws Exception
+    {
+        HttpResponseFuture<String> future = createClient().executeAsync(prepareGet().setUri(URI.create("v1/service")).build(), mock(ResponseHandler.class));
+
+        httpClient.futures.get(0).set("primary response");
+        assertEquals(future.get(), "primary response");
+        scheduledCaptor.getValue().run();
+        assertEquals(httpClient.requests.size(), 1);
+        verify(serviceAttempt1, never()).next();
+    }
+
+    @Test
+    public void testNoHedgeForNonIdempotentRequest()
+    {
+        createClient().executeAsync(preparePost().setUri(URI.create("v1/service")).build(), mock(ResponseHandler.class));
+
+        verify(retryExecutor, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    public void testHedgeWithStaticBody()
+    {
+        createClient().executeAsync(preparePut()
+                .setUri(URI.create("v1/service"))
+                .setBodySource(createStaticBodyGenerator("body", UTF_8))
+                .build(), mock(ResponseHandler.class));
+
+        scheduledCaptor.getValue().run();
+        assertEquals(httpClient.requests.size(), 2);
+    }
+
+    @Test
+    public void testNoHedgeForStreamBody()
+    {
+        // The primary attempt is waiting for a connection, so the stream has not been read
+        InputStreamBodySource bodySource = new InputStreamBodySource(new ByteArrayInputStream(new byte[] {1, 2, 3}));
+        createClient().executeAsync(preparePut()
+                .setUri(URI.create("v1/service"))
+                .setBodySource(bodySource)
+                .build(), mock(ResponseHandler.class));
+
+        assertTrue(bodySource.isRetryable());
+        verify(retryExecutor, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        assertEquals(httpClient.requests.size(), 1);
+    }
+
+    @Test
+    public void testNoHedgeForNonIdempotentRequestWithStreamBody()
+    {
+        createClient().executeAsync(preparePost()
+                .setUri(URI.create("v1/service"))
+                .setBodySource(new InputStreamBodySource(new ByteArrayInputStream(new byte[] {1, 2, 3})))
+                .build(), mock(ResponseHandler.class));
+
+        verify(retryExecutor, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    public void testNoHedgeWhenDisabled()
+    {
+        config.setHedgingEnabled(false);
+        createClient().executeAsync(prepareGet().setUri(URI.create("v1/service")).build(), mock(ResponseHandler.class));
+
+        verify(retryExecutor, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    public void testNoHedgeWithoutSpareAttempt()
+    {
+        config.setMaxAttempts(2);
+        createClient().executeAsync(prepareGet().setUri(URI.create("v1/service")).build(), mock(ResponseHandler.class));
+
+        verify(retryExecutor, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    @Test
+    public void testHedgeRespectsRetryBudget()
+    {
+        config.setRetryBudgetRatio(BigDecimal.ZERO)
+                .setRetryBudgetMinPerSecond(0);
+        createClient().executeAsync(prepareGet().setUri(URI.create("v1/service")).build(), mock(ResponseHandler.class));
+
+        scheduledCaptor.getValue().run();
+        assertEquals(httpClient.requests.size(), 1);
+        verify(serviceAttempt1, never()).next();
+    }
+
+    @Test
+    public void testPercentileDelay()
+    {
+        HedgingPolicy policy = new HedgingPolicy(true, new Duration(10, MILLISECONDS), new BigDecimal(90));
+        assertEquals(policy.getDelayNanos(), MILLISECONDS.toNanos(10));
+
+        for (int i = 1; i <= 1000; i++) {
+            policy.recordLatency(MILLISECONDS.toNanos(i % 100));
+        }
+        long delay = policy.getDelayNanos();
+        assertTrue(delay >= MILLISECONDS.toNanos(85) && delay <= MILLISECONDS.toNanos(95), "delay " + delay);
+    }
+
+    private BalancingHttpClient createClient()
+    {
+        return new BalancingHttpClient(serviceBalancer, httpClient, config, retryExecutor, new TestingTicker());
+    }
+
+    private static class TestingHttpClient
+            implements HttpClient
+    {
+        private final List<Request> requests = new ArrayList<>();
+        private final List<PendingHttpResponseFuture<Object>> futures = new ArrayList<>();
+
+        @Override
+        public <T, E extends Exception> HttpResponseFuture<T> executeAsync(Request request, ResponseHandler<T, E> responseHandler)
+        {
+            PendingHttpResponseFuture<Object> future = new PendingHttpResponseFuture<>();
+            requests.add(request);
+            futures.add(future);
+            //noinspection unchecked
+            return (HttpResponseFuture<T>) future;
+        }
+
+        @Override
+        public <T, E extends Exception> T execute(Request request, ResponseHandler<T, E> responseHandler)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public RequestStats getStats()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close()
+        {
+        }
+
+        @Override
+        public boolean isClosed()
+        {
+            return false;
+        }
+    }
+
+    private static class PendingHttpResponseFuture<T>
+            extends AbstractFuture<T>
+            implements HttpResponseFuture<T>
+    {
+        @Override
+        public boolean set(T value)
+        {
+            return super.set(value);
+        }
+
+        @Override
+        public boolean setException(Throwable throwable)
+        {
+            return super.setException(throwable);
+        }
+
+        @Override
+        public String getState()
+        {
+            return "pending";
+        }
+    }
+}
@@ -24,6 +24,7 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -34,6 +35,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -142,6 +144,46 @@ public class TestHttpServiceBalancerImpl
         attempt.markGood();
     }
 
+    @Test
+    public void testMembershipListener()
+    {
+        URI firstUri = URI.create("http://apple-a.example.com");
+        URI secondUri = URI.create("https://apple-a.example.com");
+        List<Set<URI>> added = new ArrayList<>();
+
+        httpServiceBalancer.updateHttpUris(Set.of(firstUri));
+        httpServiceBalancer.addMembershipListener(added::add);
+        assertEquals(added, List.of(Set.of(firstUri)));
+
+        httpServiceBalancer.updateHttpUris(Set.of(firstUri, secondUri));
+        assertEquals(added, List.of(Set.of(firstUri), Set.of(secondUri)));
+
+        httpServiceBalancer.updateHttpUris(Set.of(secondUri));
+        httpServiceBalancer.updateHttpUris(List.of(secondUri, secondUri));
+        assertEquals(added, List.of(Set.of(firstUri), Set.of(secondUri)));
+    }
+
+    @Test
+    public void testMembershipListenerRemoved()
+    {
+        URI firstUri = URI.create("http://apple-a.example.com");
+        URI secondUri = URI.create("https://apple-a.example.com");
+        List<Set<URI>> added = new ArrayList<>();
+        List<Set<URI>> removed = new ArrayList<>();
+
+        httpServiceBalancer.updateHttpUris(Set.of(firstUri, secondUri));
+        httpServiceBalancer.addMembershipListener(added::add, removed::add);
+        assertEquals(added, List.of(Set.of(firstUri, secondUri)));
+        assertEquals(removed, List.of());
+
+        httpServiceBalancer.updateHttpUris(Set.of(secondUri));
+        assertEquals(removed, List.of(Set.of(firstUri)));
+
+        httpServiceBalancer.updateHttpUris(Set.of(secondUri));
+        assertEquals(added, List.of(Set.of(firstUri, secondUri)));
+        assertEquals(removed, List.of(Set.of(firstUri)));
+    }
+
     @Test
     public void testReuseUri()
     {
@@ -208,6 +250,46 @@ public class TestHttpServiceBalancerImpl
         }
     }
 
+    @Test
+    public void testHedgedAttemptWhileInProgress()
+    {
+        URI firstUri = URI.create("http://apple-a.example.com");
+        URI secondUri = URI.create("https://apple-a.example.com");
+        httpServiceBalancer.updateHttpUris(Set.of(firstUri, secondUri));
+
+        for (int i = 0; i < 10; ++i) {
+            HttpServiceAttempt attempt = httpServiceBalancer.createAttempt();
+            HttpServiceAttempt hedgeAttempt = attempt.next();
+            assertNotEquals(hedgeAttempt.getUri(), attempt.getUri(), "hedged attempt");
+
+            hedgeAttempt.markGood();
+            attempt.markCancelled();
+        }
+
+        verify(httpServiceBalancerStats, times(10)).requestTime(any(URI.class), eq(Status.SUCCESS));
+        verify(successTimeStat, times(10)).add(0, TimeUnit.NANOSECONDS);
+        verifyNoMoreInteractions(httpServiceBalancerStats, failureTimeStat, successTimeStat, counterStat);
+        assertEquals(httpServiceBalancer.getConcurrency().get(), 0);
+    }
+
+    @Test
+    public void testCancelledAttemptKeepsFailureCount()
+    {
+        URI uri = URI.create("http://apple-a.example.com");
+        httpServiceBalancer.updateHttpUris(Set.of(uri));
+
+        for (int i = 0; i < 4; ++i) {
+            httpServiceBalancer.createAttempt().markBad("testing failure");
+            httpServiceBalancer.createAttempt().markCancelled();
+        }
+        verify(httpServiceBalancerStats, never()).removal(any(URI.class));
+
+        SparseTimeStat removalStat = mock(SparseTimeStat.class);
+        when(httpServiceBalancerStats.removal(uri)).thenReturn(removalStat);
+        httpServiceBalancer.createAttempt().markBad("testing failure");
+        verify(removalStat).add(any());
+    }
+
     @Test
     public void testWeighted()
     {
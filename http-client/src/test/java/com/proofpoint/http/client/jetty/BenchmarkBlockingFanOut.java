@@ -0,0 +1,141 @@
+package com.proofpoint.http.client.jetty;
+
+import com.proofpoint.http.client.HttpClientConfig;
+import com.proofpoint.http.client.Request;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.VirtualThreads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkState;
+import static com.proofpoint.concurrent.Threads.threadsNamed;
+import static com.proofpoint.http.client.Request.Builder.prepareGet;
+import static com.proofpoint.http.client.StatusResponseHandler.createStatusResponseHandler;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+
+/**
+ * Throughput of synchronous requests fanned out from a pool of caller
+ * threads to a server with fixed latency. With platform threads, throughput
+ * is bounded by the size of the caller pool; with virtual threads, by the
+ * fan-out. Virtual threads require Java 21.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Mode.Throughput)
+public class BenchmarkBlockingFanOut
+{
+    private static final int FAN_OUT = 1000;
+    private static final int PLATFORM_CALLER_THREADS = 200;
+    private static final long SERVER_LATENCY_MILLIS = 10;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    private Server server;
+    private JettyHttpClient client;
+    private ExecutorService platformCallers;
+    private Executor callers;
+    private Request request;
+
+    @Setup
+    public void setup()
+            throws Exception
+    {
+        server = new Server();
+        ServerConnector connector = new ServerConnector(server);
+        server.addConnector(connector);
+        server.setHandler(new Handler.Abstract.NonBlocking()
+        {
+            @Override
+            public boolean handle(org.eclipse.jetty.server.Request request, Response response, Callback callback)
+            {
+                request.getComponents().getScheduler().schedule(() -> {
+                    response.setStatus(200);
+                    callback.succeeded();
+                }, SERVER_LATENCY_MILLIS, TimeUnit.MILLISECONDS);
+                return true;
+            }
+        });
+        server.start();
+        request = prepareGet().setUri(URI.create("http://localhost:" + connector.getLocalPort() + "/")).build();
+
+        boolean virtual = threads.equals("virtual");
+        HttpClientConfig config = new HttpClientConfig()
+                .setHttp2Enabled(false)
+                .setMaxConnectionsPerServer(FAN_OUT)
+                .setMaxRequestsQueuedPerDestination(FAN_OUT);
+        client = new JettyHttpClient("benchmark", config, JettyHttpClientOptions.builder().setEnableVirtualThreads(virtual).build(), List.of());
+
+        if (virtual) {
+            callers = VirtualThreads.getNamedVirtualThreadsExecutor("benchmark-caller");
+            checkState(callers != null, "Virtual threads are not supported");
+        }
+        else {
+            platformCallers = newFixedThreadPool(PLATFORM_CALLER_THREADS, threadsNamed("benchmark-caller-%s"));
+            callers = platformCallers;
+        }
+    }
+
+    @TearDown
+    public void tearDown()
+            throws Exception
+    {
+        if (platformCallers != null) {
+            platformCallers.shutdownNow();
+        }
+        client.close();
+        server.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FAN_OUT)
+    public void fanOut()
+    {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[FAN_OUT];
+        for (int i = 0; i < FAN_OUT; i++) {
+            futures[i] = CompletableFuture.runAsync(() -> client.execute(request, createStatusResponseHandler()), callers);
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkBlockingFanOut.class.getSimpleName() + ".*")
+                .build();
+
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,146 @@
+package com.proofpoint.http.client.jetty;
+
+import com.proofpoint.http.client.ConcurrencyLimitExceededException;
+import com.proofpoint.http.client.HttpClientConfig;
+import com.proofpoint.http.client.jetty.AdaptiveConcurrencyLimiter.Permit;
+import com.proofpoint.reporting.testing.TestingReportCollectionFactory;
+import com.proofpoint.testing.TestingTicker;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestAdaptiveConcurrencyLimiter
+{
+    private static final URI FOO_URI = URI.create("http://foo.example.com/v1/resource");
+    private static final URI BAR_URI = URI.create("https://bar.example.com/v1/resource");
+
+    private TestingReportCollectionFactory reportCollectionFactory;
+    private ConcurrencyLimitStats stats;
+    private TestingTicker ticker;
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeMethod
+    public void setup()
+    {
+        reportCollectionFactory = new TestingReportCollectionFactory();
+        stats = reportCollectionFactory.createReportCollection(ConcurrencyLimitStats.class);
+        ticker = new TestingTicker();
+        limiter = new AdaptiveConcurrencyLimiter(new HttpClientConfig()
+                .setConcurrencyLimitInitial(4)
+                .setConcurrencyLimitMin(2)
+                .setConcurrencyLimitMax(10),
+                stats, ticker);
+    }
+
+    @Test
+    public void testRejectsOverLimit()
+    {
+        List<Permit> permits = acquire(FOO_URI, 4);
+        assertEquals(stats.inFlight("http://foo.example.com:80").get(), 4);
+
+        try {
+            limiter.acquire(FOO_URI);
+            fail("expected ConcurrencyLimitExceededException");
+        }
+        catch (ConcurrencyLimitExceededException e) {
+            assertEquals(e.getMessage(), "Concurrency limit of 4 exceeded for http://foo.example.com:80");
+        }
+        verify(reportCollectionFactory.getArgumentVerifier(stats)).rejection("http://foo.example.com:80");
+
+        // Other destinations have their own limit
+        limiter.acquire(BAR_URI);
+
+        permits.get(0).ignore();
+        limiter.acquire(FOO_URI);
+    }
+
+    @Test
+    public void testReleaseIsIdempotent()
+    {
+        Permit permit = limiter.acquire(FOO_URI);
+        permit.success();
+        permit.dropped();
+        permit.ignore();
+
+        assertEquals(stats.inFlight("http://foo.example.com:80").get(), 0);
+        assertEquals(limiter.getLimit(FOO_URI), 4);
+    }
+
+    @Test
+    public void testGrowsWithSteadyLatency()
+    {
+        for (int i = 0; i < 20; i++) {
+            List<Permit> permits = acquire(FOO_URI, limiter.getLimit(FOO_URI));
+            ticker.increment(10, MILLISECONDS);
+            permits.forEach(Permit::success);
+        }
+
+        assertEquals(limiter.getLimit(FOO_URI), 10);
+        assertEquals(stats.limit("http://foo.example.com:80").get(), 10);
+    }
+
+    @Test
+    public void testDoesNotGrowWhenApplicationLimited()
+    {
+        for (int i = 0; i < 100; i++) {
+            Permit permit = limiter.acquire(FOO_URI);
+            ticker.increment(10, MILLISECONDS);
+            permit.success();
+        }
+
+        assertEquals(limiter.getLimit(FOO_URI), 4);
+    }
+
+    @Test
+    public void testShrinksWithRisingLatency()
+    {
+        for (int i = 0; i < 20; i++) {
+            List<Permit> permits = acquire(FOO_URI, limiter.getLimit(FOO_URI));
+            ticker.increment(10, MILLISECONDS);
+            permits.forEach(Permit::success);
+        }
+        assertEquals(limiter.getLimit(FOO_URI), 10);
+
+        for (int i = 0; i < 20; i++) {
+            List<Permit> permits = acquire(FOO_URI, limiter.getLimit(FOO_URI));
+            ticker.increment(100, MILLISECONDS);
+            permits.forEach(Permit::success);
+        }
+        assertTrue(limiter.getLimit(FOO_URI) < 10, "limit " + limiter.getLimit(FOO_URI));
+    }
+
+    @Test
+    public void testBacksOffOnDrop()
+    {
+        for (int i = 0; i < 20; i++) {
+            limiter.acquire(FOO_URI).dropped();
+        }
+
+        assertEquals(limiter.getLimit(FOO_URI), 2);
+        assertEquals(stats.limit("http://foo.example.com:80").get(), 2);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "concurrency limit initial must be between min and max")
+    public void testInvalidConfig()
+    {
+        new AdaptiveConcurrencyLimiter(new HttpClientConfig().setConcurrencyLimitInitial(2).setConcurrencyLimitMin(3), stats);
+    }
+
+    private List<Permit> acquire(URI uri, int count)
+    {
+        List<Permit> permits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            permits.add(limiter.acquire(uri));
+        }
+        return permits;
+    }
+}
@@ -0,0 +1,248 @@
+package com.proofpoint.http.client.jetty;
+
+import com.proofpoint.http.client.HttpClientConfig;
+import com.proofpoint.testing.TestingTicker;
+import com.proofpoint.units.Duration;
+import org.eclipse.jetty.util.Promise;
+import org.eclipse.jetty.util.thread.ScheduledExecutorScheduler;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+import static com.google.common.net.InetAddresses.forString;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestCachingSocketAddressResolver
+{
+    private static final InetAddress ADDRESS_1 = forString("192.0.2.1");
+    private static final InetAddress ADDRESS_2 = forString("192.0.2.2");
+
+    private final Map<String, InetAddress[]> records = new HashMap<>();
+    private final List<String> lookups = new ArrayList<>();
+    private final List<Runnable> pendingTasks = new ArrayList<>();
+    private TestingTicker ticker;
+    private ScheduledExecutorScheduler scheduler;
+    private CachingSocketAddressResolver resolver;
+
+    @BeforeMethod
+    public void setup()
+            throws Exception
+    {
+        records.clear();
+        lookups.clear();
+        pendingTasks.clear();
+        ticker = new TestingTicker();
+        scheduler = new ScheduledExecutorScheduler();
+        scheduler.start();
+        resolver = createResolver(directExecutor());
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void teardown()
+            throws Exception
+    {
+        scheduler.stop();
+    }
+
+    @Test
+    public void testIpLiteral()
+            throws Exception
+    {
+        assertEquals(resolve("192.0.2.1", 80), List.of(new InetSocketAddress(ADDRESS_1, 80)));
+        assertEquals(resolve("::1", 80), List.of(new InetSocketAddress(forString("::1"), 80)));
+        assertEquals(lookups, List.of());
+    }
+
+    @Test
+    public void testCachesUntilTtl()
+            throws Exception
+    {
+        records.put("example.com", new InetAddress[] {ADDRESS_1});
+
+        assertEquals(resolve("example.com", 80), List.of(new InetSocketAddress(ADDRESS_1, 80)));
+        ticker.increment(24, SECONDS);
+        assertEquals(resolve("example.com", 443), List.of(new InetSocketAddress(ADDRESS_1, 443)));
+        assertEquals(lookups, List.of("example.com"));
+        assertEquals(resolver.getCacheEntries(), 1L);
+
+        ticker.increment(30, SECONDS);
+        records.put("example.com", new InetAddress[] {ADDRESS_2});
+        assertEquals(resolve("example.com", 80), List.of(new InetSocketAddress(ADDRESS_2, 80)));
+        assertEquals(lookups, List.of("example.com", "example.com"));
+    }
+
+    @Test
+    public void testExpiredEntriesRemoved()
+            throws Exception
+    {
+        records.put("example.com", new InetAddress[] {ADDRESS_1});
+        resolve("example.com", 80);
+        assertUnknownHost("missing.example.com");
+        assertEquals(resolver.getCacheEntries(), 2L);
+
+        ticker.increment(29, SECONDS);
+        assertEquals(resolver.getCacheEntries(), 2L);
+
+        ticker.increment(1, SECONDS);
+        assertEquals(resolver.getCacheEntries(), 0L);
+    }
+
+    @Test
+    public void testCacheSizeBounded()
+            throws Exception
+    {
+        for (int i = 0; i <= CachingSocketAddressResolver.MAX_CACHE_ENTRIES; i++) {
+            records.put("host" + i + ".example.com", new InetAddress[] {ADDRESS_1});
+            resolve("host" + i + ".example.com", 80);
+        }
+        assertTrue(resolver.getCacheEntries() <= CachingSocketAddressResolver.MAX_CACHE_ENTRIES);
+    }
+
+    @Test
+    public void testRefreshAhead()
+            throws Exception
+    {
+        resolver = createResolver(pendingTasks::add);
+        records.put("example.com", new InetAddress[] {ADDRESS_1});
+
+        CompletableFuture<List<InetSocketAddress>> future = resolveAsync("example.com", 80);
+        runPendingTasks();
+        assertEquals(future.get(), List.of(new InetSocketAddress(ADDRESS_1, 80)));
+
+        // Within the refresh-ahead window, the cached address is returned and a refresh is started
+        ticker.increment(26, SECONDS);
+        records.put("example.com", new InetAddress[] {ADDRESS_2});
+        future = resolveAsync("example.com", 80);
+        assertEquals(future.getNow(null), List.of(new InetSocketAddress(ADDRESS_1, 80)));
+        assertEquals(pendingTasks.size(), 1);
+
+        // Only one refresh is started
+        resolveAsync("example.com", 80);
+        assertEquals(pendingTasks.size(), 1);
+
+        runPendingTasks();
+        assertEquals(resolveAsync("example.com", 80).getNow(null), List.of(new InetSocketAddress(ADDRESS_2, 80)));
+        assertEquals(lookups, List.of("example.com", "example.com"));
+    }
+
+    @Test
+    public void testFailedRefreshKeepsAddresses()
+            throws Exception
+    {
+        records.put("example.com", new InetAddress[] {ADDRESS_1});
+        resolve("example.com", 80);
+
+        ticker.increment(26, SECONDS);
+        records.remove("example.com");
+        assertEquals(resolve("example.com", 80), List.of(new InetSocketAddress(ADDRESS_1, 80)));
+        assertEquals(resolve("example.com", 80), List.of(new InetSocketAddress(ADDRESS_1, 80)));
+        assertEquals(lookups, List.of("example.com", "example.com"));
+    }
+
+    @Test
+    public void testNegativeCaching()
+            throws Exception
+    {
+        assertUnknownHost("missing.example.com");
+        ticker.increment(9, SECONDS);
+        assertUnknownHost("missing.example.com");
+        assertEquals(lookups, List.of("missing.example.com"));
+
+        ticker.increment(1, SECONDS);
+        records.put("missing.example.com", new InetAddress[] {ADDRESS_1});
+        assertEquals(resolve("missing.example.com", 80), List.of(new InetSocketAddress(ADDRESS_1, 80)));
+        assertEquals(lookups, List.of("missing.example.com", "missing.example.com"));
+    }
+
+    @Test
+    public void testRoundRobin()
+            throws Exception
+    {
+        records.put("example.com", new InetAddress[] {ADDRESS_1, ADDRESS_2});
+
+        assertEquals(resolve("example.com", 80), List.of(new InetSocketAddress(ADDRESS_1, 80), new InetSocketAddress(ADDRESS_2, 80)));
+        assertEquals(resolve("example.com", 80), List.of(new InetSocketAddress(ADDRESS_2, 80), new InetSocketAddress(ADDRESS_1, 80)));
+        assertEquals(resolve("example.com", 80), List.of(new InetSocketAddress(ADDRESS_1, 80), new InetSocketAddress(ADDRESS_2, 80)));
+    }
+
+    @Test
+    public void testConcurrentLookupsCombined()
+            throws Exception
+    {
+        resolver = createResolver(pendingTasks::add);
+        records.put("example.com", new InetAddress[] {ADDRESS_1});
+
+        CompletableFuture<List<InetSocketAddress>> future1 = resolveAsync("example.com", 80);
+        CompletableFuture<List<InetSocketAddress>> future2 = resolveAsync("example.com", 443);
+        assertEquals(pendingTasks.size(), 1);
+
+        runPendingTasks();
+        assertEquals(future1.get(), List.of(new InetSocketAddress(ADDRESS_1, 80)));
+        assertEquals(future2.get(), List.of(new InetSocketAddress(ADDRESS_1, 443)));
+        assertEquals(lookups, List.of("example.com"));
+    }
+
+    private CachingSocketAddressResolver createResolver(Executor executor)
+    {
+        HttpClientConfig config = new HttpClientConfig()
+                .setConnectTimeout(new Duration(10, SECONDS))
+                .setDnsCacheTtl(new Duration(30, SECONDS))
+                .setDnsCacheNegativeTtl(new Duration(10, SECONDS))
+                .setDnsCacheRefreshAhead(new Duration(5, SECONDS));
+        return new CachingSocketAddressResolver(executor, scheduler, config, host -> {
+            lookups.add(host);
+            InetAddress[] addresses = records.get(host);
+            if (addresses == null) {
+                throw new UnknownHostException(host);
+            }
+            return addresses;
+        }, ticker);
+    }
+
+    private void runPendingTasks()
+    {
+        List<Runnable> tasks = List.copyOf(pendingTasks);
+        pendingTasks.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    private void assertUnknownHost(String host)
+            throws InterruptedException
+    {
+        try {
+            resolve(host, 80);
+            fail("expected UnknownHostException");
+        }
+        catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof UnknownHostException, "cause " + e.getCause());
+        }
+    }
+
+    private List<InetSocketAddress> resolve(String host, int port)
+            throws ExecutionException, InterruptedException
+    {
+        return resolveAsync(host, port).get();
+    }
+
+    private CompletableFuture<List<InetSocketAddress>> resolveAsync(String host, int port)
+    {
+        CompletableFuture<List<InetSocketAddress>> future = new CompletableFuture<>();
+        resolver.resolve(host, port, Promise.from(future::complete, future::completeExceptionally));
+        return future;
+    }
+}
@@ -1,13 +1,55 @@
 package com.proofpoint.http.client.jetty;
 
 import com.proofpoint.http.client.AbstractHttpClientTest;
+import com.proofpoint.http.client.CachingHttpClient;
+import com.proofpoint.http.client.CoalescingHttpClient;
+import com.proofpoint.http.client.DynamicBodySource;
 import com.proofpoint.http.client.HttpClientConfig;
+import com.proofpoint.http.client.InputStreamBodySource;
 import com.proofpoint.http.client.Request;
 import com.proofpoint.http.client.RequestStats;
 import com.proofpoint.http.client.ResponseHandler;
 import com.proofpoint.http.client.TestingRequestFilter;
+import com.proofpoint.http.client.balancing.BalancingHttpClient;
+import com.proofpoint.http.client.balancing.BalancingHttpClientConfig;
+import com.proofpoint.http.client.balancing.HttpServiceBalancerConfig;
+import com.proofpoint.http.client.balancing.HttpServiceBalancerImpl;
+import com.proofpoint.http.client.balancing.HttpServiceBalancerStats;
+import com.proofpoint.reporting.testing.TestingReportCollectionFactory;
+import com.proofpoint.stats.CounterStat;
+import com.proofpoint.units.Duration;
+import org.eclipse.jetty.io.EndPoint;
+import org.eclipse.jetty.server.ServerConnector;
+import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.zip.GZIPInputStream;
+
+import static com.proofpoint.http.client.ByteBufferBodySource.createByteBufferBodySource;
+import static com.proofpoint.http.client.FileBodySource.createFileBodySource;
+import static com.proofpoint.http.client.Request.Builder.prepareGet;
+import static com.proofpoint.http.client.Request.Builder.preparePut;
+import static com.proofpoint.http.client.StaticBodyGenerator.createStaticBodyGenerator;
+import static com.proofpoint.http.client.StatusResponseHandler.createStatusResponseHandler;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class TestJettyHttpClient
         extends AbstractHttpClientTest
@@ -46,4 +88,231 @@ public class TestJettyHttpClient
             }
         };
     }
+
+    @Test
+    public void testRequestCompression()
+            throws Exception
+    {
+        byte[] body = new byte[100_000];
+        Arrays.fill(body, (byte) 'x');
+        URI uri = baseURI.resolve("/road/to/nowhere");
+        String destination = AdaptiveConcurrencyLimiter.destination(uri);
+        TestingReportCollectionFactory reportCollectionFactory = new TestingReportCollectionFactory();
+        RequestCompressionStats stats = reportCollectionFactory.createReportCollection(RequestCompressionStats.class);
+
+        try (JettyHttpClient client = createCompressingClient(stats)) {
+            assertEquals(client.execute(preparePut().setUri(uri).setBodySource(createStaticBodyGenerator(body)).build(), createStatusResponseHandler()).getStatusCode(), 200);
+            assertCompressedRequest(body);
+
+            assertEquals(client.execute(preparePut().setUri(uri).setBodySource(new InputStreamBodySource(new ByteArrayInputStream(body), 1000)).build(), createStatusResponseHandler()).getStatusCode(), 200);
+            assertCompressedRequest(body);
+
+            DynamicBodySource dynamicBodySource = out -> new DynamicBodySource.Writer()
+            {
+                private int written = 0;
+
+                @Override
+                public void write()
+                        throws Exception
+                {
+                    if (written < body.length) {
+                        out.write(body, written, 1000);
+                        written += 1000;
+                    }
+                    else {
+                        out.close();
+                    }
+                }
+            };
+            assertEquals(client.execute(preparePut().setUri(uri).setBodySource(dynamicBodySource).build(), createStatusResponseHandler()).getStatusCode(), 200);
+            assertCompressedRequest(body);
+
+            ByteBuffer directBody = ByteBuffer.allocateDirect(body.length).put(body).flip();
+            assertEquals(client.execute(preparePut().setUri(uri).setBodySource(createByteBufferBodySource(directBody)).build(), createStatusResponseHandler()).getStatusCode(), 200);
+            assertCompressedRequest(body);
+
+            Path file = Files.createTempFile("body", ".bin");
+            try {
+                Files.write(file, body);
+                assertEquals(client.execute(preparePut().setUri(uri).setBodySource(createFileBodySource(file)).build(), createStatusResponseHandler()).getStatusCode(), 200);
+                assertCompressedRequest(body);
+            }
+            finally {
+                Files.delete(file);
+            }
+        }
+
+        RequestCompressionStats reportCollection = reportCollectionFactory.getReportCollection(stats);
+        verify(reportCollection.uncompressedBytes(destination), times(5)).add(100_000);
+        // 100,000 repeated bytes compress to a small fraction of a percent
+        verify(reportCollection.compressionRatio(destination), times(5)).add(0);
+    }
+
+    @Test
+    public void testRequestCompressionSkipped()
+            throws Exception
+    {
+        URI uri = baseURI.resolve("/road/to/nowhere");
+        TestingReportCollectionFactory reportCollectionFactory = new TestingReportCollectionFactory();
+        RequestCompressionStats stats = reportCollectionFactory.createReportCollection(RequestCompressionStats.class);
+
+        try (JettyHttpClient client = createCompressingClient(stats)) {
+            // Smaller than the minimum size
+            byte[] body = {1, 2, 5};
+            assertEquals(client.execute(preparePut().setUri(uri).setBodySource(createStaticBodyGenerator(body)).build(), createStatusResponseHandler()).getStatusCode(), 200);
+            assertEquals(servlet.getRequestHeaders("Content-Encoding"), List.of());
+            assertEquals(servlet.getRequestBytes(), body);
+
+            // Already encoded
+            body = new byte[2000];
+            Request request = preparePut()
+                    .setUri(uri)
+                    .setHeader("Content-Encoding", "identity")
+                    .setBodySource(createStaticBodyGenerator(body))
+                    .build();
+            assertEquals(client.execute(request, createStatusResponseHandler()).getStatusCode(), 200);
+            assertEquals(servlet.getRequestHeaders("Content-Encoding"), List.of("identity"));
+            assertEquals(servlet.getRequestBytes(), body);
+        }
+
+        verify(reportCollectionFactory.getArgumentVerifier(stats), never()).compressionRatio(anyString());
+    }
+
+    @Test
+    public void testRequestPhaseStats()
+            throws Exception
+    {
+        URI uri = baseURI.resolve("/road/to/nowhere");
+        String destination = AdaptiveConcurrencyLimiter.destination(uri);
+        TestingReportCollectionFactory reportCollectionFactory = new TestingReportCollectionFactory();
+        RequestPhaseStats stats = reportCollectionFactory.createReportCollection(RequestPhaseStats.class);
+
+        HttpClientConfig config = createClientConfig();
+        JettyHttpClientOptions options = JettyHttpClientOptions.builder()
+                .setRequestPhaseStats(stats)
+                .build();
+        try (JettyHttpClient client = new JettyHttpClient("test-phases", config, options, List.of())) {
+            for (int i = 0; i < 2; i++) {
+                assertEquals(client.execute(prepareGet().setUri(uri).build(), createStatusResponseHandler()).getStatusCode(), 200);
+            }
+
+            // Requests complete after the response is returned
+            RequestPhaseStats verifier = reportCollectionFactory.getArgumentVerifier(stats);
+            verify(verifier, timeout(10_000).times(2)).queueTime(destination);
+            verify(verifier, timeout(10_000).times(2)).sendTime(destination);
+            verify(verifier, timeout(10_000).times(2)).responseWaitTime(destination);
+            verify(verifier, timeout(10_000).times(2)).responseReadTime(destination);
+            verify(verifier, atLeastOnce()).connectTime(destination);
+        }
+    }
+
+    @Test
+    public void testWarmUpConfiguredConnections()
+            throws Exception
+    {
+        ServerConnector connector = (ServerConnector) server.getConnectors()[0];
+        try (JettyHttpClient client = new JettyHttpClient("test-warm-up", createClientConfig().setWarmupConnections(2))) {
+            client.warmUpConnections(List.of(baseURI));
+            awaitConnections(connector, 2);
+            awaitCount(client.getWarmConnections(), 2);
+
+            assertEquals(client.execute(prepareGet().setUri(baseURI).build(), createStatusResponseHandler()).getStatusCode(), 200);
+            assertEquals(client.getColdConnections().getTotalCount(), 0);
+            assertEquals(connector.getConnectedEndPoints().size(), 2);
+        }
+    }
+
+    @Test
+    public void testBalancerWarmsUpWrappedClient()
+            throws Exception
+    {
+        ServerConnector connector = (ServerConnector) server.getConnectors()[0];
+        HttpClientConfig config = createClientConfig().setWarmupConnections(2);
+        try (JettyHttpClient client = new JettyHttpClient("test-warm-up-wrapped", config)) {
+            HttpServiceBalancerImpl balancer = new HttpServiceBalancerImpl("test",
+                    new TestingReportCollectionFactory().createReportCollection(HttpServiceBalancerStats.class),
+                    new HttpServiceBalancerConfig());
+            new BalancingHttpClient(balancer,
+                    new CachingHttpClient(new CoalescingHttpClient(client), config),
+                    new BalancingHttpClientConfig(),
+                    mock(ScheduledExecutorService.class));
+
+            balancer.updateHttpUris(List.of(baseURI));
+            awaitConnections(connector, 2);
+            awaitCount(client.getWarmConnections(), 2);
+        }
+    }
+
+    @Test
+    public void testColdConnections()
+            throws Exception
+    {
+        try (JettyHttpClient client = new JettyHttpClient("test-cold", createClientConfig())) {
+            assertEquals(client.execute(prepareGet().setUri(baseURI).build(), createStatusResponseHandler()).getStatusCode(), 200);
+            assertEquals(client.getColdConnections().getTotalCount(), 1);
+            assertEquals(client.getWarmConnections().getTotalCount(), 0);
+        }
+    }
+
+    @Test
+    public void testWarmupCheckReplacesClosedConnections()
+            throws Exception
+    {
+        ServerConnector connector = (ServerConnector) server.getConnectors()[0];
+        HttpClientConfig config = createClientConfig()
+                .setWarmupConnections(1)
+                .setWarmupCheckInterval(new Duration(1, SECONDS));
+        try (JettyHttpClient client = new JettyHttpClient("test-warm-up-check", config)) {
+            client.warmUpConnections(List.of(baseURI));
+            awaitCount(client.getWarmConnections(), 1);
+
+            // The server may not have accepted the connection yet, so keep closing until it is replaced
+            long deadline = nanoTime() + SECONDS.toNanos(10);
+            while (client.getWarmConnections().getTotalCount() < 2 && nanoTime() < deadline) {
+                for (EndPoint endPoint : connector.getConnectedEndPoints()) {
+                    endPoint.close();
+                }
+                Thread.sleep(100);
+            }
+            assertTrue(client.getWarmConnections().getTotalCount() >= 2, "closed connection was not replaced");
+        }
+    }
+
+    static void awaitConnections(ServerConnector connector, int expected)
+            throws InterruptedException
+    {
+        long deadline = nanoTime() + SECONDS.toNanos(10);
+        while (connector.getConnectedEndPoints().size() != expected && nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(connector.getConnectedEndPoints().size(), expected);
+    }
+
+    private static void awaitCount(CounterStat counter, long expected)
+            throws InterruptedException
+    {
+        long deadline = nanoTime() + SECONDS.toNanos(10);
+        while (counter.getTotalCount() < expected && nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(counter.getTotalCount(), expected);
+    }
+
+    private JettyHttpClient createCompressingClient(RequestCompressionStats stats)
+    {
+        HttpClientConfig config = createClientConfig();
+        JettyHttpClientOptions options = JettyHttpClientOptions.builder()
+                .setRequestCompressor(new RequestCompressor(config, stats))
+                .build();
+        return new JettyHttpClient("test-compression", config, options, List.of());
+    }
+
+    private void assertCompressedRequest(byte[] body)
+            throws IOException
+    {
+        assertEquals(servlet.getRequestHeaders("Content-Encoding"), List.of("gzip"));
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(servlet.getRequestBytes()))) {
+            assertEquals(inputStream.readAllBytes(), body);
+        }
+    }
 }
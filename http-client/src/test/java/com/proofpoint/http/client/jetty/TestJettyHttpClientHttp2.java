@@ -1,6 +1,15 @@
 package com.proofpoint.http.client.jetty;
 
 import com.proofpoint.http.client.HttpClientConfig;
+import com.proofpoint.http.client.StatusResponseHandler.StatusResponse;
+import org.eclipse.jetty.server.ServerConnector;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static com.proofpoint.http.client.Request.Builder.prepareGet;
+import static com.proofpoint.http.client.StatusResponseHandler.createStatusResponseHandler;
+import static org.testng.Assert.assertEquals;
 
 public class TestJettyHttpClientHttp2
         extends TestJettyHttpClient
@@ -11,4 +20,34 @@ public class TestJettyHttpClientHttp2
         return super.createClientConfig()
                 .setHttp2Enabled(true);
     }
+
+    @Test
+    public void testWarmUpConnections()
+            throws Exception
+    {
+        ServerConnector connector = (ServerConnector) server.getConnectors()[0];
+        try (JettyHttpClient client = new JettyHttpClient("test-warm-up", createClientConfig()
+                .setWarmupConnections(1)
+                .setHttp2ConnectionsPerDestination(3))) {
+            client.warmUpConnections(List.of(baseURI.resolve("/v1/service")));
+            awaitConnections(connector, 3);
+
+            client.warmUpConnections(List.of(baseURI));
+            StatusResponse response = client.execute(prepareGet().setUri(baseURI).build(), createStatusResponseHandler());
+            assertEquals(response.getStatusCode(), 200);
+            assertEquals(connector.getConnectedEndPoints().size(), 3);
+        }
+    }
+
+    @Test
+    public void testNoWarmUpByDefault()
+            throws Exception
+    {
+        ServerConnector connector = (ServerConnector) server.getConnectors()[0];
+        try (JettyHttpClient client = new JettyHttpClient("test-warm-up", createClientConfig().setHttp2ConnectionsPerDestination(3))) {
+            client.warmUpConnections(List.of(baseURI));
+            Thread.sleep(100);
+            assertEquals(connector.getConnectedEndPoints().size(), 0);
+        }
+    }
 }
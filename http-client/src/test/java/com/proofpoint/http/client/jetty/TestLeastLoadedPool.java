@@ -0,0 +1,122 @@
+package com.proofpoint.http.client.jetty;
+
+import org.eclipse.jetty.util.Pool.Entry;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestLeastLoadedPool
+{
+    private static final Map<String, Integer> MAX_MULTIPLEX = Map.of("a", 3, "b", 3, "c", 1);
+
+    private LeastLoadedPool<String> pool;
+
+    @BeforeMethod
+    public void setup()
+    {
+        pool = new LeastLoadedPool<>(2, MAX_MULTIPLEX::get);
+    }
+
+    @Test
+    public void testReserveUpToMaxSize()
+    {
+        Entry<String> entry = pool.reserve();
+        assertTrue(entry.isReserved());
+        assertNull(pool.acquire(), "reserved entry acquired");
+        pool.reserve();
+        assertNull(pool.reserve());
+        assertEquals(pool.size(), 2);
+    }
+
+    @Test
+    public void testAcquiresLeastLoaded()
+    {
+        Entry<String> a = enable("a", true);
+        Entry<String> b = enable("b", false);
+
+        assertSame(pool.acquire(), b);
+        assertSame(pool.acquire(), a);
+        assertSame(pool.acquire(), b);
+        assertEquals(pool.getUsage(), 4);
+        assertEquals(pool.getCapacity(), 6);
+
+        assertTrue(a.release());
+        assertSame(pool.acquire(), a);
+    }
+
+    @Test
+    public void testRespectsMaxMultiplex()
+    {
+        Entry<String> c = enable("c", false);
+
+        assertSame(pool.acquire(), c);
+        assertTrue(c.isInUse());
+        assertNull(pool.acquire());
+
+        assertTrue(c.release());
+        assertTrue(c.isIdle());
+        assertSame(pool.acquire(), c);
+    }
+
+    @Test
+    public void testRemoveInUse()
+    {
+        Entry<String> a = enable("a", true);
+        pool.acquire();
+
+        assertFalse(a.remove(), "removed while in use");
+        assertTrue(a.isTerminated());
+        assertNull(pool.acquire(), "acquired removed entry");
+        assertFalse(a.release(), "released removed entry");
+        assertEquals(pool.size(), 1);
+
+        assertTrue(a.remove());
+        assertEquals(pool.size(), 0);
+        assertFalse(a.remove());
+    }
+
+    @Test
+    public void testRemoveReserved()
+    {
+        Entry<String> entry = pool.reserve();
+        assertTrue(entry.remove());
+        assertEquals(pool.size(), 0);
+        assertFalse(entry.enable("a", false));
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testEnableTwice()
+    {
+        enable("a", false).enable("b", false);
+    }
+
+    @Test
+    public void testTerminate()
+    {
+        Entry<String> a = enable("a", false);
+        Entry<String> reserved = pool.reserve();
+
+        assertEquals(pool.terminate().size(), 2);
+        assertTrue(pool.isTerminated());
+        assertTrue(a.isTerminated());
+        assertEquals(pool.size(), 0);
+        assertNull(pool.acquire());
+        assertNull(pool.reserve());
+        assertFalse(reserved.enable("b", false));
+        assertTrue(pool.terminate().isEmpty());
+    }
+
+    private Entry<String> enable(String pooled, boolean acquire)
+    {
+        Entry<String> entry = pool.reserve();
+        assertTrue(entry.enable(pooled, acquire));
+        return entry;
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.proofpoint.reporting.Gauge;
+import com.proofpoint.stats.CounterStat;
+import com.proofpoint.stats.GradientLimit;
+import jakarta.annotation.Nullable;
+import org.weakref.jmx.Nested;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Decides which requests to the main port are admitted for handling.
+ * <p>
+ * Requests for health paths are always admitted. Other requests are
+ * rejected if they waited longer than the maximum queue time before being
+ * handled or if the server is at its concurrency limit. When adaptive, the
+ * limit is a {@link GradientLimit}, which grows while request latency stays
+ * close to the long-term latency and shrinks when latency rises, indicating
+ * queueing in the server.
+ */
+public class AdmissionControl
+{
+    static final Set<String> ALWAYS_ADMITTED_PATHS = Set.of("/liveness", "/inrotation.txt");
+
+    // Only updated while synchronized on this
+    @Nullable
+    private final GradientLimit adaptiveLimit;
+    private final long maxQueueTimeNanos;
+    private final IntSupplier queueDepth;
+    private final Ticker ticker;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final CounterStat rejectedConcurrencyLimit = new CounterStat();
+    private final CounterStat rejectedQueueTime = new CounterStat();
+    private volatile int limit;
+
+    AdmissionControl(HttpServerConfig config, IntSupplier queueDepth)
+    {
+        this(config, queueDepth, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    AdmissionControl(HttpServerConfig config, IntSupplier queueDepth, Ticker ticker)
+    {
+        requireNonNull(config, "config is null");
+        limit = config.getAdmissionControlLimit();
+        if (config.isAdmissionControlAdaptive()) {
+            int minLimit = config.getAdmissionControlLimitMin();
+            int maxLimit = config.getAdmissionControlLimitMax();
+            checkArgument(minLimit <= limit && limit <= maxLimit,
+                    "admission control limit must be between min and max");
+            adaptiveLimit = new GradientLimit(limit, minLimit, maxLimit);
+        }
+        else {
+            adaptiveLimit = null;
+        }
+        if (config.getAdmissionControlMaxQueueTime() == null) {
+            maxQueueTimeNanos = Long.MAX_VALUE;
+        }
+        else {
+            maxQueueTimeNanos = config.getAdmissionControlMaxQueueTime().roundTo(NANOSECONDS);
+        }
+        this.queueDepth = requireNonNull(queueDepth, "queueDepth is null");
+        this.ticker = requireNonNull(ticker, "ticker is null");
+    }
+
+    static boolean isAlwaysAdmitted(String path)
+    {
+        return ALWAYS_ADMITTED_PATHS.contains(path);
+    }
+
+    /**
+     * Acquire a permit to handle a request.
+     *
+     * @param queueTimeNanos the time from the request headers being parsed
+     * until the request is being handled
+     * @return the permit, or null if the request is to be rejected
+     */
+    @Nullable
+    Permit tryAcquire(long queueTimeNanos)
+    {
+        if (queueTimeNanos > maxQueueTimeNanos) {
+            rejectedQueueTime.add(1);
+            return null;
+        }
+
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                rejectedConcurrencyLimit.add(1);
+                return null;
+            }
+        }
+        while (!inFlight.compareAndSet(current, current + 1));
+        return new Permit(current + 1);
+    }
+
+    class Permit
+    {
+        private final long startTick = ticker.read();
+        private final int inFlightAtStart;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(int inFlightAtStart)
+        {
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * Release the permit, using the request's latency as a sample.
+         */
+        void release()
+        {
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+                if (adaptiveLimit != null) {
+                    sample(ticker.read() - startTick, inFlightAtStart);
+                }
+            }
+        }
+    }
+
+    private synchronized void sample(long rttNanos, int inFlightAtStart)
+    {
+        adaptiveLimit.sample(rttNanos, inFlightAtStart);
+        limit = adaptiveLimit.getLimit();
+    }
+
+    @Gauge
+    public int getLimit()
+    {
+        return limit;
+    }
+
+    @Gauge
+    public int getInFlight()
+    {
+        return inFlight.get();
+    }
+
+    @Gauge
+    public int getQueueDepth()
+    {
+        return queueDepth.getAsInt();
+    }
+
+    @Nested
+    public CounterStat getRejectedConcurrencyLimit()
+    {
+        return rejectedConcurrencyLimit;
+    }
+
+    @Nested
+    public CounterStat getRejectedQueueTime()
+    {
+        return rejectedQueueTime;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import com.proofpoint.http.server.AdmissionControl.Permit;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpURI;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.NanoTime;
+
+import static java.lang.Math.ceil;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.eclipse.jetty.http.HttpStatus.SERVICE_UNAVAILABLE_503;
+
+class AdmissionControlHandler
+        extends Handler.Wrapper
+{
+    private final AdmissionControl admissionControl;
+    private final String retryAfter;
+
+    AdmissionControlHandler(Handler handler, AdmissionControl admissionControl, HttpServerConfig config)
+    {
+        super(handler);
+        this.admissionControl = requireNonNull(admissionControl, "admissionControl is null");
+        retryAfter = String.valueOf((long) ceil(config.getAdmissionControlRetryAfter().getValue(SECONDS)));
+    }
+
+    @Override
+    public boolean handle(Request request, Response response, Callback callback)
+            throws Exception
+    {
+        HttpURI uri = request.getHttpURI();
+        if (uri != null && AdmissionControl.isAlwaysAdmitted(uri.getPath())) {
+            return super.handle(request, response, callback);
+        }
+
+        // Same interval as RequestTiming.dispatchToHandling()
+        Permit permit = admissionControl.tryAcquire(NanoTime.since(request.getHeadersNanoTime()));
+        if (permit == null) {
+            response.setStatus(SERVICE_UNAVAILABLE_503);
+            response.getHeaders().put(HttpHeader.RETRY_AFTER, retryAfter);
+            response.write(true, null, callback);
+            return true;
+        }
+
+        boolean handled = false;
+        try {
+            handled = super.handle(request, response, Callback.from(callback, permit::release));
+            return handled;
+        }
+        finally {
+            if (!handled) {
+                permit.release();
+            }
+        }
+    }
+}
@@ -16,7 +16,9 @@
 package com.proofpoint.http.server;
 
 import com.google.common.collect.ImmutableSet;
+import jakarta.annotation.Nullable;
 
+import java.net.Inet6Address;
 import java.net.InetAddress;
 import java.util.Arrays;
 import java.util.Collection;
@@ -27,15 +29,29 @@ import java.util.stream.Collectors;
 public class CidrSet
 {
     private final Set<InetNetwork> cidrs;
+    private final Node ipv4Root;
+    private final Node ipv6Root;
 
     private CidrSet(Collection<InetNetwork> cidrs) {
         this.cidrs = Set.copyOf(cidrs);
+        Node ipv4Root = null;
+        Node ipv6Root = null;
+        for (InetNetwork cidr : this.cidrs) {
+            if (cidr.isIpv6()) {
+                ipv6Root = insert(ipv6Root, cidr.getPrefix(), cidr.getPrefixLength());
+            }
+            else {
+                ipv4Root = insert(ipv4Root, cidr.getPrefix(), cidr.getPrefixLength());
+            }
+        }
+        this.ipv4Root = ipv4Root;
+        this.ipv6Root = ipv6Root;
     }
 
     /**
      * Returns a {@link CidrSet} from a string.
      *
-     * @param cidrList Comma-separated list of IPv4 CIDR blocks. For now only IPv4 CIDR blocks are supported.
+     * @param cidrList Comma-separated list of IPv4 or IPv6 CIDR blocks.
      * @return A {@link CidrSet} identifying all addresses in the blocks in {@code cidrList}.
      */
     public static CidrSet fromString(String cidrList) {
@@ -61,11 +77,16 @@ public class CidrSet
      */
     public boolean containsAddress(InetAddress address)
     {
-        InetAddress inetAddress = address;
-        for (InetNetwork cidr : cidrs) {
-            if (cidr.containsAddress(inetAddress)) {
+        byte[] key = address.getAddress();
+        Node node = (address instanceof Inet6Address) ? ipv6Root : ipv4Root;
+        while (node != null) {
+            if (commonPrefixLength(node.key, key, node.length) < node.length) {
+                return false;
+            }
+            if (node.terminal) {
                 return true;
             }
+            node = node.child(bitAt(key, node.length));
         }
 
         return false;
@@ -78,6 +99,88 @@ public class CidrSet
                 .build());
     }
 
+    private static Node insert(@Nullable Node node, byte[] key, int length)
+    {
+        if (node == null) {
+            return new Node(key, length, true);
+        }
+        int common = commonPrefixLength(node.key, key, Math.min(node.length, length));
+        if (common == node.length) {
+            if (length == node.length) {
+                node.terminal = true;
+            }
+            else {
+                int bit = bitAt(key, node.length);
+                node.setChild(bit, insert(node.child(bit), key, length));
+            }
+            return node;
+        }
+
+        Node parent;
+        if (common == length) {
+            parent = new Node(key, length, true);
+        }
+        else {
+            parent = new Node(key, common, false);
+            parent.setChild(bitAt(key, common), new Node(key, length, true));
+        }
+        parent.setChild(bitAt(node.key, common), node);
+        return parent;
+    }
+
+    private static int commonPrefixLength(byte[] a, byte[] b, int maxLength)
+    {
+        for (int i = 0; i * 8 < maxLength; i++) {
+            int difference = (a[i] ^ b[i]) & 0xff;
+            if (difference != 0) {
+                return Math.min(i * 8 + Integer.numberOfLeadingZeros(difference) - 24, maxLength);
+            }
+        }
+        return maxLength;
+    }
+
+    private static int bitAt(byte[] key, int index)
+    {
+        return (key[index / 8] >> (7 - index % 8)) & 1;
+    }
+
+    /**
+     * Node of a Patricia trie over the address bits. A lookup descends
+     * through at most one node per distinct branch point, rather than
+     * testing each CIDR block in turn.
+     */
+    private static final class Node
+    {
+        private final byte[] key;
+        private final int length;
+        private boolean terminal;
+        private Node zero;
+        private Node one;
+
+        Node(byte[] key, int length, boolean terminal)
+        {
+            this.key = key;
+            this.length = length;
+            this.terminal = terminal;
+        }
+
+        @Nullable
+        Node child(int bit)
+        {
+            return bit == 0 ? zero : one;
+        }
+
+        void setChild(int bit, Node child)
+        {
+            if (bit == 0) {
+                zero = child;
+            }
+            else {
+                one = child;
+            }
+        }
+    }
+
     @Override
     public boolean equals(Object o)
     {
@@ -16,6 +16,8 @@
 package com.proofpoint.http.server;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hashing;
 import jakarta.annotation.Nullable;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -25,23 +27,54 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.eclipse.jetty.http.HttpMethod;
 import org.eclipse.jetty.http.MimeTypes;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URL;
+import java.net.URLConnection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.net.HttpHeaders.CONTENT_ENCODING;
+import static com.google.common.net.HttpHeaders.ETAG;
+import static com.google.common.net.HttpHeaders.IF_MODIFIED_SINCE;
+import static com.google.common.net.HttpHeaders.IF_NONE_MATCH;
+import static com.google.common.net.HttpHeaders.LAST_MODIFIED;
+import static com.google.common.net.HttpHeaders.VARY;
+import static java.lang.Double.parseDouble;
 import static java.util.Objects.requireNonNull;
 
 /**
  * Serves files from a given folder on the classpath through jetty.
  * Intended to serve a couple of static files e.g. for javascript or HTML.
+ * <p>
+ * The content of each file is cached in memory along with its
+ * compressed variants: a gzip variant, either from a precompressed
+ * {@code .gz} file next to it on the classpath or compressed when first
+ * served, and brotli and zstd variants from precompressed {@code .br}
+ * and {@code .zst} files. Responses carry an ETag and Last-Modified and
+ * conditional requests are answered with 304 Not Modified.
  */
 // Forked from https://github.com/NessComputing/components-ness-httpserver/
 public class ClassPathResourceFilter
         extends HttpFilter
 {
     private static final MimeTypes MIME_TYPES;
+    // In order of preference
+    private static final Map<String, String> PRECOMPRESSED_EXTENSIONS = ImmutableMap.of(
+            "br", ".br",
+            "zstd", ".zst",
+            "gzip", ".gz");
 
     static {
         MIME_TYPES = new MimeTypes();
@@ -50,6 +83,7 @@ public class ClassPathResourceFilter
     private final String baseUri;
     private final String classPathResourceBase;
     private final List<String> welcomeFiles;
+    private final ConcurrentMap<String, CachedResource> cache = new ConcurrentHashMap<>();
 
     public ClassPathResourceFilter(String baseUri, String classPathResourceBase, List<String> welcomeFiles)
     {
@@ -88,8 +122,8 @@ public class ClassPathResourceFilter
             return;
         }
 
-        URL resource = getResource(resourcePath);
-        if (resource == null) {
+        String resourceName = getResourceName(resourcePath);
+        if (resourceName == null) {
             chain.doFilter(request, response);
             return;
         }
@@ -106,22 +140,39 @@ public class ClassPathResourceFilter
             }
         }
 
-        InputStream resourceStream = null;
+        CachedResource resource;
         try {
-            resourceStream = resource.openStream();
+            resource = cache.computeIfAbsent(resourceName, ClassPathResourceFilter::loadResource);
+        }
+        catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
 
-            String contentType = MIME_TYPES.getMimeByExtension(resource.toString());
-            response.setContentType(contentType);
+        Variant variant = resource.select(request.getHeaders("Accept-Encoding").asIterator());
+        response.setContentType(resource.contentType());
+        if (resource.variants().size() > 1) {
+            response.setHeader(VARY, "Accept-Encoding");
+        }
+        response.setHeader(ETAG, variant.etag());
+        if (resource.lastModified() > 0) {
+            response.setDateHeader(LAST_MODIFIED, resource.lastModified());
+        }
 
-            if (skipContent) {
-                return;
-            }
+        if (resource.isNotModified(request)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
 
-            resourceStream.transferTo(response.getOutputStream());
+        if (variant.encoding() != null) {
+            response.setHeader(CONTENT_ENCODING, variant.encoding());
         }
-        finally {
-            closeQuietly(resourceStream);
+        response.setContentLength(variant.content().length);
+
+        if (skipContent) {
+            return;
         }
+
+        response.getOutputStream().write(variant.content());
     }
 
     private String getResourcePath(HttpServletRequest request)
@@ -152,33 +203,192 @@ public class ClassPathResourceFilter
         return pathInfo;
     }
 
-    private URL getResource(String resourcePath)
+    @Nullable
+    private String getResourceName(String resourcePath)
     {
         checkArgument(resourcePath.startsWith("/"), "resourcePath does not start with a slash: %s", resourcePath);
 
         if (!"/".equals(resourcePath)) {
-            return getClass().getClassLoader().getResource(classPathResourceBase + resourcePath);
+            String resourceName = classPathResourceBase + resourcePath;
+            if (getClassLoader().getResource(resourceName) != null) {
+                return resourceName;
+            }
+            return null;
         }
 
         // check welcome files
         for (String welcomeFile : welcomeFiles) {
-            URL resource = getClass().getClassLoader().getResource(classPathResourceBase + welcomeFile);
-            if (resource != null) {
-                return resource;
+            String resourceName = classPathResourceBase + welcomeFile;
+            if (getClassLoader().getResource(resourceName) != null) {
+                return resourceName;
             }
         }
         return null;
     }
 
-    private static void closeQuietly(@Nullable InputStream in)
+    private static ClassLoader getClassLoader()
+    {
+        return ClassPathResourceFilter.class.getClassLoader();
+    }
+
+    private static CachedResource loadResource(String resourceName)
+    {
+        try {
+            URL url = getClassLoader().getResource(resourceName);
+            if (url == null) {
+                throw new IOException("Resource disappeared from classpath: " + resourceName);
+            }
+            URLConnection connection = url.openConnection();
+            // HTTP dates have a resolution of seconds
+            long lastModified = connection.getLastModified() / 1000 * 1000;
+            byte[] content;
+            try (InputStream in = connection.getInputStream()) {
+                content = in.readAllBytes();
+            }
+
+            String hash = Hashing.murmur3_128().hashBytes(content).toString();
+            ImmutableList.Builder<Variant> variants = ImmutableList.builder();
+            for (Map.Entry<String, String> entry : PRECOMPRESSED_EXTENSIONS.entrySet()) {
+                String encoding = entry.getKey();
+                byte[] compressed = readResource(resourceName + entry.getValue());
+                if (compressed == null && encoding.equals("gzip")) {
+                    compressed = gzip(content);
+                    if (compressed.length >= content.length) {
+                        compressed = null;
+                    }
+                }
+                if (compressed != null) {
+                    variants.add(new Variant(encoding, compressed, '"' + hash + '-' + encoding + '"'));
+                }
+            }
+            variants.add(new Variant(null, content, '"' + hash + '"'));
+
+            return new CachedResource(MIME_TYPES.getMimeByExtension(resourceName), lastModified, variants.build());
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Nullable
+    private static byte[] readResource(String resourceName)
+            throws IOException
+    {
+        try (InputStream in = getClassLoader().getResourceAsStream(resourceName)) {
+            if (in == null) {
+                return null;
+            }
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] gzip(byte[] content)
+            throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 2);
+        try (GZIPOutputStream gzip = new BestCompressionGZIPOutputStream(out)) {
+            gzip.write(content);
+        }
+        return out.toByteArray();
+    }
+
+    private static class BestCompressionGZIPOutputStream
+            extends GZIPOutputStream
     {
-        if (in != null) {
-            try {
-                in.close();
+        BestCompressionGZIPOutputStream(OutputStream out)
+                throws IOException
+        {
+            super(out);
+            def.setLevel(Deflater.BEST_COMPRESSION);
+        }
+    }
+
+    /**
+     * @return the quality values of the content codings in the request's
+     * Accept-Encoding headers
+     */
+    static Map<String, Double> acceptedEncodings(Iterator<String> acceptEncodingHeaders)
+    {
+        Map<String, Double> accepted = new HashMap<>();
+        while (acceptEncodingHeaders.hasNext()) {
+            for (String element : acceptEncodingHeaders.next().split(",")) {
+                String[] parts = element.split(";");
+                String coding = parts[0].trim().toLowerCase(Locale.ENGLISH);
+                if (!coding.isEmpty()) {
+                    accepted.put(coding, qualityOf(parts));
+                }
             }
-            catch (IOException e) {
-                // ignored
+        }
+        return accepted;
+    }
+
+    private static double qualityOf(String[] parts)
+    {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return parseDouble(parameter.substring(2));
+                }
+                catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    record Variant(@Nullable String encoding, byte[] content, String etag)
+    {
+    }
+
+    record CachedResource(String contentType, long lastModified, List<Variant> variants)
+    {
+        Variant select(Iterator<String> acceptEncodingHeaders)
+        {
+            Map<String, Double> accepted = acceptedEncodings(acceptEncodingHeaders);
+            for (Variant variant : variants) {
+                if (variant.encoding() == null) {
+                    return variant;
+                }
+                double quality = accepted.getOrDefault(variant.encoding(), accepted.getOrDefault("*", 0.0));
+                if (quality > 0) {
+                    return variant;
+                }
+            }
+            throw new IllegalStateException("resource has no identity variant");
+        }
+
+        boolean isNotModified(HttpServletRequest request)
+        {
+            String ifNoneMatch = request.getHeader(IF_NONE_MATCH);
+            if (ifNoneMatch != null) {
+                for (String tag : ifNoneMatch.split(",")) {
+                    tag = tag.trim();
+                    if (tag.startsWith("W/")) {
+                        tag = tag.substring(2);
+                    }
+                    if (tag.equals("*")) {
+                        return true;
+                    }
+                    for (Variant variant : variants) {
+                        if (tag.equals(variant.etag())) {
+                            return true;
+                        }
+                    }
+                }
+                return false;
+            }
+
+            if (lastModified > 0) {
+                try {
+                    long ifModifiedSince = request.getDateHeader(IF_MODIFIED_SINCE);
+                    return ifModifiedSince != -1 && lastModified <= ifModifiedSince;
+                }
+                catch (IllegalArgumentException ignored) {
+                }
             }
+            return false;
         }
     }
 }
@@ -16,17 +16,18 @@
 package com.proofpoint.http.server;
 
 import com.google.common.base.Splitter;
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Lists;
 import com.google.common.net.InetAddresses;
 import jakarta.inject.Inject;
 import jakarta.servlet.http.HttpServletRequest;
 
+import java.util.ArrayList;
 import java.util.Enumeration;
-import java.util.stream.StreamSupport;
+import java.util.List;
 
 public class ClientAddressExtractor
 {
+    static final String CLIENT_ADDRESS_ATTRIBUTE = ClientAddressExtractor.class.getName() + ".client_address";
+    private static final Splitter SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
     private static final CidrSet PRIVATE_NETWORKS = CidrSet.fromString(
             "127.0.0.0/8," +
             "169.254.0.0/16," +
@@ -48,21 +49,35 @@ public class ClientAddressExtractor
         trustedNetworks = PRIVATE_NETWORKS.union(config.getInternalNetworks());
     }
 
+    /**
+     * Determine the address of the client, skipping over trusted proxies in
+     * X-Forwarded-For. The result is cached in a request attribute, so
+     * subsequent calls for the same request don't repeat the work.
+     */
     public String clientAddressFor(HttpServletRequest request)
     {
-        ImmutableList.Builder<String> builder = ImmutableList.builder();
+        if (request.getAttribute(CLIENT_ADDRESS_ATTRIBUTE) instanceof String cached) {
+            return cached;
+        }
+        String clientAddress = extractClientAddress(request);
+        request.setAttribute(CLIENT_ADDRESS_ATTRIBUTE, clientAddress);
+        return clientAddress;
+    }
+
+    private String extractClientAddress(HttpServletRequest request)
+    {
+        List<String> addresses = new ArrayList<>();
         for (Enumeration<String> e = request.getHeaders("X-FORWARDED-FOR"); e != null && e.hasMoreElements(); ) {
-            String forwardedFor = e.nextElement();
-            StreamSupport.stream(Splitter.on(',').trimResults().omitEmptyStrings().split(forwardedFor).spliterator(), false)
-                    .map(ClientAddressExtractor::stripIpv6Brackets)
-                    .forEach(builder::add);
+            for (String address : SPLITTER.split(e.nextElement())) {
+                addresses.add(stripIpv6Brackets(address));
+            }
         }
         if (request.getRemoteAddr() != null) {
-            builder.add(stripIpv6Brackets(request.getRemoteAddr()));
+            addresses.add(stripIpv6Brackets(request.getRemoteAddr()));
         }
         String clientAddress = null;
-        ImmutableList<String> clientAddresses = builder.build();
-        for (String address : Lists.reverse(clientAddresses)) {
+        for (int i = addresses.size() - 1; i >= 0; i--) {
+            String address = addresses.get(i);
             try {
                 if (!trustedNetworks.containsAddress(InetAddresses.forString(address))) {
                     clientAddress = address;
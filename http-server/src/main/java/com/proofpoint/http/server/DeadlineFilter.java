@@ -0,0 +1,97 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import com.proofpoint.tracetoken.Deadline;
+import com.proofpoint.tracetoken.DeadlineScope;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.FilterConfig;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.eclipse.jetty.ee10.servlet.ServletContextRequest;
+
+import java.io.IOException;
+
+import static com.proofpoint.tracetoken.Deadline.deadlineAtNanoTime;
+import static com.proofpoint.tracetoken.DeadlineManager.registerDeadline;
+import static jakarta.servlet.http.HttpServletResponse.SC_GATEWAY_TIMEOUT;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Associates the deadline sent by the client in the X-Proofpoint-Deadline
+ * header with the thread handling the request, so that requests made
+ * while handling it inherit the deadline. Requests whose deadline expired
+ * while they were queued are rejected without being processed.
+ */
+class DeadlineFilter
+        implements Filter
+{
+    private static final String DEADLINE_HEADER = "X-Proofpoint-Deadline";
+
+    @Override
+    public void init(FilterConfig filterConfig)
+    {
+    }
+
+    @Override
+    public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain chain)
+            throws IOException, ServletException
+    {
+        HttpServletRequest request = (HttpServletRequest) servletRequest;
+        HttpServletResponse response = (HttpServletResponse) servletResponse;
+
+        Deadline deadline = parseDeadline(request);
+        if (deadline != null && deadline.isExpired()) {
+            response.setHeader("X-Proofpoint-Retry", "no");
+            response.sendError(SC_GATEWAY_TIMEOUT, "Deadline expired before the request was processed");
+            return;
+        }
+
+        try (DeadlineScope ignored = registerDeadline(deadline)) {
+            chain.doFilter(request, response);
+        }
+    }
+
+    @Override
+    public void destroy()
+    {
+    }
+
+    private static Deadline parseDeadline(HttpServletRequest request)
+    {
+        String header = request.getHeader(DEADLINE_HEADER);
+        if (header == null) {
+            return null;
+        }
+        long remainingMillis;
+        try {
+            remainingMillis = Long.parseLong(header.trim());
+        }
+        catch (NumberFormatException e) {
+            return null;
+        }
+
+        // The remaining time is relative to when the request arrived, not when it is handled
+        long arrivalNanos = System.nanoTime();
+        ServletContextRequest servletContextRequest = ServletContextRequest.getServletContextRequest(request);
+        if (servletContextRequest != null) {
+            arrivalNanos = servletContextRequest.getHeadersNanoTime();
+        }
+        return deadlineAtNanoTime(arrivalNanos + MILLISECONDS.toNanos(remainingMillis));
+    }
+}
@@ -0,0 +1,379 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import org.eclipse.jetty.http.BadMessageException;
+import org.eclipse.jetty.util.compression.CompressionPool;
+import org.eclipse.jetty.util.compression.InflaterPool;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+import static java.util.Objects.requireNonNull;
+import static org.eclipse.jetty.http.HttpStatus.PAYLOAD_TOO_LARGE_413;
+
+/**
+ * Decompresses a gzip or deflate encoded request body using an
+ * {@link Inflater} borrowed from a pool, failing the request with a
+ * 413 response if the decompressed body exceeds the configured size or
+ * compression ratio.
+ */
+class DecompressingInputStream
+        extends InputStream
+{
+    // Highly compressible bodies are normal when small
+    private static final long MIN_RATIO_CHECK_SIZE = 1024 * 1024;
+
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    enum Format
+    {
+        GZIP, DEFLATE
+    }
+
+    interface Listener
+    {
+        /**
+         * Called once the body has been read, the stream closed, or the
+         * request completed.
+         */
+        void completed(long compressedBytes, long decompressedBytes);
+
+        /**
+         * Called when the body exceeds the maximum size or ratio.
+         */
+        void rejected();
+    }
+
+    private final InputStream in;
+    private final Format format;
+    private final long maxSize;
+    private final double maxRatio;
+    private final InflaterPool inflaterPool;
+    private final Listener listener;
+    private final byte[] buffer = new byte[8192];
+    private final byte[] singleByte = new byte[1];
+    private CompressionPool<Inflater>.Entry inflaterEntry;
+    private Inflater inflater;
+    private Checksum checksum;
+    private int position;
+    private int limit;
+    private boolean headerRead;
+    private boolean finished;
+    private long compressedBytes;
+    private long decompressedBytes;
+    private long memberBytes;
+
+    /**
+     * @param maxSize maximum decompressed size, or negative for no limit
+     * @param maxRatio maximum ratio of decompressed to compressed size, or
+     * zero for no limit
+     */
+    DecompressingInputStream(InputStream in, Format format, InflaterPool inflaterPool, long maxSize, double maxRatio, Listener listener)
+    {
+        this.in = requireNonNull(in, "in is null");
+        this.format = requireNonNull(format, "format is null");
+        this.maxSize = maxSize;
+        this.maxRatio = maxRatio;
+        this.inflaterPool = requireNonNull(inflaterPool, "inflaterPool is null");
+        this.listener = requireNonNull(listener, "listener is null");
+    }
+
+    @Override
+    public int read()
+            throws IOException
+    {
+        return read(singleByte, 0, 1) == -1 ? -1 : singleByte[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len)
+            throws IOException
+    {
+        if (len == 0) {
+            return 0;
+        }
+        if (finished) {
+            return -1;
+        }
+        if (inflater == null) {
+            // Borrowed on first read, so handlers that never read the body don't hold one
+            inflaterEntry = inflaterPool.acquire();
+            inflater = inflaterEntry.get();
+        }
+
+        while (true) {
+            if (!headerRead) {
+                if (!readHeader()) {
+                    finish();
+                    return -1;
+                }
+                headerRead = true;
+                inflater.setInput(buffer, position, limit - position);
+            }
+
+            int count;
+            try {
+                count = inflater.inflate(b, off, len);
+            }
+            catch (DataFormatException e) {
+                throw new ZipException(e.getMessage());
+            }
+            position = limit - inflater.getRemaining();
+
+            if (count > 0) {
+                if (checksum != null) {
+                    checksum.update(b, off, count);
+                }
+                memberBytes += count;
+                decompressedBytes += count;
+                checkLimits();
+                return count;
+            }
+
+            if (inflater.finished()) {
+                readTrailer();
+                inflater.reset();
+                headerRead = false;
+                if (format == Format.DEFLATE) {
+                    finish();
+                    return -1;
+                }
+                continue;
+            }
+            if (inflater.needsDictionary()) {
+                throw new ZipException("Deflate preset dictionaries are not supported");
+            }
+            if (inflater.needsInput()) {
+                if (!fill()) {
+                    throw new EOFException("Unexpected end of compressed request body");
+                }
+                inflater.setInput(buffer, position, limit - position);
+            }
+        }
+    }
+
+    @Override
+    public int available()
+    {
+        return finished ? 0 : 1;
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        finish();
+        in.close();
+    }
+
+    /**
+     * Return the inflater to the pool and report the sizes read, without
+     * closing the underlying stream.
+     */
+    void finish()
+    {
+        if (!finished) {
+            finished = true;
+            if (inflaterEntry != null) {
+                inflaterEntry.release();
+                inflaterEntry = null;
+                inflater = null;
+            }
+            listener.completed(compressedBytes, decompressedBytes);
+        }
+    }
+
+    /**
+     * @return false if at the end of a gzip body with no further members
+     */
+    private boolean readHeader()
+            throws IOException
+    {
+        memberBytes = 0;
+        if (format == Format.DEFLATE) {
+            if (!ensureAvailable(2)) {
+                // Raw deflate data too short to have a zlib header
+                checksum = null;
+                return true;
+            }
+            int cmf = buffer[position] & 0xff;
+            int flg = buffer[position + 1] & 0xff;
+            if ((cmf & 0x0f) == 8 && ((cmf << 8) | flg) % 31 == 0) {
+                if ((flg & 0x20) != 0) {
+                    throw new ZipException("Deflate preset dictionaries are not supported");
+                }
+                position += 2;
+                checksum = new Adler32();
+            }
+            else {
+                // Some clients send raw deflate data without the zlib wrapper
+                checksum = null;
+            }
+            return true;
+        }
+
+        if (position == limit && !fill()) {
+            if (compressedBytes == 0) {
+                throw new EOFException("Empty gzip request body");
+            }
+            return false;
+        }
+        if (readUnsignedShort() != GZIP_MAGIC) {
+            throw new ZipException("Not in GZIP format");
+        }
+        if (readUnsignedByte() != 8) {
+            throw new ZipException("Unsupported compression method");
+        }
+        int flags = readUnsignedByte();
+        skipBytes(6);
+        if ((flags & FEXTRA) != 0) {
+            skipBytes(readUnsignedShort());
+        }
+        if ((flags & FNAME) != 0) {
+            skipString();
+        }
+        if ((flags & FCOMMENT) != 0) {
+            skipString();
+        }
+        if ((flags & FHCRC) != 0) {
+            skipBytes(2);
+        }
+        checksum = new CRC32();
+        return true;
+    }
+
+    private void readTrailer()
+            throws IOException
+    {
+        if (checksum == null) {
+            return;
+        }
+        if (format == Format.DEFLATE) {
+            long expected = ((long) readUnsignedByte() << 24) | (readUnsignedByte() << 16) | (readUnsignedByte() << 8) | readUnsignedByte();
+            if (expected != checksum.getValue()) {
+                throw new ZipException("Corrupt deflate request body (incorrect checksum)");
+            }
+            return;
+        }
+        long expectedCrc = readUnsignedInt();
+        long expectedSize = readUnsignedInt();
+        if (expectedCrc != checksum.getValue()) {
+            throw new ZipException("Corrupt GZIP trailer (incorrect CRC)");
+        }
+        if (expectedSize != (memberBytes & 0xffff_ffffL)) {
+            throw new ZipException("Corrupt GZIP trailer (incorrect size)");
+        }
+    }
+
+    private void checkLimits()
+    {
+        if (maxSize >= 0 && decompressedBytes > maxSize) {
+            listener.rejected();
+            finish();
+            throw new BadMessageException(PAYLOAD_TOO_LARGE_413, "Decompressed request body exceeds maximum size");
+        }
+        if (maxRatio > 0 && decompressedBytes > MIN_RATIO_CHECK_SIZE && decompressedBytes > compressedBytes * maxRatio) {
+            listener.rejected();
+            finish();
+            throw new BadMessageException(PAYLOAD_TOO_LARGE_413, "Request body exceeds maximum compression ratio");
+        }
+    }
+
+    private boolean fill()
+            throws IOException
+    {
+        if (position < limit) {
+            return true;
+        }
+        int count = in.read(buffer, 0, buffer.length);
+        if (count <= 0) {
+            position = 0;
+            limit = 0;
+            return false;
+        }
+        compressedBytes += count;
+        position = 0;
+        limit = count;
+        return true;
+    }
+
+    private boolean ensureAvailable(int count)
+            throws IOException
+    {
+        if (limit - position >= count) {
+            return true;
+        }
+        System.arraycopy(buffer, position, buffer, 0, limit - position);
+        limit -= position;
+        position = 0;
+        while (limit < count) {
+            int read = in.read(buffer, limit, buffer.length - limit);
+            if (read <= 0) {
+                return false;
+            }
+            compressedBytes += read;
+            limit += read;
+        }
+        return true;
+    }
+
+    private int readUnsignedByte()
+            throws IOException
+    {
+        if (!fill()) {
+            throw new EOFException("Unexpected end of compressed request body");
+        }
+        return buffer[position++] & 0xff;
+    }
+
+    private int readUnsignedShort()
+            throws IOException
+    {
+        return readUnsignedByte() | (readUnsignedByte() << 8);
+    }
+
+    private long readUnsignedInt()
+            throws IOException
+    {
+        return readUnsignedShort() | ((long) readUnsignedShort() << 16);
+    }
+
+    private void skipBytes(int count)
+            throws IOException
+    {
+        for (int i = 0; i < count; i++) {
+            readUnsignedByte();
+        }
+    }
+
+    private void skipString()
+            throws IOException
+    {
+        while (readUnsignedByte() != 0) {
+            // skip
+        }
+    }
+}
@@ -24,4 +24,6 @@ public interface DetailedRequestStats
     SparseTimeStat requestTimeByCode(@Key("responseCode") int responseCode, @Key("responseCodeFamily") int responseCodeFamily);
 
     SparseCounterStat tlsRequest(@Key("protocolVersion") String protocolVersion, @Key("cipherSuite") String cipherSuite);
+
+    RouteRequestStats routeStats(@Key("method") String method, @Key("route") String route);
 }
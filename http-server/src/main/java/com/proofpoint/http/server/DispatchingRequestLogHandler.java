@@ -30,15 +30,19 @@ public class DispatchingRequestLogHandler
     private static final String REQUEST_SSL_SESSION_ATTRIBUTE = "org.eclipse.jetty.servlet.request.ssl_session";
 
     private final RequestLog logger;
+    private final RequestLogPolicy logPolicy;
     private final RequestStats stats;
     private final DetailedRequestStats detailedRequestStats;
+    private final RouteStats routeStats;
     private final ClientAddressExtractor clientAddressExtractor;
 
-    public DispatchingRequestLogHandler(@Nullable RequestLog logger, RequestStats stats, DetailedRequestStats detailedRequestStats, ClientAddressExtractor clientAddressExtractor)
+    public DispatchingRequestLogHandler(@Nullable RequestLog logger, RequestLogPolicy logPolicy, RequestStats stats, DetailedRequestStats detailedRequestStats, RouteStats routeStats, ClientAddressExtractor clientAddressExtractor)
     {
         this.logger = logger;
+        this.logPolicy = requireNonNull(logPolicy, "logPolicy is null");
         this.stats = requireNonNull(stats, "stats is null");
         this.detailedRequestStats = requireNonNull(detailedRequestStats, "detailedRequestStats is null");
+        this.routeStats = requireNonNull(routeStats, "routeStats is null");
         this.clientAddressExtractor = requireNonNull(clientAddressExtractor, "clientAddressExtractor is null");
     }
 
@@ -47,12 +51,13 @@ public class DispatchingRequestLogHandler
     {
         SSLSession sslSession = (SSLSession) request.getAttribute(REQUEST_SSL_SESSION_ATTRIBUTE);
         RequestTiming timings = RequestTimingEventHandler.timings(request);
-        if (logger != null) {
-            logger.log(HttpRequestEvent.createHttpRequestEvent(request, response, sslSession, timings, clientAddressExtractor));
+        if (logger != null && logPolicy.shouldLog(request, response, timings)) {
+            logger.log(request, response, sslSession, timings, clientAddressExtractor);
         }
 
         stats.record(Request.getContentBytesRead(request), Response.getContentBytesWritten(response), timings.timeToCompletion());
         detailedRequestStats.requestTimeByCode(response.getStatus(), response.getStatus() / 100).add(timings.timeToCompletion());
+        routeStats.record(request, response, timings);
 
         if (sslSession != null) {
             detailedRequestStats.tlsRequest(sslSession.getProtocol(), sslSession.getCipherSuite()).add(1);
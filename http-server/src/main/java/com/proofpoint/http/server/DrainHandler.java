@@ -0,0 +1,82 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpHeaderValue;
+import org.eclipse.jetty.http2.CloseState;
+import org.eclipse.jetty.http2.HTTP2Connection;
+import org.eclipse.jetty.http2.HTTP2Session;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.eclipse.jetty.server.handler.GracefulHandler;
+import org.eclipse.jetty.util.Callback;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Tracks active requests for graceful shutdown and, while the server is
+ * draining, asks clients to stop reusing their connections. Once the server
+ * is stopping, new requests are rejected with a 503.
+ */
+class DrainHandler
+        extends GracefulHandler
+{
+    private final ServerDrain drain;
+
+    DrainHandler(Handler handler, ServerDrain drain)
+    {
+        super(handler);
+        this.drain = requireNonNull(drain, "drain is null");
+    }
+
+    @Override
+    public boolean handle(Request request, Response response, Callback callback)
+            throws Exception
+    {
+        if (drain.isDraining()) {
+            if (isShutdown()) {
+                // GracefulHandler rejects the request
+                drain.rejected();
+            }
+            else if (request.getConnectionMetaData().getConnection() instanceof HTTP2Connection connection) {
+                if (closeConnection(connection)) {
+                    drain.connectionClosed();
+                }
+            }
+            else {
+                response.getHeaders().put(HttpHeader.CONNECTION, HttpHeaderValue.CLOSE.asString());
+                drain.connectionClosed();
+            }
+        }
+        return super.handle(request, response, callback);
+    }
+
+    /**
+     * Sends a GOAWAY to an HTTP/2 session. The client opens a new connection
+     * for further requests and the streams already active complete.
+     *
+     * @return true if the session was not already closing.
+     */
+    static boolean closeConnection(HTTP2Connection connection)
+    {
+        HTTP2Session session = connection.getSession();
+        if (session.getCloseState() != CloseState.NOT_CLOSED) {
+            return false;
+        }
+        session.shutdown();
+        return true;
+    }
+}
@@ -15,6 +15,9 @@
  */
 package com.proofpoint.http.server;
 
+import com.google.common.collect.ImmutableMap;
+import com.proofpoint.http.server.DecompressingInputStream.Format;
+import com.proofpoint.stats.CounterStat;
 import jakarta.servlet.Filter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.FilterConfig;
@@ -23,14 +26,80 @@ import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.eclipse.jetty.util.compression.InflaterPool;
+import org.weakref.jmx.Nested;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Map;
 
-import static com.google.common.base.Ascii.equalsIgnoreCase;
+import static java.util.Objects.requireNonNull;
 
+/**
+ * Decompresses request bodies with a gzip or deflate Content-Encoding.
+ * <p>
+ * Inflaters are borrowed from a pool. Requests whose decompressed body
+ * exceeds the configured maximum size or compression ratio fail with a
+ * 413 response.
+ */
 public class GZipRequestFilter
         implements Filter
 {
+    private static final Map<String, Format> FORMATS = ImmutableMap.of(
+            "gzip", Format.GZIP,
+            "x-gzip", Format.GZIP,
+            "deflate", Format.DEFLATE);
+
+    private final InflaterPool inflaterPool;
+    private final long maxSize;
+    private final double maxRatio;
+    private final CounterStat compressedBytes = new CounterStat();
+    private final CounterStat decompressedBytes = new CounterStat();
+    private final CounterStat rejected = new CounterStat();
+    private final DecompressingInputStream.Listener listener = new DecompressingInputStream.Listener()
+    {
+        @Override
+        public void completed(long compressed, long decompressed)
+        {
+            compressedBytes.add(compressed);
+            decompressedBytes.add(decompressed);
+        }
+
+        @Override
+        public void rejected()
+        {
+            rejected.add(1);
+        }
+    };
+
+    /**
+     * @deprecated Use {@link #GZipRequestFilter(HttpServerConfig, InflaterPool)}.
+     */
+    @Deprecated
+    public GZipRequestFilter()
+    {
+        this(new HttpServerConfig(), new InflaterPool(0, true));
+    }
+
+    public GZipRequestFilter(HttpServerConfig config, InflaterPool inflaterPool)
+    {
+        requireNonNull(config, "config is null");
+        this.inflaterPool = requireNonNull(inflaterPool, "inflaterPool is null");
+        if (config.getRequestDecompressionMaxSize() == null) {
+            maxSize = -1;
+        }
+        else {
+            maxSize = config.getRequestDecompressionMaxSize().toBytes();
+        }
+        if (config.getRequestDecompressionMaxRatio() == null) {
+            maxRatio = 0;
+        }
+        else {
+            maxRatio = config.getRequestDecompressionMaxRatio();
+        }
+    }
+
     @Override
     public void init(FilterConfig filterConfig)
     {
@@ -44,11 +113,23 @@ public class GZipRequestFilter
         HttpServletResponse response = (HttpServletResponse) servletResponse;
 
         String contentEncoding = request.getHeader("content-encoding");
-        if (contentEncoding != null && equalsIgnoreCase(contentEncoding, "gzip")) {
-            filterChain.doFilter(new GZipRequestWrapper(request), servletResponse);
+        Format format = null;
+        if (contentEncoding != null) {
+            format = FORMATS.get(contentEncoding.trim().toLowerCase(Locale.ENGLISH));
         }
-        else {
+        if (format == null) {
             filterChain.doFilter(request, response);
+            return;
+        }
+
+        GZipRequestWrapper wrapper = new GZipRequestWrapper(request, format, this);
+        try {
+            filterChain.doFilter(wrapper, servletResponse);
+        }
+        finally {
+            if (!request.isAsyncStarted()) {
+                wrapper.finish();
+            }
         }
     }
 
@@ -56,4 +137,27 @@ public class GZipRequestFilter
     public void destroy()
     {
     }
+
+    DecompressingInputStream decompress(InputStream in, Format format)
+    {
+        return new DecompressingInputStream(in, format, inflaterPool, maxSize, maxRatio, listener);
+    }
+
+    @Nested
+    public CounterStat getCompressedBytes()
+    {
+        return compressedBytes;
+    }
+
+    @Nested
+    public CounterStat getDecompressedBytes()
+    {
+        return decompressedBytes;
+    }
+
+    @Nested
+    public CounterStat getRejected()
+    {
+        return rejected;
+    }
 }
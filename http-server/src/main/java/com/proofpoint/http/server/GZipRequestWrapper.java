@@ -15,6 +15,7 @@
  */
 package com.proofpoint.http.server;
 
+import com.proofpoint.http.server.DecompressingInputStream.Format;
 import jakarta.servlet.ReadListener;
 import jakarta.servlet.ServletInputStream;
 import jakarta.servlet.http.HttpServletRequest;
@@ -24,26 +25,46 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Enumeration;
 import java.util.NoSuchElementException;
-import java.util.zip.GZIPInputStream;
 
 import static com.google.common.base.Ascii.equalsIgnoreCase;
+import static java.util.Objects.requireNonNull;
 
 class GZipRequestWrapper
         extends HttpServletRequestWrapper
 {
     private final HttpServletRequest request;
+    private final Format format;
+    private final GZipRequestFilter filter;
+    private DecompressingInputStream decompressingStream;
+    private ServletInputStream inputStream;
 
-    GZipRequestWrapper(HttpServletRequest request)
+    GZipRequestWrapper(HttpServletRequest request, Format format, GZipRequestFilter filter)
     {
         super(request);
         this.request = request;
+        this.format = requireNonNull(format, "format is null");
+        this.filter = requireNonNull(filter, "filter is null");
     }
 
     @Override
     public ServletInputStream getInputStream()
             throws IOException
     {
-        return new ServletInputStreamFromInputStream(new GZIPInputStream(request.getInputStream()));
+        if (inputStream == null) {
+            decompressingStream = filter.decompress(request.getInputStream(), format);
+            inputStream = new ServletInputStreamFromInputStream(decompressingStream);
+        }
+        return inputStream;
+    }
+
+    /**
+     * Release the resources used to decompress the body, if any.
+     */
+    void finish()
+    {
+        if (decompressingStream != null) {
+            decompressingStream.finish();
+        }
     }
 
     @Override
@@ -271,7 +271,7 @@ class HttpRequestEvent
         return tlsCipherSuite;
     }
 
-    private static HttpServletRequest requestAdapter(Request request)
+    static HttpServletRequest requestAdapter(Request request)
     {
         return new HttpServletRequest()
         {
@@ -464,7 +464,7 @@ class HttpRequestEvent
             @Override
             public Object getAttribute(String s)
             {
-                throw new UnsupportedOperationException();
+                return request.getAttribute(s);
             }
 
             @Override
@@ -578,7 +578,7 @@ class HttpRequestEvent
             @Override
             public void setAttribute(String s, Object o)
             {
-                throw new UnsupportedOperationException();
+                request.setAttribute(s, o);
             }
 
             @Override
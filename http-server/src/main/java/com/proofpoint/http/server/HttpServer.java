@@ -19,6 +19,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Ordering;
 import com.proofpoint.bootstrap.AcceptRequests;
+import com.proofpoint.bootstrap.StopTraffic;
 import com.proofpoint.http.server.HttpServerBinder.HttpResourceBinding;
 import com.proofpoint.node.NodeInfo;
 import com.proofpoint.stats.MaxGauge;
@@ -35,14 +36,17 @@ import org.eclipse.jetty.ee10.servlet.SessionHandler;
 import org.eclipse.jetty.ee10.servlet.security.ConstraintMapping;
 import org.eclipse.jetty.ee10.servlet.security.ConstraintSecurityHandler;
 import org.eclipse.jetty.http.UriCompliance;
+import org.eclipse.jetty.http2.HTTP2Connection;
 import org.eclipse.jetty.http2.server.AuthorityCustomizer;
 import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
 import org.eclipse.jetty.http2.server.HTTP2ServerConnectionFactory;
+import org.eclipse.jetty.io.EndPoint;
 import org.eclipse.jetty.jmx.MBeanContainer;
 import org.eclipse.jetty.security.LoginService;
 import org.eclipse.jetty.security.SecurityHandler;
 import org.eclipse.jetty.security.authentication.BasicAuthenticator;
 import org.eclipse.jetty.server.ConnectionFactory;
+import org.eclipse.jetty.server.Connector;
 import org.eclipse.jetty.server.HostHeaderCustomizer;
 import org.eclipse.jetty.server.HttpConfiguration;
 import org.eclipse.jetty.server.HttpConnectionFactory;
@@ -55,6 +59,8 @@ import org.eclipse.jetty.server.handler.ErrorHandler;
 import org.eclipse.jetty.server.handler.EventsHandler;
 import org.eclipse.jetty.server.handler.StatisticsHandler;
 import org.eclipse.jetty.server.handler.gzip.GzipHandler;
+import org.eclipse.jetty.util.compression.DeflaterPool;
+import org.eclipse.jetty.util.compression.InflaterPool;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.weakref.jmx.Flatten;
@@ -110,6 +116,10 @@ public class HttpServer
     private final RequestStats stats;
     private final MaxGauge busyThreads = new MaxGauge();
     private final RequestLog requestLog;
+    private final RequestLogPolicy requestLogPolicy;
+    private final AdmissionControl admissionControl;
+    private final GZipRequestFilter gzipRequestFilter;
+    private final ServerDrain drain;
     private final ClientAddressExtractor clientAddressExtractor;
 
     private final HttpServerInfo httpServerInfo;
@@ -178,6 +188,7 @@ public class HttpServer
         this.stats = requireNonNull(stats, "stats is null");
         requireNonNull(detailedRequestStats, "detailedRequestStats is null");
         this.requestLog = requestLog;
+        this.requestLogPolicy = new RequestLogPolicy(config);
         this.clientAddressExtractor = requireNonNull(clientAddressExtractor, "clientAddressExtractor is null");
         this.moduleOptions = requireNonNull(moduleOptions, "httpServerModuleOptions is null");
 
@@ -203,8 +214,16 @@ public class HttpServer
             verify(executor != null, "Could not create virtual threads executor");
             threadPool.setVirtualThreadsExecutor(executor);
         }
+        admissionControl = new AdmissionControl(config, threadPool::getQueueSize);
         server = new Server(threadPool);
         server.setStopTimeout(config.getStopTimeout().toMillis());
+        if (config.isCompressionEnabled()) {
+            // Shared by the gzip handlers of all contexts
+            server.addBean(new DeflaterPool(config.getCompressionDeflaterPoolSize(), config.getCompressionLevel(), true));
+        }
+        InflaterPool inflaterPool = new InflaterPool(config.getRequestDecompressionInflaterPoolSize(), true);
+        server.addBean(inflaterPool);
+        gzipRequestFilter = new GZipRequestFilter(config, inflaterPool);
 
         boolean showStackTrace = config.isShowStackTrace();
 
@@ -221,6 +240,8 @@ public class HttpServer
          *
          * server
          * |- request logging handler (optional)
+         * |- drain handler
+         *    |--- admission control handler (optional)
          *    |--- statistics handler
          *           |--- context handler
          *           |       |--- (no) admin filter
@@ -248,16 +269,22 @@ public class HttpServer
          */
         // add handlers to Jetty
         StatisticsHandler statsHandler = new StatisticsHandler();
-        statsHandler.setHandler(createServletContext(theServlet, resources, parameters, false, filters, queryStringFilter, loginService, nodeInfo, sessionHandler, Set.of("http", "https"), showStackTrace));
+        statsHandler.setHandler(createServletContext(theServlet, resources, parameters, false, filters, queryStringFilter, loginService, nodeInfo, sessionHandler, Set.of("http", "https", "http-unix"), showStackTrace));
 
         ContextHandlerCollection rootHandlers = new ContextHandlerCollection();
         if (theAdminServlet != null && config.isAdminEnabled()) {
-            rootHandlers.addHandler(createServletContext(theAdminServlet, resources, adminParameters, true, adminFilters, queryStringFilter, loginService, nodeInfo, null, Set.of("admin"), showStackTrace));
+            rootHandlers.addHandler(createServletContext(theAdminServlet, resources, adminParameters, true, adminFilters, queryStringFilter, loginService, nodeInfo, null, Set.of("admin", "admin-unix"), showStackTrace));
+        }
+        if (config.isAdmissionControlEnabled()) {
+            rootHandlers.addHandler(new AdmissionControlHandler(statsHandler, admissionControl, config));
+        }
+        else {
+            rootHandlers.addHandler(statsHandler);
         }
-        rootHandlers.addHandler(statsHandler);
 
-        DispatchingRequestLogHandler dispatchingHandler = new DispatchingRequestLogHandler(requestLog, stats, detailedRequestStats, clientAddressExtractor);
-        EventsHandler eventsHandler = new RequestTimingEventHandler(rootHandlers);
+        DispatchingRequestLogHandler dispatchingHandler = new DispatchingRequestLogHandler(requestLog, requestLogPolicy, stats, detailedRequestStats, new RouteStats(detailedRequestStats, config.getRouteStatsMaxRoutes()), clientAddressExtractor);
+        drain = new ServerDrain(statsHandler::getRequestsActive);
+        EventsHandler eventsHandler = new RequestTimingEventHandler(new DrainHandler(rootHandlers, drain));
 
         server.setRequestLog(dispatchingHandler);
         server.setHandler(eventsHandler);
@@ -357,9 +384,10 @@ public class HttpServer
         }
         context.addFilter(new FilterHolder(queryStringFilter), "/*", null);
         context.addFilter(new FilterHolder(new TraceTokenFilter(nodeInfo.getInternalIp(), clientAddressExtractor)), "/*", null);
+        context.addFilter(new FilterHolder(new DeadlineFilter()), "/*", null);
 
         // -- gzip request filter
-        context.addFilter(GZipRequestFilter.class, "/*", null);
+        context.addFilter(new FilterHolder(gzipRequestFilter), "/*", null);
         // -- security handler
         if (loginService != null) {
             SecurityHandler securityHandler = createSecurityHandler(loginService);
@@ -382,7 +410,17 @@ public class HttpServer
             context.addFilter(new FilterHolder(servlet), pathSpec, null);
         }
         // -- gzip handler
-        context.insertHandler(new GzipHandler());
+        if (config.isCompressionEnabled()) {
+            GzipHandler gzipHandler = new GzipHandler();
+            gzipHandler.setMinGzipSize(toIntExact(config.getCompressionMinSize().toBytes()));
+            if (config.getCompressionIncludedMimeTypes() != null) {
+                gzipHandler.setIncludedMimeTypesList(config.getCompressionIncludedMimeTypes());
+            }
+            if (config.getCompressionExcludedMimeTypes() != null) {
+                gzipHandler.setExcludedMimeTypesList(config.getCompressionExcludedMimeTypes());
+            }
+            context.insertHandler(gzipHandler);
+        }
 
         // -- add SessionHandler
         if (sessionHandler != null) {
@@ -466,12 +504,7 @@ public class HttpServer
             Integer acceptors = config.getHttpAcceptorThreads();
             Integer selectors = config.getHttpSelectorThreads();
             HttpConnectionFactory http1 = new HttpConnectionFactory(httpConfiguration);
-            HTTP2CServerConnectionFactory http2c = new HTTP2CServerConnectionFactory(httpConfiguration);
-            http2c.setInitialSessionRecvWindow(toIntExact(config.getHttp2InitialSessionReceiveWindowSize().toBytes()));
-            http2c.setInitialStreamRecvWindow(toIntExact(config.getHttp2InitialStreamReceiveWindowSize().toBytes()));
-            http2c.setMaxConcurrentStreams(config.getHttp2MaxConcurrentStreams());
-            http2c.setInputBufferSize(toIntExact(config.getHttp2InputBufferSize().toBytes()));
-            http2c.setStreamIdleTimeout(config.getHttp2StreamIdleTimeout().toMillis());
+            HTTP2CServerConnectionFactory http2c = createHttp2cConnectionFactory(config, httpConfiguration);
             httpConnector = createServerConnector(
                     httpServerInfo.getHttpChannel(),
                     server,
@@ -489,6 +522,22 @@ public class HttpServer
             server.addConnector(httpConnector);
         }
 
+        // set up HTTP connector on a Unix domain socket
+        if (httpServerInfo.getHttpUnixDomainSocketPath() != null) {
+            HttpConfiguration unixDomainConfiguration = new HttpConfiguration(baseHttpConfiguration);
+            UnixDomainServerConnector unixDomainConnector = new UnixDomainServerConnector(
+                    server,
+                    null,
+                    httpServerInfo.getHttpUnixDomainSocketPath(),
+                    config.getHttpAcceptQueueSize(),
+                    new HttpConnectionFactory(unixDomainConfiguration),
+                    createHttp2cConnectionFactory(config, unixDomainConfiguration));
+            unixDomainConnector.setName("http-unix");
+            unixDomainConnector.setIdleTimeout(config.getNetworkMaxIdleTime().toMillis());
+
+            server.addConnector(unixDomainConnector);
+        }
+
         // set up NIO-based HTTPS connector
         ServerConnector httpsConnector;
         if (config.isHttpsEnabled()) {
@@ -558,16 +607,55 @@ public class HttpServer
             adminConnector.setAcceptQueueSize(config.getHttpAcceptQueueSize());
 
             server.addConnector(adminConnector);
+
+            if (httpServerInfo.getAdminUnixDomainSocketPath() != null) {
+                HttpConfiguration unixDomainConfiguration = new HttpConfiguration(baseHttpConfiguration);
+                HTTP2CServerConnectionFactory http2c = new HTTP2CServerConnectionFactory(unixDomainConfiguration);
+                http2c.setMaxConcurrentStreams(config.getHttp2MaxConcurrentStreams());
+                UnixDomainServerConnector unixDomainConnector = new UnixDomainServerConnector(
+                        server,
+                        adminThreadPool,
+                        httpServerInfo.getAdminUnixDomainSocketPath(),
+                        config.getHttpAcceptQueueSize(),
+                        new HttpConnectionFactory(unixDomainConfiguration),
+                        http2c);
+                unixDomainConnector.setName("admin-unix");
+                unixDomainConnector.setIdleTimeout(config.getNetworkMaxIdleTime().toMillis());
+
+                server.addConnector(unixDomainConnector);
+            }
         }
 
         server.start();
         checkState(server.isStarted(), "server is not started");
     }
 
+    /**
+     * Start draining: responses ask clients to stop reusing their
+     * connections and idle HTTP/2 connections are sent a GOAWAY. Called
+     * when the service is removed from load balancing pools.
+     */
+    @StopTraffic
+    public void drain()
+    {
+        if (!drain.start()) {
+            return;
+        }
+        for (Connector connector : server.getConnectors()) {
+            for (EndPoint endPoint : connector.getConnectedEndPoints()) {
+                if (endPoint.getConnection() instanceof HTTP2Connection connection && DrainHandler.closeConnection(connection)) {
+                    drain.connectionClosed();
+                }
+            }
+        }
+    }
+
     @PreDestroy
     public void stop()
             throws Exception
     {
+        drain();
+        // Stops accepting connections and waits up to the stop timeout for active requests
         server.stop();
         if (requestLog != null) {
             requestLog.stop();
@@ -580,6 +668,30 @@ public class HttpServer
         return stats;
     }
 
+    @Nested
+    public RequestLogPolicy getRequestLog()
+    {
+        return requestLogPolicy;
+    }
+
+    @Nested
+    public AdmissionControl getAdmissionControl()
+    {
+        return admissionControl;
+    }
+
+    @Nested
+    public ServerDrain getDrain()
+    {
+        return drain;
+    }
+
+    @Nested
+    public GZipRequestFilter getRequestDecompression()
+    {
+        return gzipRequestFilter;
+    }
+
     @Nested
     public MaxGauge getBusyThreads()
     {
@@ -611,6 +723,17 @@ public class HttpServer
         return certificates.build();
     }
 
+    private static HTTP2CServerConnectionFactory createHttp2cConnectionFactory(HttpServerConfig config, HttpConfiguration httpConfiguration)
+    {
+        HTTP2CServerConnectionFactory http2c = new HTTP2CServerConnectionFactory(httpConfiguration);
+        http2c.setInitialSessionRecvWindow(toIntExact(config.getHttp2InitialSessionReceiveWindowSize().toBytes()));
+        http2c.setInitialStreamRecvWindow(toIntExact(config.getHttp2InitialStreamReceiveWindowSize().toBytes()));
+        http2c.setMaxConcurrentStreams(config.getHttp2MaxConcurrentStreams());
+        http2c.setInputBufferSize(toIntExact(config.getHttp2InputBufferSize().toBytes()));
+        http2c.setStreamIdleTimeout(config.getHttp2StreamIdleTimeout().toMillis());
+        return http2c;
+    }
+
     private static ServerConnector createServerConnector(
             ServerSocketChannel channel,
             Server server,
@@ -24,9 +24,16 @@ import com.proofpoint.units.Duration;
 import com.proofpoint.units.MaxDataSize;
 import com.proofpoint.units.MinDataSize;
 import com.proofpoint.units.MinDuration;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 
+import java.util.Map;
+
+import static com.proofpoint.units.DataSize.Unit.BYTE;
 import static com.proofpoint.units.DataSize.Unit.GIGABYTE;
 import static com.proofpoint.units.DataSize.Unit.KILOBYTE;
 import static com.proofpoint.units.DataSize.Unit.MEGABYTE;
@@ -63,6 +70,7 @@ public class HttpServerConfig
       If you feel the need to increase httpAcceptQueueSize, you might need to increase the OS limit first.
     */
     private int httpAcceptQueueSize = 10;
+    private String httpUnixDomainSocketPath;
 
     private boolean httpsEnabled = false;
     private int httpsPort = 8443;
@@ -79,6 +87,27 @@ public class HttpServerConfig
     private int logMaxHistory = 30;
     private DataSize logMaxTotalSize = new DataSize(1, GIGABYTE);
     private int logQueueSize = 10_000;
+    private Map<String, Double> logSampleRates = Map.of();
+    private boolean logAlwaysLogErrors = true;
+    private Duration logSlowThreshold;
+    private Map<String, Double> logPathRateLimits = Map.of();
+    private int routeStatsMaxRoutes = 200;
+    private boolean admissionControlEnabled = false;
+    private int admissionControlLimit = 100;
+    private boolean admissionControlAdaptive = false;
+    private int admissionControlLimitMin = 1;
+    private int admissionControlLimitMax = 1000;
+    private Duration admissionControlMaxQueueTime;
+    private Duration admissionControlRetryAfter = new Duration(1, SECONDS);
+    private boolean compressionEnabled = true;
+    private int compressionLevel = -1;
+    private DataSize compressionMinSize = new DataSize(32, BYTE);
+    private String compressionIncludedMimeTypes;
+    private String compressionExcludedMimeTypes;
+    private int compressionDeflaterPoolSize = 1024;
+    private DataSize requestDecompressionMaxSize;
+    private Double requestDecompressionMaxRatio;
+    private int requestDecompressionInflaterPoolSize = 1024;
 
     private Integer httpAcceptorThreads;
     private Integer httpSelectorThreads;
@@ -101,6 +130,7 @@ public class HttpServerConfig
 
     private boolean adminEnabled = true;
     private int adminPort = 0;
+    private String adminUnixDomainSocketPath;
     private int adminMinThreads = 2;
     private int adminMaxThreads = 200;
 
@@ -142,6 +172,19 @@ public class HttpServerConfig
         return this;
     }
 
+    public String getHttpUnixDomainSocketPath()
+    {
+        return httpUnixDomainSocketPath;
+    }
+
+    @Config("http-server.http.unix-domain-socket.path")
+    @ConfigDescription("Unix domain socket on which to also serve HTTP")
+    public HttpServerConfig setHttpUnixDomainSocketPath(String httpUnixDomainSocketPath)
+    {
+        this.httpUnixDomainSocketPath = httpUnixDomainSocketPath;
+        return this;
+    }
+
     public boolean isHttpsEnabled()
     {
         return httpsEnabled;
@@ -392,6 +435,293 @@ public class HttpServerConfig
         return this;
     }
 
+    @NotNull
+    public Map<@Pattern(regexp = "[1-5]xx", message = "must be a response code family such as 2xx") String, @DecimalMin("0") @DecimalMax("1") Double> getLogSampleRates()
+    {
+        return logSampleRates;
+    }
+
+    @Config("http-server.log.sample-rate")
+    @ConfigDescription("Fraction of requests to log, by response code family")
+    public HttpServerConfig setLogSampleRates(Map<String, Double> logSampleRates)
+    {
+        this.logSampleRates = Map.copyOf(logSampleRates);
+        return this;
+    }
+
+    public boolean isLogAlwaysLogErrors()
+    {
+        return logAlwaysLogErrors;
+    }
+
+    @Config("http-server.log.always-log-errors")
+    @ConfigDescription("Log all requests with 5xx responses regardless of sampling and rate limits")
+    public HttpServerConfig setLogAlwaysLogErrors(boolean logAlwaysLogErrors)
+    {
+        this.logAlwaysLogErrors = logAlwaysLogErrors;
+        return this;
+    }
+
+    public Duration getLogSlowThreshold()
+    {
+        return logSlowThreshold;
+    }
+
+    @Config("http-server.log.slow-threshold")
+    @ConfigDescription("Log all requests taking at least this long regardless of sampling and rate limits")
+    public HttpServerConfig setLogSlowThreshold(Duration logSlowThreshold)
+    {
+        this.logSlowThreshold = logSlowThreshold;
+        return this;
+    }
+
+    @NotNull
+    public Map<String, @DecimalMin(value = "0", inclusive = false) Double> getLogPathRateLimits()
+    {
+        return logPathRateLimits;
+    }
+
+    @Config("http-server.log.path-rate-limit")
+    @ConfigDescription("Maximum number of requests per second to log, by request path")
+    public HttpServerConfig setLogPathRateLimits(Map<String, Double> logPathRateLimits)
+    {
+        this.logPathRateLimits = Map.copyOf(logPathRateLimits);
+        return this;
+    }
+
+    @Min(0)
+    public int getRouteStatsMaxRoutes()
+    {
+        return routeStatsMaxRoutes;
+    }
+
+    @Config("http-server.route-stats.max-routes")
+    @ConfigDescription("Maximum number of routes to report request stats for")
+    public HttpServerConfig setRouteStatsMaxRoutes(int routeStatsMaxRoutes)
+    {
+        this.routeStatsMaxRoutes = routeStatsMaxRoutes;
+        return this;
+    }
+
+    public boolean isAdmissionControlEnabled()
+    {
+        return admissionControlEnabled;
+    }
+
+    @Config("http-server.admission-control.enabled")
+    @ConfigDescription("Reject requests with a 503 response when the server is overloaded")
+    public HttpServerConfig setAdmissionControlEnabled(boolean admissionControlEnabled)
+    {
+        this.admissionControlEnabled = admissionControlEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public int getAdmissionControlLimit()
+    {
+        return admissionControlLimit;
+    }
+
+    @Config("http-server.admission-control.limit")
+    @ConfigDescription("Maximum number of concurrent requests, or the initial limit when the adaptive limit is enabled")
+    public HttpServerConfig setAdmissionControlLimit(int admissionControlLimit)
+    {
+        this.admissionControlLimit = admissionControlLimit;
+        return this;
+    }
+
+    public boolean isAdmissionControlAdaptive()
+    {
+        return admissionControlAdaptive;
+    }
+
+    @Config("http-server.admission-control.adaptive")
+    @ConfigDescription("Adjust the concurrency limit according to request latency")
+    public HttpServerConfig setAdmissionControlAdaptive(boolean admissionControlAdaptive)
+    {
+        this.admissionControlAdaptive = admissionControlAdaptive;
+        return this;
+    }
+
+    @Min(1)
+    public int getAdmissionControlLimitMin()
+    {
+        return admissionControlLimitMin;
+    }
+
+    @Config("http-server.admission-control.limit.min")
+    @ConfigDescription("Minimum concurrency limit, when the adaptive limit is enabled")
+    public HttpServerConfig setAdmissionControlLimitMin(int admissionControlLimitMin)
+    {
+        this.admissionControlLimitMin = admissionControlLimitMin;
+        return this;
+    }
+
+    @Min(1)
+    public int getAdmissionControlLimitMax()
+    {
+        return admissionControlLimitMax;
+    }
+
+    @Config("http-server.admission-control.limit.max")
+    @ConfigDescription("Maximum concurrency limit, when the adaptive limit is enabled")
+    public HttpServerConfig setAdmissionControlLimitMax(int admissionControlLimitMax)
+    {
+        this.admissionControlLimitMax = admissionControlLimitMax;
+        return this;
+    }
+
+    public Duration getAdmissionControlMaxQueueTime()
+    {
+        return admissionControlMaxQueueTime;
+    }
+
+    @Config("http-server.admission-control.max-queue-time")
+    @ConfigDescription("Reject requests that waited longer than this to be handled")
+    public HttpServerConfig setAdmissionControlMaxQueueTime(Duration admissionControlMaxQueueTime)
+    {
+        this.admissionControlMaxQueueTime = admissionControlMaxQueueTime;
+        return this;
+    }
+
+    @NotNull
+    @MinDuration("1s")
+    public Duration getAdmissionControlRetryAfter()
+    {
+        return admissionControlRetryAfter;
+    }
+
+    @Config("http-server.admission-control.retry-after")
+    @ConfigDescription("Retry-After to send in responses to rejected requests")
+    public HttpServerConfig setAdmissionControlRetryAfter(Duration admissionControlRetryAfter)
+    {
+        this.admissionControlRetryAfter = admissionControlRetryAfter;
+        return this;
+    }
+
+    public boolean isCompressionEnabled()
+    {
+        return compressionEnabled;
+    }
+
+    @Config("http-server.compression.enabled")
+    @ConfigDescription("Compress responses for clients that accept gzip encoding")
+    public HttpServerConfig setCompressionEnabled(boolean compressionEnabled)
+    {
+        this.compressionEnabled = compressionEnabled;
+        return this;
+    }
+
+    @Min(-1)
+    @Max(9)
+    public int getCompressionLevel()
+    {
+        return compressionLevel;
+    }
+
+    @Config("http-server.compression.level")
+    @ConfigDescription("Deflate compression level for responses, from 1 (fastest) to 9 (smallest), or -1 for the default")
+    public HttpServerConfig setCompressionLevel(int compressionLevel)
+    {
+        this.compressionLevel = compressionLevel;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getCompressionMinSize()
+    {
+        return compressionMinSize;
+    }
+
+    @Config("http-server.compression.min-size")
+    @ConfigDescription("Minimum size of a response to compress")
+    public HttpServerConfig setCompressionMinSize(DataSize compressionMinSize)
+    {
+        this.compressionMinSize = compressionMinSize;
+        return this;
+    }
+
+    public String getCompressionIncludedMimeTypes()
+    {
+        return compressionIncludedMimeTypes;
+    }
+
+    @Config("http-server.compression.included-mime-types")
+    @ConfigDescription("Comma-separated list of MIME types to compress, or all types if not set")
+    public HttpServerConfig setCompressionIncludedMimeTypes(String compressionIncludedMimeTypes)
+    {
+        this.compressionIncludedMimeTypes = compressionIncludedMimeTypes;
+        return this;
+    }
+
+    public String getCompressionExcludedMimeTypes()
+    {
+        return compressionExcludedMimeTypes;
+    }
+
+    @Config("http-server.compression.excluded-mime-types")
+    @ConfigDescription("Comma-separated list of MIME types not to compress, or already-compressed types if not set")
+    public HttpServerConfig setCompressionExcludedMimeTypes(String compressionExcludedMimeTypes)
+    {
+        this.compressionExcludedMimeTypes = compressionExcludedMimeTypes;
+        return this;
+    }
+
+    @Min(1)
+    public int getCompressionDeflaterPoolSize()
+    {
+        return compressionDeflaterPoolSize;
+    }
+
+    @Config("http-server.compression.deflater-pool-size")
+    @ConfigDescription("Maximum number of idle deflaters to keep for reuse")
+    public HttpServerConfig setCompressionDeflaterPoolSize(int compressionDeflaterPoolSize)
+    {
+        this.compressionDeflaterPoolSize = compressionDeflaterPoolSize;
+        return this;
+    }
+
+    public DataSize getRequestDecompressionMaxSize()
+    {
+        return requestDecompressionMaxSize;
+    }
+
+    @Config("http-server.request-decompression.max-size")
+    @ConfigDescription("Maximum decompressed size of a compressed request body")
+    public HttpServerConfig setRequestDecompressionMaxSize(DataSize requestDecompressionMaxSize)
+    {
+        this.requestDecompressionMaxSize = requestDecompressionMaxSize;
+        return this;
+    }
+
+    @DecimalMin("1")
+    public Double getRequestDecompressionMaxRatio()
+    {
+        return requestDecompressionMaxRatio;
+    }
+
+    @Config("http-server.request-decompression.max-ratio")
+    @ConfigDescription("Maximum ratio of decompressed to compressed size of a request body larger than 1MB")
+    public HttpServerConfig setRequestDecompressionMaxRatio(Double requestDecompressionMaxRatio)
+    {
+        this.requestDecompressionMaxRatio = requestDecompressionMaxRatio;
+        return this;
+    }
+
+    @Min(1)
+    public int getRequestDecompressionInflaterPoolSize()
+    {
+        return requestDecompressionInflaterPoolSize;
+    }
+
+    @Config("http-server.request-decompression.inflater-pool-size")
+    @ConfigDescription("Maximum number of idle inflaters to keep for reuse")
+    public HttpServerConfig setRequestDecompressionInflaterPoolSize(int requestDecompressionInflaterPoolSize)
+    {
+        this.requestDecompressionInflaterPoolSize = requestDecompressionInflaterPoolSize;
+        return this;
+    }
+
     public String getUserAuthFile()
     {
         return userAuthFile;
@@ -440,6 +770,19 @@ public class HttpServerConfig
         return this;
     }
 
+    public String getAdminUnixDomainSocketPath()
+    {
+        return adminUnixDomainSocketPath;
+    }
+
+    @Config("http-server.admin.unix-domain-socket.path")
+    @ConfigDescription("Unix domain socket on which to also serve the admin port, without TLS")
+    public HttpServerConfig setAdminUnixDomainSocketPath(String adminUnixDomainSocketPath)
+    {
+        this.adminUnixDomainSocketPath = adminUnixDomainSocketPath;
+        return this;
+    }
+
     public int getAdminMinThreads()
     {
         return adminMinThreads;
@@ -581,7 +924,8 @@ public class HttpServerConfig
     {
         TSV(DelimitedRequestLog::new),
         JSON(JsonRequestLog::new),
-        JSON_VERBOSE(JsonVerboseRequestLog::new);
+        JSON_VERBOSE(JsonVerboseRequestLog::new),
+        TSV_RING_BUFFER(RingBufferRequestLog::new);
 
         private interface LogFactory {
             RequestLog create(HttpServerConfig config);
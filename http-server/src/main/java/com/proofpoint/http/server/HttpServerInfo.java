@@ -30,12 +30,15 @@ import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.channels.ServerSocketChannel;
+import java.nio.file.Path;
 
 public class HttpServerInfo
 {
     private final ChannelHolder httpChannel;
     private final ChannelHolder httpsChannel;
     private final ChannelHolder adminChannel;
+    private final Path httpUnixDomainSocketPath;
+    private final Path adminUnixDomainSocketPath;
 
     @Inject
     public HttpServerInfo(HttpServerConfig config, NodeInfo nodeInfo)
@@ -96,6 +99,20 @@ public class HttpServerInfo
         else {
             adminChannel = new NullChannel();
         }
+
+        if (config.getHttpUnixDomainSocketPath() != null) {
+            httpUnixDomainSocketPath = Path.of(config.getHttpUnixDomainSocketPath()).toAbsolutePath();
+        }
+        else {
+            httpUnixDomainSocketPath = null;
+        }
+
+        if (config.isAdminEnabled() && config.getAdminUnixDomainSocketPath() != null) {
+            adminUnixDomainSocketPath = Path.of(config.getAdminUnixDomainSocketPath()).toAbsolutePath();
+        }
+        else {
+            adminUnixDomainSocketPath = null;
+        }
     }
 
     @Nullable
@@ -128,6 +145,24 @@ public class HttpServerInfo
         return adminChannel.getExternalUri();
     }
 
+    /**
+     * @return The Unix domain socket on which HTTP is served, or null if none.
+     */
+    @Nullable
+    public Path getHttpUnixDomainSocketPath()
+    {
+        return httpUnixDomainSocketPath;
+    }
+
+    /**
+     * @return The Unix domain socket on which the admin port is served, or null if none.
+     */
+    @Nullable
+    public Path getAdminUnixDomainSocketPath()
+    {
+        return adminUnixDomainSocketPath;
+    }
+
     @Nullable
     ServerSocketChannel getHttpChannel()
     {
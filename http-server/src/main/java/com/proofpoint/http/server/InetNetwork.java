@@ -27,6 +27,7 @@ import static com.google.common.net.InetAddresses.toBigInteger;
 final class InetNetwork
 {
     private final boolean isIpv6;
+    private final byte[] prefix;
     private final int bits;
     private final BigInteger start;
     private final BigInteger end;
@@ -34,6 +35,7 @@ final class InetNetwork
     private InetNetwork(InetAddress address, int bits)
     {
         this.isIpv6 = address instanceof Inet6Address;
+        this.prefix = address.getAddress();
         this.bits = bits;
         this.start = toBigInteger(address);
         int totalBits = isIpv6 ? 128 : 32;
@@ -50,6 +52,25 @@ final class InetNetwork
         return (ip.compareTo(start) >= 0) && (ip.compareTo(end) <= 0);
     }
 
+    boolean isIpv6()
+    {
+        return isIpv6;
+    }
+
+    /**
+     * @return The network address in network byte order. Bits past the
+     * prefix length are zero.
+     */
+    byte[] getPrefix()
+    {
+        return prefix.clone();
+    }
+
+    int getPrefixLength()
+    {
+        return bits;
+    }
+
     @Override
     public String toString()
     {
@@ -15,9 +15,22 @@
  */
 package com.proofpoint.http.server;
 
+import jakarta.annotation.Nullable;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+
+import javax.net.ssl.SSLSession;
+
+import static com.proofpoint.http.server.HttpRequestEvent.createHttpRequestEvent;
+
 interface RequestLog
 {
     void log(HttpRequestEvent event);
 
+    default void log(Request request, Response response, @Nullable SSLSession sslSession, RequestTiming timing, ClientAddressExtractor clientAddressExtractor)
+    {
+        log(createHttpRequestEvent(request, response, sslSession, timing, clientAddressExtractor));
+    }
+
     void stop();
 }
@@ -0,0 +1,112 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.proofpoint.stats.CounterStat;
+import org.eclipse.jetty.http.HttpURI;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.weakref.jmx.Nested;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Decides which requests are written to the request log.
+ * <p>
+ * Requests with a 5xx response (if so configured) or taking at least the
+ * slow threshold are always logged. Other requests are sampled by
+ * response code family and then limited by per-path rate limits.
+ */
+public class RequestLogPolicy
+{
+    private final boolean alwaysLogErrors;
+    private final long slowThresholdNanos;
+    private final double[] sampleRates = new double[6];
+    private final Map<String, RateLimiter> pathRateLimiters;
+    private final CounterStat logged = new CounterStat();
+    private final CounterStat skipped = new CounterStat();
+
+    RequestLogPolicy(HttpServerConfig config)
+    {
+        alwaysLogErrors = config.isLogAlwaysLogErrors();
+        if (config.getLogSlowThreshold() == null) {
+            slowThresholdNanos = Long.MAX_VALUE;
+        }
+        else {
+            slowThresholdNanos = config.getLogSlowThreshold().roundTo(NANOSECONDS);
+        }
+        Arrays.fill(sampleRates, 1.0);
+        config.getLogSampleRates().forEach((family, rate) -> sampleRates[family.charAt(0) - '0'] = rate);
+        pathRateLimiters = config.getLogPathRateLimits().entrySet().stream()
+                .collect(toImmutableMap(Map.Entry::getKey, entry -> RateLimiter.create(entry.getValue())));
+    }
+
+    boolean shouldLog(Request request, Response response, RequestTiming timing)
+    {
+        if (isLogged(request, response, timing)) {
+            logged.add(1);
+            return true;
+        }
+        skipped.add(1);
+        return false;
+    }
+
+    private boolean isLogged(Request request, Response response, RequestTiming timing)
+    {
+        int status = response.getStatus();
+        if (alwaysLogErrors && status >= 500) {
+            return true;
+        }
+        if (timing.timeToCompletion().roundTo(NANOSECONDS) >= slowThresholdNanos) {
+            return true;
+        }
+
+        int family = status / 100;
+        if (family >= 1 && family <= 5) {
+            double rate = sampleRates[family];
+            if (rate < 1.0 && ThreadLocalRandom.current().nextDouble() >= rate) {
+                return false;
+            }
+        }
+
+        if (!pathRateLimiters.isEmpty()) {
+            HttpURI uri = request.getHttpURI();
+            if (uri != null) {
+                RateLimiter rateLimiter = pathRateLimiters.get(uri.getPath());
+                if (rateLimiter != null) {
+                    return rateLimiter.tryAcquire();
+                }
+            }
+        }
+        return true;
+    }
+
+    @Nested
+    public CounterStat getLogged()
+    {
+        return logged;
+    }
+
+    @Nested
+    public CounterStat getSkipped()
+    {
+        return skipped;
+    }
+}
@@ -14,6 +14,7 @@
 package com.proofpoint.http.server;
 
 import com.proofpoint.units.Duration;
+import jakarta.annotation.Nullable;
 
 import java.time.Instant;
 
@@ -25,10 +26,22 @@ public record RequestTiming(
         Duration dispatchToRequestEnd,
         Duration firstToLastResponseContent,
         Duration timeToCompletion,
-        DoubleSummaryStats responseContentInterarrivalStats)
+        DoubleSummaryStats responseContentInterarrivalStats,
+        @Nullable Duration timeToFirstByte)
 {
     public RequestTiming
     {
         requireNonNull(requestStarted, "requestStarted is null");
     }
+
+    public RequestTiming(
+            Instant requestStarted,
+            Duration dispatchToHandling,
+            Duration dispatchToRequestEnd,
+            Duration firstToLastResponseContent,
+            Duration timeToCompletion,
+            DoubleSummaryStats responseContentInterarrivalStats)
+    {
+        this(requestStarted, dispatchToHandling, dispatchToRequestEnd, firstToLastResponseContent, timeToCompletion, responseContentInterarrivalStats, null);
+    }
 }
@@ -85,7 +85,8 @@ class RequestTimingEventHandler
                 elapsedMillis(headersTime, getRequestBeginToRequestEnd(request.asAttributeMap())), // Time from headers parsed until entire request parsed
                 elapsedMillis(getFirstByte(request.asAttributeMap()), getLastByte(request.asAttributeMap())), // Time from the first write of response to last write of response
                 elapsedMillis(requestStarted, getRequestBeginToEnd(request.asAttributeMap())), // Time from the start of the request until it's completed
-                processContentTimestamps(getContentWriteBeginTimestamps(request.asAttributeMap())));
+                processContentTimestamps(getContentWriteBeginTimestamps(request.asAttributeMap())),
+                elapsedMillis(requestStarted, getFirstByte(request.asAttributeMap()))); // Time from the start of the request until the first write of response
     }
 
     private static long getFirstByte(Map<String, Object> attributes)
@@ -0,0 +1,480 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import ch.qos.logback.core.ContextBase;
+import ch.qos.logback.core.rolling.RollingFileAppender;
+import ch.qos.logback.core.rolling.RolloverFailure;
+import ch.qos.logback.core.rolling.SizeAndTimeBasedRollingPolicy;
+import ch.qos.logback.core.util.FileSize;
+import com.proofpoint.log.Logger;
+import com.proofpoint.tracetoken.TraceToken;
+import jakarta.annotation.Nullable;
+import org.eclipse.jetty.http.HttpURI;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+
+import javax.net.ssl.SSLSession;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.Principal;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.proofpoint.tracetoken.TraceTokenManager.getCurrentTraceToken;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.time.format.DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Request log producing the same tab-separated output as {@link DelimitedRequestLog}
+ * without allocating per request.
+ * <p>
+ * Request threads copy the fields of each request into a preallocated slot of a
+ * bounded multi-producer ring. A single writer thread encodes the slots into
+ * reused direct buffers and writes them to the log file with gathering writes.
+ * Log files are rolled by the same size and time based policy as the other
+ * request log formats.
+ */
+class RingBufferRequestLog
+        implements RequestLog
+{
+    private static final Logger log = Logger.get(RingBufferRequestLog.class);
+
+    private static final DateTimeFormatter ISO_FORMATTER = ISO_OFFSET_DATE_TIME.withZone(ZoneId.systemDefault());
+    private static final byte[] NULL_BYTES = "null".getBytes(UTF_8);
+    private static final int MIN_CAPACITY = 64;
+    private static final int BUFFER_COUNT = 4;
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final int MAX_FIELD_LENGTH = 8192;
+    private static final long MAX_IDLE_NANOS = MILLISECONDS.toNanos(10);
+    private static final long FULL_PARK_NANOS = MICROSECONDS.toNanos(50);
+
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed;
+    private volatile boolean stopped;
+
+    private final File activeFile;
+    private final SizeAndTimeBasedRollingPolicy<Object> rollingPolicy;
+    private final ByteBuffer[] buffers = new ByteBuffer[BUFFER_COUNT];
+    private int currentBuffer;
+    private FileChannel channel;
+    private long timestampMillis = Long.MIN_VALUE;
+    private byte[] timestampBytes;
+
+    private final Thread writer;
+
+    RingBufferRequestLog(HttpServerConfig config)
+    {
+        int capacity = Integer.highestOneBit(max(config.getLogQueueSize(), MIN_CAPACITY) - 1) << 1;
+        slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+        }
+        mask = capacity - 1;
+
+        for (int i = 0; i < BUFFER_COUNT; i++) {
+            buffers[i] = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+
+        ContextBase context = new ContextBase();
+        RollingFileAppender<Object> parent = new RollingFileAppender<>();
+        parent.setContext(context);
+        parent.setFile(config.getLogPath());
+
+        rollingPolicy = new SizeAndTimeBasedRollingPolicy<>();
+        rollingPolicy.setContext(context);
+        rollingPolicy.setFileNamePattern(config.getLogPath() + "-%d{yyyy-MM-dd}.%i.log.gz");
+        rollingPolicy.setMaxHistory(config.getLogMaxHistory());
+        rollingPolicy.setTotalSizeCap(new FileSize(config.getLogMaxTotalSize().toBytes()));
+        rollingPolicy.setParent(parent);
+        rollingPolicy.setMaxFileSize(new FileSize(config.getLogMaxSegmentSize().toBytes()));
+        rollingPolicy.start();
+
+        activeFile = new File(config.getLogPath());
+        try {
+            openChannel();
+        }
+        catch (IOException e) {
+            rollingPolicy.stop();
+            throw new UncheckedIOException("Unable to open request log " + activeFile, e);
+        }
+
+        writer = new Thread(this::writeLoop, "http-request-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void log(HttpRequestEvent event)
+    {
+        append(event.getTimeStamp().toEpochMilli(),
+                event.getClientAddress(),
+                event.getMethod(),
+                event.getRequestUri(),
+                null,
+                event.getUser(),
+                event.getAgent(),
+                event.getResponseCode(),
+                event.getRequestSize(),
+                event.getResponseSize(),
+                event.getTimeToLastByte(),
+                event.getTraceToken());
+    }
+
+    @Override
+    public void log(Request request, Response response, @Nullable SSLSession sslSession, RequestTiming timing, ClientAddressExtractor clientAddressExtractor)
+    {
+        String user = null;
+        Request.AuthenticationState authenticationState = Request.getAuthenticationState(request);
+        if (authenticationState != null) {
+            Principal principal = authenticationState.getUserPrincipal();
+            if (principal != null) {
+                user = principal.getName();
+            }
+        }
+
+        // Path and query are written separately to avoid concatenating them
+        String path = null;
+        String query = null;
+        HttpURI uri = request.getHttpURI();
+        if (uri != null) {
+            path = uri.getPath();
+            query = uri.getQuery();
+        }
+
+        String method = request.getMethod();
+        if (method != null) {
+            method = method.toUpperCase();
+        }
+
+        append(timing.requestStarted().toEpochMilli(),
+                clientAddressExtractor.clientAddressFor(HttpRequestEvent.requestAdapter(request)),
+                method,
+                path,
+                query,
+                user,
+                request.getHeaders().get("User-Agent"),
+                response.getStatus(),
+                Request.getContentBytesRead(request),
+                Response.getContentBytesWritten(response),
+                timing.timeToCompletion().toMillis(),
+                getCurrentTraceToken());
+    }
+
+    @Override
+    public void stop()
+    {
+        stopped = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rollingPolicy.stop();
+    }
+
+    private void append(
+            long timeStamp,
+            String clientAddress,
+            String method,
+            String path,
+            @Nullable String query,
+            String user,
+            String agent,
+            int responseCode,
+            long requestSize,
+            long responseSize,
+            long timeToLastByte,
+            TraceToken traceToken)
+    {
+        long sequence;
+        while (true) {
+            if (stopped) {
+                return;
+            }
+            sequence = claimed.get();
+            if (sequence - consumed >= slots.length) {
+                // Block like the logback async appender does when its queue is full
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+            }
+            else if (claimed.compareAndSet(sequence, sequence + 1)) {
+                break;
+            }
+        }
+
+        Slot slot = slots[(int) (sequence & mask)];
+        slot.timeStamp = timeStamp;
+        slot.clientAddress = clientAddress;
+        slot.method = method;
+        slot.path = path;
+        slot.query = query;
+        slot.user = user;
+        slot.agent = agent;
+        slot.responseCode = responseCode;
+        slot.requestSize = requestSize;
+        slot.responseSize = responseSize;
+        slot.timeToLastByte = timeToLastByte;
+        slot.traceToken = traceToken;
+        slot.published = sequence;
+    }
+
+    private void writeLoop()
+    {
+        long idleNanos = 0;
+        while (true) {
+            boolean wasStopped = stopped;
+            if (drain()) {
+                idleNanos = 0;
+                continue;
+            }
+            flush();
+            if (wasStopped) {
+                break;
+            }
+            idleNanos = min(max(idleNanos * 2, FULL_PARK_NANOS), MAX_IDLE_NANOS);
+            LockSupport.parkNanos(idleNanos);
+        }
+        try {
+            channel.close();
+        }
+        catch (IOException e) {
+            log.warn(e, "Error closing request log %s", activeFile);
+        }
+    }
+
+    private boolean drain()
+    {
+        boolean drained = false;
+        while (true) {
+            long sequence = consumed;
+            Slot slot = slots[(int) (sequence & mask)];
+            if (slot.published != sequence) {
+                return drained;
+            }
+            encode(slot);
+            slot.clear();
+            consumed = sequence + 1;
+            drained = true;
+        }
+    }
+
+    private void encode(Slot slot)
+    {
+        if (slot.timeStamp != timestampMillis) {
+            timestampMillis = slot.timeStamp;
+            timestampBytes = ISO_FORMATTER.format(Instant.ofEpochMilli(timestampMillis)).getBytes(UTF_8);
+        }
+
+        int maxLength = timestampBytes.length + 11 + 4 * 20
+                + maxEncodedLength(slot.clientAddress)
+                + maxEncodedLength(slot.method)
+                + maxEncodedLength(slot.path)
+                + maxEncodedLength(slot.query) + 1
+                + maxEncodedLength(slot.user)
+                + maxEncodedLength(slot.agent)
+                + MAX_FIELD_LENGTH * 3;
+        ByteBuffer buffer = buffers[currentBuffer];
+        if (buffer.remaining() < maxLength) {
+            if (++currentBuffer == BUFFER_COUNT) {
+                flush();
+            }
+            buffer = buffers[currentBuffer];
+        }
+
+        buffer.put(timestampBytes).put((byte) '\t');
+        putString(buffer, slot.clientAddress);
+        buffer.put((byte) '\t');
+        putString(buffer, slot.method);
+        buffer.put((byte) '\t');
+        putString(buffer, slot.path);
+        if (slot.query != null) {
+            buffer.put((byte) '?');
+            putString(buffer, slot.query);
+        }
+        buffer.put((byte) '\t');
+        putString(buffer, slot.user);
+        buffer.put((byte) '\t');
+        putString(buffer, slot.agent);
+        buffer.put((byte) '\t');
+        putLong(buffer, slot.responseCode);
+        buffer.put((byte) '\t');
+        putLong(buffer, slot.requestSize);
+        buffer.put((byte) '\t');
+        putLong(buffer, slot.responseSize);
+        buffer.put((byte) '\t');
+        putLong(buffer, slot.timeToLastByte);
+        buffer.put((byte) '\t');
+        putString(buffer, slot.traceToken == null ? null : slot.traceToken.toString());
+        buffer.put((byte) '\n');
+    }
+
+    private void flush()
+    {
+        int count = min(currentBuffer + 1, BUFFER_COUNT);
+        for (int i = 0; i < count; i++) {
+            buffers[i].flip();
+        }
+        try {
+            long written = 0;
+            while (buffers[count - 1].hasRemaining()) {
+                written += channel.write(buffers, 0, count);
+            }
+            rollingPolicy.getLengthCounter().add(written);
+        }
+        catch (IOException e) {
+            log.warn(e, "Error writing request log %s", activeFile);
+        }
+        for (int i = 0; i < count; i++) {
+            buffers[i].clear();
+        }
+        currentBuffer = 0;
+
+        if (rollingPolicy.isTriggeringEvent(activeFile, null)) {
+            rollover();
+        }
+    }
+
+    private void rollover()
+    {
+        try {
+            channel.close();
+            try {
+                rollingPolicy.rollover();
+            }
+            catch (RolloverFailure e) {
+                log.warn(e, "Error rolling over request log %s", activeFile);
+            }
+            openChannel();
+        }
+        catch (IOException e) {
+            log.warn(e, "Error rolling over request log %s", activeFile);
+        }
+    }
+
+    private void openChannel()
+            throws IOException
+    {
+        channel = FileChannel.open(activeFile.toPath(), CREATE, WRITE, APPEND);
+        rollingPolicy.getLengthCounter().reset();
+        rollingPolicy.getLengthCounter().add(channel.size());
+    }
+
+    private static int maxEncodedLength(@Nullable String value)
+    {
+        if (value == null) {
+            return NULL_BYTES.length;
+        }
+        return min(value.length(), MAX_FIELD_LENGTH) * 3;
+    }
+
+    private static void putString(ByteBuffer buffer, @Nullable String value)
+    {
+        if (value == null) {
+            buffer.put(NULL_BYTES);
+            return;
+        }
+        int length = min(value.length(), MAX_FIELD_LENGTH);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            }
+            else if (c < 0x800) {
+                buffer.put((byte) (0xc0 | (c >> 6)))
+                        .put((byte) (0x80 | (c & 0x3f)));
+            }
+            else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer.put((byte) (0xf0 | (codePoint >> 18)))
+                        .put((byte) (0x80 | ((codePoint >> 12) & 0x3f)))
+                        .put((byte) (0x80 | ((codePoint >> 6) & 0x3f)))
+                        .put((byte) (0x80 | (codePoint & 0x3f)));
+            }
+            else if (Character.isSurrogate(c)) {
+                buffer.put((byte) '?');
+            }
+            else {
+                buffer.put((byte) (0xe0 | (c >> 12)))
+                        .put((byte) (0x80 | ((c >> 6) & 0x3f)))
+                        .put((byte) (0x80 | (c & 0x3f)));
+            }
+        }
+    }
+
+    private static void putLong(ByteBuffer buffer, long value)
+    {
+        if (value == Long.MIN_VALUE) {
+            buffer.put((byte) '-').put((byte) '9');
+            value = 223372036854775808L;
+        }
+        else if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (divisor <= value / 10) {
+            divisor *= 10;
+        }
+        while (divisor > 0) {
+            buffer.put((byte) ('0' + value / divisor));
+            value %= divisor;
+            divisor /= 10;
+        }
+    }
+
+    private static class Slot
+    {
+        private volatile long published = -1;
+        private long timeStamp;
+        private String clientAddress;
+        private String method;
+        private String path;
+        private String query;
+        private String user;
+        private String agent;
+        private int responseCode;
+        private long requestSize;
+        private long responseSize;
+        private long timeToLastByte;
+        private TraceToken traceToken;
+
+        void clear()
+        {
+            clientAddress = null;
+            method = null;
+            path = null;
+            query = null;
+            user = null;
+            agent = null;
+            traceToken = null;
+        }
+    }
+}
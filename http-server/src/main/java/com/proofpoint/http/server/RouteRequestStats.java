@@ -0,0 +1,79 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import com.proofpoint.stats.SparseDistributionStat;
+import com.proofpoint.stats.SparseTimeStat;
+import org.weakref.jmx.Nested;
+
+/**
+ * Request stats for a single route.
+ */
+public class RouteRequestStats
+{
+    private final SparseTimeStat timeToDispatch = new SparseTimeStat();
+    private final SparseTimeStat timeToRequestEnd = new SparseTimeStat();
+    private final SparseTimeStat timeToFirstByte = new SparseTimeStat();
+    private final SparseTimeStat timeToLastByte = new SparseTimeStat();
+    private final SparseDistributionStat readBytes = new SparseDistributionStat();
+    private final SparseDistributionStat writtenBytes = new SparseDistributionStat();
+
+    void record(RequestTiming timing, long requestSizeInBytes, long responseSizeInBytes)
+    {
+        timeToDispatch.add(timing.dispatchToHandling());
+        timeToRequestEnd.add(timing.dispatchToRequestEnd());
+        if (timing.timeToFirstByte() != null) {
+            timeToFirstByte.add(timing.timeToFirstByte());
+        }
+        timeToLastByte.add(timing.timeToCompletion());
+        readBytes.add(requestSizeInBytes);
+        writtenBytes.add(responseSizeInBytes);
+    }
+
+    @Nested
+    public SparseTimeStat getTimeToDispatch()
+    {
+        return timeToDispatch;
+    }
+
+    @Nested
+    public SparseTimeStat getTimeToRequestEnd()
+    {
+        return timeToRequestEnd;
+    }
+
+    @Nested
+    public SparseTimeStat getTimeToFirstByte()
+    {
+        return timeToFirstByte;
+    }
+
+    @Nested
+    public SparseTimeStat getTimeToLastByte()
+    {
+        return timeToLastByte;
+    }
+
+    @Nested
+    public SparseDistributionStat getReadBytes()
+    {
+        return readBytes;
+    }
+
+    @Nested
+    public SparseDistributionStat getWrittenBytes()
+    {
+        return writtenBytes;
+    }
+}
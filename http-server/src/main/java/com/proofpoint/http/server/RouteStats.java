@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Records request stats by route.
+ * <p>
+ * The route of a request is the value of its {@link #ROUTE_ATTRIBUTE}
+ * attribute, which a framework sets to the template of the resource that
+ * handled the request. Requests without a route are not recorded. To
+ * bound the number of reported routes, requests for routes seen after the
+ * configured maximum number of routes are recorded under {@link #OTHER_ROUTE}.
+ */
+public class RouteStats
+{
+    public static final String ROUTE_ATTRIBUTE = RouteStats.class.getName() + ".route";
+    public static final String OTHER_ROUTE = "other";
+
+    private final DetailedRequestStats detailedRequestStats;
+    private final int maxRoutes;
+    private final Set<String> routes = ConcurrentHashMap.newKeySet();
+
+    RouteStats(DetailedRequestStats detailedRequestStats, int maxRoutes)
+    {
+        this.detailedRequestStats = requireNonNull(detailedRequestStats, "detailedRequestStats is null");
+        this.maxRoutes = maxRoutes;
+    }
+
+    void record(Request request, Response response, RequestTiming timing)
+    {
+        if (maxRoutes == 0 || !(request.getAttribute(ROUTE_ATTRIBUTE) instanceof String route)) {
+            return;
+        }
+        if (!routes.contains(route)) {
+            route = admit(route);
+        }
+        detailedRequestStats.routeStats(request.getMethod(), route)
+                .record(timing, Request.getContentBytesRead(request), Response.getContentBytesWritten(response));
+    }
+
+    private String admit(String route)
+    {
+        if (routes.size() >= maxRoutes) {
+            return OTHER_ROUTE;
+        }
+        synchronized (routes) {
+            if (!routes.contains(route) && routes.size() >= maxRoutes) {
+                return OTHER_ROUTE;
+            }
+            routes.add(route);
+        }
+        return route;
+    }
+}
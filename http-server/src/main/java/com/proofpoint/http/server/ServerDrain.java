@@ -0,0 +1,100 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import com.proofpoint.reporting.Gauge;
+import com.proofpoint.stats.CounterStat;
+import org.weakref.jmx.Nested;
+
+import java.util.function.IntSupplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Progress of draining the server on shutdown.
+ * <p>
+ * Draining starts when the service stops receiving traffic. From then on,
+ * each response tells the client to stop reusing its connection: HTTP/1.1
+ * responses carry "Connection: close" and HTTP/2 connections are sent a
+ * GOAWAY. When the server stops, it stops accepting connections and waits
+ * up to the stop timeout for the active requests to complete.
+ */
+public class ServerDrain
+{
+    private final IntSupplier activeRequests;
+    private final CounterStat closedConnections = new CounterStat();
+    private final CounterStat rejected = new CounterStat();
+    private volatile long drainStartNanos;
+    private volatile boolean draining;
+
+    ServerDrain(IntSupplier activeRequests)
+    {
+        this.activeRequests = requireNonNull(activeRequests, "activeRequests is null");
+    }
+
+    /**
+     * @return true if this call started draining.
+     */
+    synchronized boolean start()
+    {
+        if (draining) {
+            return false;
+        }
+        drainStartNanos = System.nanoTime();
+        draining = true;
+        return true;
+    }
+
+    boolean isDraining()
+    {
+        return draining;
+    }
+
+    void connectionClosed()
+    {
+        closedConnections.add(1);
+    }
+
+    void rejected()
+    {
+        rejected.add(1);
+    }
+
+    @Gauge
+    public int getActiveRequests()
+    {
+        return activeRequests.getAsInt();
+    }
+
+    @Gauge
+    public double getDrainSeconds()
+    {
+        if (!draining) {
+            return 0;
+        }
+        return (System.nanoTime() - drainStartNanos) / 1_000_000_000.0;
+    }
+
+    @Nested
+    public CounterStat getClosedConnections()
+    {
+        return closedConnections;
+    }
+
+    @Nested
+    public CounterStat getRejected()
+    {
+        return rejected;
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import jakarta.annotation.Nullable;
+import org.eclipse.jetty.io.Connection;
+import org.eclipse.jetty.io.EndPoint;
+import org.eclipse.jetty.io.ManagedSelector;
+import org.eclipse.jetty.io.SelectorManager;
+import org.eclipse.jetty.io.SocketChannelEndPoint;
+import org.eclipse.jetty.server.AbstractConnector;
+import org.eclipse.jetty.server.ConnectionFactory;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.thread.Scheduler;
+
+import java.io.IOException;
+import java.net.BindException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.Executor;
+
+import static java.lang.String.format;
+import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Connector accepting HTTP connections on a Unix domain socket, for clients
+ * on the same host that would otherwise connect over loopback TCP.
+ * <p>
+ * Connections report the loopback address as their local and remote
+ * addresses, so they are treated the same as loopback TCP connections by
+ * Jetty, the client address extractor and the request log.
+ */
+class UnixDomainServerConnector
+        extends AbstractConnector
+{
+    private static final InetSocketAddress LOOPBACK_ADDRESS = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+
+    private final Path path;
+    private final int acceptQueueSize;
+    private final SelectorManager selectorManager;
+    private volatile ServerSocketChannel serverChannel;
+
+    UnixDomainServerConnector(Server server, @Nullable Executor executor, Path path, int acceptQueueSize, ConnectionFactory... factories)
+    {
+        super(server, executor, null, null, 1, factories);
+        this.path = requireNonNull(path, "path is null");
+        this.acceptQueueSize = acceptQueueSize;
+        selectorManager = new UnixDomainSelectorManager(getExecutor(), getScheduler());
+        addBean(selectorManager, true);
+    }
+
+    Path getPath()
+    {
+        return path;
+    }
+
+    @Override
+    public Object getTransport()
+    {
+        return serverChannel;
+    }
+
+    @Override
+    protected void doStart()
+            throws Exception
+    {
+        removeStaleSocket();
+        ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            channel.bind(UnixDomainSocketAddress.of(path), acceptQueueSize);
+        }
+        catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        serverChannel = channel;
+        super.doStart();
+    }
+
+    // A socket file left behind by a process that did not shut down cleanly prevents binding
+    private void removeStaleSocket()
+            throws IOException
+    {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class, NOFOLLOW_LINKS);
+        }
+        catch (NoSuchFileException e) {
+            return;
+        }
+        if (!attributes.isOther()) {
+            throw new FileAlreadyExistsException(path.toString(), null, "Unix domain socket path exists and is not a socket");
+        }
+        try (SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.connect(UnixDomainSocketAddress.of(path));
+        }
+        catch (IOException e) {
+            // Nothing is accepting connections on the socket
+            Files.deleteIfExists(path);
+            return;
+        }
+        throw new BindException(format("Unix domain socket %s is in use by another process", path));
+    }
+
+    @Override
+    protected void doStop()
+            throws Exception
+    {
+        ServerSocketChannel channel = serverChannel;
+        serverChannel = null;
+        if (channel != null) {
+            channel.close();
+            Files.deleteIfExists(path);
+        }
+        super.doStop();
+    }
+
+    @Override
+    protected void accept(int acceptorID)
+            throws IOException
+    {
+        ServerSocketChannel channel = serverChannel;
+        if (channel != null && channel.isOpen()) {
+            SocketChannel socketChannel = channel.accept();
+            socketChannel.configureBlocking(false);
+            selectorManager.accept(socketChannel);
+        }
+    }
+
+    private class UnixDomainSelectorManager
+            extends SelectorManager
+    {
+        UnixDomainSelectorManager(Executor executor, Scheduler scheduler)
+        {
+            super(executor, scheduler, 1);
+        }
+
+        @Override
+        protected EndPoint newEndPoint(SelectableChannel channel, ManagedSelector selector, SelectionKey key)
+        {
+            SocketChannelEndPoint endPoint = new SocketChannelEndPoint((SocketChannel) channel, selector, key, getScheduler())
+            {
+                @Override
+                public SocketAddress getLocalSocketAddress()
+                {
+                    return LOOPBACK_ADDRESS;
+                }
+
+                @Override
+                public SocketAddress getRemoteSocketAddress()
+                {
+                    return LOOPBACK_ADDRESS;
+                }
+            };
+            endPoint.setIdleTimeout(getIdleTimeout());
+            return endPoint;
+        }
+
+        @Override
+        public Connection newConnection(SelectableChannel channel, EndPoint endPoint, Object attachment)
+        {
+            return getDefaultConnectionFactory().newConnection(UnixDomainServerConnector.this, endPoint);
+        }
+
+        @Override
+        protected void endPointOpened(EndPoint endPoint)
+        {
+            super.endPointOpened(endPoint);
+            onEndPointOpened(endPoint);
+        }
+
+        @Override
+        protected void endPointClosed(EndPoint endPoint)
+        {
+            onEndPointClosed(endPoint);
+            super.endPointClosed(endPoint);
+        }
+    }
+}
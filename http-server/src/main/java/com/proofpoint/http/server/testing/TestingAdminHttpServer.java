@@ -23,6 +23,7 @@ import com.proofpoint.http.server.HttpServerInfo;
 import com.proofpoint.http.server.HttpServerModuleOptions;
 import com.proofpoint.http.server.QueryStringFilter;
 import com.proofpoint.http.server.RequestStats;
+import com.proofpoint.http.server.RouteRequestStats;
 import com.proofpoint.http.server.TheAdminServlet;
 import com.proofpoint.node.NodeInfo;
 import com.proofpoint.stats.SparseCounterStat;
@@ -123,6 +124,12 @@ public class TestingAdminHttpServer extends HttpServer
         {
             return new SparseCounterStat();
         }
+
+        @Override
+        public RouteRequestStats routeStats(String method, String route)
+        {
+            return new RouteRequestStats();
+        }
     }
 
     static class NullServlet
@@ -24,6 +24,7 @@ import com.proofpoint.http.server.HttpServerInfo;
 import com.proofpoint.http.server.HttpServerModuleOptions;
 import com.proofpoint.http.server.QueryStringFilter;
 import com.proofpoint.http.server.RequestStats;
+import com.proofpoint.http.server.RouteRequestStats;
 import com.proofpoint.http.server.TheServlet;
 import com.proofpoint.node.NodeInfo;
 import com.proofpoint.stats.SparseCounterStat;
@@ -130,5 +131,11 @@ public class TestingHttpServer extends HttpServer
         {
             return new SparseCounterStat();
         }
+
+        @Override
+        public RouteRequestStats routeStats(String method, String route)
+        {
+            return new RouteRequestStats();
+        }
     }
 }
@@ -37,6 +37,7 @@ import java.util.Collections;
 import java.util.DoubleSummaryStatistics;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import static com.proofpoint.http.server.HttpRequestEvent.createHttpRequestEvent;
 import static com.proofpoint.tracetoken.TraceTokenManager.clearRequestToken;
@@ -204,25 +205,33 @@ public abstract class AbstractTestRequestLog
         clearRequestToken();
     }
 
+    @Test
+    public void testWriteLogFromRequest()
+            throws Exception
+    {
+        createAndRegisterNewRequestToken("key", "value");
+        testWriteLog(timing -> logger.log(request, response, sslSession, timing, clientAddressExtractor));
+        clearRequestToken();
+    }
+
     private void testWriteLog()
             throws Exception
+    {
+        testWriteLog(timing -> logger.log(createHttpRequestEvent(request, response, sslSession, timing, clientAddressExtractor)));
+    }
+
+    private void testWriteLog(Consumer<RequestTiming> log)
+            throws Exception
     {
         DoubleSummaryStatistics summaryStatistics = new DoubleSummaryStatistics();
         summaryStatistics.accept(1);
         summaryStatistics.accept(3);
-        HttpRequestEvent event = createHttpRequestEvent(
-                request,
-                response,
-                sslSession,
-                new RequestTiming(Instant.ofEpochMilli(timestamp),
-                        Duration.valueOf("111ms"),
-                        Duration.valueOf("222ms"),
-                        Duration.valueOf("333ms"),
-                        Duration.succinctDuration(timeToLastByte, MILLISECONDS),
-                        new DoubleSummaryStats(summaryStatistics)),
-                clientAddressExtractor
-        );
-        logger.log(event);
+        log.accept(new RequestTiming(Instant.ofEpochMilli(timestamp),
+                Duration.valueOf("111ms"),
+                Duration.valueOf("222ms"),
+                Duration.valueOf("333ms"),
+                Duration.succinctDuration(timeToLastByte, MILLISECONDS),
+                new DoubleSummaryStats(summaryStatistics)));
         logger.stop();
 
         String actual = Files.asCharSource(file, UTF_8).read();
@@ -15,6 +15,7 @@
  */
 package com.proofpoint.http.server;
 
+import com.proofpoint.tracetoken.Deadline;
 import com.proofpoint.tracetoken.TraceToken;
 import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,9 +23,12 @@ import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
 
+import static com.proofpoint.tracetoken.DeadlineManager.getCurrentDeadline;
 import static com.proofpoint.tracetoken.TraceTokenManager.getCurrentTraceToken;
 import static jakarta.servlet.http.HttpServletResponse.SC_OK;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static com.proofpoint.http.server.RouteStats.ROUTE_ATTRIBUTE;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 class DummyServlet
         extends HttpServlet
@@ -41,7 +45,12 @@ class DummyServlet
         if (token != null) {
             response.addHeader("X-Trace-Token-Was", token.toString());
         }
+        Deadline deadline = getCurrentDeadline();
+        if (deadline != null) {
+            response.addHeader("X-Deadline-Remaining", String.valueOf(deadline.getRemaining(MILLISECONDS)));
+        }
         response.setHeader("X-Protocol", request.getProtocol());
+        request.setAttribute(ROUTE_ATTRIBUTE, "/dummy");
     }
 
     @Override
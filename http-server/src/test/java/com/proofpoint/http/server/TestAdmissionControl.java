@@ -0,0 +1,157 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import com.proofpoint.http.server.AdmissionControl.Permit;
+import com.proofpoint.testing.TestingTicker;
+import com.proofpoint.units.Duration;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class TestAdmissionControl
+{
+    private TestingTicker ticker;
+
+    @BeforeMethod
+    public void setup()
+    {
+        ticker = new TestingTicker();
+    }
+
+    @Test
+    public void testStaticLimit()
+    {
+        AdmissionControl admissionControl = new AdmissionControl(new HttpServerConfig().setAdmissionControlLimit(2), () -> 0, ticker);
+
+        Permit first = admissionControl.tryAcquire(0);
+        assertNotNull(first);
+        assertNotNull(admissionControl.tryAcquire(0));
+        assertEquals(admissionControl.getInFlight(), 2);
+        assertNull(admissionControl.tryAcquire(0));
+        assertEquals(admissionControl.getRejectedConcurrencyLimit().getTotalCount(), 1);
+
+        first.release();
+        first.release();
+        assertEquals(admissionControl.getInFlight(), 1);
+        assertNotNull(admissionControl.tryAcquire(0));
+        assertEquals(admissionControl.getLimit(), 2);
+        assertEquals(admissionControl.getRejectedQueueTime().getTotalCount(), 0);
+    }
+
+    @Test
+    public void testMaxQueueTime()
+    {
+        AdmissionControl admissionControl = new AdmissionControl(new HttpServerConfig()
+                .setAdmissionControlMaxQueueTime(new Duration(100, MILLISECONDS)), () -> 0, ticker);
+
+        assertNull(admissionControl.tryAcquire(MILLISECONDS.toNanos(101)));
+        assertEquals(admissionControl.getRejectedQueueTime().getTotalCount(), 1);
+        assertEquals(admissionControl.getInFlight(), 0);
+
+        assertNotNull(admissionControl.tryAcquire(MILLISECONDS.toNanos(100)));
+        assertEquals(admissionControl.getRejectedConcurrencyLimit().getTotalCount(), 0);
+    }
+
+    @Test
+    public void testAlwaysAdmitted()
+    {
+        assertTrue(AdmissionControl.isAlwaysAdmitted("/liveness"));
+        assertTrue(AdmissionControl.isAlwaysAdmitted("/inrotation.txt"));
+        assertFalse(AdmissionControl.isAlwaysAdmitted("/v1/liveness"));
+    }
+
+    @Test
+    public void testQueueDepth()
+    {
+        AdmissionControl admissionControl = new AdmissionControl(new HttpServerConfig(), () -> 7, ticker);
+        assertEquals(admissionControl.getQueueDepth(), 7);
+    }
+
+    @Test
+    public void testAdaptiveLimitGrowsAtSteadyLatency()
+    {
+        AdmissionControl admissionControl = new AdmissionControl(adaptiveConfig(), () -> 0, ticker);
+
+        for (int i = 0; i < 20; i++) {
+            runAtLimit(admissionControl, 10);
+        }
+        assertTrue(admissionControl.getLimit() > 10, "limit " + admissionControl.getLimit());
+        assertTrue(admissionControl.getLimit() <= 100, "limit " + admissionControl.getLimit());
+    }
+
+    @Test
+    public void testAdaptiveLimitShrinksWhenLatencyRises()
+    {
+        AdmissionControl admissionControl = new AdmissionControl(adaptiveConfig(), () -> 0, ticker);
+
+        for (int i = 0; i < 5; i++) {
+            runAtLimit(admissionControl, 10);
+        }
+        int steadyLimit = admissionControl.getLimit();
+
+        for (int i = 0; i < 5; i++) {
+            runAtLimit(admissionControl, 100);
+        }
+        assertTrue(admissionControl.getLimit() < steadyLimit, "limit " + admissionControl.getLimit() + " steady " + steadyLimit);
+        assertTrue(admissionControl.getLimit() >= 5, "limit " + admissionControl.getLimit());
+    }
+
+    @Test
+    public void testStaticLimitIgnoresLatency()
+    {
+        AdmissionControl admissionControl = new AdmissionControl(new HttpServerConfig().setAdmissionControlLimit(10), () -> 0, ticker);
+
+        for (int i = 0; i < 5; i++) {
+            runAtLimit(admissionControl, 10);
+        }
+        assertEquals(admissionControl.getLimit(), 10);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "admission control limit must be between min and max")
+    public void testAdaptiveLimitOutOfBounds()
+    {
+        new AdmissionControl(adaptiveConfig().setAdmissionControlLimitMax(5), () -> 0, ticker);
+    }
+
+    private static HttpServerConfig adaptiveConfig()
+    {
+        return new HttpServerConfig()
+                .setAdmissionControlAdaptive(true)
+                .setAdmissionControlLimit(10)
+                .setAdmissionControlLimitMin(5)
+                .setAdmissionControlLimitMax(100);
+    }
+
+    private void runAtLimit(AdmissionControl admissionControl, long latencyMillis)
+    {
+        List<Permit> permits = new ArrayList<>();
+        Permit permit;
+        while ((permit = admissionControl.tryAcquire(0)) != null) {
+            permits.add(permit);
+        }
+        ticker.elapseTime(latencyMillis, MILLISECONDS);
+        permits.forEach(Permit::release);
+        assertEquals(admissionControl.getInFlight(), 0);
+    }
+}
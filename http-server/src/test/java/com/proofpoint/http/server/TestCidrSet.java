@@ -0,0 +1,121 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import com.google.common.net.InetAddresses;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestCidrSet
+{
+    private static final CidrSet CIDR_SET = CidrSet.fromString(
+            "10.0.0.0/8,10.1.0.0/16,10.2.3.0/24,192.168.1.1/32,192.168.1.2/31,172.16.0.0/12," +
+                    "2001:db8::/32,2001:db8:1::/48,fe80::/10,::1/128");
+
+    @DataProvider(name = "addresses")
+    public Object[][] addresses()
+    {
+        return new Object[][] {
+                {"10.0.0.0", true},
+                {"10.1.2.3", true},
+                {"10.255.255.255", true},
+                {"11.0.0.0", false},
+                {"9.255.255.255", false},
+                {"192.168.1.0", false},
+                {"192.168.1.1", true},
+                {"192.168.1.2", true},
+                {"192.168.1.3", true},
+                {"192.168.1.4", false},
+                {"172.15.255.255", false},
+                {"172.16.0.0", true},
+                {"172.31.255.255", true},
+                {"172.32.0.0", false},
+                {"2001:db8::1", true},
+                {"2001:db8:ffff::1", true},
+                {"2001:db9::1", false},
+                {"fe80::1", true},
+                {"febf:ffff::1", true},
+                {"fec0::1", false},
+                {"::1", true},
+                {"::2", false},
+                {"::ffff:10.0.0.1", true},
+        };
+    }
+
+    @Test(dataProvider = "addresses")
+    public void testContainsAddress(String address, boolean expected)
+    {
+        assertEquals(CIDR_SET.containsAddress(InetAddresses.forString(address)), expected);
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        assertFalse(CidrSet.empty().containsAddress(InetAddresses.forString("1.2.3.4")));
+        assertFalse(CidrSet.empty().containsAddress(InetAddresses.forString("::1")));
+    }
+
+    @Test
+    public void testAllAddresses()
+    {
+        CidrSet cidrSet = CidrSet.fromString("0.0.0.0/0");
+        assertTrue(cidrSet.containsAddress(InetAddresses.forString("1.2.3.4")));
+        assertTrue(cidrSet.containsAddress(InetAddresses.forString("255.255.255.255")));
+        assertFalse(cidrSet.containsAddress(InetAddresses.forString("::1")));
+    }
+
+    @Test
+    public void testUnion()
+    {
+        CidrSet cidrSet = CidrSet.fromString("10.0.0.0/8").union(CidrSet.fromString("2001:db8::/32"));
+        assertTrue(cidrSet.containsAddress(InetAddresses.forString("10.1.2.3")));
+        assertTrue(cidrSet.containsAddress(InetAddresses.forString("2001:db8::1")));
+        assertFalse(cidrSet.containsAddress(InetAddresses.forString("11.1.2.3")));
+        assertEquals(cidrSet, CidrSet.fromString("2001:db8::/32,10.0.0.0/8"));
+    }
+
+    @Test
+    public void testMatchesLinearSearch()
+    {
+        Random random = new Random(42);
+        List<InetNetwork> networks = new ArrayList<>();
+        StringBuilder cidrList = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            int bits = 8 + random.nextInt(25);
+            int prefix = random.nextInt() & (-1 << (32 - bits));
+            InetNetwork network = InetNetwork.fromCidr(InetAddresses.fromInteger(prefix).getHostAddress() + "/" + bits);
+            networks.add(network);
+            if (i > 0) {
+                cidrList.append(',');
+            }
+            cidrList.append(network);
+        }
+        CidrSet cidrSet = CidrSet.fromString(cidrList.toString());
+
+        for (int i = 0; i < 10_000; i++) {
+            InetAddress address = InetAddresses.fromInteger(random.nextInt());
+            boolean expected = networks.stream().anyMatch(network -> network.containsAddress(address));
+            assertEquals(cidrSet.containsAddress(address), expected, address.toString());
+        }
+    }
+}
@@ -23,7 +23,10 @@ import org.testng.annotations.Test;
 import java.util.Collections;
 import java.util.List;
 
+import static com.proofpoint.http.server.ClientAddressExtractor.CLIENT_ADDRESS_ATTRIBUTE;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 
@@ -146,6 +149,20 @@ public class TestClientAddressExtractor
         assertEquals(new ClientAddressExtractor().clientAddressFor(request), "10.14.15.16");
     }
 
+    @Test
+    public void testCachedInRequestAttribute()
+    {
+        when(request.getRemoteAddr()).thenReturn("10.10.10.10");
+        when(request.getHeaders("X-FORWARDED-FOR")).thenReturn(Collections.enumeration(List.of("1.1.1.1, 2.2.2.2")));
+
+        assertEquals(new ClientAddressExtractor().clientAddressFor(request), "2.2.2.2");
+        verify(request).setAttribute(CLIENT_ADDRESS_ATTRIBUTE, "2.2.2.2");
+
+        when(request.getAttribute(CLIENT_ADDRESS_ATTRIBUTE)).thenReturn("2.2.2.2");
+        assertEquals(new ClientAddressExtractor().clientAddressFor(request), "2.2.2.2");
+        verify(request, times(1)).getHeaders("X-FORWARDED-FOR");
+    }
+
     @DataProvider(name = "addresses")
     public Object[][] addresses()
     {
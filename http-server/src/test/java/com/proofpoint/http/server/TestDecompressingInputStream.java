@@ -0,0 +1,273 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import com.proofpoint.http.server.DecompressingInputStream.Format;
+import com.proofpoint.http.server.DecompressingInputStream.Listener;
+import org.eclipse.jetty.http.BadMessageException;
+import org.eclipse.jetty.util.compression.InflaterPool;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+public class TestDecompressingInputStream
+{
+    private static final byte[] CONTENT = "Some request body content, repeated. ".repeat(1000).getBytes(UTF_8);
+
+    private InflaterPool inflaterPool;
+    private long compressedBytes;
+    private long decompressedBytes;
+    private int completed;
+    private int rejected;
+    private final Listener listener = new Listener()
+    {
+        @Override
+        public void completed(long compressed, long decompressed)
+        {
+            compressedBytes = compressed;
+            decompressedBytes = decompressed;
+            ++completed;
+        }
+
+        @Override
+        public void rejected()
+        {
+            ++rejected;
+        }
+    };
+
+    @BeforeMethod
+    public void setup()
+            throws Exception
+    {
+        inflaterPool = new InflaterPool(10, true);
+        inflaterPool.start();
+        compressedBytes = 0;
+        decompressedBytes = 0;
+        completed = 0;
+        rejected = 0;
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void teardown()
+            throws Exception
+    {
+        inflaterPool.stop();
+    }
+
+    @Test
+    public void testGzip()
+            throws IOException
+    {
+        byte[] compressed = gzip(CONTENT);
+        assertEquals(decompress(compressed, Format.GZIP), CONTENT);
+        assertEquals(completed, 1);
+        assertEquals(compressedBytes, compressed.length);
+        assertEquals(decompressedBytes, CONTENT.length);
+    }
+
+    @Test
+    public void testGzipSingleByteReads()
+            throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (InputStream in = stream(gzip(CONTENT), Format.GZIP, -1, 0)) {
+            int b;
+            while ((b = in.read()) != -1) {
+                out.write(b);
+            }
+        }
+        assertEquals(out.toByteArray(), CONTENT);
+    }
+
+    @Test
+    public void testGzipMultipleMembers()
+            throws IOException
+    {
+        byte[] first = gzip("first ".getBytes(UTF_8));
+        byte[] second = gzip("second".getBytes(UTF_8));
+        byte[] compressed = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, compressed, first.length, second.length);
+
+        assertEquals(new String(decompress(compressed, Format.GZIP), UTF_8), "first second");
+    }
+
+    @Test
+    public void testGzipCorruptCrc()
+    {
+        byte[] compressed = gzip(CONTENT);
+        compressed[compressed.length - 8] ^= 1;
+
+        assertThatThrownBy(() -> decompress(compressed, Format.GZIP))
+                .isInstanceOf(ZipException.class)
+                .hasMessage("Corrupt GZIP trailer (incorrect CRC)");
+    }
+
+    @Test
+    public void testGzipTruncated()
+    {
+        byte[] compressed = gzip(CONTENT);
+
+        assertThatThrownBy(() -> decompress(Arrays.copyOf(compressed, compressed.length / 2), Format.GZIP))
+                .isInstanceOf(EOFException.class);
+    }
+
+    @Test
+    public void testNotGzip()
+    {
+        assertThatThrownBy(() -> decompress(CONTENT, Format.GZIP))
+                .isInstanceOf(ZipException.class)
+                .hasMessage("Not in GZIP format");
+    }
+
+    @Test
+    public void testDeflate()
+            throws IOException
+    {
+        assertEquals(decompress(deflate(CONTENT, false), Format.DEFLATE), CONTENT);
+    }
+
+    @Test
+    public void testRawDeflate()
+            throws IOException
+    {
+        assertEquals(decompress(deflate(CONTENT, true), Format.DEFLATE), CONTENT);
+    }
+
+    @Test
+    public void testMaxSize()
+            throws IOException
+    {
+        assertEquals(decompress(stream(gzip(CONTENT), Format.GZIP, CONTENT.length, 0)), CONTENT);
+
+        assertThatThrownBy(() -> decompress(stream(gzip(CONTENT), Format.GZIP, CONTENT.length - 1, 0)))
+                .isInstanceOfSatisfying(BadMessageException.class, e -> assertEquals(e.getCode(), 413));
+        assertEquals(rejected, 1);
+        assertEquals(completed, 2);
+    }
+
+    @Test
+    public void testMaxRatio()
+            throws IOException
+    {
+        byte[] content = new byte[10 * 1024 * 1024];
+        byte[] compressed = gzip(content);
+        double ratio = (double) content.length / compressed.length;
+
+        assertEquals(decompress(stream(compressed, Format.GZIP, -1, ratio * 1.1)), content);
+
+        assertThatThrownBy(() -> decompress(stream(compressed, Format.GZIP, -1, ratio / 2)))
+                .isInstanceOfSatisfying(BadMessageException.class, e -> assertEquals(e.getCode(), 413));
+        assertEquals(rejected, 1);
+    }
+
+    @Test
+    public void testSmallBodyExemptFromRatio()
+            throws IOException
+    {
+        assertEquals(decompress(stream(gzip(CONTENT), Format.GZIP, -1, 1)), CONTENT);
+        assertEquals(rejected, 0);
+    }
+
+    @Test
+    public void testInflaterReturnedToPool()
+            throws Exception
+    {
+        inflaterPool.stop();
+        inflaterPool = new InflaterPool(1, true);
+        inflaterPool.start();
+
+        InflaterPool.Entry entry = inflaterPool.acquire();
+        Inflater inflater = entry.get();
+        entry.release();
+
+        decompress(gzip(CONTENT), Format.GZIP);
+
+        entry = inflaterPool.acquire();
+        assertSame(entry.get(), inflater);
+        entry.release();
+    }
+
+    @Test
+    public void testFinishWithoutReading()
+    {
+        DecompressingInputStream stream = stream(gzip(CONTENT), Format.GZIP, -1, 0);
+        stream.finish();
+        stream.finish();
+        assertEquals(completed, 1);
+        assertEquals(compressedBytes, 0);
+    }
+
+    private byte[] decompress(byte[] compressed, Format format)
+            throws IOException
+    {
+        return decompress(stream(compressed, format, -1, 0));
+    }
+
+    private static byte[] decompress(InputStream stream)
+            throws IOException
+    {
+        try (InputStream in = stream) {
+            return in.readAllBytes();
+        }
+    }
+
+    private DecompressingInputStream stream(byte[] compressed, Format format, long maxSize, double maxRatio)
+    {
+        return new DecompressingInputStream(new ByteArrayInputStream(compressed), format, inflaterPool, maxSize, maxRatio, listener);
+    }
+
+    private static byte[] gzip(byte[] content)
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content);
+        }
+        catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] content, boolean nowrap)
+            throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, nowrap);
+        try (DeflaterOutputStream deflate = new DeflaterOutputStream(out, deflater)) {
+            deflate.write(content);
+        }
+        finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+}
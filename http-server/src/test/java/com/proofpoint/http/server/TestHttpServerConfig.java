@@ -20,6 +20,9 @@ import com.proofpoint.configuration.testing.ConfigAssertions;
 import com.proofpoint.http.server.HttpServerConfig.LogFormat;
 import com.proofpoint.units.DataSize;
 import com.proofpoint.units.Duration;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Pattern;
 import org.testng.annotations.Test;
 
 import java.util.Map;
@@ -27,6 +30,9 @@ import java.util.Map;
 import static com.proofpoint.configuration.testing.ConfigAssertions.assertFullMapping;
 import static com.proofpoint.configuration.testing.ConfigAssertions.assertLegacyEquivalence;
 import static com.proofpoint.configuration.testing.ConfigAssertions.assertRecordedDefaults;
+import static com.proofpoint.testing.ValidationAssertions.assertFailsValidation;
+import static com.proofpoint.testing.ValidationAssertions.assertValidates;
+import static com.proofpoint.units.DataSize.Unit.BYTE;
 import static com.proofpoint.units.DataSize.Unit.GIGABYTE;
 import static com.proofpoint.units.DataSize.Unit.KILOBYTE;
 import static com.proofpoint.units.DataSize.Unit.MEGABYTE;
@@ -43,6 +49,7 @@ public class TestHttpServerConfig
         assertRecordedDefaults(ConfigAssertions.recordDefaults(HttpServerConfig.class)
                 .setHttpEnabled(true)
                 .setHttpPort(8080)
+                .setHttpUnixDomainSocketPath(null)
                 .setHttpAcceptQueueSize(10)
                 .setHttpsEnabled(false)
                 .setHttpsPort(8443)
@@ -57,6 +64,27 @@ public class TestHttpServerConfig
                 .setLogMaxHistory(30)
                 .setLogMaxTotalSize(new DataSize(1, GIGABYTE))
                 .setLogQueueSize(10_000)
+                .setLogSampleRates(ImmutableMap.of())
+                .setLogAlwaysLogErrors(true)
+                .setLogSlowThreshold(null)
+                .setLogPathRateLimits(ImmutableMap.of())
+                .setRouteStatsMaxRoutes(200)
+                .setAdmissionControlEnabled(false)
+                .setAdmissionControlLimit(100)
+                .setAdmissionControlAdaptive(false)
+                .setAdmissionControlLimitMin(1)
+                .setAdmissionControlLimitMax(1000)
+                .setAdmissionControlMaxQueueTime(null)
+                .setAdmissionControlRetryAfter(new Duration(1, SECONDS))
+                .setCompressionEnabled(true)
+                .setCompressionLevel(-1)
+                .setCompressionMinSize(new DataSize(32, BYTE))
+                .setCompressionIncludedMimeTypes(null)
+                .setCompressionExcludedMimeTypes(null)
+                .setCompressionDeflaterPoolSize(1024)
+                .setRequestDecompressionMaxSize(null)
+                .setRequestDecompressionMaxRatio(null)
+                .setRequestDecompressionInflaterPoolSize(1024)
                 .setHttpAcceptorThreads(null)
                 .setHttpSelectorThreads(null)
                 .setHttpsAcceptorThreads(null)
@@ -68,6 +96,7 @@ public class TestHttpServerConfig
                 .setUserAuthFile(null)
                 .setAdminEnabled(true)
                 .setAdminPort(0)
+                .setAdminUnixDomainSocketPath(null)
                 .setAdminMinThreads(2)
                 .setAdminMaxThreads(200)
                 .setStopTimeout(new Duration(30, SECONDS))
@@ -87,6 +116,7 @@ public class TestHttpServerConfig
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("http-server.http.enabled", "false")
                 .put("http-server.http.port", "1")
+                .put("http-server.http.unix-domain-socket.path", "/var/run/http.sock")
                 .put("http-server.accept-queue-size", "1024")
                 .put("http-server.https.enabled", "true")
                 .put("http-server.https.port", "2")
@@ -101,6 +131,28 @@ public class TestHttpServerConfig
                 .put("http-server.log.max-history", "25")
                 .put("http-server.log.max-total-size", "5GB")
                 .put("http-server.log.queue-size", "1")
+                .put("http-server.log.sample-rate.2xx", "0.01")
+                .put("http-server.log.sample-rate.4xx", "0.5")
+                .put("http-server.log.always-log-errors", "false")
+                .put("http-server.log.slow-threshold", "2s")
+                .put("http-server.log.path-rate-limit./v1/status", "0.5")
+                .put("http-server.route-stats.max-routes", "10")
+                .put("http-server.admission-control.enabled", "true")
+                .put("http-server.admission-control.limit", "50")
+                .put("http-server.admission-control.adaptive", "true")
+                .put("http-server.admission-control.limit.min", "5")
+                .put("http-server.admission-control.limit.max", "500")
+                .put("http-server.admission-control.max-queue-time", "100ms")
+                .put("http-server.admission-control.retry-after", "5s")
+                .put("http-server.compression.enabled", "false")
+                .put("http-server.compression.level", "6")
+                .put("http-server.compression.min-size", "1kB")
+                .put("http-server.compression.included-mime-types", "text/html,application/json")
+                .put("http-server.compression.excluded-mime-types", "image/png")
+                .put("http-server.compression.deflater-pool-size", "64")
+                .put("http-server.request-decompression.max-size", "100MB")
+                .put("http-server.request-decompression.max-ratio", "50")
+                .put("http-server.request-decompression.inflater-pool-size", "32")
                 .put("http-server.http.acceptor-threads", "10")
                 .put("http-server.http.selector-threads", "11")
                 .put("http-server.https.acceptor-threads", "12")
@@ -112,6 +164,7 @@ public class TestHttpServerConfig
                 .put("http-server.auth.users-file", "/auth")
                 .put("http-server.admin.enabled", "false")
                 .put("http-server.admin.port", "3")
+                .put("http-server.admin.unix-domain-socket.path", "/var/run/admin.sock")
                 .put("http-server.admin.threads.min", "3")
                 .put("http-server.admin.threads.max", "4")
                 .put("http-server.stop-timeout", "1500ms")
@@ -127,6 +180,7 @@ public class TestHttpServerConfig
         HttpServerConfig expected = new HttpServerConfig()
                 .setHttpEnabled(false)
                 .setHttpPort(1)
+                .setHttpUnixDomainSocketPath("/var/run/http.sock")
                 .setHttpAcceptQueueSize(1024)
                 .setHttpsEnabled(true)
                 .setHttpsPort(2)
@@ -141,6 +195,27 @@ public class TestHttpServerConfig
                 .setLogMaxHistory(25)
                 .setLogMaxTotalSize(new DataSize(5, GIGABYTE))
                 .setLogQueueSize(1)
+                .setLogSampleRates(ImmutableMap.of("2xx", 0.01, "4xx", 0.5))
+                .setLogAlwaysLogErrors(false)
+                .setLogSlowThreshold(new Duration(2, SECONDS))
+                .setLogPathRateLimits(ImmutableMap.of("/v1/status", 0.5))
+                .setRouteStatsMaxRoutes(10)
+                .setAdmissionControlEnabled(true)
+                .setAdmissionControlLimit(50)
+                .setAdmissionControlAdaptive(true)
+                .setAdmissionControlLimitMin(5)
+                .setAdmissionControlLimitMax(500)
+                .setAdmissionControlMaxQueueTime(new Duration(100, MILLISECONDS))
+                .setAdmissionControlRetryAfter(new Duration(5, SECONDS))
+                .setCompressionEnabled(false)
+                .setCompressionLevel(6)
+                .setCompressionMinSize(new DataSize(1, KILOBYTE))
+                .setCompressionIncludedMimeTypes("text/html,application/json")
+                .setCompressionExcludedMimeTypes("image/png")
+                .setCompressionDeflaterPoolSize(64)
+                .setRequestDecompressionMaxSize(new DataSize(100, MEGABYTE))
+                .setRequestDecompressionMaxRatio(50.0)
+                .setRequestDecompressionInflaterPoolSize(32)
                 .setHttpAcceptorThreads(10)
                 .setHttpSelectorThreads(11)
                 .setHttpsAcceptorThreads(12)
@@ -153,6 +228,7 @@ public class TestHttpServerConfig
                 .setUserAuthFile("/auth")
                 .setAdminEnabled(false)
                 .setAdminPort(3)
+                .setAdminUnixDomainSocketPath("/var/run/admin.sock")
                 .setAdminMinThreads(3)
                 .setAdminMaxThreads(4)
                 .setStopTimeout(new Duration(1500, MILLISECONDS))
@@ -166,6 +242,15 @@ public class TestHttpServerConfig
         assertFullMapping(properties, expected);
     }
 
+    @Test
+    public void testValidatesLogSampleRates()
+    {
+        assertValidates(new HttpServerConfig().setLogSampleRates(ImmutableMap.of("1xx", 0.0, "5xx", 1.0)));
+        assertFailsValidation(new HttpServerConfig().setLogSampleRates(ImmutableMap.of("200", 0.5)), "logSampleRates<K>[200].<map key>", "must be a response code family such as 2xx", Pattern.class);
+        assertFailsValidation(new HttpServerConfig().setLogSampleRates(ImmutableMap.of("2xx", 1.5)), "logSampleRates[2xx].<map value>", "must be less than or equal to 1", DecimalMax.class);
+        assertFailsValidation(new HttpServerConfig().setLogPathRateLimits(ImmutableMap.of("/v1/status", 0.0)), "logPathRateLimits[/v1/status].<map value>", "must be greater than 0", DecimalMin.class);
+    }
+
     @Test
     public void testLegacyProperties()
     {
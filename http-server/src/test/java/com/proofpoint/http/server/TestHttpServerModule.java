@@ -24,9 +24,13 @@ import com.google.inject.CreationException;
 import com.google.inject.Injector;
 import com.google.inject.Scopes;
 import com.proofpoint.bootstrap.LifeCycleManager;
+import com.proofpoint.http.client.HeaderName;
 import com.proofpoint.http.client.HttpClient;
 import com.proofpoint.http.client.HttpStatus;
 import com.proofpoint.http.client.HttpUriBuilder;
+import com.proofpoint.http.client.Request;
+import com.proofpoint.http.client.Response;
+import com.proofpoint.http.client.ResponseHandler;
 import com.proofpoint.http.client.StatusResponseHandler.StatusResponse;
 import com.proofpoint.http.client.StringResponseHandler.StringResponse;
 import com.proofpoint.http.client.jetty.JettyHttpClient;
@@ -46,15 +50,25 @@ import org.testng.annotations.BeforeSuite;
 import org.testng.annotations.Test;
 import org.weakref.jmx.testing.TestingMBeanModule;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.zip.GZIPInputStream;
 
 import static com.google.common.io.MoreFiles.deleteRecursively;
 import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static com.google.common.io.Resources.getResource;
+import static com.google.common.net.HttpHeaders.ACCEPT_ENCODING;
+import static com.google.common.net.HttpHeaders.CONTENT_ENCODING;
 import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static com.google.common.net.HttpHeaders.ETAG;
+import static com.google.common.net.HttpHeaders.IF_MODIFIED_SINCE;
+import static com.google.common.net.HttpHeaders.IF_NONE_MATCH;
+import static com.google.common.net.HttpHeaders.LAST_MODIFIED;
+import static com.google.common.net.HttpHeaders.VARY;
 import static com.google.common.net.MediaType.PLAIN_TEXT_UTF_8;
 import static com.google.inject.multibindings.Multibinder.newSetBinder;
 import static com.proofpoint.bootstrap.Bootstrap.bootstrapTest;
@@ -211,6 +225,94 @@ public class TestHttpServerModule
         }
     }
 
+    @Test
+    public void testResourceCompression()
+            throws Exception
+    {
+        injector = bootstrapTest()
+                .withModules(new HttpServerModule(),
+                        new TestingNodeModule(),
+                        new TestingMBeanModule(),
+                        new ReportingModule(),
+                        binder -> {
+                            binder.bind(Servlet.class).annotatedWith(TheServlet.class).to(DummyServlet.class);
+                            binder.bind(Servlet.class).annotatedWith(TheAdminServlet.class).to(DummyServlet.class);
+                            httpServerBinder(binder).bindResource("static", "webapp/compressed");
+                        })
+                .setRequiredConfigurationProperties(properties)
+                .initialize();
+
+        URI uri = injector.getInstance(HttpServerInfo.class).getHttpUri();
+        byte[] text = getResource("webapp/compressed/text.txt").openStream().readAllBytes();
+
+        try (HttpClient client = new JettyHttpClient()) {
+            BytesResponse response = client.execute(prepareGet().setUri(uri.resolve("/static/text.txt")).build(), new BytesResponseHandler());
+            assertEquals(response.statusCode(), HttpStatus.OK.code());
+            assertNull(response.header(CONTENT_ENCODING));
+            assertEquals(response.header(VARY), "Accept-Encoding");
+            assertEquals(response.body(), text);
+
+            response = client.execute(prepareGet().setUri(uri.resolve("/static/text.txt")).setHeader(ACCEPT_ENCODING, "deflate, gzip;q=0.5").build(), new BytesResponseHandler());
+            assertEquals(response.statusCode(), HttpStatus.OK.code());
+            assertEquals(response.header(CONTENT_ENCODING), "gzip");
+            assertTrue(response.header(ETAG).endsWith("-gzip\""), "ETag " + response.header(ETAG));
+            assertTrue(response.body().length < text.length);
+            assertEquals(new GZIPInputStream(new ByteArrayInputStream(response.body())).readAllBytes(), text);
+
+            response = client.execute(prepareGet().setUri(uri.resolve("/static/text.txt")).setHeader(ACCEPT_ENCODING, "gzip;q=0").build(), new BytesResponseHandler());
+            assertNull(response.header(CONTENT_ENCODING));
+            assertEquals(response.body(), text);
+
+            response = client.execute(prepareGet().setUri(uri.resolve("/static/precompressed.txt")).setHeader(ACCEPT_ENCODING, "gzip").build(), new BytesResponseHandler());
+            assertEquals(response.header(CONTENT_ENCODING), "gzip");
+            assertEquals(response.body(), getResource("webapp/compressed/precompressed.txt.gz").openStream().readAllBytes());
+        }
+    }
+
+    @Test
+    public void testResourceNotModified()
+            throws Exception
+    {
+        injector = bootstrapTest()
+                .withModules(new HttpServerModule(),
+                        new TestingNodeModule(),
+                        new TestingMBeanModule(),
+                        new ReportingModule(),
+                        binder -> {
+                            binder.bind(Servlet.class).annotatedWith(TheServlet.class).to(DummyServlet.class);
+                            binder.bind(Servlet.class).annotatedWith(TheAdminServlet.class).to(DummyServlet.class);
+                            httpServerBinder(binder).bindResource("/", "webapp/user");
+                        })
+                .setRequiredConfigurationProperties(properties)
+                .initialize();
+
+        URI uri = injector.getInstance(HttpServerInfo.class).getHttpUri().resolve("/user.txt");
+
+        try (HttpClient client = new JettyHttpClient()) {
+            StringResponse response = client.execute(prepareGet().setUri(uri).build(), createStringResponseHandler());
+            assertEquals(response.getStatusCode(), HttpStatus.OK.code());
+            String etag = response.getHeader(ETAG);
+            String lastModified = response.getHeader(LAST_MODIFIED);
+            assertNotNull(etag);
+            assertNotNull(lastModified);
+
+            response = client.execute(prepareGet().setUri(uri).setHeader(IF_NONE_MATCH, etag).build(), createStringResponseHandler());
+            assertEquals(response.getStatusCode(), HttpStatus.NOT_MODIFIED.code());
+            assertEquals(response.getHeader(ETAG), etag);
+            assertEquals(response.getBody(), "");
+
+            response = client.execute(prepareGet().setUri(uri).setHeader(IF_NONE_MATCH, "\"other\", W/" + etag).build(), createStringResponseHandler());
+            assertEquals(response.getStatusCode(), HttpStatus.NOT_MODIFIED.code());
+
+            response = client.execute(prepareGet().setUri(uri).setHeader(IF_NONE_MATCH, "\"other\"").setHeader(IF_MODIFIED_SINCE, lastModified).build(), createStringResponseHandler());
+            assertEquals(response.getStatusCode(), HttpStatus.OK.code());
+            assertEquals(response.getBody(), "user\n");
+
+            response = client.execute(prepareGet().setUri(uri).setHeader(IF_MODIFIED_SINCE, lastModified).build(), createStringResponseHandler());
+            assertEquals(response.getStatusCode(), HttpStatus.NOT_MODIFIED.code());
+        }
+    }
+
     @Test
     public void testSessionHandler()
             throws Exception
@@ -332,4 +434,30 @@ public class TestHttpServerModule
             }
         }
     }
+
+    private record BytesResponse(int statusCode, ListMultimap<HeaderName, String> headers, byte[] body)
+    {
+        String header(String name)
+        {
+            return headers.get(HeaderName.of(name)).stream().findFirst().orElse(null);
+        }
+    }
+
+    private static class BytesResponseHandler
+            implements ResponseHandler<BytesResponse, IOException>
+    {
+        @Override
+        public BytesResponse handleException(Request request, Exception exception)
+                throws IOException
+        {
+            throw new IOException(exception);
+        }
+
+        @Override
+        public BytesResponse handle(Request request, Response response)
+                throws IOException
+        {
+            return new BytesResponse(response.getStatusCode(), response.getHeaders(), response.getInputStream().readAllBytes());
+        }
+    }
 }
@@ -20,6 +20,7 @@ import com.google.common.net.InetAddresses;
 import com.proofpoint.bootstrap.LifeCycleConfig;
 import com.proofpoint.bootstrap.LifeCycleManager;
 import com.proofpoint.http.client.HttpClient;
+import com.proofpoint.http.client.HttpClient.HttpResponseFuture;
 import com.proofpoint.http.client.HttpClientConfig;
 import com.proofpoint.http.client.StatusResponseHandler.StatusResponse;
 import com.proofpoint.http.client.StringResponseHandler.StringResponse;
@@ -29,7 +30,11 @@ import com.proofpoint.log.Level;
 import com.proofpoint.log.Logging;
 import com.proofpoint.node.NodeConfig;
 import com.proofpoint.node.NodeInfo;
+import com.proofpoint.stats.SparseTimeStat;
+import com.proofpoint.units.DataSize;
+import com.proofpoint.units.Duration;
 import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
@@ -37,11 +42,19 @@ import org.testng.annotations.BeforeSuite;
 import org.testng.annotations.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.net.BindException;
+import java.net.StandardProtocolFamily;
 import java.net.URI;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.file.FileAlreadyExistsException;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 
 import static com.google.common.io.MoreFiles.deleteRecursively;
 import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
@@ -55,16 +68,22 @@ import static com.proofpoint.log.Logging.resetLogTesters;
 import static com.proofpoint.testing.Assertions.assertContains;
 import static com.proofpoint.testing.Assertions.assertNotEquals;
 import static com.proofpoint.testing.Closeables.closeQuietly;
+import static com.proofpoint.units.DataSize.Unit.BYTE;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 public class TestHttpServerProvider
 {
@@ -78,6 +97,7 @@ public class TestHttpServerProvider
     private HttpServerInfo httpServerInfo;
     private LifeCycleManager lifeCycleManager;
     private RequestLog requestLog;
+    private DetailedRequestStats detailedRequestStats;
     private HttpServerModuleOptions moduleOptions;
 
     @BeforeSuite
@@ -113,6 +133,7 @@ public class TestHttpServerProvider
         httpServerInfo = new HttpServerInfo(config, nodeInfo);
         lifeCycleManager = new LifeCycleManager(List.of(), null, new LifeCycleConfig());
         moduleOptions = new HttpServerModuleOptions();
+        detailedRequestStats = new TestingHttpServer.DetailedRequestStats();
     }
 
     @AfterMethod(alwaysRun = true)
@@ -265,6 +286,240 @@ public class TestHttpServerProvider
         verify(requestLog, times(2)).log(any());
     }
 
+    @Test
+    public void testUnixDomainSocket()
+            throws Exception
+    {
+        closeChannels(httpServerInfo);
+        File socket = new File(tempDir, "http.sock");
+        config.setHttpUnixDomainSocketPath(socket.getPath())
+                .setAdminUnixDomainSocketPath(new File(tempDir, "admin.sock").getPath());
+        httpServerInfo = new HttpServerInfo(config, nodeInfo);
+        assertEquals(httpServerInfo.getHttpUnixDomainSocketPath(), socket.toPath());
+        assertEquals(httpServerInfo.getAdminUnixDomainSocketPath(), new File(tempDir, "admin.sock").toPath());
+
+        createServer();
+        lifeCycleManager.start();
+        assertTrue(socket.exists());
+
+        HttpClientConfig clientConfig = new HttpClientConfig().setUnixDomainSocketPath(socket.getPath());
+        try (JettyHttpClient httpClient = new JettyHttpClient(clientConfig.setHttp2Enabled(false))) {
+            StatusResponse response = httpClient.execute(prepareGet().setUri(URI.create("http://localhost/")).build(), createStatusResponseHandler());
+
+            assertEquals(response.getStatusCode(), HttpServletResponse.SC_OK);
+            assertEquals(response.getHeader("X-Protocol"), "HTTP/1.1");
+        }
+
+        try (JettyHttpClient httpClient = new JettyHttpClient(clientConfig.setHttp2Enabled(true))) {
+            StatusResponse response = httpClient.execute(prepareGet().setUri(URI.create("http://localhost/")).build(), createStatusResponseHandler());
+
+            assertEquals(response.getStatusCode(), HttpServletResponse.SC_OK);
+            assertEquals(response.getHeader("X-Protocol"), "HTTP/2.0");
+        }
+        server.stop();
+        assertFalse(socket.exists());
+        verify(requestLog, times(2)).log(any());
+    }
+
+    @Test
+    public void testUnixDomainSocketReplacesStaleSocket()
+            throws Exception
+    {
+        File socket = new File(tempDir, "http.sock");
+        try (ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.bind(UnixDomainSocketAddress.of(socket.toPath()));
+        }
+        assertTrue(socket.exists());
+
+        config.setHttpUnixDomainSocketPath(socket.getPath());
+        createAndStartServer();
+
+        HttpClientConfig clientConfig = new HttpClientConfig().setUnixDomainSocketPath(socket.getPath());
+        try (JettyHttpClient httpClient = new JettyHttpClient(clientConfig)) {
+            StatusResponse response = httpClient.execute(prepareGet().setUri(URI.create("http://localhost/")).build(), createStatusResponseHandler());
+
+            assertEquals(response.getStatusCode(), HttpServletResponse.SC_OK);
+        }
+    }
+
+    @Test
+    public void testUnixDomainSocketInUse()
+            throws Exception
+    {
+        File socket = new File(tempDir, "http.sock");
+        try (ServerSocketChannel channel = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            channel.bind(UnixDomainSocketAddress.of(socket.toPath()));
+            config.setHttpUnixDomainSocketPath(socket.getPath());
+            try {
+                createAndStartServer();
+                fail("expected BindException");
+            }
+            catch (BindException e) {
+                assertEquals(e.getMessage(), "Unix domain socket " + socket + " is in use by another process");
+            }
+            assertTrue(socket.exists());
+        }
+    }
+
+    @Test
+    public void testUnixDomainSocketPathNotSocket()
+            throws Exception
+    {
+        File file = new File(tempDir, "http.sock");
+        Files.asCharSink(file, UTF_8).write("data");
+
+        config.setHttpUnixDomainSocketPath(file.getPath());
+        try {
+            createAndStartServer();
+            fail("expected FileAlreadyExistsException");
+        }
+        catch (FileAlreadyExistsException e) {
+            assertEquals(e.getFile(), file.getPath());
+        }
+        assertEquals(Files.asCharSource(file, UTF_8).read(), "data");
+    }
+
+    @Test
+    public void testRouteStats()
+            throws Exception
+    {
+        RouteRequestStats routeStats = new RouteRequestStats();
+        detailedRequestStats = mock(DetailedRequestStats.class);
+        when(detailedRequestStats.requestTimeByCode(anyInt(), anyInt())).thenReturn(new SparseTimeStat());
+        when(detailedRequestStats.routeStats("GET", "/dummy")).thenReturn(routeStats);
+        createServer();
+        lifeCycleManager.start();
+
+        try (JettyHttpClient httpClient = new JettyHttpClient()) {
+            StatusResponse response = httpClient.execute(prepareGet().setUri(httpServerInfo.getHttpUri()).build(), createStatusResponseHandler());
+            assertEquals(response.getStatusCode(), HttpServletResponse.SC_OK);
+        }
+        server.stop();
+        verify(detailedRequestStats).routeStats("GET", "/dummy");
+    }
+
+    @Test
+    public void testAdmissionControl()
+            throws Exception
+    {
+        config.setAdmissionControlEnabled(true)
+                .setAdmissionControlLimit(1)
+                .setAdmissionControlRetryAfter(new Duration(2, SECONDS));
+        CountDownLatch handling = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        createServer(new HttpServlet()
+        {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response)
+                    throws IOException
+            {
+                if (request.getPathInfo().equals("/slow")) {
+                    handling.countDown();
+                    try {
+                        release.await(10, SECONDS);
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException(e);
+                    }
+                }
+                response.setStatus(HttpServletResponse.SC_OK);
+            }
+        });
+        lifeCycleManager.start();
+
+        try (JettyHttpClient httpClient = new JettyHttpClient()) {
+            HttpResponseFuture<StatusResponse> slowResponse = httpClient.executeAsync(prepareGet().setUri(httpServerInfo.getHttpUri().resolve("/slow")).build(), createStatusResponseHandler());
+            assertTrue(handling.await(10, SECONDS));
+
+            StatusResponse response = httpClient.execute(prepareGet().setUri(httpServerInfo.getHttpUri().resolve("/fast")).build(), createStatusResponseHandler());
+            assertEquals(response.getStatusCode(), HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            assertEquals(response.getHeader("Retry-After"), "2");
+
+            response = httpClient.execute(prepareGet().setUri(httpServerInfo.getHttpUri().resolve("/liveness")).build(), createStatusResponseHandler());
+            assertEquals(response.getStatusCode(), HttpServletResponse.SC_OK);
+
+            release.countDown();
+            assertEquals(slowResponse.get(10, SECONDS).getStatusCode(), HttpServletResponse.SC_OK);
+
+            response = httpClient.execute(prepareGet().setUri(httpServerInfo.getHttpUri().resolve("/fast")).build(), createStatusResponseHandler());
+            assertEquals(response.getStatusCode(), HttpServletResponse.SC_OK);
+        }
+        assertEquals(server.getAdmissionControl().getRejectedConcurrencyLimit().getTotalCount(), 1);
+        assertEquals(server.getAdmissionControl().getInFlight(), 0);
+    }
+
+    @Test
+    public void testDrain()
+            throws Exception
+    {
+        config.setStopTimeout(new Duration(10, SECONDS));
+        CountDownLatch handling = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        createServer(new HttpServlet()
+        {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response)
+                    throws IOException
+            {
+                if (request.getPathInfo().equals("/slow")) {
+                    handling.countDown();
+                    try {
+                        release.await(10, SECONDS);
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException(e);
+                    }
+                }
+                response.setStatus(HttpServletResponse.SC_OK);
+            }
+        });
+        lifeCycleManager.start();
+
+        try (JettyHttpClient http1Client = new JettyHttpClient(new HttpClientConfig().setHttp2Enabled(false));
+                JettyHttpClient http2Client = new JettyHttpClient(new HttpClientConfig().setHttp2Enabled(true))) {
+            StatusResponse response = http1Client.execute(prepareGet().setUri(httpServerInfo.getHttpUri().resolve("/fast")).build(), createStatusResponseHandler());
+            assertNull(response.getHeader("Connection"));
+            response = http2Client.execute(prepareGet().setUri(httpServerInfo.getHttpUri().resolve("/fast")).build(), createStatusResponseHandler());
+            assertEquals(response.getStatusCode(), HttpServletResponse.SC_OK);
+            HttpResponseFuture<StatusResponse> slowResponse = http1Client.executeAsync(prepareGet().setUri(httpServerInfo.getHttpUri().resolve("/slow")).build(), createStatusResponseHandler());
+            assertTrue(handling.await(10, SECONDS));
+
+            server.drain();
+            // Idle HTTP/2 connections are sent a GOAWAY
+            long closedConnections = server.getDrain().getClosedConnections().getTotalCount();
+            assertTrue(closedConnections > 0);
+            // The earlier requests can complete on the server after their responses are received
+            long deadline = System.nanoTime() + SECONDS.toNanos(10);
+            while (server.getDrain().getActiveRequests() > 1 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(server.getDrain().getActiveRequests(), 1);
+
+            response = http1Client.execute(prepareGet().setUri(httpServerInfo.getHttpUri().resolve("/fast")).build(), createStatusResponseHandler());
+            assertEquals(response.getStatusCode(), HttpServletResponse.SC_OK);
+            assertEquals(response.getHeader("Connection"), "close");
+            assertEquals(server.getDrain().getClosedConnections().getTotalCount(), closedConnections + 1);
+
+            CompletableFuture<Void> stopped = CompletableFuture.runAsync(() -> {
+                try {
+                    server.stop();
+                }
+                catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            Thread.sleep(500);
+            assertFalse(stopped.isDone(), "server stopped with an active request");
+
+            release.countDown();
+            assertEquals(slowResponse.get(10, SECONDS).getStatusCode(), HttpServletResponse.SC_OK);
+            stopped.get(10, SECONDS);
+        }
+        assertEquals(server.getDrain().getActiveRequests(), 0);
+    }
+
     @Test
     public void testHttps()
             throws Exception
@@ -388,6 +643,54 @@ public class TestHttpServerProvider
         }
     }
 
+    @Test
+    public void testDeflateRequest()
+            throws Exception
+    {
+        createAndStartServer();
+
+        try (JettyHttpClient httpClient = new JettyHttpClient()) {
+            StringResponse response = httpClient.execute(
+                    preparePut()
+                            .setUri(httpServerInfo.getHttpUri())
+                            .setHeader("Content-Encoding", "deflate")
+                            .setBodySource(createStaticBodyGenerator(new byte[]{
+                                    120, -100, 75, -83, 40, 72, 77, 46, 73, 77, 1, 0, 15, 39, 3, 83
+                            }))
+                            .build(),
+                    createStringResponseHandler());
+
+            assertEquals(response.getStatusCode(), HttpServletResponse.SC_OK);
+            assertEquals(response.getBody(), "expected");
+        }
+        assertEquals(server.getRequestDecompression().getDecompressedBytes().getTotalCount(), 8);
+        assertEquals(server.getRequestDecompression().getCompressedBytes().getTotalCount(), 16);
+    }
+
+    @Test
+    public void testCompressedRequestTooLarge()
+            throws Exception
+    {
+        config.setRequestDecompressionMaxSize(new DataSize(7, BYTE));
+        createAndStartServer();
+
+        try (JettyHttpClient httpClient = new JettyHttpClient()) {
+            StatusResponse response = httpClient.execute(
+                    preparePut()
+                            .setUri(httpServerInfo.getHttpUri())
+                            .setHeader("Content-Encoding", "gzip")
+                            .setBodySource(createStaticBodyGenerator(new byte[]{
+                                    31, -117, 8, 0, -123, -120, -97, 83, 0, 3, 75, -83,
+                                    40, 72, 77, 46, 73, 77, 1, 0, -60, -72, 96, 80, 8, 0, 0, 0
+                            }))
+                            .build(),
+                    createStatusResponseHandler());
+
+            assertEquals(response.getStatusCode(), HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+        }
+        assertEquals(server.getRequestDecompression().getRejected().getTotalCount(), 1);
+    }
+
     @Test
     public void testAuth()
             throws Exception
@@ -504,6 +807,49 @@ public class TestHttpServerProvider
         }
     }
 
+    @Test
+    public void testDeadline()
+            throws Exception
+    {
+        createServer();
+        lifeCycleManager.start();
+
+        try (JettyHttpClient client = new JettyHttpClient()) {
+            StatusResponse response = client.execute(prepareGet()
+                    .setUri(httpServerInfo.getHttpUri())
+                    .setHeader("X-Proofpoint-Deadline", "10000")
+                    .build(), createStatusResponseHandler());
+
+            assertEquals(response.getStatusCode(), 200);
+            long remaining = Long.parseLong(response.getHeader("X-Deadline-Remaining"));
+            assertTrue(remaining > 0 && remaining <= 10_000, "remaining " + remaining);
+
+            response = client.execute(prepareGet()
+                    .setUri(httpServerInfo.getHttpUri())
+                    .build(), createStatusResponseHandler());
+            assertNull(response.getHeader("X-Deadline-Remaining"));
+        }
+    }
+
+    @Test
+    public void testExpiredDeadline()
+            throws Exception
+    {
+        createServer();
+        lifeCycleManager.start();
+
+        try (JettyHttpClient client = new JettyHttpClient()) {
+            StatusResponse response = client.execute(prepareGet()
+                    .setUri(httpServerInfo.getHttpUri())
+                    .setHeader("X-Proofpoint-Deadline", "0")
+                    .build(), createStatusResponseHandler());
+
+            assertEquals(response.getStatusCode(), 504);
+            assertEquals(response.getHeader("X-Proofpoint-Retry"), "no");
+            assertNull(response.getHeader("X-Deadline-Remaining"));
+        }
+    }
+
     @Test
     public void testTraceTokenWithProperties()
             throws Exception
@@ -625,7 +971,7 @@ public class TestHttpServerProvider
                 new DummyServlet(),
                 Set.of(),
                 new RequestStats(),
-                new TestingHttpServer.DetailedRequestStats(),
+                detailedRequestStats,
                 new QueryStringFilter(),
                 new ClientAddressExtractor(),
                 lifeCycleManager,
@@ -634,7 +980,7 @@ public class TestHttpServerProvider
             @Override
             protected RequestLog createRequestLog(HttpServerConfig config)
             {
-                requestLog = mock(RequestLog.class);
+                requestLog = mock(RequestLog.class, CALLS_REAL_METHODS);
                 return requestLog;
             }
         };
@@ -0,0 +1,138 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import com.google.common.collect.ImmutableMap;
+import com.proofpoint.units.Duration;
+import org.eclipse.jetty.http.HttpURI;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.Instant;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestRequestLogPolicy
+{
+    private static final RequestTiming FAST = timing("10ms");
+    private static final RequestTiming SLOW = timing("5s");
+
+    private Request request;
+    private Response response;
+
+    @BeforeMethod
+    public void setup()
+    {
+        request = mock(Request.class);
+        when(request.getHttpURI()).thenReturn(HttpURI.from("http://www.example.com/v1/status?detail=true"));
+        response = mock(Response.class);
+        when(response.getStatus()).thenReturn(200);
+    }
+
+    @Test
+    public void testDefaultLogsEverything()
+    {
+        RequestLogPolicy policy = new RequestLogPolicy(new HttpServerConfig());
+        for (int status : new int[] {101, 200, 302, 404, 503}) {
+            when(response.getStatus()).thenReturn(status);
+            assertTrue(policy.shouldLog(request, response, FAST));
+        }
+        assertEquals(policy.getLogged().getTotalCount(), 5);
+        assertEquals(policy.getSkipped().getTotalCount(), 0);
+    }
+
+    @Test
+    public void testSampleRateByFamily()
+    {
+        RequestLogPolicy policy = new RequestLogPolicy(new HttpServerConfig()
+                .setLogSampleRates(ImmutableMap.of("2xx", 0.0, "4xx", 0.5)));
+
+        assertFalse(policy.shouldLog(request, response, FAST));
+
+        when(response.getStatus()).thenReturn(302);
+        assertTrue(policy.shouldLog(request, response, FAST));
+
+        when(response.getStatus()).thenReturn(404);
+        int logged = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (policy.shouldLog(request, response, FAST)) {
+                ++logged;
+            }
+        }
+        assertTrue(logged > 350 && logged < 650, "logged " + logged + " of 1000");
+
+        assertEquals(policy.getLogged().getTotalCount(), 1 + logged);
+        assertEquals(policy.getSkipped().getTotalCount(), 1 + 1000 - logged);
+    }
+
+    @Test
+    public void testAlwaysLogErrors()
+    {
+        RequestLogPolicy policy = new RequestLogPolicy(new HttpServerConfig()
+                .setLogSampleRates(ImmutableMap.of("5xx", 0.0))
+                .setLogPathRateLimits(ImmutableMap.of("/v1/status", 0.001)));
+
+        when(response.getStatus()).thenReturn(503);
+        assertTrue(policy.shouldLog(request, response, FAST));
+        assertTrue(policy.shouldLog(request, response, FAST));
+
+        policy = new RequestLogPolicy(new HttpServerConfig()
+                .setLogSampleRates(ImmutableMap.of("5xx", 0.0))
+                .setLogAlwaysLogErrors(false));
+        assertFalse(policy.shouldLog(request, response, FAST));
+    }
+
+    @Test
+    public void testSlowThreshold()
+    {
+        RequestLogPolicy policy = new RequestLogPolicy(new HttpServerConfig()
+                .setLogSampleRates(ImmutableMap.of("2xx", 0.0))
+                .setLogSlowThreshold(new Duration(1, SECONDS)));
+
+        assertFalse(policy.shouldLog(request, response, FAST));
+        assertTrue(policy.shouldLog(request, response, SLOW));
+        assertTrue(policy.shouldLog(request, response, timing("1s")));
+    }
+
+    @Test
+    public void testPathRateLimit()
+    {
+        RequestLogPolicy policy = new RequestLogPolicy(new HttpServerConfig()
+                .setLogPathRateLimits(ImmutableMap.of("/v1/status", 0.001)));
+
+        assertTrue(policy.shouldLog(request, response, FAST));
+        assertFalse(policy.shouldLog(request, response, FAST));
+        assertFalse(policy.shouldLog(request, response, FAST));
+
+        when(request.getHttpURI()).thenReturn(HttpURI.from("http://www.example.com/v1/other"));
+        assertTrue(policy.shouldLog(request, response, FAST));
+        assertTrue(policy.shouldLog(request, response, FAST));
+
+        assertEquals(policy.getLogged().getTotalCount(), 3);
+        assertEquals(policy.getSkipped().getTotalCount(), 2);
+    }
+
+    private static RequestTiming timing(String timeToCompletion)
+    {
+        Duration zero = new Duration(0, SECONDS);
+        return new RequestTiming(Instant.now(), zero, zero, zero, Duration.valueOf(timeToCompletion), null);
+    }
+}
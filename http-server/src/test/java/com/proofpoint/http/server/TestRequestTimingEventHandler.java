@@ -53,6 +53,7 @@ public class TestRequestTimingEventHandler
             assertEquals(timings.dispatchToHandling(), Duration.valueOf("10.00ns"));
             assertEquals(timings.dispatchToRequestEnd(), Duration.valueOf("60.00ns"));
             assertEquals(timings.firstToLastResponseContent(), Duration.valueOf("50.00ns"));
+            assertEquals(timings.timeToFirstByte(), Duration.valueOf("200.00ns"));
             assertEquals(timings.timeToCompletion(), Duration.valueOf("500.00ns"));
         }
     }
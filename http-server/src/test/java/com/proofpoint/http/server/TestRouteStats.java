@@ -0,0 +1,147 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import com.proofpoint.stats.SparseCounterStat;
+import com.proofpoint.stats.SparseTimeStat;
+import com.proofpoint.units.Duration;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.mockito.MockedStatic;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.proofpoint.http.server.RouteStats.OTHER_ROUTE;
+import static com.proofpoint.http.server.RouteStats.ROUTE_ATTRIBUTE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+
+public class TestRouteStats
+{
+    private static final RequestTiming TIMING = new RequestTiming(
+            Instant.now(),
+            Duration.valueOf("1ms"),
+            Duration.valueOf("2ms"),
+            Duration.valueOf("3ms"),
+            Duration.valueOf("5ms"),
+            null,
+            Duration.valueOf("4ms"));
+
+    private final Map<List<String>, RouteRequestStats> recorded = new HashMap<>();
+    private final DetailedRequestStats detailedRequestStats = new DetailedRequestStats()
+    {
+        @Override
+        public SparseTimeStat requestTimeByCode(int responseCode, int responseCodeFamily)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SparseCounterStat tlsRequest(String protocolVersion, String cipherSuite)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public RouteRequestStats routeStats(String method, String route)
+        {
+            return recorded.computeIfAbsent(List.of(method, route), key -> new RouteRequestStats());
+        }
+    };
+    private MockedStatic<Request> mockedRequest;
+    private MockedStatic<Response> mockedResponse;
+    private Response response;
+
+    @BeforeMethod
+    public void setup()
+    {
+        recorded.clear();
+        mockedRequest = mockStatic(Request.class);
+        mockedResponse = mockStatic(Response.class);
+        response = mock(Response.class);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void teardown()
+    {
+        mockedResponse.close();
+        mockedRequest.close();
+    }
+
+    @Test
+    public void testRecordsByMethodAndRoute()
+    {
+        RouteStats routeStats = new RouteStats(detailedRequestStats, 10);
+
+        routeStats.record(request("GET", "/v1/thing/{id}"), response, TIMING);
+        routeStats.record(request("PUT", "/v1/thing/{id}"), response, TIMING);
+        routeStats.record(request("GET", "/v1/thing/{id}"), response, TIMING);
+
+        assertThat(recorded).containsOnlyKeys(List.of("GET", "/v1/thing/{id}"), List.of("PUT", "/v1/thing/{id}"));
+    }
+
+    @Test
+    public void testNoRoute()
+    {
+        RouteStats routeStats = new RouteStats(detailedRequestStats, 10);
+
+        routeStats.record(request("GET", null), response, TIMING);
+
+        assertThat(recorded).isEmpty();
+    }
+
+    @Test
+    public void testMaxRoutes()
+    {
+        RouteStats routeStats = new RouteStats(detailedRequestStats, 2);
+
+        routeStats.record(request("GET", "/a"), response, TIMING);
+        routeStats.record(request("GET", "/b"), response, TIMING);
+        routeStats.record(request("GET", "/c"), response, TIMING);
+        routeStats.record(request("POST", "/a"), response, TIMING);
+        routeStats.record(request("GET", "/d"), response, TIMING);
+
+        assertThat(recorded).containsOnlyKeys(
+                List.of("GET", "/a"),
+                List.of("GET", "/b"),
+                List.of("GET", OTHER_ROUTE),
+                List.of("POST", "/a"));
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        RouteStats routeStats = new RouteStats(detailedRequestStats, 0);
+
+        routeStats.record(request("GET", "/a"), response, TIMING);
+
+        assertThat(recorded).isEmpty();
+    }
+
+    private static Request request(String method, String route)
+    {
+        Request request = mock(Request.class);
+        when(request.getMethod()).thenReturn(method);
+        when(request.getAttribute(ROUTE_ATTRIBUTE)).thenReturn(route);
+        return request;
+    }
+}
@@ -99,6 +99,7 @@ public class JaxrsModule
             jaxrsBinder(binder).bind(OverrideMethodFilter.class);
         }
         jaxrsBinder(binder).bind(TimingResourceDynamicFeature.class);
+        jaxrsBinder(binder).bind(RouteFilter.class);
         if (!enableOptions) {
             jaxrsBinder(binder).bind(DisallowOptionsModelProcessor.class);
         }
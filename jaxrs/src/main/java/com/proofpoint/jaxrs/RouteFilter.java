@@ -0,0 +1,66 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.jaxrs;
+
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.ext.Provider;
+import org.glassfish.jersey.server.ExtendedUriInfo;
+import org.glassfish.jersey.uri.UriTemplate;
+
+import java.util.List;
+
+import static com.proofpoint.http.server.RouteStats.ROUTE_ATTRIBUTE;
+
+/**
+ * Sets the route of each request, for per-route request stats, to the
+ * template of the resource method that matched it.
+ */
+@Provider
+@Priority(100)
+class RouteFilter
+        implements ContainerRequestFilter
+{
+    @Override
+    public void filter(ContainerRequestContext request)
+    {
+        if (request.getUriInfo() instanceof ExtendedUriInfo uriInfo && uriInfo.getMatchedResourceMethod() != null) {
+            request.setProperty(ROUTE_ATTRIBUTE, routeTemplate(uriInfo.getMatchedTemplates()));
+        }
+    }
+
+    private static String routeTemplate(List<UriTemplate> matchedTemplates)
+    {
+        // Matched templates are ordered from the resource method back to the root resource
+        StringBuilder builder = new StringBuilder();
+        for (int i = matchedTemplates.size() - 1; i >= 0; i--) {
+            String template = matchedTemplates.get(i).getTemplate();
+            if (template.isEmpty() || "/".equals(template)) {
+                continue;
+            }
+            if (template.charAt(0) != '/') {
+                builder.append('/');
+            }
+            builder.append(template);
+            if (builder.charAt(builder.length() - 1) == '/') {
+                builder.setLength(builder.length() - 1);
+            }
+        }
+        if (builder.isEmpty()) {
+            return "/";
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.jaxrs;
+
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.inject.Injector;
+import com.proofpoint.bootstrap.LifeCycleManager;
+import com.proofpoint.http.client.HttpClient;
+import com.proofpoint.http.client.jetty.JettyHttpClient;
+import com.proofpoint.http.server.TheServlet;
+import com.proofpoint.http.server.testing.TestingHttpServer;
+import com.proofpoint.http.server.testing.TestingHttpServerModule;
+import com.proofpoint.json.JsonModule;
+import com.proofpoint.node.testing.TestingNodeModule;
+import com.proofpoint.reporting.testing.TestingReportingModule;
+import com.proofpoint.testing.Closeables;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.weakref.jmx.testing.TestingMBeanModule;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static com.google.inject.multibindings.Multibinder.newSetBinder;
+import static com.proofpoint.bootstrap.Bootstrap.bootstrapTest;
+import static com.proofpoint.http.client.Request.Builder.prepareGet;
+import static com.proofpoint.http.client.StatusResponseHandler.createStatusResponseHandler;
+import static com.proofpoint.http.server.RouteStats.ROUTE_ATTRIBUTE;
+import static com.proofpoint.jaxrs.JaxrsBinder.jaxrsBinder;
+import static com.proofpoint.jaxrs.JaxrsModule.explicitJaxrsModule;
+import static org.testng.Assert.assertEquals;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertNull;
+
+public class TestRouteFilter
+{
+    private final HttpClient client = new JettyHttpClient();
+    private SettableFuture<Object> route;
+
+    private LifeCycleManager lifeCycleManager;
+    private TestingHttpServer server;
+
+    @BeforeMethod
+    public void setup()
+            throws Exception
+    {
+        route = SettableFuture.create();
+        Injector injector = bootstrapTest()
+                .withModules(
+                        new TestingNodeModule(),
+                        new TestingHttpServerModule(),
+                        new JsonModule(),
+                        explicitJaxrsModule(),
+                        new TestingReportingModule(),
+                        new TestingMBeanModule(),
+                        binder -> {
+                            jaxrsBinder(binder).bind(RouteResource.class);
+                            newSetBinder(binder, Filter.class, TheServlet.class).addBinding().toInstance(new RouteCapturingFilter());
+                        }
+                )
+                .initialize();
+
+        lifeCycleManager = injector.getInstance(LifeCycleManager.class);
+        server = injector.getInstance(TestingHttpServer.class);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void teardown()
+            throws Exception
+    {
+        if (lifeCycleManager != null) {
+            lifeCycleManager.stop();
+        }
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void teardownClass()
+    {
+        Closeables.closeQuietly(client);
+    }
+
+    @Test
+    public void testResourceRoute()
+            throws Exception
+    {
+        get("/v1/route");
+        assertEquals(getRoute(), "/v1/route");
+    }
+
+    @Test
+    public void testSubResourceRoute()
+            throws Exception
+    {
+        get("/v1/route/123");
+        assertEquals(getRoute(), "/v1/route/{id}");
+    }
+
+    @Test
+    public void testNestedSubResourceRoute()
+            throws Exception
+    {
+        get("/v1/route/123/detail/abc");
+        assertEquals(getRoute(), "/v1/route/{id}/detail/{name}");
+    }
+
+    @Test
+    public void testNoRouteWhenNotMatched()
+            throws Exception
+    {
+        get("/v1/unknown");
+        assertNull(getRoute());
+    }
+
+    private Object getRoute()
+            throws ExecutionException, InterruptedException, TimeoutException
+    {
+        return route.get(10, SECONDS);
+    }
+
+    private void get(String path)
+    {
+        client.execute(prepareGet().setUri(server.getBaseUrl().resolve(path)).build(), createStatusResponseHandler());
+    }
+
+    @Path("/v1/route")
+    public static class RouteResource
+    {
+        @GET
+        public String get()
+        {
+            return "root";
+        }
+
+        @GET
+        @Path("{id}")
+        public String getById(@PathParam("id") String id)
+        {
+            return id;
+        }
+
+        @GET
+        @Path("{id}/detail/{name}")
+        public String getDetail(@PathParam("id") String id, @PathParam("name") String name)
+        {
+            return name;
+        }
+    }
+
+    private class RouteCapturingFilter
+            implements Filter
+    {
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+                throws IOException, ServletException
+        {
+            chain.doFilter(request, response);
+            route.set(request.getAttribute(ROUTE_ATTRIBUTE));
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.jaxrs.benchmark;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.inject.Injector;
+import com.proofpoint.bootstrap.LifeCycleManager;
+import com.proofpoint.http.client.HttpClientConfig;
+import com.proofpoint.http.client.Request;
+import com.proofpoint.http.client.StatusResponseHandler.StatusResponse;
+import com.proofpoint.http.client.jetty.JettyHttpClient;
+import com.proofpoint.http.server.HttpServerInfo;
+import com.proofpoint.http.server.HttpServerModule;
+import com.proofpoint.jaxrs.benchmark.GcMonitor.CollectorSummary;
+import com.proofpoint.jaxrs.benchmark.OpenLoopLoadGenerator.Result;
+import com.proofpoint.json.JsonCodec;
+import com.proofpoint.json.JsonModule;
+import com.proofpoint.node.testing.TestingNodeModule;
+import com.proofpoint.reporting.ReportingModule;
+import org.eclipse.jetty.util.VirtualThreads;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static com.google.common.util.concurrent.Futures.transform;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static com.proofpoint.bootstrap.Bootstrap.bootstrapTest;
+import static com.proofpoint.http.client.JsonBodyGenerator.jsonBodyGenerator;
+import static com.proofpoint.http.client.JsonResponseHandler.createJsonResponseHandler;
+import static com.proofpoint.http.client.Request.Builder.prepareGet;
+import static com.proofpoint.http.client.Request.Builder.preparePut;
+import static com.proofpoint.http.client.StatusResponseHandler.createStatusResponseHandler;
+import static com.proofpoint.jaxrs.JaxrsBinder.jaxrsBinder;
+import static com.proofpoint.jaxrs.JaxrsModule.explicitJaxrsModule;
+import static com.proofpoint.json.JsonCodec.jsonCodec;
+import static java.lang.Integer.parseInt;
+import static java.lang.String.format;
+
+/**
+ * Throughput, latency, allocation and garbage collection of an HTTP server
+ * serving a JSON resource through JAX-RS, for each combination of platform
+ * or virtual worker threads, HTTP/1.1 or h2c, and request logging off or
+ * on. Load comes from an open-loop generator at a fixed rate, so latency
+ * percentiles include time requests spent waiting behind slow ones.
+ * Nine in ten requests GET a person and the rest PUT one. Client and
+ * server share the JVM, so allocation and collections include both.
+ * Virtual threads require Java 21.
+ * <p>
+ * Usage: {@code BenchmarkHttpServer [requests-per-second] [seconds]}
+ */
+public final class BenchmarkHttpServer
+{
+    private static final int DEFAULT_REQUESTS_PER_SECOND = 5_000;
+    private static final int DEFAULT_SECONDS = 20;
+    private static final Duration WARMUP = Duration.ofSeconds(10);
+    private static final int MAX_OUTSTANDING = 1_000;
+    private static final int PEOPLE = 100;
+    private static final int PUT_EVERY = 10;
+    private static final JsonCodec<Person> PERSON_CODEC = jsonCodec(Person.class);
+
+    private BenchmarkHttpServer()
+    {
+    }
+
+    public static void main(String[] args)
+            throws Exception
+    {
+        int requestsPerSecond = args.length > 0 ? parseInt(args[0]) : DEFAULT_REQUESTS_PER_SECOND;
+        Duration duration = Duration.ofSeconds(args.length > 1 ? parseInt(args[1]) : DEFAULT_SECONDS);
+
+        ImmutableList.Builder<Scenario> scenarios = ImmutableList.builder();
+        for (boolean virtualThreads : List.of(false, true)) {
+            if (virtualThreads && !VirtualThreads.areSupported()) {
+                System.out.println("Skipping virtual threads, which require Java 21");
+                continue;
+            }
+            for (boolean http2 : List.of(false, true)) {
+                for (boolean requestLog : List.of(false, true)) {
+                    scenarios.add(new Scenario(virtualThreads, http2, requestLog));
+                }
+            }
+        }
+
+        System.out.printf("%d requests/s for %s after %s warmup, at most %d outstanding%n",
+                requestsPerSecond, duration, WARMUP, MAX_OUTSTANDING);
+        System.out.printf("%-28s %10s %9s %9s %9s %9s %7s %11s %5s %9s %9s%n",
+                "scenario", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "errors", "alloc MB/s", "gcs", "gc ms", "gc max");
+
+        Path logDirectory = Files.createTempDirectory("benchmark-http-server");
+        OpenLoopLoadGenerator generator = new OpenLoopLoadGenerator(requestsPerSecond, MAX_OUTSTANDING);
+        try (GcMonitor gcMonitor = new GcMonitor()) {
+            for (Scenario scenario : scenarios.build()) {
+                run(scenario, generator, duration, gcMonitor, logDirectory);
+            }
+        }
+        finally {
+            deleteRecursively(logDirectory, ALLOW_INSECURE);
+        }
+    }
+
+    private static void run(Scenario scenario, OpenLoopLoadGenerator generator, Duration duration, GcMonitor gcMonitor, Path logDirectory)
+            throws Exception
+    {
+        HttpServerModule httpServerModule = new HttpServerModule();
+        if (scenario.virtualThreads()) {
+            httpServerModule.enableVirtualThreads();
+        }
+        Injector injector = bootstrapTest()
+                .withModules(
+                        new TestingNodeModule(),
+                        httpServerModule,
+                        explicitJaxrsModule(),
+                        new JsonModule(),
+                        new ReportingModule(),
+                        binder -> binder.bind(MBeanServer.class).toInstance(MBeanServerFactory.newMBeanServer()),
+                        binder -> jaxrsBinder(binder).bindInstance(new PersonResource()))
+                .setRequiredConfigurationProperties(Map.of(
+                        "http-server.http.port", "0",
+                        "http-server.admin.enabled", "false",
+                        "http-server.log.enabled", String.valueOf(scenario.requestLog()),
+                        "http-server.log.path", logDirectory.resolve(scenario + ".log").toString()))
+                .initialize();
+        LifeCycleManager lifeCycleManager = injector.getInstance(LifeCycleManager.class);
+
+        HttpClientConfig clientConfig = new HttpClientConfig()
+                .setHttp2Enabled(scenario.http2())
+                .setMaxConnectionsPerServer(MAX_OUTSTANDING)
+                .setMaxRequestsQueuedPerDestination(MAX_OUTSTANDING);
+        try (JettyHttpClient client = new JettyHttpClient(clientConfig)) {
+            URI baseUri = injector.getInstance(HttpServerInfo.class).getHttpUri();
+            List<Request> gets = getRequests(baseUri);
+            List<Request> puts = putRequests(baseUri);
+            for (Request put : puts) {
+                client.execute(put, createStatusResponseHandler());
+            }
+
+            generator.run(index -> send(client, gets, puts, index), WARMUP);
+            gcMonitor.reset();
+            Result result = generator.run(index -> send(client, gets, puts, index), duration);
+            report(scenario, result, gcMonitor);
+        }
+        finally {
+            lifeCycleManager.stop();
+        }
+    }
+
+    private static ListenableFuture<?> send(JettyHttpClient client, List<Request> gets, List<Request> puts, long index)
+    {
+        int person = (int) (index % PEOPLE);
+        if (index % PUT_EVERY == 0) {
+            return transform(client.executeAsync(puts.get(person), createStatusResponseHandler()), BenchmarkHttpServer::checkNoContent, directExecutor());
+        }
+        return client.executeAsync(gets.get(person), createJsonResponseHandler(PERSON_CODEC));
+    }
+
+    private static StatusResponse checkNoContent(StatusResponse response)
+    {
+        checkState(response.getStatusCode() == 204, "Unexpected status %s", response.getStatusCode());
+        return response;
+    }
+
+    private static List<Request> getRequests(URI baseUri)
+    {
+        ImmutableList.Builder<Request> requests = ImmutableList.builder();
+        for (int i = 0; i < PEOPLE; i++) {
+            requests.add(prepareGet().setUri(personUri(baseUri, i)).build());
+        }
+        return requests.build();
+    }
+
+    private static List<Request> putRequests(URI baseUri)
+    {
+        ImmutableList.Builder<Request> requests = ImmutableList.builder();
+        for (int i = 0; i < PEOPLE; i++) {
+            Person person = new Person(format("person%d@example.com", i), "Person " + i);
+            requests.add(preparePut()
+                    .setUri(personUri(baseUri, i))
+                    .setHeader("Content-Type", "application/json")
+                    .setBodySource(jsonBodyGenerator(PERSON_CODEC, person))
+                    .build());
+        }
+        return requests.build();
+    }
+
+    private static URI personUri(URI baseUri, int index)
+    {
+        return baseUri.resolve("/v1/person/person" + index);
+    }
+
+    private static void report(Scenario scenario, Result result, GcMonitor gcMonitor)
+    {
+        double seconds = result.elapsed().toNanos() / 1e9;
+        LatencyHistogram latencies = result.latencies();
+        Map<String, CollectorSummary> collections = gcMonitor.getCollections();
+        long gcCount = 0;
+        long gcMillis = 0;
+        long gcMaxMillis = 0;
+        for (CollectorSummary collector : collections.values()) {
+            gcCount += collector.count();
+            gcMillis += collector.totalMillis();
+            gcMaxMillis = Math.max(gcMaxMillis, collector.maxMillis());
+        }
+
+        System.out.printf("%-28s %10.0f %9.2f %9.2f %9.2f %9.2f %7d %11.1f %5d %9d %9d%n",
+                scenario,
+                result.getRequestsPerSecond(),
+                latencies.getValueAtQuantile(0.5) / 1e6,
+                latencies.getValueAtQuantile(0.99) / 1e6,
+                latencies.getValueAtQuantile(0.999) / 1e6,
+                latencies.getMax() / 1e6,
+                result.failed(),
+                gcMonitor.getAllocatedBytes() / seconds / (1 << 20),
+                gcCount,
+                gcMillis,
+                gcMaxMillis);
+    }
+
+    private record Scenario(boolean virtualThreads, boolean http2, boolean requestLog)
+    {
+        @Override
+        public String toString()
+        {
+            return format("%s-%s-%s",
+                    virtualThreads ? "virtual" : "platform",
+                    http2 ? "h2c" : "http1.1",
+                    requestLog ? "log" : "nolog");
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.jaxrs.benchmark;
+
+import com.google.common.collect.ImmutableMap;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.sun.management.GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION;
+
+/**
+ * Tracks heap allocation and garbage collection from the notifications
+ * collectors send at the end of each collection. Allocation is estimated
+ * as the growth of the young generation between collections, so it
+ * excludes objects allocated directly in the old generation.
+ */
+final class GcMonitor
+        implements NotificationListener, AutoCloseable
+{
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final List<MemoryPoolMXBean> allocationPools;
+    private final Set<String> allocationPoolNames;
+
+    private long allocatedBytes;
+    private long usedAfterLastCollection;
+    private final Map<String, CollectorSummary> collections = new TreeMap<>();
+
+    GcMonitor()
+    {
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        List<MemoryPoolMXBean> edenPools = heapPools.stream()
+                .filter(pool -> pool.getName().endsWith("Eden Space"))
+                .toList();
+        allocationPools = edenPools.isEmpty() ? heapPools : edenPools;
+        allocationPoolNames = allocationPools.stream()
+                .map(MemoryPoolMXBean::getName)
+                .collect(toImmutableSet());
+
+        usedAfterLastCollection = currentlyUsed();
+        for (GarbageCollectorMXBean collector : collectors) {
+            ((NotificationEmitter) collector).addNotificationListener(this, null, null);
+        }
+    }
+
+    @Override
+    public synchronized void handleNotification(Notification notification, Object handback)
+    {
+        if (!notification.getType().equals(GARBAGE_COLLECTION_NOTIFICATION)) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        GcInfo gcInfo = info.getGcInfo();
+
+        allocatedBytes += Math.max(0, used(gcInfo.getMemoryUsageBeforeGc()) - usedAfterLastCollection);
+        usedAfterLastCollection = used(gcInfo.getMemoryUsageAfterGc());
+        collections.merge(info.getGcName(), new CollectorSummary(1, gcInfo.getDuration(), gcInfo.getDuration()), CollectorSummary::add);
+    }
+
+    /**
+     * Starts a new measurement period.
+     */
+    synchronized void reset()
+    {
+        allocatedBytes = -Math.max(0, currentlyUsed() - usedAfterLastCollection);
+        collections.clear();
+    }
+
+    /**
+     * Returns the bytes allocated since the last {@link #reset()}.
+     */
+    synchronized long getAllocatedBytes()
+    {
+        return allocatedBytes + Math.max(0, currentlyUsed() - usedAfterLastCollection);
+    }
+
+    /**
+     * Returns the collections since the last {@link #reset()}, by collector name.
+     */
+    synchronized Map<String, CollectorSummary> getCollections()
+    {
+        return ImmutableMap.copyOf(collections);
+    }
+
+    @Override
+    public void close()
+    {
+        for (GarbageCollectorMXBean collector : collectors) {
+            try {
+                ((NotificationEmitter) collector).removeNotificationListener(this);
+            }
+            catch (ListenerNotFoundException ignored) {
+            }
+        }
+    }
+
+    private long currentlyUsed()
+    {
+        long used = 0;
+        for (MemoryPoolMXBean pool : allocationPools) {
+            used += pool.getUsage().getUsed();
+        }
+        return used;
+    }
+
+    private long used(Map<String, MemoryUsage> usageByPool)
+    {
+        long used = 0;
+        for (String name : allocationPoolNames) {
+            MemoryUsage usage = usageByPool.get(name);
+            if (usage != null) {
+                used += usage.getUsed();
+            }
+        }
+        return used;
+    }
+
+    record CollectorSummary(long count, long totalMillis, long maxMillis)
+    {
+        CollectorSummary add(CollectorSummary other)
+        {
+            return new CollectorSummary(count + other.count, totalMillis + other.totalMillis, Math.max(maxMillis, other.maxMillis));
+        }
+    }
+}
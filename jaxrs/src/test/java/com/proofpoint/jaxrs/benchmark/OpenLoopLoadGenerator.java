@@ -0,0 +1,109 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.jaxrs.benchmark;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.util.concurrent.Futures.getDone;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Issues requests at a fixed rate, whether or not earlier ones have
+ * completed. Each latency is measured from when the request was scheduled
+ * to be sent rather than from when it was sent, so a server that stalls is
+ * charged for the requests queued behind the stall instead of those
+ * requests being silently delayed (coordinated omission).
+ */
+final class OpenLoopLoadGenerator
+{
+    private final int requestsPerSecond;
+    private final int maxOutstanding;
+
+    OpenLoopLoadGenerator(int requestsPerSecond, int maxOutstanding)
+    {
+        checkArgument(requestsPerSecond > 0, "requestsPerSecond must be positive");
+        checkArgument(maxOutstanding > 0, "maxOutstanding must be positive");
+        this.requestsPerSecond = requestsPerSecond;
+        this.maxOutstanding = maxOutstanding;
+    }
+
+    /**
+     * Runs for the given duration, calling {@code sender} with the sequence
+     * number of each request to send. Requests beyond {@code maxOutstanding}
+     * wait for a slot, with the wait counted in their latency.
+     */
+    Result run(LongFunction<? extends ListenableFuture<?>> sender, Duration duration)
+    {
+        requireNonNull(sender, "sender is null");
+        long intervalNanos = SECONDS.toNanos(1) / requestsPerSecond;
+        long requests = duration.toNanos() / intervalNanos;
+        LatencyHistogram latencies = new LatencyHistogram();
+        LongAdder failed = new LongAdder();
+        Semaphore outstanding = new Semaphore(maxOutstanding);
+
+        long start = System.nanoTime();
+        for (long i = 0; i < requests; i++) {
+            long intendedStart = start + i * intervalNanos;
+            long delay = intendedStart - System.nanoTime();
+            while (delay > 0) {
+                LockSupport.parkNanos(delay);
+                delay = intendedStart - System.nanoTime();
+            }
+
+            outstanding.acquireUninterruptibly();
+            ListenableFuture<?> future;
+            try {
+                future = sender.apply(i);
+            }
+            catch (RuntimeException e) {
+                outstanding.release();
+                throw e;
+            }
+            future.addListener(() -> {
+                latencies.record(System.nanoTime() - intendedStart);
+                try {
+                    getDone(future);
+                }
+                catch (ExecutionException | CancellationException e) {
+                    failed.increment();
+                }
+                outstanding.release();
+            }, directExecutor());
+        }
+        outstanding.acquireUninterruptibly(maxOutstanding);
+        long elapsedNanos = System.nanoTime() - start;
+        outstanding.release(maxOutstanding);
+
+        return new Result(requests, failed.sum(), Duration.ofNanos(elapsedNanos), latencies);
+    }
+
+    record Result(long requests, long failed, Duration elapsed, LatencyHistogram latencies)
+    {
+        double getRequestsPerSecond()
+        {
+            return requests / (elapsed.toNanos() / (double) SECONDS.toNanos(1));
+        }
+    }
+}
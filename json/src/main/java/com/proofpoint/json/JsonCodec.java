@@ -23,6 +23,7 @@ import com.google.common.reflect.TypeToken;
 import com.proofpoint.json.LengthLimitedWriter.LengthLimitExceededException;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringWriter;
 import java.lang.reflect.Type;
 import java.util.List;
@@ -30,6 +31,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.function.Supplier;
 
+import static com.fasterxml.jackson.core.JsonGenerator.Feature.AUTO_CLOSE_TARGET;
 import static com.fasterxml.jackson.databind.SerializationFeature.INDENT_OUTPUT;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
@@ -220,6 +222,22 @@ public class JsonCodec<T>
         }
     }
 
+    /**
+     * Writes the specified instance as json (UTF-8) to the specified stream,
+     * without buffering the entire output. The stream is not closed.
+     *
+     * @param instance the instance to convert to json
+     * @param out the stream to write to
+     * @throws IOException if the instance can not be converted to json or the stream can not be written
+     */
+    public void writeJson(T instance, OutputStream out)
+            throws IOException
+    {
+        mapper.writer()
+                .without(AUTO_CLOSE_TARGET)
+                .writeValue(out, instance);
+    }
+
     @SuppressWarnings("unchecked")
     TypeToken<T> getTypeToken()
     {
@@ -19,11 +19,14 @@ import com.google.common.base.Strings;
 import com.google.common.reflect.TypeToken;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.proofpoint.json.JsonCodec.jsonCodec;
 import static com.proofpoint.json.JsonCodec.listJsonCodec;
@@ -204,6 +207,28 @@ public class TestJsonCodec
         assertContains(json, "\n");
     }
 
+    @Test
+    public void testWriteJson()
+            throws IOException
+    {
+        JsonCodec<Person> jsonCodec = jsonCodec(Person.class);
+        Person person = new Person().setName("dain").setRocks(true);
+        AtomicBoolean closed = new AtomicBoolean();
+        ByteArrayOutputStream out = new ByteArrayOutputStream()
+        {
+            @Override
+            public void close()
+            {
+                closed.set(true);
+            }
+        };
+
+        jsonCodec.writeJson(person, out);
+
+        assertEquals(out.toByteArray(), jsonCodec.toJsonBytes(person));
+        assertFalse(closed.get(), "stream closed");
+    }
+
     @Test
     public void testToJsonWithLengthLimitSimple()
     {
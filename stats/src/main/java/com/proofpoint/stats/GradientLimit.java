@@ -0,0 +1,100 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.stats;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.sqrt;
+
+/**
+ * Concurrency limit adapted to latency using a gradient algorithm.
+ * <p>
+ * The limit grows while latency stays close to the long-term latency and
+ * shrinks when latency rises, indicating queueing. Callers are expected to
+ * synchronize access.
+ */
+@NotThreadSafe
+public class GradientLimit
+{
+    private static final double SMOOTHING = 0.2;
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double LONG_RTT_WINDOW = 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private double limit;
+    private double longRttNanos = 0;
+
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit)
+    {
+        checkArgument(minLimit <= initialLimit && initialLimit <= maxLimit, "initial limit must be between min and max");
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        limit = initialLimit;
+    }
+
+    public int getLimit()
+    {
+        return (int) limit;
+    }
+
+    /**
+     * Update the limit from the latency of a completed request.
+     *
+     * @param rttNanos the latency of the request
+     * @param inFlight the number of requests in flight when the request started,
+     * including itself
+     */
+    public void sample(long rttNanos, int inFlight)
+    {
+        double rtt = max(1, rttNanos);
+        if (longRttNanos == 0) {
+            longRttNanos = rtt;
+        }
+        else {
+            longRttNanos += (rtt - longRttNanos) / LONG_RTT_WINDOW;
+        }
+
+        // Let the long-term latency recover quickly after a period of queueing
+        if (longRttNanos / rtt > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        // Don't grow the limit when it isn't what is limiting the request rate
+        if (inFlight < limit / 2) {
+            return;
+        }
+
+        double gradient = max(0.5, min(1.0, RTT_TOLERANCE * longRttNanos / rtt));
+        double newLimit = limit * gradient + sqrt(limit);
+        updateLimit(limit * (1 - SMOOTHING) + newLimit * SMOOTHING);
+    }
+
+    /**
+     * Reduce the limit after a request failed or was rejected.
+     */
+    public void backOff()
+    {
+        updateLimit(limit * BACKOFF_RATIO);
+    }
+
+    private void updateLimit(double newLimit)
+    {
+        limit = max(minLimit, min(maxLimit, newLimit));
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.stats;
+
+import org.testng.annotations.Test;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestGradientLimit
+{
+    @Test
+    public void testGrowsWhileLatencyIsSteady()
+    {
+        GradientLimit limit = new GradientLimit(4, 2, 10);
+        for (int i = 0; i < 100; i++) {
+            limit.sample(MILLISECONDS.toNanos(10), limit.getLimit());
+        }
+        assertEquals(limit.getLimit(), 10);
+    }
+
+    @Test
+    public void testDoesNotGrowWhenNotLimiting()
+    {
+        GradientLimit limit = new GradientLimit(4, 2, 10);
+        for (int i = 0; i < 100; i++) {
+            limit.sample(MILLISECONDS.toNanos(10), 1);
+        }
+        assertEquals(limit.getLimit(), 4);
+    }
+
+    @Test
+    public void testShrinksWhenLatencyRises()
+    {
+        GradientLimit limit = new GradientLimit(10, 2, 10);
+        for (int i = 0; i < 100; i++) {
+            limit.sample(MILLISECONDS.toNanos(10), limit.getLimit());
+        }
+        for (int i = 0; i < 10; i++) {
+            limit.sample(MILLISECONDS.toNanos(100), limit.getLimit());
+        }
+        assertTrue(limit.getLimit() < 10, "limit " + limit.getLimit());
+    }
+
+    @Test
+    public void testBackOff()
+    {
+        GradientLimit limit = new GradientLimit(10, 2, 10);
+        limit.backOff();
+        assertEquals(limit.getLimit(), 9);
+        for (int i = 0; i < 100; i++) {
+            limit.backOff();
+        }
+        assertEquals(limit.getLimit(), 2);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "initial limit must be between min and max")
+    public void testInitialLimitOutOfRange()
+    {
+        new GradientLimit(1, 2, 10);
+    }
+}
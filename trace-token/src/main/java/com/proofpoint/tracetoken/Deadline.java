@@ -0,0 +1,125 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.tracetoken;
+
+import jakarta.annotation.Nullable;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.Math.max;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * A point in time by which the caller of a request needs its result.
+ * Deadlines are measured on the {@link System#nanoTime()} clock, so are
+ * only meaningful within a single process.
+ */
+public final class Deadline
+        implements Comparable<Deadline>
+{
+    private final long nanoTime;
+
+    private Deadline(long nanoTime)
+    {
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * @return A deadline the given amount of time from now.
+     */
+    public static Deadline deadlineAfter(long duration, TimeUnit unit)
+    {
+        requireNonNull(unit, "unit is null");
+        return new Deadline(System.nanoTime() + unit.toNanos(duration));
+    }
+
+    /**
+     * @return A deadline at the given value of {@link System#nanoTime()}.
+     */
+    public static Deadline deadlineAtNanoTime(long nanoTime)
+    {
+        return new Deadline(nanoTime);
+    }
+
+    /**
+     * @return The earlier of two deadlines, either of which may be null.
+     */
+    @Nullable
+    public static Deadline earliest(@Nullable Deadline first, @Nullable Deadline second)
+    {
+        if (first == null) {
+            return second;
+        }
+        if (second == null || first.compareTo(second) <= 0) {
+            return first;
+        }
+        return second;
+    }
+
+    /**
+     * @return The value of {@link System#nanoTime()} at which the deadline expires.
+     */
+    public long getNanoTime()
+    {
+        return nanoTime;
+    }
+
+    /**
+     * @return The time remaining until the deadline, or zero if it has expired.
+     */
+    public long getRemaining(TimeUnit unit)
+    {
+        return unit.convert(getRemainingNanos(System.nanoTime()), NANOSECONDS);
+    }
+
+    /**
+     * @param now The current value of {@link System#nanoTime()}.
+     * @return The nanoseconds remaining until the deadline, or zero if it has expired.
+     */
+    public long getRemainingNanos(long now)
+    {
+        return max(0, nanoTime - now);
+    }
+
+    public boolean isExpired()
+    {
+        return nanoTime - System.nanoTime() <= 0;
+    }
+
+    @Override
+    public int compareTo(Deadline other)
+    {
+        return Long.signum(nanoTime - other.nanoTime);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        return obj instanceof Deadline other && nanoTime == other.nanoTime;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Long.hashCode(nanoTime);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Deadline{remaining=" + getRemaining(MILLISECONDS) + "ms}";
+    }
+}
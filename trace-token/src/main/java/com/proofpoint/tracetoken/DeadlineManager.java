@@ -0,0 +1,64 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.tracetoken;
+
+import jakarta.annotation.Nullable;
+
+/**
+ * Utility class for managing the {@link Deadline} associated with a thread
+ * while the thread is handling a request. HTTP clients apply the current
+ * deadline to the requests they send.
+ */
+public final class DeadlineManager
+{
+    private static final ThreadLocal<Deadline> deadline = new ThreadLocal<>();
+
+    private DeadlineManager()
+    {
+    }
+
+    /**
+     * Associate a given deadline with the current thread.
+     *
+     * @param deadline The {@link Deadline} to associate with the current thread, or null to
+     *                 remove the thread's deadline.
+     * @return a {@link DeadlineScope} which may be used to restore the thread's
+     * previous deadline. Intended to be used with try-with-resources:
+     * <code>
+     * try (DeadlineScope ignored = registerDeadline(deadline)) {
+     *     // process request
+     * }
+     * </code>
+     */
+    public static DeadlineScope registerDeadline(@Nullable Deadline deadline)
+    {
+        Deadline oldDeadline = DeadlineManager.deadline.get();
+        if (deadline == null) {
+            DeadlineManager.deadline.remove();
+        }
+        else {
+            DeadlineManager.deadline.set(deadline);
+        }
+        return new DeadlineScope(oldDeadline);
+    }
+
+    /**
+     * @return The current thread's deadline, or null if no deadline.
+     */
+    @Nullable
+    public static Deadline getCurrentDeadline()
+    {
+        return deadline.get();
+    }
+}
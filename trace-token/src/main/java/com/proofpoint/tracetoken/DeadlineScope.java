@@ -0,0 +1,38 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.tracetoken;
+
+import jakarta.annotation.Nullable;
+
+import static com.proofpoint.tracetoken.DeadlineManager.registerDeadline;
+
+/**
+ * An object which, when closed, causes the thread's deadline to be restored.
+ */
+public class DeadlineScope
+        implements AutoCloseable
+{
+    private final Deadline oldDeadline;
+
+    DeadlineScope(@Nullable Deadline oldDeadline)
+    {
+        this.oldDeadline = oldDeadline;
+    }
+
+    @Override
+    public void close()
+    {
+        registerDeadline(oldDeadline);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.tracetoken;
+
+import org.testng.annotations.Test;
+
+import static com.proofpoint.tracetoken.Deadline.deadlineAfter;
+import static com.proofpoint.tracetoken.Deadline.deadlineAtNanoTime;
+import static com.proofpoint.tracetoken.Deadline.earliest;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class TestDeadline
+{
+    @Test
+    public void testRemaining()
+    {
+        Deadline deadline = deadlineAfter(10, SECONDS);
+        assertFalse(deadline.isExpired());
+        long remaining = deadline.getRemaining(MILLISECONDS);
+        assertTrue(remaining > 9_000 && remaining <= 10_000, "remaining " + remaining);
+        assertEquals(deadline.getRemainingNanos(deadline.getNanoTime() - 5), 5);
+    }
+
+    @Test
+    public void testExpired()
+    {
+        Deadline deadline = deadlineAfter(-1, MILLISECONDS);
+        assertTrue(deadline.isExpired());
+        assertEquals(deadline.getRemaining(MILLISECONDS), 0);
+        assertEquals(deadline.getRemainingNanos(deadline.getNanoTime() + 5), 0);
+    }
+
+    @Test
+    public void testEarliest()
+    {
+        // Deadlines compare correctly across nanoTime overflow
+        Deadline first = deadlineAtNanoTime(Long.MAX_VALUE);
+        Deadline second = deadlineAtNanoTime(Long.MAX_VALUE + 1);
+
+        assertEquals(earliest(first, second), first);
+        assertEquals(earliest(second, first), first);
+        assertEquals(earliest(null, second), second);
+        assertEquals(earliest(first, null), first);
+        assertNull(earliest(null, null));
+    }
+}
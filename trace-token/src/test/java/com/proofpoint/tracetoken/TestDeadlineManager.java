@@ -0,0 +1,47 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.tracetoken;
+
+import org.testng.annotations.Test;
+
+import static com.proofpoint.tracetoken.Deadline.deadlineAfter;
+import static com.proofpoint.tracetoken.DeadlineManager.getCurrentDeadline;
+import static com.proofpoint.tracetoken.DeadlineManager.registerDeadline;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class TestDeadlineManager
+{
+    @Test
+    public void testRegisterDeadline()
+    {
+        Deadline outer = deadlineAfter(10, SECONDS);
+        Deadline inner = deadlineAfter(1, SECONDS);
+
+        assertNull(getCurrentDeadline());
+        try (DeadlineScope ignored = registerDeadline(outer)) {
+            assertEquals(getCurrentDeadline(), outer);
+            try (DeadlineScope ignored2 = registerDeadline(inner)) {
+                assertEquals(getCurrentDeadline(), inner);
+            }
+            assertEquals(getCurrentDeadline(), outer);
+            try (DeadlineScope ignored2 = registerDeadline(null)) {
+                assertNull(getCurrentDeadline());
+            }
+            assertEquals(getCurrentDeadline(), outer);
+        }
+        assertNull(getCurrentDeadline());
+    }
+}